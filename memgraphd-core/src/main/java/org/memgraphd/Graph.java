@@ -1,9 +1,12 @@
 package org.memgraphd;
 
 import org.memgraphd.data.GraphData;
+import org.memgraphd.data.index.DataIndexManager;
 import org.memgraphd.data.library.Library;
 import org.memgraphd.operation.GraphFilter;
 import org.memgraphd.operation.GraphReader;
+import org.memgraphd.operation.GraphScanner;
+import org.memgraphd.operation.GraphTraverser;
 import org.memgraphd.operation.GraphWriter;
 /**
  * Represents the actual data graph with all its available operations. Thing to note here
@@ -15,7 +18,8 @@ import org.memgraphd.operation.GraphWriter;
  * @since August 17, 2012
  *
  */
-public interface Graph extends GraphReader, GraphWriter, GraphFilter, GraphSupervisor {
+public interface Graph extends GraphReader, GraphWriter, GraphFilter, GraphTraverser, GraphScanner, GraphSupervisor, 
+        DataIndexManager {
     
     /**
      * The name given to this {@link Graph} instance.
@@ -30,4 +34,21 @@ public interface Graph extends GraphReader, GraphWriter, GraphFilter, GraphSuper
      */
     Library getLibrary();
     
+    /**
+     * Returns a {@link GraphReader} that goes straight to memory, for clients that read a lot.
+     * Unlike calls made on the {@link Graph} itself, reads through it are not dispatched
+     * reflectively and allocate nothing once the data has been read before: what comes back is
+     * the read-only view of the {@link GraphData} that is cached until the data or its
+     * relationships change. Reads still fail while the {@link Graph} is not running.
+     * @return {@link GraphReader}
+     */
+    GraphReader getReader();
+    
+    /**
+     * Returns the {@link GraphIdFilter} that answers lookups of data ids that are not in the
+     * {@link Graph}, so that its size and false positive rate can be kept an eye on.
+     * @return {@link GraphIdFilter}, null if it is not enabled
+     */
+    GraphIdFilter getIdFilter();
+    
 }
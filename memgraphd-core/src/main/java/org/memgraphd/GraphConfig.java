@@ -10,6 +10,9 @@ import org.memgraphd.decision.Decision;
 import org.memgraphd.decision.DecisionMaker;
 import org.memgraphd.memory.MemoryBlock;
 import org.memgraphd.memory.MemoryBlockResolver;
+import org.memgraphd.memory.EvictionPolicy;
+import org.memgraphd.memory.MemoryManager;
+import org.memgraphd.memory.SizeEstimator;
 
 /**
  * Configuration object to be used during {@link Graph}'s initialization phase.
@@ -48,6 +51,21 @@ public interface GraphConfig {
      */
     static final long DEFAULT_WRITE_FREQUENCY = 2000L;
     
+    /**
+     * Default time interval to write a snapshot of the graph to disk, 0 as snapshots are off by default.
+     */
+    static final long DEFAULT_SNAPSHOT_FREQUENCY = 0L;
+    
+    /**
+     * Whether to keep data ids in order by default, false as it costs memory and time on every write.
+     */
+    static final boolean DEFAULT_ORDERED_ID_INDEX = false;
+    
+    /**
+     * Default false positive rate of the {@link GraphIdFilter}, 0 as there is none by default.
+     */
+    static final double DEFAULT_ID_FILTER_FALSE_POSITIVE_RATE = 0d;
+    
     /**
      * Default list of {@link LibrarySection}(s) to use by {@link Librarian}. Empty list by default.
      */
@@ -90,6 +108,28 @@ public interface GraphConfig {
      */
     long getBookKeeperWriteFrequency();
     
+    /**
+     * Returns the time interval in milliseconds to write a snapshot of all the data in the graph,
+     * next to the book, so that only the decisions made after it are replayed on startup.
+     * @return long, 0 if no snapshots are written
+     */
+    long getSnapshotFrequency();
+    
+    /**
+     * Returns true if the data ids are also kept in order, next to the mappings used to look them
+     * up, so that the {@link Graph} can be scanned by id prefix or range.
+     * @return boolean
+     */
+    boolean isOrderedIdIndexEnabled();
+    
+    /**
+     * Returns the false positive rate of the {@link GraphIdFilter} that answers lookups of data ids
+     * that are not in the {@link Graph}. The filter is sized for {@link #getCapacity()} ids at that
+     * rate, the lower the rate the more memory it takes.
+     * @return double, 0 if there is no filter
+     */
+    double getIdFilterFalsePositiveRate();
+    
     /**
      * Returns the list of {@link LibrarySection}(s) to be kept track of by {@link Librarian}.
      * @return array of {@link LibrarySection}
@@ -103,6 +143,27 @@ public interface GraphConfig {
      */
     MemoryBlockResolver getMemoryBlockResolver();
     
+    /**
+     * Returns the {@link MemoryManager} that owns the memory buffer where {@link Data} gets stored.
+     * It has to be using the same {@link MemoryBlockResolver} as {@link #getMemoryBlockResolver()}.
+     * @return {@link MemoryManager}
+     */
+    MemoryManager getMemoryManager();
+    
+    /**
+     * Returns the {@link EvictionPolicy} that picks which {@link Data} to evict once a {@link MemoryBlock}
+     * is full and cannot grow any further.
+     * @return {@link EvictionPolicy}
+     */
+    EvictionPolicy getEvictionPolicy();
+    
+    /**
+     * Returns the {@link SizeEstimator} that tells how many bytes {@link Data} takes, to keep each
+     * {@link MemoryBlock} within its budget.
+     * @return {@link SizeEstimator}
+     */
+    SizeEstimator getSizeEstimator();
+    
     /**
      * Returns the {@link DecisionMaker} instance that the {@link Graph} will use to order PUT/DELETE request.
      * @return {@link DecisionMaker}
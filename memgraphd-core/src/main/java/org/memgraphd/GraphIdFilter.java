@@ -0,0 +1,46 @@
+package org.memgraphd;
+
+/**
+ * A probabilistic filter of the data ids in the {@link Graph}, consulted before the mappings so
+ * that lookups of ids that are not there end right away. It is never wrong about an id not being
+ * there, but it is wrong about an id being there about as often as its false positive rate, which
+ * grows as more ids are added than it was sized for.
+ *
+ * @author Ilirjan Papa
+ * @since August 31, 2013
+ *
+ */
+public interface GraphIdFilter {
+
+    /**
+     * Checks whether this data id might have a mapping.
+     * @param id data id as {@link String}
+     * @return false if it definitely has none, true if it might have one.
+     */
+    boolean mightContain(String id);
+
+    /**
+     * Number of data ids the filter was sized for.
+     * @return integer
+     */
+    int expectedInsertions();
+
+    /**
+     * False positive rate the filter was sized for, once it holds as many ids as expected.
+     * @return double
+     */
+    double expectedFalsePositiveRate();
+
+    /**
+     * False positive rate estimated from the ids the filter holds right now.
+     * @return double
+     */
+    double falsePositiveRate();
+
+    /**
+     * Number of bytes taken by the filter.
+     * @return long
+     */
+    long footprint();
+
+}
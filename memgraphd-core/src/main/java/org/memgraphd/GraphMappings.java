@@ -1,6 +1,7 @@
 package org.memgraphd;
 
 import java.util.Collection;
+import java.util.Iterator;
 
 import org.memgraphd.decision.Sequence;
 import org.memgraphd.memory.MemoryReference;
@@ -62,6 +63,13 @@ public interface GraphMappings {
      */
     MemoryReference getBySequence(Sequence sequence);
     
+    /**
+     * Translate sequence number into {@link MemoryReference}.
+     * @param sequence sequence number as long
+     * @return {@link MemoryReference}
+     */
+    MemoryReference getBySequence(long sequence);
+    
     /**
      * Store a sequence memory reference mapping.
      * @param sequence {@link Sequence}
@@ -74,4 +82,14 @@ public interface GraphMappings {
      * @return {@link Collection} of {@link MemoryReference}
      */
     Collection<MemoryReference> getAllMemoryReferences();
+    
+    /**
+     * Returns the data ids that have a mapping, in order, from one id up to another. Ids mapped or
+     * deleted while iterating might or might not show up.
+     * @param from first id to return, if there is a mapping for it, null to start from the first one
+     * @param to id to stop at, not returned, null to go all the way to the last one
+     * @return {@link Iterator} of data ids
+     * @throws IllegalStateException if ids are not kept in order
+     */
+    Iterator<String> getIdsInOrder(String from, String to);
 }
@@ -27,6 +27,12 @@ public interface BookKeeper {
      */
     void record(Decision decision);
     
+    /**
+     * Record these decisions in the book in one go.
+     * @param decisions {@link List} of {@link Decision}
+     */
+    void recordAll(List<Decision> decisions);
+    
     /**
      * It will wipe off the book a pre-recorded decision.
      * @param decision {@link Decision}
@@ -0,0 +1,45 @@
+package org.memgraphd.data.index;
+
+import org.memgraphd.data.Data;
+import org.memgraphd.data.GraphData;
+
+/**
+ * A secondary index of the {@link GraphData} in the graph, sorted by a key extracted from each
+ * {@link Data} by a {@link DataKeyExtractor}. It is kept up to date as data is written, so that
+ * looking data up by its key only costs as much as the number of matches.
+ * 
+ * @author Ilirjan Papa
+ * @since August 31, 2013
+ *
+ * @param <K> type of the key
+ */
+public interface DataIndex<K> {
+    
+    /**
+     * The name this index was created with.
+     * @return {@link String}
+     */
+    String getName();
+    
+    /**
+     * Returns all {@link GraphData} with this key.
+     * @param key the key
+     * @return array of {@link GraphData}, empty if there is none
+     */
+    GraphData[] get(K key);
+    
+    /**
+     * Returns all {@link GraphData} with a key in this range, in key order.
+     * @param from first key, inclusive, null to start from the lowest one
+     * @param to last key, exclusive, null to go all the way to the highest one
+     * @return array of {@link GraphData}, empty if there is none
+     */
+    GraphData[] range(K from, K to);
+    
+    /**
+     * Returns how many {@link GraphData} are indexed.
+     * @return integer
+     */
+    int size();
+    
+}
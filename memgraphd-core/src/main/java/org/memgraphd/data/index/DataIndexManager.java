@@ -0,0 +1,41 @@
+package org.memgraphd.data.index;
+
+import org.memgraphd.data.GraphData;
+import org.memgraphd.exception.GraphException;
+
+/**
+ * Creates and hands out the {@link DataIndex}(es) of the graph. An index covers the data already
+ * in the graph from the moment it is created, and all the data written from then on.
+ * 
+ * @author Ilirjan Papa
+ * @since August 31, 2013
+ *
+ */
+public interface DataIndexManager {
+    
+    /**
+     * Creates a new {@link DataIndex} and indexes all the {@link GraphData} in the graph with it.
+     * No data is written while that happens.
+     * @param name name of the index
+     * @param extractor {@link DataKeyExtractor} of the keys to index data under
+     * @return {@link DataIndex}
+     * @throws GraphException if the data cannot be indexed
+     * @throws IllegalArgumentException if there already is an index with this name
+     */
+    <K extends Comparable<? super K>> DataIndex<K> createIndex(String name, DataKeyExtractor<K> extractor) 
+            throws GraphException;
+    
+    /**
+     * Returns the {@link DataIndex} with this name.
+     * @param name name of the index
+     * @return {@link DataIndex}, null if there is none
+     */
+    <K> DataIndex<K> index(String name);
+    
+    /**
+     * Drops the {@link DataIndex} with this name, if any.
+     * @param name name of the index
+     */
+    void dropIndex(String name);
+    
+}
@@ -0,0 +1,22 @@
+package org.memgraphd.data.index;
+
+import org.memgraphd.data.Data;
+
+/**
+ * Extracts the key a {@link DataIndex} files {@link Data} under, such as the air date of an episode.
+ * 
+ * @author Ilirjan Papa
+ * @since August 31, 2013
+ *
+ * @param <K> type of the key
+ */
+public interface DataKeyExtractor<K> {
+    
+    /**
+     * Returns the key of this {@link Data}. It is called on every write, so it should be cheap.
+     * @param data {@link Data}
+     * @return the key, null if the data is not indexed
+     */
+    K extract(Data data);
+    
+}
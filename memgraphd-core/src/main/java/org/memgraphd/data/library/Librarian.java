@@ -8,4 +8,6 @@ public interface Librarian {
     
     void unarchive(GraphData gData);
     
+    boolean holds(GraphData gData);
+    
 }
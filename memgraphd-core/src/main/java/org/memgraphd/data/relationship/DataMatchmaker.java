@@ -1,6 +1,7 @@
 package org.memgraphd.data.relationship;
 
 import org.memgraphd.data.Data;
+import org.memgraphd.memory.MemoryReference;
 
 /**
  * Acts as a data matchmakers, hooking data instances up with each-other.
@@ -35,5 +36,12 @@ public interface DataMatchmaker {
      * @param data {@link DataRelationship}
      */
     void separate(DataRelationship data);
+    
+    /**
+     * Handles data moving to another memory reference, pending relationships must follow it.
+     * @param from {@link MemoryReference} where the data used to be
+     * @param to {@link MemoryReference} where the data is now
+     */
+    void relocate(MemoryReference from, MemoryReference to);
 
 }
@@ -25,6 +25,15 @@ public interface DecisionMaker {
      */
     Decision decide(GraphRequestContext context) throws GraphException;
     
+    /**
+     * It makes a decision on each of these requests at once, they are assigned consecutive sequences
+     * in the order given and recorded in the book together.
+     * @param contexts {@link List} of {@link GraphRequestContext}
+     * @return {@link List} of {@link Decision}, one for each request in the same order
+     * @throws GraphException
+     */
+    List<Decision> decideAll(List<GraphRequestContext> contexts) throws GraphException;
+    
     /**
      * Return the last-good-known decision sequence made by this decision maker.
      * @return {@link Sequence}
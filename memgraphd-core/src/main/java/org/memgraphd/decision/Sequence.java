@@ -1,7 +1,6 @@
 package org.memgraphd.decision;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.apache.commons.lang.builder.ReflectionToStringBuilder;
 import org.apache.commons.lang.builder.ToStringStyle;
@@ -9,14 +8,20 @@ import org.memgraphd.GraphLifecycleHandler;
 
 /**
  * Each {@link Decision} that the {@link DecisionMaker} makes gets assigned a unique {@link Sequence} number.
+ * <br><br>
+ * Sequences are not interned forever, since there is one for every decision ever made. Only the
+ * most recent ones are cached, in a fixed size table indexed by the lower bits of the number,
+ * so two instances of the same sequence number may exist and equality never relies on identity.
  * 
  * @author Ilirjan Papa
  * @since July 12, 2012
  *
  */
 public final class Sequence implements GraphLifecycleHandler {
+    private static final int CACHE_SIZE = 4096;
+    
     private final long number;
-    private static Map<Long, Sequence> store = new HashMap<Long, Sequence>();
+    private static volatile AtomicReferenceArray<Sequence> cache = new AtomicReferenceArray<Sequence>(CACHE_SIZE);
     
     private Sequence(long number) {
         this.number = number;
@@ -32,14 +37,13 @@ public final class Sequence implements GraphLifecycleHandler {
     
     @Override
     public final int hashCode() {
-        return (int) number;
+        return (int) (number ^ (number >>> 32));
     }
     
     @Override
     public final boolean equals(Object obj) {
-        if(obj == null) return false;
-        if(!obj.getClass().equals(getClass())) return false;
-        return hashCode() == obj.hashCode();
+        if(!(obj instanceof Sequence)) return false;
+        return number == ((Sequence) obj).number;
     }
     
     public static final Sequence[] rangeOf(long start, long end) {
@@ -58,11 +62,14 @@ public final class Sequence implements GraphLifecycleHandler {
     public static final Sequence valueOf(long number) {
         validateSequence(number);
         
-        if(store.containsKey(number)) {
-            return store.get(number);
+        AtomicReferenceArray<Sequence> seqs = cache;
+        int index = (int) (number & (CACHE_SIZE - 1));
+        Sequence seq = seqs.get(index);
+        if(seq != null && seq.number == number) {
+            return seq;
         }
         Sequence newSeq = new Sequence(number);
-        store.put(number, newSeq);
+        seqs.lazySet(index, newSeq);
         
         return newSeq;
     }
@@ -78,8 +85,8 @@ public final class Sequence implements GraphLifecycleHandler {
      * {@inheritDoc}
      */
     @Override
-    public synchronized void onShutdown() {
-        store.clear();
+    public void onShutdown() {
+        cache = new AtomicReferenceArray<Sequence>(CACHE_SIZE);
     }
     
     @Override
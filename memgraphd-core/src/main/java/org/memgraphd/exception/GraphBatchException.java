@@ -0,0 +1,47 @@
+package org.memgraphd.exception;
+
+import org.memgraphd.memory.MemoryReference;
+
+/**
+ * Thrown when some of the requests in a batch write fail. The rest of the batch has gone through,
+ * what each request came to can be told apart by position: the {@link MemoryReference} assigned
+ * to the data of the requests that went through, and the {@link GraphException} of the ones that
+ * did not.
+ * 
+ * @author Ilirjan Papa
+ * @since August 31, 2013
+ *
+ */
+public class GraphBatchException extends GraphException {
+
+    /**
+     * 
+     */
+    private static final long serialVersionUID = 1L;
+    
+    private final MemoryReference[] references;
+    private final GraphException[] errors;
+
+    public GraphBatchException(String message, MemoryReference[] references, GraphException[] errors) {
+        super(message);
+        this.references = references;
+        this.errors = errors;
+    }
+    
+    /**
+     * Returns the {@link MemoryReference} assigned to the data of each request in the batch.
+     * @return array of {@link MemoryReference}, null for the requests that failed or had none
+     */
+    public MemoryReference[] getReferences() {
+        return references;
+    }
+    
+    /**
+     * Returns why each request in the batch failed.
+     * @return array of {@link GraphException}, null for the requests that went through
+     */
+    public GraphException[] getErrors() {
+        return errors;
+    }
+    
+}
@@ -0,0 +1,45 @@
+package org.memgraphd.memory;
+
+import org.memgraphd.data.GraphData;
+
+/**
+ * Decides which {@link GraphData} to evict when a {@link MemoryBlock} is full and cannot grow any
+ * further, the way memcached makes room for new items. The policy only picks the victim, the
+ * graph deletes it the same way it deletes any other data.
+ * <br><br>
+ * {@link #onAccess(MemoryReference)} is called on every read, implementations should keep it as
+ * cheap as setting a flag and never lock.
+ *
+ * @author Ilirjan Papa
+ * @since August 14, 2013
+ *
+ */
+public interface EvictionPolicy {
+
+    /**
+     * Records that the data at this {@link MemoryReference} has been read.
+     * @param ref {@link MemoryReference}
+     */
+    void onAccess(MemoryReference ref);
+
+    /**
+     * Records that {@link GraphData} has been written, created or updated, at this {@link MemoryReference}.
+     * @param ref {@link MemoryReference}
+     * @param data {@link GraphData}
+     */
+    void onWrite(MemoryReference ref, GraphData data);
+
+    /**
+     * Records that the data at this {@link MemoryReference} has been freed.
+     * @param ref {@link MemoryReference}
+     */
+    void onFree(MemoryReference ref);
+
+    /**
+     * Picks the data to evict from this {@link MemoryBlock}.
+     * @param block {@link MemoryBlock} that is full
+     * @return {@link MemoryReference} of the victim or null if there is nothing to evict
+     */
+    MemoryReference victim(MemoryBlock block);
+
+}
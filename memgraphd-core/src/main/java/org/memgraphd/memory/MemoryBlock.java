@@ -25,13 +25,31 @@ public interface MemoryBlock extends MemoryStats {
     MemoryReference startsWith();
 
     /**
-     * Returns the memory reference where the block ends in the memory buffer.
+     * Returns the memory reference where the block currently ends in the memory buffer.
+     * It moves towards {@link #ceiling()} as the block grows.
      * @return {@link MemoryReference}
      */
     MemoryReference endsWith();
 
     /**
-     * Returns the next available {@link MemoryReference} in the block.
+     * Returns the last memory reference the block is allowed to grow to. The range between
+     * {@link #startsWith()} and the ceiling is reserved for this block alone.
+     * @return {@link MemoryReference}
+     */
+    MemoryReference ceiling();
+
+    /**
+     * Returns the maximum number of bytes the data stored in the block is allowed to retain, as
+     * measured by its {@link #footprint()}. Writes that would go over it make room by evicting
+     * data or fail.
+     * @return number of bytes, 0 if the block is only limited by its capacity
+     */
+    long budget();
+
+    /**
+     * Returns the next available {@link MemoryReference} in the block, recycled references
+     * first. When the block is used up it grows by another segment, unless it has reached
+     * its {@link #ceiling()} in which case it throws {@link IllegalStateException}.
      * @return {@link MemoryReference}
      */
     MemoryReference next();
@@ -0,0 +1,22 @@
+package org.memgraphd.memory;
+
+import org.memgraphd.data.Data;
+
+/**
+ * Classifies {@link Data} into the named {@link MemoryBlock} it should be stored in, so that
+ * data of the same kind is kept together in a dedicated block.
+ *
+ * @author Ilirjan Papa
+ * @since August 7, 2013
+ *
+ */
+public interface MemoryBlockClassifier {
+
+    /**
+     * Returns the name of the {@link MemoryBlock} where this {@link Data} belongs.
+     * @param data {@link Data}, could be null
+     * @return {@link String} name of the block or null if it does not belong to any dedicated block
+     */
+    String classify(Data data);
+
+}
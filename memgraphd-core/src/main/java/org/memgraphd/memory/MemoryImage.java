@@ -0,0 +1,42 @@
+package org.memgraphd.memory;
+
+import org.memgraphd.data.GraphData;
+import org.memgraphd.decision.Sequence;
+
+/**
+ * A {@link MemoryManager} whose memory outlives the process. After a clean shutdown it keeps an
+ * image of all {@link GraphData} it stores, so that on restart only the decisions made after the
+ * image was saved need to be replayed.
+ *
+ * @author Ilirjan Papa
+ * @since August 26, 2013
+ *
+ */
+public interface MemoryImage {
+
+    /**
+     * Returns the {@link Sequence} of the latest decision the restored image holds, null if there
+     * was no clean image to restore and all memory started out empty.
+     * @return {@link Sequence}
+     */
+    Sequence restoredSequence();
+
+    /**
+     * Returns the {@link MemoryReference}(s) that hold {@link GraphData} restored from the image.
+     * @return array of {@link MemoryReference}
+     */
+    MemoryReference[] restoredReferences();
+
+    /**
+     * Saves an image of the memory as it is now, the caller makes sure nothing is written while
+     * it runs.
+     * @param latest {@link Sequence} of the latest decision the memory holds
+     */
+    void save(Sequence latest);
+
+    /**
+     * Throws away the saved image, called before memory starts changing again.
+     */
+    void discard();
+
+}
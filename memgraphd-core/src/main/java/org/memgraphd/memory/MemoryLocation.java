@@ -1,14 +1,12 @@
 package org.memgraphd.memory;
 
-import java.util.Set;
-
 import org.memgraphd.data.GraphData;
 
 /**
  * The memory buffer consists of a list of {@link MemoryLocation}s. Think of them as buckets
  * or place-holders for {@link GraphData}. They are initialized on startup and assigned a memory
- * reference which will not change ever. They also serve a second role, which is establish
- * relationships between other memory locations serving as place-holders for related data.
+ * reference which will not change ever. Relationships between memory locations are not kept by
+ * the memory locations themselves, they are tracked by their memory references instead.
  *
  * @author Ilirjan Papa
  * @since July 31, 2012
@@ -34,27 +32,4 @@ public interface MemoryLocation {
      */
     MemoryBlock block();
 
-    /**
-     * Returns a set of memory locations that are <i>direct links</i> of {@link GraphData} stored in
-     * the memory location in question.
-     * <br><br>A good example: If the data stored in this memory location
-     * is a Child object, that child object has links to Mother, Father objects.
-     *
-     * @return {@link Set} of {@link MemoryLocation}
-     */
-    Set<MemoryLocation> links();
-
-    /**
-     * Returns a set of memory locations that are <i>indirect links</i> of {@link GraphData} stored in
-     * the memory location in question.
-     *
-     * <br><br>A good example: If the data stored in this memory location
-     * is a Father object, that parent object has references to Wife, Son, Daughter. Or another
-     * way to see it: Wife, Son and Daughter have a direct link to Father. Inverse of {@link #links()}
-     *
-     * @return {@link Set} of {@link MemoryLocation}
-     *
-     */
-    Set<MemoryLocation> references();
-
 }
@@ -1,7 +1,6 @@
 package org.memgraphd.memory;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.apache.commons.lang.builder.ReflectionToStringBuilder;
 import org.apache.commons.lang.builder.ToStringStyle;
@@ -9,14 +8,23 @@ import org.memgraphd.GraphLifecycleHandler;
 
 /**
  * A memory reference is a unique identifier for a {@link MemoryLocation}.
+ * <br><br>
+ * Instances are flyweights kept in an array indexed by id, so {@link #valueOf(int)} is a plain
+ * array read once a reference has been handed out. The array is meant to be sized up front by
+ * {@link #ensureCapacity(int)}. Should it ever need to grow while other threads are handing out
+ * references, a reference might get created twice, which is why equality never relies on identity.
+ * Negative ids are never interned.
  * 
  * @author Ilirjan Papa
  * @since July 12, 2012
  *
  */
 public final class MemoryReference implements GraphLifecycleHandler {
+    private static final int INITIAL_CAPACITY = 1024;
+    
     private final int id;
-    private static Map<Integer, MemoryReference> store = new HashMap<Integer, MemoryReference>();
+    private static volatile AtomicReferenceArray<MemoryReference> store = 
+            new AtomicReferenceArray<MemoryReference>(INITIAL_CAPACITY);
     
     private MemoryReference(int id) {
         this.id = id;
@@ -29,11 +37,9 @@ public final class MemoryReference implements GraphLifecycleHandler {
     
     @Override
     public boolean equals(Object obj) {
-        if(obj == null)
-            return false;
-        if(!obj.getClass().equals(MemoryReference.class)) 
+        if(!(obj instanceof MemoryReference)) 
             return false;
-        return hashCode() == obj.hashCode();
+        return id == ((MemoryReference) obj).id;
     }
 
     public final int id() {
@@ -46,13 +52,44 @@ public final class MemoryReference implements GraphLifecycleHandler {
      * @return {@link MemoryReference}
      */
     public static MemoryReference valueOf(int id) {
-  
-        if(store.containsKey(id)) {
-            return store.get(id);
+        if(id < 0) {
+            return new MemoryReference(id);
+        }
+        AtomicReferenceArray<MemoryReference> refs = store;
+        if(id >= refs.length()) {
+            refs = grow(id + 1);
+        }
+        MemoryReference ref = refs.get(id);
+        if(ref == null) {
+            MemoryReference newImpl = new MemoryReference(id);
+            ref = refs.compareAndSet(id, null, newImpl) ? newImpl : refs.get(id);
         }
-        MemoryReference newImpl = new MemoryReference(id);
-        store.put(id, newImpl);
-        return newImpl;
+        return ref;
+    }
+    
+    /**
+     * Makes sure references with ids up to capacity - 1 can be handed out without growing
+     * the store of references.
+     * @param capacity integer
+     */
+    public static void ensureCapacity(int capacity) {
+        if(capacity > store.length()) {
+            grow(capacity);
+        }
+    }
+    
+    private static synchronized AtomicReferenceArray<MemoryReference> grow(int capacity) {
+        AtomicReferenceArray<MemoryReference> refs = store;
+        if(capacity > refs.length()) {
+            AtomicReferenceArray<MemoryReference> grown = 
+                    new AtomicReferenceArray<MemoryReference>(Math.max(capacity, refs.length() * 2));
+            for(int i = 0; i < refs.length(); i++) {
+                grown.set(i, refs.get(i));
+            }
+            store = grown;
+            refs = grown;
+        }
+        return refs;
     }
     
     /**
@@ -85,8 +122,10 @@ public final class MemoryReference implements GraphLifecycleHandler {
      * {@inheritDoc}
      */
     @Override
-    public synchronized void onShutdown() {
-        store.clear();
+    public void onShutdown() {
+        synchronized (MemoryReference.class) {
+            store = new AtomicReferenceArray<MemoryReference>(store.length());
+        }
     }
     
     @Override
@@ -0,0 +1,25 @@
+package org.memgraphd.memory;
+
+import org.memgraphd.data.GraphData;
+
+/**
+ * Moves {@link GraphData} from one {@link MemoryReference} to another, so that a {@link MemoryBlock}
+ * can be compacted while the graph keeps running.
+ *
+ * @author Ilirjan Papa
+ * @since August 24, 2013
+ *
+ */
+public interface MemoryRelocator {
+
+    /**
+     * Moves the {@link GraphData} stored at memory reference from, together with its mappings and
+     * relationships, to memory reference to, which must be free. The memory reference from is
+     * freed once nobody can find the data there anymore.
+     * @param from {@link MemoryReference} where the data is stored
+     * @param to {@link MemoryReference} where the data should be stored
+     * @return true if the data was moved, false if there was no data to move
+     */
+    boolean relocate(MemoryReference from, MemoryReference to);
+
+}
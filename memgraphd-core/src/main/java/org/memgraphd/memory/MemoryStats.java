@@ -34,4 +34,24 @@ public interface MemoryStats {
      */
     int recycled();
     
+    /**
+     * How many segments the {@link MemoryLocation}(s) are currently organized in. A {@link MemoryBlock}
+     * starts with one segment and adds one every time it grows.
+     * @return integer
+     */
+    int segments();
+    
+    /**
+     * How many times capacity has grown online since start up.
+     * @return integer
+     */
+    int growths();
+    
+    /**
+     * Estimated number of bytes retained by the {@link GraphData} stored, including its relationships
+     * and the mappings used to look it up. Meant for monitoring, it is not an exact measurement.
+     * @return long
+     */
+    long footprint();
+    
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package org.memgraphd.memory;
+
+import org.memgraphd.data.Data;
+
+/**
+ * Estimates how many bytes {@link Data} takes once it is stored in memory. The estimate is what
+ * memory blocks count towards their {@link MemoryStats#footprint()} and check against their
+ * {@link MemoryBlock#budget()}, it is called on every write so it should be cheap.
+ *
+ * @author Ilirjan Papa
+ * @since August 30, 2013
+ *
+ */
+public interface SizeEstimator {
+
+    /**
+     * Returns the estimated number of bytes this {@link Data} takes.
+     * @param data {@link Data}
+     * @return integer
+     */
+    int sizeOf(Data data);
+
+}
@@ -1,7 +1,11 @@
 package org.memgraphd.memory.operation;
 
 import org.memgraphd.Graph;
+import org.memgraphd.data.Data;
 import org.memgraphd.data.GraphData;
+import org.memgraphd.decision.Decision;
+import org.memgraphd.memory.EvictionPolicy;
+import org.memgraphd.memory.MemoryBlock;
 import org.memgraphd.memory.MemoryReference;
 
 /**
@@ -30,6 +34,16 @@ public interface MemoryOperations {
      */
     GraphData readGraph(MemoryReference reference);
     
+    /**
+     * Returns the {@link Decision} that produced the {@link GraphData} stored in this memory
+     * reference, without it counting as a read: the {@link EvictionPolicy} is not told about it,
+     * the memory location is not marked as read and data kept deflated stays that way.
+     * Meant for taking snapshots of the data.
+     * @param reference {@link MemoryReference}
+     * @return {@link Decision} or null if there is no data stored there
+     */
+    Decision decisionOf(MemoryReference reference);
+    
     /**
      * It will write the item in the {@link Graph} and it will return a reference to its location
      * for future references by the caller.
@@ -46,12 +60,84 @@ public interface MemoryOperations {
      */
     void update(MemoryReference ref, GraphData data);
     
+    /**
+     * Takes over the {@link GraphData} found in this memory reference when the graph started, as
+     * if it had just been written there.
+     * @param ref {@link MemoryReference}
+     * @return {@link GraphData} or null if there is no data stored there
+     */
+    GraphData restore(MemoryReference ref);
+    
     /**
      * Wipe out the data in this memory reference and recycle the reference.
      * @param ref {@link MemoryReference}
      */
     void free(MemoryReference ref);
     
+    /**
+     * Moves the {@link GraphData} stored in memory reference from, together with its links and
+     * references, into memory reference to. The old memory location is left as it is, it is up
+     * to the caller to free it once nobody can find the data there anymore.
+     * @param from {@link MemoryReference} where the data is stored
+     * @param to free {@link MemoryReference} in the same {@link MemoryBlock}
+     * @return {@link GraphData} as stored in the new location or null if there was no data to move
+     */
+    GraphData relocate(MemoryReference from, MemoryReference to);
+    
+    /**
+     * Returns the memory reference of the data that the {@link EvictionPolicy} chose to make room
+     * for this {@link Data}, in case its {@link MemoryBlock} is full and cannot grow any further
+     * or the data would take it over its {@link MemoryBlock#budget()}.
+     * @param data {@link Data} about to be written
+     * @return {@link MemoryReference} or null if there is room or nothing can be evicted
+     */
+    MemoryReference evictionCandidate(Data data);
+    
+    /**
+     * Returns the memory reference of the data that the {@link EvictionPolicy} chose to make room
+     * in this {@link MemoryBlock} for a number of new data at once, in case the block cannot take
+     * that many more or their bytes would take it over its {@link MemoryBlock#budget()}.
+     * @param block {@link MemoryBlock} about to be written to
+     * @param references number of new data about to be written to it
+     * @param bytes number of bytes they retain, as told by {@link #footprintOf(Data)}
+     * @return {@link MemoryReference} or null if there is room or nothing can be evicted
+     */
+    MemoryReference evictionCandidate(MemoryBlock block, int references, long bytes);
+    
+    /**
+     * Returns the {@link MemoryBlock} this {@link Data} is written to.
+     * @param data {@link Data}
+     * @return {@link MemoryBlock}
+     */
+    MemoryBlock blockOf(Data data);
+    
+    /**
+     * Returns the estimated number of bytes this {@link Data} retains once written, as charged
+     * against the {@link MemoryBlock#budget()} of its block. Estimating takes some work, so it is
+     * only worth asking for data headed to a block with a budget.
+     * @param data {@link Data}
+     * @return number of bytes
+     */
+    long footprintOf(Data data);
+    
+    /**
+     * Returns true if writing this {@link Data} would take its {@link MemoryBlock} over its
+     * {@link MemoryBlock#budget()}.
+     * @param data {@link Data} about to be written
+     * @param replaced {@link MemoryReference} of the data it replaces, null if it is new
+     * @return true if it does not fit, false otherwise
+     */
+    boolean overBudget(Data data, MemoryReference replaced);
+    
+    /**
+     * Returns true if writing this many more bytes would take this {@link MemoryBlock} over its
+     * {@link MemoryBlock#budget()}.
+     * @param block {@link MemoryBlock}
+     * @param bytes number of bytes, as told by {@link #footprintOf(Data)}
+     * @return true if they do not fit, false otherwise
+     */
+    boolean overBudget(MemoryBlock block, long bytes);
+    
     /**
      * The {@link GraphData} in the first reference will be linked to {@link GraphData} in link reference.
      * @param ref {@link MemoryReference}
@@ -92,4 +178,20 @@ public interface MemoryOperations {
      * @param ref
      */
     void dereferenceAll(MemoryReference ref);
+    
+    /**
+     * Returns the ids of the memory references that the {@link GraphData} with this memory
+     * reference links to.
+     * @param ref {@link MemoryReference}
+     * @return array of {@link MemoryReference#id()}
+     */
+    int[] linksOf(MemoryReference ref);
+    
+    /**
+     * Returns the ids of the memory references whose {@link GraphData} links to the
+     * {@link GraphData} with this memory reference.
+     * @param ref {@link MemoryReference}
+     * @return array of {@link MemoryReference#id()}
+     */
+    int[] referencesOf(MemoryReference ref);
 }
@@ -0,0 +1,26 @@
+package org.memgraphd.operation;
+
+import java.util.concurrent.Callable;
+
+import org.memgraphd.Graph;
+
+/**
+ * Runs tasks that need to see the {@link Graph} exactly as the latest decision left it, such as
+ * taking a snapshot of all the data or filling a new index.
+ *
+ * @author Ilirjan Papa
+ * @since September 2, 2013
+ *
+ */
+public interface GraphCheckpointer {
+
+    /**
+     * Runs this task while no decision is being made or enacted, so that it sees the graph exactly
+     * as the latest decision left it. Changes wait for the task to finish, reads do not.
+     * @param task {@link Callable}
+     * @return what the task returns
+     * @throws Exception if the task fails
+     */
+    <T> T checkpoint(Callable<T> task) throws Exception;
+
+}
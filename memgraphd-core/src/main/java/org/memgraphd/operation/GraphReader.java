@@ -39,4 +39,21 @@ public interface GraphReader {
      */
     GraphData read(MemoryReference ref);
     
+    /**
+     * Same as {@link #read(Sequence)} but takes the primitive {@link Sequence#number()}, so that
+     * no {@link Sequence} instance is needed to look up the data. 
+     * @param sequence sequence number as long
+     * @return {@link GraphData}
+     */
+    GraphData read(long sequence);
+    
+    /**
+     * Same as {@link #read(MemoryReference)} but takes the primitive {@link MemoryReference#id()}.
+     * Watch out for integer literals, read(5) reads memory reference 5 while read(5L) reads
+     * sequence number 5.
+     * @param referenceId memory reference id as integer
+     * @return {@link GraphData}
+     */
+    GraphData read(int referenceId);
+    
 }
@@ -0,0 +1,41 @@
+package org.memgraphd.operation;
+
+import java.util.Iterator;
+
+import org.memgraphd.Graph;
+import org.memgraphd.GraphConfig;
+import org.memgraphd.data.Data;
+import org.memgraphd.data.GraphData;
+
+/**
+ * Reads all the {@link GraphData} in the {@link Graph} whose {@link Data#getId()} falls in a range
+ * of ids, in id order, without visiting the rest of the graph. Ids are compared as strings, so
+ * hierarchical ids such as "series-42/season-3/ep-7" can be scanned one level at a time. Scans need
+ * the data ids to be kept in order, see {@link GraphConfig#isOrderedIdIndexEnabled()}.
+ * 
+ * @author Ilirjan Papa
+ * @since August 31, 2013
+ *
+ */
+public interface GraphScanner {
+    
+    /**
+     * Returns all {@link GraphData} whose id starts with this prefix, in id order. Results are read
+     * as the iterator advances, data written or deleted in the meantime might or might not show up.
+     * @param prefix id prefix, the empty string for all data
+     * @return {@link Iterator} of {@link GraphData}
+     * @throws IllegalStateException if data ids are not kept in order
+     */
+    Iterator<GraphData> scanByIdPrefix(String prefix);
+    
+    /**
+     * Returns all {@link GraphData} whose id is in this range, in id order. Results are read as the
+     * iterator advances, data written or deleted in the meantime might or might not show up.
+     * @param from first id, inclusive, null to start from the first one
+     * @param to last id, exclusive, null to go all the way to the last one
+     * @return {@link Iterator} of {@link GraphData}
+     * @throws IllegalStateException if data ids are not kept in order
+     */
+    Iterator<GraphData> scanByIdRange(String from, String to);
+    
+}
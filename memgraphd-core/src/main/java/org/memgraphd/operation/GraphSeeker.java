@@ -25,6 +25,13 @@ public interface GraphSeeker {
      */
     MemoryReference seekBySequence(Sequence seq);
     
+    /**
+     * Same as {@link #seekBySequence(Sequence)} but takes the primitive {@link Sequence#number()}.
+     * @param sequence sequence number as long
+     * @return {@link MemoryReference} or null if not found.
+     */
+    MemoryReference seekBySequence(long sequence);
+    
     /**
      * Same functionality as {@link #seekById(String)} but for more than one id(s).
      * @param ids array of {@link String}
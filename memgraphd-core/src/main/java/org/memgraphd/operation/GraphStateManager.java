@@ -1,12 +1,16 @@
 package org.memgraphd.operation;
 
+import java.util.List;
+
 import org.memgraphd.Graph;
 import org.memgraphd.data.GraphData;
 import org.memgraphd.decision.Decision;
+import org.memgraphd.exception.GraphBatchException;
 import org.memgraphd.exception.GraphException;
 import org.memgraphd.memory.MemoryReference;
+import org.memgraphd.memory.MemoryRelocator;
 
-public interface GraphStateManager {
+public interface GraphStateManager extends MemoryRelocator {
     
     /**
      * It will write an already made decision. Meant to be used only when the
@@ -18,6 +22,16 @@ public interface GraphStateManager {
      */
     MemoryReference create(Decision decision) throws GraphException;
     
+    /**
+     * It will write a batch of already made create decisions. All the data is written before any
+     * of its relationships are matched, so that they are matched in one pass.
+     * 
+     * @param decisions {@link List} of {@link Decision}
+     * @return array of {@link MemoryReference}, one for each decision in the same order
+     * @throws GraphBatchException if some of the data could not be written
+     */
+    MemoryReference[] createAll(List<Decision> decisions) throws GraphException;
+    
     /**
      * It will update an already made decision. Meant to be used only when the
      * {@link Graph} restarts and replays the transaction log of previous decisions
@@ -39,5 +53,21 @@ public interface GraphStateManager {
      */
     void delete(Decision decision, GraphData existingData) throws GraphException;
     
+    /**
+     * It will register {@link GraphData} that is already stored in memory, restored from a
+     * previous run of the {@link Graph}, along with its mappings and relationships.
+     * @param reference {@link MemoryReference} where the data is stored
+     * @return {@link GraphData} restored, null if there was no data stored there
+     */
+    GraphData restore(MemoryReference reference);
+    
+    /**
+     * Returns the {@link Decision} that produced the {@link GraphData} stored in this memory
+     * reference, without it counting as a read of the data. Meant for taking snapshots.
+     * @param reference {@link MemoryReference}
+     * @return {@link Decision} or null if there is no data stored there
+     */
+    Decision decisionOf(MemoryReference reference);
+    
     
 }
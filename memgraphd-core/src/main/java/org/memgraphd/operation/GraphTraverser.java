@@ -0,0 +1,32 @@
+package org.memgraphd.operation;
+
+import java.util.Iterator;
+
+import org.memgraphd.Graph;
+import org.memgraphd.data.Data;
+import org.memgraphd.data.GraphData;
+
+/**
+ * Walks the relationships of the {@link Graph} starting from a single {@link GraphData}, so that
+ * a query spanning several hops is a single call instead of a read per hop.
+ * 
+ * @author Ilirjan Papa
+ * @since August 28, 2013
+ *
+ */
+public interface GraphTraverser {
+    
+    /**
+     * Visits all {@link GraphData} reachable from the data with this id in at most depth hops,
+     * breadth first, nearest data first. The data with this id is not part of the result and every
+     * data shows up once, however many paths lead to it. Results are produced as the iterator
+     * advances, the rest of the graph is not visited until it is asked for.
+     * @param id {@link Data#getId()} of the data to start from
+     * @param depth maximum number of hops
+     * @param direction {@link TraversalDirection}
+     * @param filter only return data of this type, null for all
+     * @return {@link Iterator} of {@link GraphData}, empty if there is no data with this id
+     */
+    Iterator<GraphData> traverse(String id, int depth, TraversalDirection direction, Class<? extends Data> filter);
+    
+}
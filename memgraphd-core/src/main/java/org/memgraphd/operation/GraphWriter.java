@@ -2,6 +2,7 @@ package org.memgraphd.operation;
 
 import org.memgraphd.Graph;
 import org.memgraphd.data.Data;
+import org.memgraphd.exception.GraphBatchException;
 import org.memgraphd.exception.GraphException;
 import org.memgraphd.memory.MemoryReference;
 /**
@@ -49,5 +50,37 @@ public interface GraphWriter {
      */
     void delete(String dataId) throws GraphException;
     
+    /**
+     * Write a batch of {@link Data} into the {@link Graph}, as {@link #create(Data)} would one by one,
+     * but deciding on the whole batch at once. Relationships among the data are matched once all of
+     * it has been written. Data that fails does not keep the rest of the batch from being written.
+     * @param data array of {@link Data}
+     * @return array of {@link MemoryReference}, one for each data in the same order
+     * @throws GraphBatchException if some of the data could not be written
+     * @throws GraphException
+     */
+    MemoryReference[] createAll(Data[] data) throws GraphException;
+    
+    /**
+     * Update a batch of existing {@link Data} in the {@link Graph}, as {@link #update(Data)} would one
+     * by one, but deciding on the whole batch at once. Data that fails does not keep the rest of the
+     * batch from being updated.
+     * @param data array of {@link Data}
+     * @return array of {@link MemoryReference}, one for each data in the same order
+     * @throws GraphBatchException if some of the data could not be updated
+     * @throws GraphException
+     */
+    MemoryReference[] updateAll(Data[] data) throws GraphException;
+    
+    /**
+     * Delete a batch of {@link Data} from the {@link Graph} by data id, as {@link #delete(String)} 
+     * would one by one, but deciding on the whole batch at once. Data that fails does not keep the
+     * rest of the batch from being deleted.
+     * @param dataIds array of {@link String}
+     * @throws GraphBatchException if some of the data could not be deleted
+     * @throws GraphException
+     */
+    void deleteAll(String[] dataIds) throws GraphException;
+    
     
 }
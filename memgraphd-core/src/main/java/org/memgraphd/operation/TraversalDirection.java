@@ -0,0 +1,27 @@
+package org.memgraphd.operation;
+
+import org.memgraphd.data.GraphData;
+
+/**
+ * Which relationships a traversal follows from each {@link GraphData} it visits.
+ * 
+ * @author Ilirjan Papa
+ * @since August 28, 2013
+ *
+ */
+public enum TraversalDirection {
+    /**
+     * Follow the links, from the data to the data it relates to.
+     */
+    LINKS,
+    
+    /**
+     * Follow the references, from the data to the data that relates to it.
+     */
+    REFERENCES,
+    
+    /**
+     * Follow both links and references.
+     */
+    BOTH;
+}
@@ -28,6 +28,14 @@ public class SequenceTest {
         assertFalse(sequence.equals(Sequence.valueOf(2)));
     }
     
+    @Test
+    public void testEqualsObject_largeNumbers() {
+        long number = 1L << 32;
+        assertEquals(Sequence.valueOf(number), Sequence.valueOf(number));
+        assertFalse(Sequence.valueOf(0).equals(Sequence.valueOf(number)));
+        assertFalse(Sequence.valueOf(1).equals(Sequence.valueOf(number + 1)));
+    }
+    
     @Test
     public void testEqualsObject_Not() {
         assertFalse(sequence.equals(null));
@@ -65,6 +73,15 @@ public class SequenceTest {
         assertSame(sequence, Sequence.valueOf(1));
     }
 
+    @Test
+    public void testValueOf_bounded() {
+        // a newer sequence sharing the same cache entry takes its place
+        Sequence newer = Sequence.valueOf(1 + 4096);
+        assertSame(newer, Sequence.valueOf(1 + 4096));
+        assertNotSame(sequence, Sequence.valueOf(1));
+        assertEquals(sequence, Sequence.valueOf(1));
+    }
+
     @Test(expected=RuntimeException.class)
     public void testValueOf_negative() {
         Sequence.valueOf(-1);
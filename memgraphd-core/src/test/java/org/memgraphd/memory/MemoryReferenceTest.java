@@ -32,6 +32,26 @@ public class MemoryReferenceTest {
         assertSame(reference, MemoryReference.valueOf(1));
     }
 
+    @Test
+    public void testValueOf_negative() {
+        assertEquals(MemoryReference.valueOf(-1), MemoryReference.valueOf(-1));
+        assertFalse(MemoryReference.valueOf(-1) == MemoryReference.valueOf(-1));
+    }
+    
+    @Test
+    public void testValueOf_beyondCapacity() {
+        MemoryReference ref = MemoryReference.valueOf(100000);
+        assertEquals(100000, ref.id());
+        assertSame(ref, MemoryReference.valueOf(100000));
+    }
+    
+    @Test
+    public void testEnsureCapacity() {
+        MemoryReference.ensureCapacity(200000);
+        assertSame(reference, MemoryReference.valueOf(1));
+        assertSame(MemoryReference.valueOf(199999), MemoryReference.valueOf(199999));
+    }
+
     @Test
     public void testRangeOf_SameStartEnd() {
         MemoryReference refs1[] = MemoryReference.rangeOf(1, 1);
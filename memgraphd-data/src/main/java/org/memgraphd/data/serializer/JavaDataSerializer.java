@@ -0,0 +1,52 @@
+package org.memgraphd.data.serializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.memgraphd.data.Data;
+
+/**
+ * A {@link DataSerializer} that relies on standard java serialization to turn {@link Data}
+ * into an array of bytes and back.
+ *
+ * @author Ilirjan Papa
+ * @since July 31, 2013
+ *
+ */
+public class JavaDataSerializer implements DataSerializer<byte[]> {
+
+    private static final int INITIAL_BUFFER_SIZE = 256;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public byte[] serialize(Data data) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        try {
+            out.writeObject(data);
+        }
+        finally {
+            out.close();
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Data deserialize(byte[] data) throws Exception {
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data));
+        try {
+            return (Data) in.readObject();
+        }
+        finally {
+            in.close();
+        }
+    }
+
+}
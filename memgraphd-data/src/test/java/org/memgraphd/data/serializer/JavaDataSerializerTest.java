@@ -0,0 +1,51 @@
+package org.memgraphd.data.serializer;
+
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+import org.memgraphd.data.Data;
+import org.memgraphd.data.ReadWriteData;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+public class JavaDataSerializerTest {
+    private static final String ID = "id";
+    private static final DateTime CREATED_DATE = new DateTime();
+    private static final DateTime LAST_MODIFIED_DATE = new DateTime();
+
+    private JavaDataSerializer serializer;
+    private Data data;
+
+    @Before
+    public void setUp() {
+        serializer = new JavaDataSerializer();
+        data = new ReadWriteData(ID, CREATED_DATE, LAST_MODIFIED_DATE);
+    }
+
+    @Test
+    public void testSerialize() throws Exception {
+        byte[] bytes = serializer.serialize(data);
+        assertNotNull(bytes);
+        assertTrue(bytes.length > 0);
+    }
+
+    @Test
+    public void testDeserialize() throws Exception {
+        Data copy = serializer.deserialize(serializer.serialize(data));
+        assertNotNull(copy);
+        assertNotSame(data, copy);
+        assertTrue(copy instanceof ReadWriteData);
+        assertEquals(ID, copy.getId());
+        assertEquals(CREATED_DATE, copy.getCreatedDate());
+        assertEquals(LAST_MODIFIED_DATE, copy.getLastModifiedDate());
+    }
+
+    @Test(expected = Exception.class)
+    public void testDeserialize_corrupted() throws Exception {
+        serializer.deserialize(new byte[] { 1, 2, 3 });
+    }
+
+}
@@ -0,0 +1,101 @@
+package org.memgraphd;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Base class for {@link GraphLifecycleHandler} implementations that do some work in the background
+ * every so often while the graph is running. Starting up schedules {@link #runPeriodically()} on a
+ * daemon thread of its own, with a fixed delay between two runs, and shutting down stops it. Starting
+ * up or shutting down twice in a row does nothing, and a run that fails is logged without stopping
+ * the ones after it.
+ *
+ * @author Ilirjan Papa
+ * @since September 2, 2013
+ *
+ */
+public abstract class AbstractPeriodicLifecycleHandler implements GraphLifecycleHandler {
+    private final Logger logger;
+    private final String threadName;
+    private final long periodMillis;
+    private ScheduledExecutorService executor;
+
+    /**
+     * Constructs a new instance.
+     * @param threadName name of the background thread
+     * @param periodMillis time in milliseconds between two runs
+     */
+    protected AbstractPeriodicLifecycleHandler(String threadName, long periodMillis) {
+        this.logger = Logger.getLogger(getClass());
+        this.threadName = threadName;
+        this.periodMillis = periodMillis;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void onStartup() {
+        start();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void onShutdown() {
+        stop();
+    }
+
+    /**
+     * Schedules the background runs, unless they already are.
+     * @return true if they were scheduled now, false if they already were
+     */
+    protected final synchronized boolean start() {
+        if(executor != null) {
+            return false;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, threadName);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    runPeriodically();
+                } catch (Exception e) {
+                    logger.error(String.format("Background run of %s failed", threadName), e);
+                }
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+        return true;
+    }
+
+    /**
+     * Stops the background runs, a run in progress is left to finish.
+     * @return true if they were stopped now, false if they were not scheduled
+     */
+    protected final synchronized boolean stop() {
+        if(executor == null) {
+            return false;
+        }
+        executor.shutdown();
+        executor = null;
+        return true;
+    }
+
+    /**
+     * The work done in the background, it runs on the background thread only.
+     * @throws Exception if the run fails
+     */
+    protected abstract void runPeriodically() throws Exception;
+}
@@ -0,0 +1,193 @@
+package org.memgraphd;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A counting Bloom filter of data ids. Every id bumps a handful of counters, picked by double
+ * hashing, and is taken to be there only if none of its counters is zero. Counters are four bits,
+ * sixteen to a long, so that ids can be removed again for a quarter of the memory a counter per
+ * int would take. A counter that reaches its maximum stays there, so that removing ids can never
+ * make the filter miss an id that is still there.
+ * <br><br>
+ * Counters are updated with a compare and set, lookups take no lock and allocate nothing. The
+ * filter hashes the cached hash code of the id, so ids that share a hash code cannot be told apart,
+ * which adds little to the false positive rate the filter is sized for.
+ *
+ * @author Ilirjan Papa
+ * @since August 31, 2013
+ *
+ */
+final class CountingBloomFilter implements GraphIdFilter {
+    private static final int COUNTER_BITS = 4;
+    private static final int COUNTERS_PER_WORD = Long.SIZE / COUNTER_BITS;
+    private static final long MAX_COUNT = (1L << COUNTER_BITS) - 1;
+    private static final double LN2 = Math.log(2);
+
+    private final int expectedInsertions;
+    private final double expectedFalsePositiveRate;
+    private final int counters;
+    private final int hashes;
+    private final AtomicLongArray words;
+
+    CountingBloomFilter(int expectedInsertions, double falsePositiveRate) {
+        if(expectedInsertions <= 0) {
+            throw new IllegalArgumentException("Expected insertions must be positive: " + expectedInsertions);
+        }
+        if(falsePositiveRate <= 0d || falsePositiveRate >= 1d) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1: " + falsePositiveRate);
+        }
+        this.expectedInsertions = expectedInsertions;
+        this.expectedFalsePositiveRate = falsePositiveRate;
+        long optimal = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (LN2 * LN2));
+        long wordCount = (optimal + COUNTERS_PER_WORD - 1) / COUNTERS_PER_WORD;
+        if(wordCount > Integer.MAX_VALUE / COUNTERS_PER_WORD) {
+            throw new IllegalArgumentException(String.format("Filter of %d ids at a false positive rate of %f " +
+                    "is too large", expectedInsertions, falsePositiveRate));
+        }
+        this.words = new AtomicLongArray((int) wordCount);
+        this.counters = words.length() * COUNTERS_PER_WORD;
+        this.hashes = Math.max(1, (int) Math.round((double) counters / expectedInsertions * LN2));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean mightContain(String id) {
+        long hash = hash(id);
+        for(int i = 0; i < hashes; i++) {
+            if(count(position(hash, i)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds this data id to the filter.
+     * @param id data id
+     */
+    void add(String id) {
+        long hash = hash(id);
+        for(int i = 0; i < hashes; i++) {
+            increment(position(hash, i));
+        }
+    }
+
+    /**
+     * Removes this data id from the filter. It has to have been added before.
+     * @param id data id
+     */
+    void remove(String id) {
+        long hash = hash(id);
+        for(int i = 0; i < hashes; i++) {
+            decrement(position(hash, i));
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int expectedInsertions() {
+        return expectedInsertions;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double expectedFalsePositiveRate() {
+        return expectedFalsePositiveRate;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double falsePositiveRate() {
+        long used = 0;
+        for(int word = 0; word < words.length(); word++) {
+            // one bit per counter that is not zero
+            long value = words.get(word);
+            value |= value >>> 1;
+            value |= value >>> 2;
+            used += Long.bitCount(value & 0x1111111111111111L);
+        }
+        return Math.pow((double) used / counters, hashes);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long footprint() {
+        return (long) words.length() * (Long.SIZE / Byte.SIZE);
+    }
+
+    /**
+     * Returns how many counters each id bumps.
+     * @return integer
+     */
+    int hashes() {
+        return hashes;
+    }
+
+    /**
+     * Returns how many counters the filter holds.
+     * @return integer
+     */
+    int counters() {
+        return counters;
+    }
+
+    private int position(long hash, int i) {
+        // an odd step, so that the counters of an id never all fall on the same one
+        int combined = (int) hash + i * ((int) (hash >>> 32) | 1);
+        return (combined & Integer.MAX_VALUE) % counters;
+    }
+
+    private long count(int position) {
+        return (words.get(position / COUNTERS_PER_WORD) >>> shift(position)) & MAX_COUNT;
+    }
+
+    private void increment(int position) {
+        int word = position / COUNTERS_PER_WORD;
+        int shift = shift(position);
+        while(true) {
+            long current = words.get(word);
+            if(((current >>> shift) & MAX_COUNT) == MAX_COUNT
+                    || words.compareAndSet(word, current, current + (1L << shift))) {
+                return;
+            }
+        }
+    }
+
+    private void decrement(int position) {
+        int word = position / COUNTERS_PER_WORD;
+        int shift = shift(position);
+        while(true) {
+            long current = words.get(word);
+            long count = (current >>> shift) & MAX_COUNT;
+            if(count == 0 || count == MAX_COUNT
+                    || words.compareAndSet(word, current, current - (1L << shift))) {
+                return;
+            }
+        }
+    }
+
+    private static int shift(int position) {
+        return (position % COUNTERS_PER_WORD) * COUNTER_BITS;
+    }
+
+    private static long hash(String id) {
+        // spreads the 32 bits of the hash code over 64, half for each of the two hashes
+        long hash = id.hashCode();
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
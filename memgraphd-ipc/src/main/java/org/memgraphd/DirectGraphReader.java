@@ -0,0 +1,90 @@
+package org.memgraphd;
+
+import org.memgraphd.data.ExpiringDataReaper;
+import org.memgraphd.data.GraphData;
+import org.memgraphd.decision.Sequence;
+import org.memgraphd.memory.MemoryReference;
+import org.memgraphd.operation.GraphReader;
+
+/**
+ * The {@link GraphReader} handed out by {@link Graph#getReader()}. It does on its own what the
+ * {@link GraphInvocationHandler} and {@link GraphImpl} do for reads made on the {@link Graph}, it
+ * refuses them while the graph is not running and treats expired data as a miss, so that reads
+ * skip the reflective dispatch.
+ * <br><br>
+ * Reads of data whose view is in the view cache of the memory manager allocate nothing: the id is
+ * looked up in the mappings, the version of the node is read without a lock and the cached view
+ * is returned as is. Every other read builds a new view, that is the first read of data, the first
+ * one after it changed and the first one after its view made way for the view of other data, since
+ * the cache only holds a few thousand views. Reads of data kept off the heap or in the cold tier
+ * then also deserialize it, and eviction policies that keep track of reads might allocate on their
+ * own.
+ *
+ * @author Ilirjan Papa
+ * @since August 31, 2013
+ *
+ */
+final class DirectGraphReader implements GraphReader {
+    private final GraphReader reader;
+    private final GraphSupervisor supervisor;
+
+    DirectGraphReader(GraphReader reader, GraphSupervisor supervisor) {
+        this.reader = reader;
+        this.supervisor = supervisor;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public GraphData read(String id) {
+        checkRunning();
+        return live(reader.read(id));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public GraphData read(Sequence seq) {
+        checkRunning();
+        return live(reader.read(seq));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public GraphData read(MemoryReference ref) {
+        checkRunning();
+        return live(reader.read(ref));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public GraphData read(long sequence) {
+        checkRunning();
+        return live(reader.read(sequence));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public GraphData read(int referenceId) {
+        checkRunning();
+        return live(reader.read(referenceId));
+    }
+
+    private void checkRunning() {
+        if(!supervisor.isRunning()) {
+            throw new RuntimeException("Request cannot be handled. memgraphd is stopped.");
+        }
+    }
+
+    private static GraphData live(GraphData gData) {
+        return ExpiringDataReaper.hasExpired(gData) ? null : gData;
+    }
+}
@@ -11,8 +11,14 @@ import org.memgraphd.data.library.Librarian;
 import org.memgraphd.data.library.LibrarySection;
 import org.memgraphd.decision.DecisionMaker;
 import org.memgraphd.decision.SingleDecisionMaker;
+import org.memgraphd.memory.ClassSizeEstimator;
 import org.memgraphd.memory.DefaultMemoryBlockResolver;
+import org.memgraphd.memory.EvictionPolicy;
 import org.memgraphd.memory.MemoryBlockResolver;
+import org.memgraphd.memory.MemoryManager;
+import org.memgraphd.memory.MemoryManagerImpl;
+import org.memgraphd.memory.NoEvictionPolicy;
+import org.memgraphd.memory.SizeEstimator;
 
 /**
  * This is the default {@link GraphConfig} instance that the {@link Graph} will use
@@ -28,10 +34,16 @@ public class GraphConfigDefaults implements GraphConfig {
     private final int capacity;
     private final LibrarySection[] sections;
     private final MemoryBlockResolver memoryBlockResolver;
+    private final MemoryManager memoryManager;
+    private final EvictionPolicy evictionPolicy;
+    private final SizeEstimator sizeEstimator;
     private final String bookKeeperDBName;
     private final String bookKeeperDBPath;
     private final long bookeKeeperBatchSize;
     private final long bookeKeeperWriteFrequency;
+    private final long snapshotFrequency;
+    private final boolean orderedIdIndex;
+    private final double idFilterFalsePositiveRate;
     private final DecisionMaker decisionMaker;
     private final BookKeeper bookKeeper;
     private final PersistenceStore persistenceStore;
@@ -102,14 +114,185 @@ public class GraphConfigDefaults implements GraphConfig {
      */
     public GraphConfigDefaults(String name, int capacity, String dbName, String dbPath,
                             long batchSize, long writeFrequency, LibrarySection[] sections) throws SQLException {
+        this(name, capacity, dbName, dbPath, batchSize, writeFrequency, sections, DEFAULT_SNAPSHOT_FREQUENCY);
+    }
+    
+    /**
+     * Constructor that will use predefined default settings to instantiate a new instance with the
+     * exception of the name, capacity, dbName, dbPath and how often to write a snapshot of the graph.
+     * @param name the name of the instance as {@link String}
+     * @param capacity the capacity objects to store in memory as integer.
+     * @param dbName database name to use to store the decisions.
+     * @param dbPath the path where to store the database data, and the snapshots.
+     * @param batchSize how many decisions to read or write in a batch transaction
+     * @param writeFrequency long frequency in milliseconds to persist to disk decisions already made.
+     * @param sections library sections as array of {@link LibrarySection}.
+     * @param snapshotFrequency long frequency in milliseconds to write a snapshot of the graph, 0 for never.
+     * @throws SQLException 
+     * @see GraphConfig
+     */
+    public GraphConfigDefaults(String name, int capacity, String dbName, String dbPath, long batchSize, 
+            long writeFrequency, LibrarySection[] sections, long snapshotFrequency) throws SQLException {
+        this(name, capacity, dbName, dbPath, batchSize, writeFrequency, sections, snapshotFrequency,
+                DEFAULT_ORDERED_ID_INDEX);
+    }
+    
+    /**
+     * Constructor that will use predefined default settings to instantiate a new instance with the
+     * exception of the name, capacity, dbName, dbPath, how often to write a snapshot of the graph and
+     * whether to keep data ids in order.
+     * @param name the name of the instance as {@link String}
+     * @param capacity the capacity objects to store in memory as integer.
+     * @param dbName database name to use to store the decisions.
+     * @param dbPath the path where to store the database data, and the snapshots.
+     * @param batchSize how many decisions to read or write in a batch transaction
+     * @param writeFrequency long frequency in milliseconds to persist to disk decisions already made.
+     * @param sections library sections as array of {@link LibrarySection}.
+     * @param snapshotFrequency long frequency in milliseconds to write a snapshot of the graph, 0 for never.
+     * @param orderedIdIndex true to keep data ids in order, so that they can be scanned by prefix or range.
+     * @throws SQLException 
+     * @see GraphConfig
+     */
+    public GraphConfigDefaults(String name, int capacity, String dbName, String dbPath, long batchSize, 
+            long writeFrequency, LibrarySection[] sections, long snapshotFrequency, boolean orderedIdIndex) 
+                    throws SQLException {
+        this(name, capacity, dbName, dbPath, batchSize, writeFrequency, sections, snapshotFrequency, 
+                orderedIdIndex, DEFAULT_ID_FILTER_FALSE_POSITIVE_RATE);
+    }
+    
+    /**
+     * Constructor that will use predefined default settings to instantiate a new instance with the
+     * exception of the name, capacity, dbName, dbPath, how often to write a snapshot of the graph,
+     * whether to keep data ids in order and the false positive rate of the id filter.
+     * @param name the name of the instance as {@link String}
+     * @param capacity the capacity objects to store in memory as integer, also what the id filter is sized for.
+     * @param dbName database name to use to store the decisions.
+     * @param dbPath the path where to store the database data, and the snapshots.
+     * @param batchSize how many decisions to read or write in a batch transaction
+     * @param writeFrequency long frequency in milliseconds to persist to disk decisions already made.
+     * @param sections library sections as array of {@link LibrarySection}.
+     * @param snapshotFrequency long frequency in milliseconds to write a snapshot of the graph, 0 for never.
+     * @param orderedIdIndex true to keep data ids in order, so that they can be scanned by prefix or range.
+     * @param idFilterFalsePositiveRate false positive rate of the {@link GraphIdFilter}, 0 for no filter.
+     * @throws SQLException 
+     * @see GraphConfig
+     */
+    public GraphConfigDefaults(String name, int capacity, String dbName, String dbPath, long batchSize, 
+            long writeFrequency, LibrarySection[] sections, long snapshotFrequency, boolean orderedIdIndex,
+            double idFilterFalsePositiveRate) throws SQLException {
+        this(name, capacity, dbName, dbPath, batchSize, writeFrequency, sections, 
+                new MemoryManagerImpl(new DefaultMemoryBlockResolver(capacity)), new NoEvictionPolicy(),
+                new ClassSizeEstimator(), snapshotFrequency, orderedIdIndex, idFilterFalsePositiveRate);
+    }
+    
+    /**
+     * Constructor that will use predefined default settings to instantiate a new instance with the
+     * exception of the name and the {@link MemoryManager}. The capacity and {@link MemoryBlockResolver}
+     * are the ones of the memory manager.
+     * @param name the name of the instance as {@link String}
+     * @param memoryManager the {@link MemoryManager} to store data with.
+     * @throws SQLException 
+     * @see GraphConfig
+     */
+    public GraphConfigDefaults(String name, MemoryManager memoryManager) throws SQLException {
+        this(name, memoryManager, new NoEvictionPolicy());
+    }
+    
+    /**
+     * Constructor that will use predefined default settings to instantiate a new instance with the
+     * exception of the name, the {@link MemoryManager} and the {@link EvictionPolicy}.
+     * @param name the name of the instance as {@link String}
+     * @param memoryManager the {@link MemoryManager} to store data with.
+     * @param evictionPolicy the {@link EvictionPolicy} to make room with once memory blocks are full.
+     * @throws SQLException 
+     * @see GraphConfig
+     */
+    public GraphConfigDefaults(String name, MemoryManager memoryManager, EvictionPolicy evictionPolicy) 
+            throws SQLException {
+        this(name, DEFAULT_DB_NAME, DEFAULT_DB_PATH, DEFAULT_BATCH_SIZE, DEFAULT_WRITE_FREQUENCY,
+                DEFAULT_LIBRARY_SECTIONS, memoryManager, evictionPolicy);
+    }
+    
+    /**
+     * Constructor that will use predefined default settings to instantiate a new instance with the
+     * exception of the name, the {@link MemoryManager}, the {@link EvictionPolicy} and the 
+     * {@link SizeEstimator} that keeps memory blocks with a budget within it.
+     * @param name the name of the instance as {@link String}
+     * @param memoryManager the {@link MemoryManager} to store data with.
+     * @param evictionPolicy the {@link EvictionPolicy} to make room with once memory blocks are full.
+     * @param sizeEstimator the {@link SizeEstimator} to measure data with.
+     * @throws SQLException 
+     * @see GraphConfig
+     */
+    public GraphConfigDefaults(String name, MemoryManager memoryManager, EvictionPolicy evictionPolicy,
+            SizeEstimator sizeEstimator) throws SQLException {
+        this(name, memoryManager.capacity(), DEFAULT_DB_NAME, DEFAULT_DB_PATH, DEFAULT_BATCH_SIZE, 
+                DEFAULT_WRITE_FREQUENCY, DEFAULT_LIBRARY_SECTIONS, memoryManager, evictionPolicy, sizeEstimator,
+                DEFAULT_SNAPSHOT_FREQUENCY, DEFAULT_ORDERED_ID_INDEX, DEFAULT_ID_FILTER_FALSE_POSITIVE_RATE);
+    }
+    
+    /**
+     * Constructor that will use the {@link MemoryManager} provided, instead of the default heap 
+     * based one. The capacity and {@link MemoryBlockResolver} are the ones of the memory manager.
+     * @param name the name of the instance as {@link String}
+     * @param dbName database name to use to store the decisions.
+     * @param dbPath the path where to store the database data.
+     * @param batchSize how many decisions to read or write in a batch transaction
+     * @param writeFrequency long frequency in milliseconds to persist to disk decisions already made.
+     * @param sections library sections as array of {@link LibrarySection}.
+     * @param memoryManager the {@link MemoryManager} to store data with.
+     * @throws SQLException 
+     * @see GraphConfig
+     */
+    public GraphConfigDefaults(String name, String dbName, String dbPath, long batchSize, long writeFrequency,
+                            LibrarySection[] sections, MemoryManager memoryManager) throws SQLException {
+        this(name, dbName, dbPath, batchSize, writeFrequency, sections, memoryManager, new NoEvictionPolicy());
+    }
+    
+    /**
+     * Constructor that will use the {@link MemoryManager} and {@link EvictionPolicy} provided. The capacity
+     * and {@link MemoryBlockResolver} are the ones of the memory manager.
+     * @param name the name of the instance as {@link String}
+     * @param dbName database name to use to store the decisions.
+     * @param dbPath the path where to store the database data.
+     * @param batchSize how many decisions to read or write in a batch transaction
+     * @param writeFrequency long frequency in milliseconds to persist to disk decisions already made.
+     * @param sections library sections as array of {@link LibrarySection}.
+     * @param memoryManager the {@link MemoryManager} to store data with.
+     * @param evictionPolicy the {@link EvictionPolicy} to make room with once memory blocks are full.
+     * @throws SQLException 
+     * @see GraphConfig
+     */
+    public GraphConfigDefaults(String name, String dbName, String dbPath, long batchSize, long writeFrequency,
+                            LibrarySection[] sections, MemoryManager memoryManager, EvictionPolicy evictionPolicy)
+                                    throws SQLException {
+        this(name, memoryManager.capacity(), dbName, dbPath, batchSize, writeFrequency, sections, memoryManager,
+                evictionPolicy, new ClassSizeEstimator(), DEFAULT_SNAPSHOT_FREQUENCY, DEFAULT_ORDERED_ID_INDEX,
+                DEFAULT_ID_FILTER_FALSE_POSITIVE_RATE);
+    }
+    
+    private GraphConfigDefaults(String name, int capacity, String dbName, String dbPath, long batchSize,
+            long writeFrequency, LibrarySection[] sections, MemoryManager memoryManager, 
+            EvictionPolicy evictionPolicy, SizeEstimator sizeEstimator, long snapshotFrequency, 
+            boolean orderedIdIndex, double idFilterFalsePositiveRate) throws SQLException {
+        if(idFilterFalsePositiveRate < 0d || idFilterFalsePositiveRate >= 1d) {
+            throw new IllegalArgumentException("Id filter false positive rate must be between 0 and 1: " 
+                    + idFilterFalsePositiveRate);
+        }
         this.name = name;
         this.bookKeeperDBName = dbName;
         this.bookKeeperDBPath = dbPath;
         this.bookeKeeperBatchSize = batchSize;
         this.bookeKeeperWriteFrequency = writeFrequency;
+        this.snapshotFrequency = snapshotFrequency;
+        this.orderedIdIndex = orderedIdIndex;
+        this.idFilterFalsePositiveRate = idFilterFalsePositiveRate;
         this.capacity = capacity;
         this.sections = sections;
-        this.memoryBlockResolver = new DefaultMemoryBlockResolver(getCapacity());
+        this.memoryManager = memoryManager;
+        this.evictionPolicy = evictionPolicy;
+        this.sizeEstimator = sizeEstimator;
+        this.memoryBlockResolver = memoryManager.resolver();
         this.persistenceStore = new HSQLPersistenceStore(dbName, dbPath);
         this.bookKeeper = new HSQLBookKeeper(getPersistenceStore(),
                                         getBookKeeperOperationBatchSize(), getBookKeeperWriteFrequency());
@@ -158,6 +341,30 @@ public class GraphConfigDefaults implements GraphConfig {
         return memoryBlockResolver;
     }
     
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public final MemoryManager getMemoryManager() {
+        return memoryManager;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public final EvictionPolicy getEvictionPolicy() {
+        return evictionPolicy;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public final SizeEstimator getSizeEstimator() {
+        return sizeEstimator;
+    }
+    
     /**
      * {@inheritDoc}
      */
@@ -190,6 +397,30 @@ public class GraphConfigDefaults implements GraphConfig {
         return bookeKeeperWriteFrequency;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public final long getSnapshotFrequency() {
+        return snapshotFrequency;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public final boolean isOrderedIdIndexEnabled() {
+        return orderedIdIndex;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public final double getIdFilterFalsePositiveRate() {
+        return idFilterFalsePositiveRate;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -0,0 +1,342 @@
+package org.memgraphd;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.memgraphd.memory.MemoryReference;
+
+/**
+ * Maps data ids to {@link MemoryReference} ids in an open addressing hash table. Each slot is made
+ * of the id, its hash and the memory reference id, kept in parallel arrays, so a slot costs around
+ * twenty bytes instead of a node of its own. The id itself is the one the data already holds.
+ * Collisions are resolved by probing the next slots, hashes are compared before ids so that most
+ * probes never touch the id.
+ * <br><br>
+ * Lookups take no lock and allocate nothing, every write to a slot stamps it so that a lookup can
+ * tell whether the slot changed while it was being read. Writers of the same id are serialized by
+ * one of a fixed number of lock stripes, and claim empty slots with a compare and set, so writers
+ * of unrelated ids run in parallel. Deleted slots are left behind as tombstones, until the table
+ * fills up and is rebuilt, which takes the whole index exclusively.
+ * <br><br>
+ * Optionally a {@link CountingBloomFilter} of the ids sits in front of the table, so that lookups
+ * of ids that are not there mostly end without probing it. The filter is updated under the lock
+ * stripe of the id, an id is added to it before it shows up in the table and removed after it is
+ * gone from it.
+ *
+ * @author Ilirjan Papa
+ * @since August 31, 2013
+ *
+ */
+final class GraphIdIndex {
+    /**
+     * Returned by {@link #get(String)} when there is no mapping for an id.
+     */
+    static final int NONE = -1;
+
+    // large enough that the writers holding a stripe can never fill it up between two growths
+    private static final int MIN_CAPACITY = 1024;
+    private static final int LOCK_STRIPES = 64;
+    private static final String TOMBSTONE = new String("deleted");
+
+    private final ReadWriteLock structure;
+    private final Lock[] stripes;
+    private final AtomicInteger size;
+    private final CountingBloomFilter filter;
+    private volatile Table table;
+
+    GraphIdIndex() {
+        this(0);
+    }
+
+    GraphIdIndex(int expected) {
+        this(expected, null);
+    }
+
+    GraphIdIndex(int expected, CountingBloomFilter filter) {
+        this.structure = new ReentrantReadWriteLock();
+        this.stripes = new Lock[LOCK_STRIPES];
+        for(int i = 0; i < LOCK_STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.size = new AtomicInteger();
+        this.filter = filter;
+        this.table = new Table(capacityFor(expected));
+    }
+
+    /**
+     * Returns the memory reference id mapped to this id.
+     * @param id data id
+     * @return memory reference id, {@link #NONE} if there is none
+     */
+    int get(String id) {
+        if(filter != null && !filter.mightContain(id)) {
+            return NONE;
+        }
+        int hash = hash(id);
+        while(true) {
+            Table current = table;
+            int slot = current.find(id, hash);
+            if(slot < 0) {
+                return NONE;
+            }
+            long entry = current.entries.get(slot);
+            String key = current.keys.get(slot);
+            // the slot might have been deleted and taken by another id in the meantime
+            if(current.entries.get(slot) == entry && id.equals(key)) {
+                return ref(entry);
+            }
+        }
+    }
+
+    /**
+     * Maps this id to a memory reference id, replacing whatever it was mapped to.
+     * @param id data id
+     * @param ref memory reference id
+     */
+    void put(String id, int ref) {
+        if(ref < 0) {
+            throw new IllegalArgumentException("Memory reference id must not be negative: " + ref);
+        }
+        int hash = hash(id);
+        share();
+        try {
+            Lock lock = stripe(hash);
+            lock.lock();
+            try {
+                Table current = table;
+                int slot = current.find(id, hash);
+                if(slot >= 0) {
+                    current.stamp(slot, ref);
+                } else {
+                    if(filter != null) {
+                        filter.add(id);
+                    }
+                    current.claim(id, hash, ref);
+                    size.incrementAndGet();
+                }
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+        finally {
+            structure.readLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the mapping of this id, if any.
+     * @param id data id
+     */
+    void delete(String id) {
+        int hash = hash(id);
+        structure.readLock().lock();
+        try {
+            Lock lock = stripe(hash);
+            lock.lock();
+            try {
+                Table current = table;
+                int slot = current.find(id, hash);
+                if(slot >= 0) {
+                    // the reference goes first, readers that found the id see it is gone
+                    current.stamp(slot, NONE);
+                    current.keys.set(slot, TOMBSTONE);
+                    size.decrementAndGet();
+                    if(filter != null) {
+                        filter.remove(id);
+                    }
+                }
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+        finally {
+            structure.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the filter in front of the table.
+     * @return {@link CountingBloomFilter}, null if there is none
+     */
+    CountingBloomFilter filter() {
+        return filter;
+    }
+
+    /**
+     * Returns how many ids are mapped.
+     * @return integer
+     */
+    int size() {
+        return size.get();
+    }
+
+    /**
+     * Returns the number of slots in the table.
+     * @return integer
+     */
+    int capacity() {
+        return table.capacity();
+    }
+
+    /**
+     * Returns a copy of all the memory references ids are mapped to.
+     * @return list of {@link MemoryReference}
+     */
+    List<MemoryReference> values() {
+        Table current = table;
+        List<MemoryReference> values = new ArrayList<MemoryReference>(size());
+        for(int slot = 0; slot < current.capacity(); slot++) {
+            int ref = ref(current.entries.get(slot));
+            if(ref != NONE) {
+                values.add(MemoryReference.valueOf(ref));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Takes the read lock of the structure, once the table has room for one more id.
+     */
+    private void share() {
+        structure.readLock().lock();
+        while(table.full()) {
+            structure.readLock().unlock();
+            structure.writeLock().lock();
+            try {
+                if(table.full()) {
+                    rebuild();
+                }
+            }
+            finally {
+                structure.writeLock().unlock();
+            }
+            structure.readLock().lock();
+        }
+    }
+
+    /**
+     * Moves every mapping into a new table half full, leaving the tombstones behind.
+     * Expects the write lock of the structure.
+     */
+    private void rebuild() {
+        Table current = table;
+        Table rebuilt = new Table(capacityFor(size() * 2));
+        for(int slot = 0; slot < current.capacity(); slot++) {
+            String key = current.keys.get(slot);
+            if(key != null && key != TOMBSTONE) {
+                rebuilt.claim(key, current.hashes.get(slot), ref(current.entries.get(slot)));
+            }
+        }
+        table = rebuilt;
+    }
+
+    private Lock stripe(int hash) {
+        return stripes[hash & (LOCK_STRIPES - 1)];
+    }
+
+    private static int capacityFor(int expected) {
+        int capacity = MIN_CAPACITY;
+        while(capacity - capacity / 4 <= expected) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int ref(long entry) {
+        return (int) entry;
+    }
+
+    private static int hash(String id) {
+        int hash = id.hashCode();
+        // spread the high bits, the table is indexed by the low ones
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * The slots of a {@link GraphIdIndex}. A slot with no id has never been used and ends every
+     * probe, a slot with a tombstone did hold an id and is skipped. The entry of a slot holds the
+     * memory reference id in its low half and a stamp in its high half, moved forward by every write.
+     */
+    private static final class Table {
+        private final AtomicReferenceArray<String> keys;
+        private final AtomicIntegerArray hashes;
+        private final AtomicLongArray entries;
+        private final int mask;
+        private final AtomicInteger used;
+
+        Table(int capacity) {
+            this.keys = new AtomicReferenceArray<String>(capacity);
+            this.hashes = new AtomicIntegerArray(capacity);
+            this.entries = new AtomicLongArray(capacity);
+            for(int slot = 0; slot < capacity; slot++) {
+                entries.set(slot, NONE & 0xFFFFFFFFL);
+            }
+            this.mask = capacity - 1;
+            this.used = new AtomicInteger();
+        }
+
+        int capacity() {
+            return mask + 1;
+        }
+
+        /**
+         * Returns true once the slots ever used, tombstones included, take three quarters of the table.
+         */
+        boolean full() {
+            return used.get() >= capacity() - capacity() / 4;
+        }
+
+        /**
+         * Returns the slot holding this id, -1 if there is none.
+         */
+        int find(String id, int hash) {
+            for(int slot = hash & mask, probes = 0; probes <= mask; slot = (slot + 1) & mask, probes++) {
+                String key = keys.get(slot);
+                if(key == null) {
+                    return -1;
+                }
+                if(key != TOMBSTONE && hashes.get(slot) == hash && key.equals(id)) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Stores an id that is not in the table yet in the first free slot of its probe sequence.
+         * Expects the stripe of the id, other writers might be claiming slots at the same time.
+         */
+        void claim(String id, int hash, int ref) {
+            for(int slot = hash & mask; ; slot = (slot + 1) & mask) {
+                String key = keys.get(slot);
+                if((key == null || key == TOMBSTONE) && keys.compareAndSet(slot, key, id)) {
+                    // readers ignore the slot until the reference is set
+                    hashes.set(slot, hash);
+                    stamp(slot, ref);
+                    if(key == null) {
+                        used.incrementAndGet();
+                    }
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Sets the memory reference id of a slot and moves its stamp forward, expects the stripe of its id.
+         */
+        void stamp(int slot, int ref) {
+            long stamp = (entries.get(slot) >>> 32) + 1;
+            entries.set(slot, (stamp << 32) | (ref & 0xFFFFFFFFL));
+        }
+    }
+}
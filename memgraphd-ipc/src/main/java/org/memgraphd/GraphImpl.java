@@ -1,12 +1,21 @@
 package org.memgraphd;
 
+import java.io.File;
 import java.lang.reflect.Proxy;
+import java.util.Iterator;
 
 import org.memgraphd.data.Data;
+import org.memgraphd.data.ExpiringDataReaper;
 import org.memgraphd.data.GraphData;
-import org.memgraphd.data.GraphDataSnapshotManager;
+import org.memgraphd.data.GraphDataSnapshotFile;
 import org.memgraphd.data.GraphDataSnapshotManagerImpl;
+import org.memgraphd.data.event.GraphDataEventListenerImpl;
+import org.memgraphd.data.event.GraphDataEventListenerManager;
 import org.memgraphd.data.event.GraphDataEventListenerManagerImpl;
+import org.memgraphd.data.index.DataIndex;
+import org.memgraphd.data.index.DataIndexManager;
+import org.memgraphd.data.index.DataIndexManagerImpl;
+import org.memgraphd.data.index.DataKeyExtractor;
 import org.memgraphd.data.library.Library;
 import org.memgraphd.data.relationship.DataMatchmaker;
 import org.memgraphd.data.relationship.DataMatchmakerImpl;
@@ -14,8 +23,9 @@ import org.memgraphd.decision.Sequence;
 import org.memgraphd.exception.GraphException;
 import org.memgraphd.memory.MemoryAccess;
 import org.memgraphd.memory.MemoryBlock;
+import org.memgraphd.memory.MemoryCompactor;
+import org.memgraphd.memory.MemoryImage;
 import org.memgraphd.memory.MemoryManager;
-import org.memgraphd.memory.MemoryManagerImpl;
 import org.memgraphd.memory.MemoryReference;
 import org.memgraphd.memory.MemoryStats;
 import org.memgraphd.memory.operation.MemoryOperations;
@@ -23,12 +33,17 @@ import org.memgraphd.operation.GraphFilter;
 import org.memgraphd.operation.GraphFilterImpl;
 import org.memgraphd.operation.GraphReader;
 import org.memgraphd.operation.GraphReaderImpl;
+import org.memgraphd.operation.GraphScanner;
+import org.memgraphd.operation.GraphScannerImpl;
 import org.memgraphd.operation.GraphSeeker;
 import org.memgraphd.operation.GraphSeekerImpl;
 import org.memgraphd.operation.GraphStateManager;
 import org.memgraphd.operation.GraphStateManagerImpl;
+import org.memgraphd.operation.GraphTraverser;
+import org.memgraphd.operation.GraphTraverserImpl;
 import org.memgraphd.operation.GraphWriter;
 import org.memgraphd.operation.GraphWriterImpl;
+import org.memgraphd.operation.TraversalDirection;
 import org.memgraphd.security.GraphAuthority;
 import org.memgraphd.security.GraphAuthorityImpl;
 import org.memgraphd.security.GraphRequestResolver;
@@ -51,6 +66,9 @@ public final class GraphImpl implements Graph {
     private final String name;
     private final GraphMappings mappings;
     private final GraphFilter filter;
+    private final GraphTraverser traverser;
+    private final GraphScanner scanner;
+    private final DataIndexManager indexManager;
     private final GraphReader reader;
     private final GraphWriter writer;
     private final GraphSeeker seeker;
@@ -63,29 +81,54 @@ public final class GraphImpl implements Graph {
     private final GraphSupervisor supervisor;
     private final GraphConfig config;
     private final Library library;
+    private final ExpiringDataReaper reaper;
+    private final GraphReader directReader;
+    private final GraphIdFilter idFilter;
     
     private GraphImpl(GraphConfig config) {
         this.config = config;
         this.name = config.getName();
-        MemoryManager memoryManager = new MemoryManagerImpl(config.getMemoryBlockResolver());
-        this.memoryAccess = new MemoryAccess(memoryManager);
-        this.mappings = new GraphMappingsImpl();
+        MemoryManager memoryManager = config.getMemoryManager();
+        this.memoryAccess = new MemoryAccess(memoryManager, config.getEvictionPolicy(), config.getSizeEstimator());
+        GraphMappingsImpl mappings = new GraphMappingsImpl(config.isOrderedIdIndexEnabled(), 
+                config.getCapacity(), config.getIdFilterFalsePositiveRate());
+        this.mappings = mappings;
+        this.idFilter = mappings.getIdFilter();
         
         this.seeker = new GraphSeekerImpl(memoryAccess, mappings);
         this.reader = new GraphReaderImpl(memoryAccess, seeker);
         this.dataMatchmaker = new DataMatchmakerImpl(memoryAccess, seeker);
+        GraphDataEventListenerManager eventManager = new GraphDataEventListenerManagerImpl();
         this.stateManager = new GraphStateManagerImpl(memoryAccess, mappings, config.getLibrarian(), 
-                                dataMatchmaker, new GraphDataEventListenerManagerImpl());
+                                dataMatchmaker, eventManager);
         this.authority = new GraphAuthorityImpl();
         this.validator = new GraphValidatorImpl(config.getDecisionMaker());
         this.resolver = new GraphRequestResolverImpl(reader);
-        this.writer = new GraphWriterImpl(memoryAccess, authority, validator,
+        GraphWriterImpl writer = new GraphWriterImpl(memoryAccess, authority, validator,
                 resolver, config.getDecisionMaker(), stateManager);
+        this.writer = writer;
         this.filter = new GraphFilterImpl(memoryAccess, reader);
+        this.traverser = new GraphTraverserImpl(memoryAccess, seeker);
+        this.scanner = new GraphScannerImpl(mappings, reader);
         
-        GraphDataSnapshotManager snapshotManager = new GraphDataSnapshotManagerImpl(reader, writer, mappings, config.getDecisionMaker(), stateManager);
+        MemoryImage image = memoryManager instanceof MemoryImage ? (MemoryImage) memoryManager : null;
+        GraphDataSnapshotFile snapshotFile = config.getSnapshotFrequency() > 0 ? new GraphDataSnapshotFile(
+                new File(config.getBookKeeperDatabasePath(), name + ".snapshot")) : null;
+        GraphDataSnapshotManagerImpl snapshotManager = new GraphDataSnapshotManagerImpl(reader, writer, writer, 
+                mappings, config.getDecisionMaker(), stateManager, image, snapshotFile, config.getSnapshotFrequency());
         this.supervisor = new GraphSupervisorImpl(snapshotManager, (MemoryStats) memoryManager);
         this.library = (Library) config.getLibrarian();
+        this.directReader = new DirectGraphReader(reader, supervisor);
+        
+        this.reaper = new ExpiringDataReaper(reader, writer);
+        eventManager.addEventListener(new GraphDataEventListenerImpl(reaper));
+        DataIndexManagerImpl indexManager = new DataIndexManagerImpl(reader, writer, mappings);
+        eventManager.addEventListener(new GraphDataEventListenerImpl(indexManager));
+        this.indexManager = indexManager;
+        supervisor.register(reaper);
+        supervisor.register(new MemoryCompactor(memoryManager, stateManager));
+        // last, so that the memory image is saved once everything else has stopped
+        supervisor.register(snapshotManager);
     }
 
     private static final Graph createProxy(Graph liveGraph) {
@@ -117,7 +160,7 @@ public final class GraphImpl implements Graph {
      */
     @Override
     public GraphData read(String id) {
-        return reader.read(id);
+        return live(reader.read(id));
     }
 
     /**
@@ -125,7 +168,7 @@ public final class GraphImpl implements Graph {
      */
     @Override
     public GraphData read(Sequence seq) {
-        return reader.read(seq);
+        return live(reader.read(seq));
     }
 
     /**
@@ -133,7 +176,23 @@ public final class GraphImpl implements Graph {
      */
     @Override
     public GraphData read(MemoryReference ref) {
-        return reader.read(ref);
+        return live(reader.read(ref));
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public GraphData read(long sequence) {
+        return live(reader.read(sequence));
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public GraphData read(int referenceId) {
+        return live(reader.read(referenceId));
     }
     
     /**
@@ -161,6 +220,30 @@ public final class GraphImpl implements Graph {
         writer.delete(id);
     }
     
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public MemoryReference[] createAll(Data[] data) throws GraphException {
+        return writer.createAll(data);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public MemoryReference[] updateAll(Data[] data) throws GraphException {
+        return writer.updateAll(data);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void deleteAll(String[] ids) throws GraphException {
+        writer.deleteAll(ids);
+    }
+    
     /**
      * {@inheritDoc}
      * 
@@ -175,7 +258,7 @@ public final class GraphImpl implements Graph {
      */
     @Override
     public GraphData[] filterBy(MemoryBlock block) {
-        return filter.filterBy(block);
+        return live(filter.filterBy(block));
     }
 
     /**
@@ -183,7 +266,7 @@ public final class GraphImpl implements Graph {
      */
     @Override
     public GraphData[] filterByRange(MemoryReference startRef, MemoryReference endRef) {
-        return filter.filterByRange(startRef, endRef);
+        return live(filter.filterByRange(startRef, endRef));
     }
 
     /**
@@ -191,7 +274,57 @@ public final class GraphImpl implements Graph {
      */
     @Override
     public GraphData[] filterByRange(Sequence startSeq, Sequence endSeq) {
-        return filter.filterByRange(startSeq, endSeq);
+        return live(filter.filterByRange(startSeq, endSeq));
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterator<GraphData> traverse(String id, int depth, TraversalDirection direction,
+            Class<? extends Data> filter) {
+        return traverser.traverse(id, depth, direction, filter);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterator<GraphData> scanByIdPrefix(String prefix) {
+        return scanner.scanByIdPrefix(prefix);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterator<GraphData> scanByIdRange(String from, String to) {
+        return scanner.scanByIdRange(from, to);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <K extends Comparable<? super K>> DataIndex<K> createIndex(String name, DataKeyExtractor<K> extractor)
+            throws GraphException {
+        return indexManager.createIndex(name, extractor);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <K> DataIndex<K> index(String name) {
+        return indexManager.index(name);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void dropIndex(String name) {
+        indexManager.dropIndex(name);
     }
     
     /**
@@ -202,6 +335,22 @@ public final class GraphImpl implements Graph {
         return library;
     }
     
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public GraphReader getReader() {
+        return directReader;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public GraphIdFilter getIdFilter() {
+        return idFilter;
+    }
+    
     /**
      * {@inheritDoc}
      */
@@ -304,6 +453,30 @@ public final class GraphImpl implements Graph {
         return supervisor.recycled();
     }
     
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int segments() {
+        return supervisor.segments();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int growths() {
+        return supervisor.growths();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long footprint() {
+        return supervisor.footprint();
+    }
+    
     /**
      * {@inheritDoc}
      */
@@ -322,5 +495,16 @@ public final class GraphImpl implements Graph {
     public void clear() throws GraphException {
         supervisor.clear();
     }
-
+    
+    // expired data that the reaper has not deleted yet is a miss
+    private GraphData live(GraphData gData) {
+        return ExpiringDataReaper.hasExpired(gData) ? null : gData;
+    }
+    
+    private GraphData[] live(GraphData[] gData) {
+        for(int i = 0; gData != null && i < gData.length; i++) {
+            gData[i] = live(gData[i]);
+        }
+        return gData;
+    }
 }
@@ -1,8 +1,9 @@
 package org.memgraphd;
 
 import java.util.Collection;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
 
 import org.apache.log4j.Logger;
 import org.memgraphd.data.GraphData;
@@ -11,7 +12,10 @@ import org.memgraphd.memory.MemoryReference;
 
 /**
  * Default implementation of {@link GraphMappings} in charge of managing the state of all
- * memory reference mappings for {@link GraphData}.
+ * memory reference mappings for {@link GraphData}. Data ids are mapped by a {@link GraphIdIndex}
+ * and sequences by a {@link GraphSequenceIndex}, lookups take no lock and allocate nothing.
+ * Optionally data ids are also kept in order in a skip list, so that they can be scanned by range,
+ * and a {@link CountingBloomFilter} answers most lookups of ids that are not mapped.
  * 
  * @author Ilirjan Papa
  * @since July 27, 2012
@@ -19,12 +23,35 @@ import org.memgraphd.memory.MemoryReference;
 public final class GraphMappingsImpl implements GraphMappings {
     private static final Logger LOGGER = Logger.getLogger(GraphMappingsImpl.class);
     
-    private final Map<String, MemoryReference> idMap;
-    private final Map<Sequence, MemoryReference> seqMap;
+    private final GraphIdIndex idIndex;
+    private final GraphSequenceIndex sequenceIndex;
+    private final NavigableSet<String> orderedIds;
     
     public GraphMappingsImpl() {
-        this.idMap = new ConcurrentHashMap<String, MemoryReference>();
-        this.seqMap = new ConcurrentHashMap<Sequence, MemoryReference>();
+        this(false);
+    }
+    
+    public GraphMappingsImpl(boolean ordered) {
+        this(ordered, 0, 0d);
+    }
+    
+    /**
+     * Constructs a new instance.
+     * @param ordered true to keep data ids in order
+     * @param expectedIds how many data ids to size the id filter for
+     * @param idFilterFalsePositiveRate false positive rate of the id filter, 0 for no filter
+     */
+    public GraphMappingsImpl(boolean ordered, int expectedIds, double idFilterFalsePositiveRate) {
+        CountingBloomFilter filter = idFilterFalsePositiveRate > 0d ? 
+                new CountingBloomFilter(expectedIds, idFilterFalsePositiveRate) : null;
+        if(filter != null) {
+            LOGGER.info(String.format("Id filter of %d counters, %d hashes and %d bytes for %d ids at a " +
+                    "false positive rate of %f", filter.counters(), filter.hashes(), filter.footprint(),
+                    expectedIds, idFilterFalsePositiveRate));
+        }
+        this.idIndex = new GraphIdIndex(0, filter);
+        this.sequenceIndex = new GraphSequenceIndex();
+        this.orderedIds = ordered ? new ConcurrentSkipListSet<String>() : null;
     }
     
     /**
@@ -32,7 +59,7 @@ public final class GraphMappingsImpl implements GraphMappings {
      */
     @Override
     public boolean containsId(String id) {
-        return idMap.containsKey(id);
+        return idIndex.get(id) != GraphIdIndex.NONE;
     }
     
     /**
@@ -40,7 +67,8 @@ public final class GraphMappingsImpl implements GraphMappings {
      */
     @Override
     public MemoryReference getById(String id) {
-        return idMap.get(id);
+        int ref = idIndex.get(id);
+        return ref != GraphIdIndex.NONE ? MemoryReference.valueOf(ref) : null;
     }
     
     /**
@@ -49,7 +77,10 @@ public final class GraphMappingsImpl implements GraphMappings {
     @Override
     public void put(String id, MemoryReference ref) {
         LOGGER.info(String.format("PUT ID: %s -> %d", id, ref.id()));
-        idMap.put(id, ref);
+        idIndex.put(id, ref.id());
+        if(orderedIds != null) {
+            orderedIds.add(id);
+        }
     }
     
     /**
@@ -57,7 +88,7 @@ public final class GraphMappingsImpl implements GraphMappings {
      */
     @Override
     public boolean containsSequence(Sequence sequence) {
-        return seqMap.containsKey(sequence);
+        return sequenceIndex.get(sequence.number()) != GraphSequenceIndex.NONE;
     }
     
     /**
@@ -65,7 +96,16 @@ public final class GraphMappingsImpl implements GraphMappings {
      */
     @Override
     public MemoryReference getBySequence(Sequence sequence) {
-        return seqMap.get(sequence);
+        return getBySequence(sequence.number());
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public MemoryReference getBySequence(long sequence) {
+        int ref = sequenceIndex.get(sequence);
+        return ref != GraphSequenceIndex.NONE ? MemoryReference.valueOf(ref) : null;
     }
     
     /**
@@ -74,7 +114,7 @@ public final class GraphMappingsImpl implements GraphMappings {
     @Override
     public void put(Sequence sequence, MemoryReference ref) {
         LOGGER.info(String.format("PUT SEQ: %d -> %d", sequence.number(), ref.id()));
-        seqMap.put(sequence, ref);
+        sequenceIndex.put(sequence.number(), ref.id());
     }
     
     /**
@@ -83,7 +123,10 @@ public final class GraphMappingsImpl implements GraphMappings {
     @Override
     public void delete(String id) {
         LOGGER.info(String.format("DELETE ID: id=%s", id));
-        idMap.remove(id);
+        idIndex.delete(id);
+        if(orderedIds != null) {
+            orderedIds.remove(id);
+        }
     }
 
     /**
@@ -92,7 +135,7 @@ public final class GraphMappingsImpl implements GraphMappings {
     @Override
     public void delete(Sequence seq) {
         LOGGER.info(String.format("Mappings DELETE SEQ: number=%s", seq.number()));
-        seqMap.remove(seq);
+        sequenceIndex.delete(seq.number());
     }
     
     /**
@@ -100,7 +143,36 @@ public final class GraphMappingsImpl implements GraphMappings {
      */
     @Override
     public final Collection<MemoryReference> getAllMemoryReferences() {
-        return idMap.values();
+        return idIndex.values();
+    }
+    
+    /**
+     * Returns the filter that answers lookups of data ids that are not mapped.
+     * @return {@link GraphIdFilter}, null if there is none
+     */
+    public GraphIdFilter getIdFilter() {
+        return idIndex.filter();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterator<String> getIdsInOrder(String from, String to) {
+        if(orderedIds == null) {
+            throw new IllegalStateException("Data ids are not kept in order, enable the ordered id index.");
+        }
+        if(from != null && to != null && from.compareTo(to) > 0) {
+            throw new IllegalArgumentException(String.format("Invalid range specified: %s > %s", from, to));
+        }
+        NavigableSet<String> ids = orderedIds;
+        if(from != null) {
+            ids = ids.tailSet(from, true);
+        }
+        if(to != null) {
+            ids = ids.headSet(to, false);
+        }
+        return ids.iterator();
     }
 
 }
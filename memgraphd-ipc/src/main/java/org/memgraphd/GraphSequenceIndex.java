@@ -0,0 +1,414 @@
+package org.memgraphd;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.memgraphd.decision.Sequence;
+import org.memgraphd.memory.MemoryReference;
+
+/**
+ * Maps {@link Sequence} numbers to {@link MemoryReference} ids. Sequences are handed out one after
+ * the other, so instead of hashing them the index splits them into segments of consecutive numbers,
+ * each an array of memory reference ids indexed by the sequence number. Segments are kept in a
+ * ring indexed by segment number, which only has to span the segments still in use.
+ * <br><br>
+ * A segment is dropped once every sequence in it has been deleted, which is what happens as data
+ * is updated or deleted. The few sequences left behind in an older segment, such as those of data
+ * that is never updated, do not keep it around: once fewer than sixteen of them are left they move
+ * to a small overflow hash table and the segment is dropped. When the ring moves on, it also moves
+ * the oldest segments to the overflow table until it spans no more than four segment numbers for
+ * every segment it holds.
+ * <br><br>
+ * So however far apart the sequences in use are, every segment but the newest holds at least
+ * sixteen mappings, the overflow table keeps at least one in eight of its slots in use and the ring
+ * is sized for the segments it held when it last moved. Past the newest segment, the index takes
+ * about a hundred bytes at most for every sequence mapped.
+ * <br><br>
+ * Lookups take no lock and allocate nothing, writers are serialized.
+ *
+ * @author Ilirjan Papa
+ * @since August 31, 2013
+ *
+ */
+final class GraphSequenceIndex {
+    /**
+     * Returned by {@link #get(long)} when there is no mapping for a sequence.
+     */
+    static final int NONE = -1;
+
+    private static final int SEGMENT_SHIFT = 8;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+    private static final int MIN_RING_SIZE = 16;
+    private static final int SPARSE = SEGMENT_SIZE / 16;
+    private static final int SPAN_PER_SEGMENT = 4;
+
+    private volatile Ring ring;
+    private volatile Overflow overflow;
+    // guarded by the writer lock, number of the newest segment
+    private long newest;
+    private int size;
+
+    GraphSequenceIndex() {
+        this.ring = new Ring(0L, MIN_RING_SIZE);
+        this.overflow = new Overflow(Overflow.MIN_LENGTH);
+        this.newest = -1L;
+    }
+
+    /**
+     * Returns the memory reference id mapped to this sequence number.
+     * @param sequence sequence number
+     * @return memory reference id, {@link #NONE} if there is none
+     */
+    int get(long sequence) {
+        Segment segment = ring.segment(sequence >>> SEGMENT_SHIFT);
+        if(segment != null) {
+            int ref = segment.refs.get(offset(sequence));
+            if(ref != NONE) {
+                return ref;
+            }
+        }
+        // a segment moves to the overflow table before it leaves the ring, never to come back
+        return overflow.get(sequence);
+    }
+
+    /**
+     * Maps this sequence number to a memory reference id, replacing whatever it was mapped to.
+     * @param sequence sequence number
+     * @param ref memory reference id
+     */
+    synchronized void put(long sequence, int ref) {
+        if(sequence < 0) {
+            throw new IllegalArgumentException("Sequence must not be negative: " + sequence);
+        }
+        if(ref < 0) {
+            throw new IllegalArgumentException("Memory reference id must not be negative: " + ref);
+        }
+        long number = sequence >>> SEGMENT_SHIFT;
+        Ring current = ring;
+        Segment segment = current.segment(number);
+        if(segment == null) {
+            if(number < newest) {
+                // older segments only ever shrink, what comes late goes straight to the overflow table
+                if(overflowPut(sequence, ref) == NONE) {
+                    size++;
+                }
+                return;
+            }
+            if(number > newest) {
+                if(!current.covers(number)) {
+                    current = resize(number);
+                }
+                newest = number;
+            }
+            segment = new Segment(number);
+            current.segments.set(current.position(number), segment);
+        }
+        if(segment.refs.getAndSet(offset(sequence), ref) == NONE) {
+            segment.live++;
+            size++;
+        }
+    }
+
+    /**
+     * Removes the mapping of this sequence number, if any.
+     * @param sequence sequence number
+     */
+    synchronized void delete(long sequence) {
+        long number = sequence >>> SEGMENT_SHIFT;
+        Ring current = ring;
+        Segment segment = current.segment(number);
+        if(segment != null && segment.refs.getAndSet(offset(sequence), NONE) != NONE) {
+            size--;
+            segment.live--;
+            if(segment.live == 0) {
+                current.segments.set(current.position(number), null);
+            }
+            else if(segment.live < SPARSE && number < newest) {
+                spill(current, segment);
+            }
+        }
+        else if(segment == null && overflow.delete(sequence)) {
+            size--;
+            if(overflow.shrinkable()) {
+                overflow = overflow.rehash();
+            }
+        }
+    }
+
+    /**
+     * Returns how many sequences are mapped.
+     * @return integer
+     */
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns how many segments are in use.
+     * @return integer
+     */
+    synchronized int segments() {
+        Ring current = ring;
+        int segments = 0;
+        for(int position = 0; position < current.segments.length(); position++) {
+            if(current.segments.get(position) != null) {
+                segments++;
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * Returns how many memory reference ids the segments and the overflow table have room for.
+     * @return integer
+     */
+    synchronized int capacity() {
+        return segments() * SEGMENT_SIZE + overflow.length();
+    }
+
+    /**
+     * Replaces the ring with one that spans this segment number and the segments worth keeping,
+     * moving the others to the overflow table. Expects the writer lock.
+     */
+    private Ring resize(long number) {
+        Ring current = ring;
+        List<Segment> kept = new ArrayList<Segment>();
+        for(int i = 0; i < current.segments.length(); i++) {
+            // oldest first
+            Segment segment = current.segment(current.base + i);
+            if(segment == null) {
+                continue;
+            }
+            if(segment.live < SPARSE) {
+                spill(current, segment);
+            }
+            else {
+                kept.add(segment);
+            }
+        }
+        int oldest = 0;
+        while(oldest < kept.size()
+                && number - kept.get(oldest).number + 1 > Math.max(MIN_RING_SIZE / 2,
+                        SPAN_PER_SEGMENT * (kept.size() - oldest + 1))) {
+            spill(current, kept.get(oldest++));
+        }
+        long lowest = oldest < kept.size() ? kept.get(oldest).number : number;
+        long span = number - lowest + 1;
+        int length = MIN_RING_SIZE;
+        // room for the sequences to come, so that the ring does not move again right away
+        while(length < span * 2) {
+            length <<= 1;
+        }
+        Ring resized = new Ring(lowest, length);
+        for(Segment segment : kept.subList(oldest, kept.size())) {
+            resized.segments.set(resized.position(segment.number), segment);
+        }
+        ring = resized;
+        return resized;
+    }
+
+    /**
+     * Moves the mappings of this segment to the overflow table and drops it from the ring.
+     * Expects the writer lock.
+     */
+    private void spill(Ring current, Segment segment) {
+        long first = segment.number << SEGMENT_SHIFT;
+        for(int offset = 0; offset < SEGMENT_SIZE; offset++) {
+            int ref = segment.refs.get(offset);
+            if(ref != NONE) {
+                overflowPut(first + offset, ref);
+            }
+        }
+        current.segments.set(current.position(segment.number), null);
+    }
+
+    /**
+     * Maps this sequence number in the overflow table, growing it if needs be. Expects the
+     * writer lock.
+     * @return memory reference id it was mapped to, {@link #NONE} if there was none
+     */
+    private int overflowPut(long sequence, int ref) {
+        Overflow current = overflow;
+        if(!current.contains(sequence) && current.full()) {
+            current = current.rehash();
+            overflow = current;
+        }
+        return current.put(sequence, ref);
+    }
+
+    private static int offset(long sequence) {
+        return (int) (sequence & (SEGMENT_SIZE - 1));
+    }
+
+    /**
+     * The segments of a {@link GraphSequenceIndex}, indexed by segment number modulo the length of
+     * the ring. It holds the segments with numbers from its base on, as many as its length.
+     */
+    private static final class Ring {
+        private final long base;
+        private final AtomicReferenceArray<Segment> segments;
+
+        Ring(long base, int length) {
+            this.base = base;
+            this.segments = new AtomicReferenceArray<Segment>(length);
+        }
+
+        boolean covers(long number) {
+            return number >= base && number - base < segments.length();
+        }
+
+        int position(long number) {
+            return (int) (number & (segments.length() - 1));
+        }
+
+        Segment segment(long number) {
+            if(!covers(number)) {
+                return null;
+            }
+            Segment segment = segments.get(position(number));
+            return segment != null && segment.number == number ? segment : null;
+        }
+    }
+
+    /**
+     * Memory reference ids of consecutive sequence numbers.
+     */
+    private static final class Segment {
+        private final long number;
+        private final AtomicIntegerArray refs;
+        // guarded by the writer lock of the index
+        private int live;
+
+        Segment(long number) {
+            this.number = number;
+            this.refs = new AtomicIntegerArray(SEGMENT_SIZE);
+            for(int i = 0; i < SEGMENT_SIZE; i++) {
+                refs.set(i, NONE);
+            }
+        }
+    }
+
+    /**
+     * Memory reference ids of sequences scattered too far apart to be worth a segment, in an open
+     * addressing hash table. A deleted sequence keeps its slot with {@link #NONE} as its id until
+     * the table is rehashed, so that readers never see a slot change hands. Only readers go
+     * without the writer lock of the index.
+     */
+    private static final class Overflow {
+        private static final int MIN_LENGTH = 16;
+        private static final long EMPTY = -1L;
+
+        private final AtomicLongArray keys;
+        private final AtomicIntegerArray refs;
+        private final int mask;
+        // guarded by the writer lock of the index
+        private int live;
+        private int used;
+
+        Overflow(int length) {
+            this.keys = new AtomicLongArray(length);
+            this.refs = new AtomicIntegerArray(length);
+            this.mask = length - 1;
+            for(int i = 0; i < length; i++) {
+                keys.set(i, EMPTY);
+                refs.set(i, NONE);
+            }
+        }
+
+        int get(long sequence) {
+            for(int slot = slot(sequence);; slot = (slot + 1) & mask) {
+                long key = keys.get(slot);
+                if(key == sequence) {
+                    return refs.get(slot);
+                }
+                if(key == EMPTY) {
+                    return NONE;
+                }
+            }
+        }
+
+        boolean contains(long sequence) {
+            return find(sequence) >= 0;
+        }
+
+        int put(long sequence, int ref) {
+            int slot = find(sequence);
+            if(slot >= 0) {
+                int replaced = refs.getAndSet(slot, ref);
+                if(replaced == NONE) {
+                    live++;
+                }
+                return replaced;
+            }
+            slot = slot(sequence);
+            while(keys.get(slot) != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            // the id goes first, so that readers finding the key find the id as well
+            refs.set(slot, ref);
+            keys.set(slot, sequence);
+            live++;
+            used++;
+            return NONE;
+        }
+
+        boolean delete(long sequence) {
+            int slot = find(sequence);
+            if(slot >= 0 && refs.getAndSet(slot, NONE) != NONE) {
+                live--;
+                return true;
+            }
+            return false;
+        }
+
+        boolean full() {
+            return (used + 1) * 4 > length() * 3;
+        }
+
+        boolean shrinkable() {
+            return length() > MIN_LENGTH && live * 8 < length();
+        }
+
+        int length() {
+            return keys.length();
+        }
+
+        /**
+         * Returns a copy of this table without the deleted sequences, half full at most.
+         */
+        Overflow rehash() {
+            int length = MIN_LENGTH;
+            while(length < (live + 1) * 2) {
+                length <<= 1;
+            }
+            Overflow rehashed = new Overflow(length);
+            for(int slot = 0; slot < length(); slot++) {
+                int ref = refs.get(slot);
+                if(ref != NONE) {
+                    rehashed.put(keys.get(slot), ref);
+                }
+            }
+            return rehashed;
+        }
+
+        private int find(long sequence) {
+            for(int slot = slot(sequence);; slot = (slot + 1) & mask) {
+                long key = keys.get(slot);
+                if(key == sequence) {
+                    return slot;
+                }
+                if(key == EMPTY) {
+                    return -1;
+                }
+            }
+        }
+
+        private int slot(long sequence) {
+            int hash = (int) (sequence ^ (sequence >>> 32)) * 0x9E3779B9;
+            return (hash ^ (hash >>> 16)) & mask;
+        }
+    }
+}
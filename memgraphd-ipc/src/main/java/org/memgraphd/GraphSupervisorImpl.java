@@ -143,6 +143,30 @@ public final class GraphSupervisorImpl implements GraphSupervisor {
         return memoryStats.recycled();
     }
     
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int segments() {
+        return memoryStats.segments();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int growths() {
+        return memoryStats.growths();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long footprint() {
+        return memoryStats.footprint();
+    }
+    
     private void notifyOnStartup() {
         for(GraphLifecycleHandler h : listeners) {
             h.onStartup();
@@ -93,6 +93,21 @@ public abstract class AbstractBookKeeper implements BookKeeper, Runnable {
         addToBuffer(decision);
     }
     
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordAll(List<Decision> decisions) {
+        authorize();
+        bufferLock.lock();
+        try {
+            buffer.addAll(decisions);
+        }
+        finally {
+            bufferLock.unlock();
+        }
+    }
+    
     /**
      * {@inheritDoc}
      */
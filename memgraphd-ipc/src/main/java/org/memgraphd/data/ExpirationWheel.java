@@ -0,0 +1,133 @@
+package org.memgraphd.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A hierarchical timing wheel that keeps track of when {@link ExpiringData} expires. Time is cut
+ * into ticks and every level of the wheel has {@link #SLOTS} slots, each slot of a level spanning a
+ * whole turn of the level below it. Adding an id costs O(1) and so does every tick, plus the cost
+ * of moving entries one level down when a slot of a higher level comes due, so the work needed
+ * to find expired data is proportional to how much of it there is and not to the size of the graph.
+ * <br><br>
+ * Entries are never removed, whoever consumes them is expected to check that the data is still
+ * there and still expired.
+ *
+ * @author Ilirjan Papa
+ * @since August 21, 2013
+ *
+ */
+final class ExpirationWheel {
+    static final int SLOTS = 64;
+    static final int LEVELS = 4;
+
+    private static final int BITS = Integer.numberOfTrailingZeros(SLOTS);
+    private static final int MASK = SLOTS - 1;
+
+    private final long tickMillis;
+    private final List<Entry>[][] wheel;
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    ExpirationWheel(long tickMillis, long nowMillis) {
+        if(tickMillis < 1) {
+            throw new IllegalArgumentException("Invalid tick: " + tickMillis);
+        }
+        this.tickMillis = tickMillis;
+        this.wheel = new List[LEVELS][SLOTS];
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    /**
+     * Schedules the id to come due at the expiration time.
+     * @param id data id
+     * @param expirationMillis expiration time in milliseconds
+     * @param due collects the id right away if it has already expired
+     */
+    synchronized void add(String id, long expirationMillis, List<String> due) {
+        // round up, an entry must never come due before it expires
+        long tick = expirationMillis / tickMillis + (expirationMillis % tickMillis == 0 ? 0 : 1);
+        place(new Entry(id, tick), due);
+    }
+
+    /**
+     * Moves the wheel forward up to this time.
+     * @param nowMillis current time in milliseconds
+     * @param due collects the ids of all entries that came due
+     */
+    synchronized void advance(long nowMillis, List<String> due) {
+        long target = nowMillis / tickMillis;
+        while(currentTick < target) {
+            currentTick++;
+            // higher levels first, their entries move down to the levels below
+            for(int level = LEVELS - 1; level > 0; level--) {
+                if((currentTick & ((1L << (BITS * level)) - 1)) == 0) {
+                    cascade(level, due);
+                }
+            }
+            List<Entry> slot = take(0, (int) (currentTick & MASK));
+            if(slot != null) {
+                for(Entry entry : slot) {
+                    due.add(entry.id);
+                }
+                size -= slot.size();
+            }
+        }
+    }
+
+    /**
+     * Returns how many entries are waiting to come due.
+     * @return integer
+     */
+    synchronized int size() {
+        return size;
+    }
+
+    private void cascade(int level, List<String> due) {
+        List<Entry> slot = take(level, (int) ((currentTick >>> (BITS * level)) & MASK));
+        if(slot != null) {
+            size -= slot.size();
+            for(Entry entry : slot) {
+                place(entry, due);
+            }
+        }
+    }
+
+    private void place(Entry entry, List<String> due) {
+        if(entry.tick <= currentTick) {
+            due.add(entry.id);
+            return;
+        }
+        // the lowest level where the entry and the current tick agree on all higher digits,
+        // entries too far in the future wait at the top and get placed again when they come around
+        int level = 0;
+        while(level < LEVELS - 1 && (entry.tick >>> (BITS * (level + 1))) != (currentTick >>> (BITS * (level + 1)))) {
+            level++;
+        }
+        int index = (int) ((entry.tick >>> (BITS * level)) & MASK);
+        List<Entry> slot = wheel[level][index];
+        if(slot == null) {
+            slot = new ArrayList<Entry>();
+            wheel[level][index] = slot;
+        }
+        slot.add(entry);
+        size++;
+    }
+
+    private List<Entry> take(int level, int index) {
+        List<Entry> slot = wheel[level][index];
+        wheel[level][index] = null;
+        return slot;
+    }
+
+    private static final class Entry {
+        private final String id;
+        private final long tick;
+
+        private Entry(String id, long tick) {
+            this.id = id;
+            this.tick = tick;
+        }
+    }
+}
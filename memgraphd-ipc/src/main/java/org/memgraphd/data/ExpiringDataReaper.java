@@ -0,0 +1,168 @@
+package org.memgraphd.data;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.apache.log4j.Logger;
+import org.joda.time.DateTime;
+import org.memgraphd.AbstractPeriodicLifecycleHandler;
+import org.memgraphd.data.event.GraphDataEventHandler;
+import org.memgraphd.exception.GraphException;
+import org.memgraphd.operation.GraphReader;
+import org.memgraphd.operation.GraphWriter;
+
+/**
+ * Deletes {@link ExpiringData} from the graph once it expires. It listens for data being created
+ * and updated to index the expiration date in an {@link ExpirationWheel}, and while the graph is
+ * running a background thread moves the wheel forward every tick and deletes whatever came due
+ * through the {@link GraphWriter}, at most a batch at a time.
+ * <br><br>
+ * Updates and deletes do not remove anything from the wheel, before deleting the reaper reads the
+ * data again and leaves it alone unless it is still there and has expired.
+ *
+ * @author Ilirjan Papa
+ * @since August 21, 2013
+ *
+ */
+public class ExpiringDataReaper extends AbstractPeriodicLifecycleHandler implements GraphDataEventHandler {
+    /**
+     * Default time in milliseconds between two runs of the reaper.
+     */
+    public static final long DEFAULT_TICK_MILLIS = 1000L;
+
+    /**
+     * Default maximum number of deletes per run of the reaper.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private static final Logger LOGGER = Logger.getLogger(ExpiringDataReaper.class);
+
+    private final GraphReader reader;
+    private final GraphWriter writer;
+    private final ExpirationWheel wheel;
+    private final LinkedList<String> backlog;
+    private final int batchSize;
+
+    public ExpiringDataReaper(GraphReader reader, GraphWriter writer) {
+        this(reader, writer, DEFAULT_TICK_MILLIS, DEFAULT_BATCH_SIZE);
+    }
+
+    public ExpiringDataReaper(GraphReader reader, GraphWriter writer, long tickMillis, int batchSize) {
+        super("memgraphd-reaper", tickMillis);
+        this.reader = reader;
+        this.writer = writer;
+        this.wheel = new ExpirationWheel(tickMillis, System.currentTimeMillis());
+        this.backlog = new LinkedList<String>();
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Returns true if the {@link GraphData} holds {@link ExpiringData} that has expired.
+     * @param gData {@link GraphData}, could be null
+     * @return true if expired, false otherwise
+     */
+    public static boolean hasExpired(GraphData gData) {
+        return gData != null && gData.getData() instanceof ExpiringData
+                && ((ExpiringData) gData.getData()).hasExpired();
+    }
+
+    /**
+     * Returns how many entries are waiting to be checked for expiration.
+     * @return integer
+     */
+    public int pending() {
+        synchronized (backlog) {
+            return wheel.size() + backlog.size();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onCreate(GraphData dataCreated) {
+        schedule(dataCreated);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onUpdate(GraphData oldData, GraphData newData) {
+        schedule(newData);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onDelete(GraphData dataDeleted) {
+        // nothing to do, stale entries are skipped when they come due
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void runPeriodically() {
+        reap(System.currentTimeMillis());
+    }
+
+    /**
+     * Moves the wheel forward up to this time and deletes a batch of the data that expired.
+     * @param nowMillis current time in milliseconds
+     * @return how many entries were deleted
+     */
+    int reap(long nowMillis) {
+        List<String> batch = new ArrayList<String>();
+        synchronized (backlog) {
+            wheel.advance(nowMillis, backlog);
+            while(batch.size() < batchSize && !backlog.isEmpty()) {
+                batch.add(backlog.poll());
+            }
+        }
+        int deleted = 0;
+        for(String id : batch) {
+            if(delete(id, nowMillis)) {
+                deleted++;
+            }
+        }
+        if(deleted > 0) {
+            LOGGER.info(String.format("Deleted %d expired data entries", deleted));
+        }
+        return deleted;
+    }
+
+    private boolean delete(String id, long nowMillis) {
+        GraphData gData = reader.read(id);
+        // the data might have been deleted, or updated with a later expiration date, in the meantime
+        if(gData == null || !(gData.getData() instanceof ExpiringData)) {
+            return false;
+        }
+        DateTime expirationDate = ((ExpiringData) gData.getData()).getExpirationDate();
+        if(expirationDate == null || expirationDate.getMillis() > nowMillis) {
+            return false;
+        }
+        try {
+            writer.delete(id);
+            return true;
+        } catch (GraphException e) {
+            LOGGER.error(String.format("Failed to delete expired data id=%s", id), e);
+        } catch (RuntimeException e) {
+            LOGGER.error(String.format("Failed to delete expired data id=%s", id), e);
+        }
+        return false;
+    }
+
+    private void schedule(GraphData gData) {
+        if(gData.getData() instanceof ExpiringData) {
+            ExpiringData data = (ExpiringData) gData.getData();
+            if(data.getExpirationDate() != null) {
+                synchronized (backlog) {
+                    wheel.add(data.getId(), data.getExpirationDate().getMillis(), backlog);
+                }
+            }
+        }
+    }
+}
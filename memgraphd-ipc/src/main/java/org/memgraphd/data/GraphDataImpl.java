@@ -56,6 +56,14 @@ public class GraphDataImpl implements GraphData {
         return relatedData;
     }
     
+    /**
+     * Returns the {@link Decision} that produced this {@link GraphData}.
+     * @return {@link Decision}
+     */
+    public final Decision getDecision() {
+        return decision;
+    }
+    
     /**
      * {@inheritDoc}
      */
@@ -64,6 +72,28 @@ public class GraphDataImpl implements GraphData {
         return decision.getSequence();
     }
     
+    /**
+     * Two {@link GraphData} instances are equal if they were produced by the same {@link Decision},
+     * regardless of whether they are the same instance in memory.
+     */
+    @Override
+    public final boolean equals(Object obj) {
+        if(this == obj) {
+            return true;
+        }
+        if(!(obj instanceof GraphData)) {
+            return false;
+        }
+        Sequence sequence = getSequence();
+        return sequence != null && sequence.equals(((GraphData) obj).getSequence());
+    }
+    
+    @Override
+    public final int hashCode() {
+        Sequence sequence = getSequence();
+        return sequence != null ? sequence.hashCode() : 0;
+    }
+    
     @Override
     public final String toString() {
         return ReflectionToStringBuilder.toString(this, ToStringStyle.MULTI_LINE_STYLE);
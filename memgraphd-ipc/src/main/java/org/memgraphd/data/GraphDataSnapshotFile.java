@@ -0,0 +1,210 @@
+package org.memgraphd.data;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import org.joda.time.DateTime;
+import org.memgraphd.GraphRequestType;
+import org.memgraphd.data.serializer.DataSerializer;
+import org.memgraphd.data.serializer.JavaDataSerializer;
+import org.memgraphd.decision.Decision;
+import org.memgraphd.decision.DecisionImpl;
+import org.memgraphd.decision.Sequence;
+
+/**
+ * A binary file holding a snapshot of all the {@link GraphData} in the graph as of a decision
+ * {@link Sequence}. For each data it keeps the {@link Decision} that produced it, with the data
+ * serialized by a {@link DataSerializer}. Relationships are not kept, they follow from the data.
+ * <br><br>
+ * A new snapshot is written next to the file and moved over it once complete, and a checksum at the
+ * end of the file tells whether it was written in full, so that there is always a whole snapshot
+ * to read.
+ *
+ * @author Ilirjan Papa
+ * @since August 31, 2013
+ *
+ */
+public class GraphDataSnapshotFile {
+    private static final int MAGIC = 0x4D475348;
+    private static final int VERSION = 1;
+    private static final long NO_TIME = -1L;
+    private static final int NO_REQUEST_TYPE = -1;
+
+    private final File file;
+    private final File next;
+    private final DataSerializer<byte[]> serializer;
+
+    public GraphDataSnapshotFile(File file) {
+        this(file, new JavaDataSerializer());
+    }
+
+    public GraphDataSnapshotFile(File file, DataSerializer<byte[]> serializer) {
+        this.file = file;
+        this.next = new File(file.getPath() + ".next");
+        this.serializer = serializer;
+    }
+
+    /**
+     * Returns true if there is a snapshot to read.
+     * @return boolean
+     */
+    public boolean exists() {
+        return file.isFile();
+    }
+
+    /**
+     * Throws away the snapshot, if any.
+     */
+    public void delete() {
+        next.delete();
+        file.delete();
+    }
+
+    /**
+     * Writes down a snapshot of the data these decisions produced, replacing the previous one.
+     * @param sequence {@link Sequence} of the latest decision the data reflects
+     * @param decisions the {@link Decision} behind each {@link GraphData} in the graph
+     * @throws IOException
+     */
+    public void write(Sequence sequence, Collection<Decision> decisions) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if(parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Failed to create directory " + parent);
+        }
+        CRC32 checksum = new CRC32();
+        DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                new BufferedOutputStream(new FileOutputStream(next)), checksum));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(sequence.number());
+            out.writeInt(decisions.size());
+            for(Decision decision : decisions) {
+                write(out, decision);
+            }
+            // the checksum covers everything written before it
+            out.writeLong(checksum.getValue());
+        }
+        finally {
+            out.close();
+        }
+        if(!next.renameTo(file)) {
+            // some platforms do not rename over an existing file
+            file.delete();
+            if(!next.renameTo(file)) {
+                throw new IOException(String.format("Failed to move %s over %s", next, file));
+            }
+        }
+    }
+
+    /**
+     * Reads the snapshot back, checking it was written in full.
+     * @return {@link Snapshot}
+     * @throws IOException if the snapshot cannot be read or is corrupt
+     */
+    public Snapshot read() throws IOException {
+        CRC32 checksum = new CRC32();
+        DataInputStream in = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(new FileInputStream(file)), checksum));
+        try {
+            if(in.readInt() != MAGIC) {
+                throw new IOException("Not a snapshot file " + file);
+            }
+            int version = in.readInt();
+            if(version != VERSION) {
+                throw new IOException(String.format("Unsupported version %d of snapshot file %s", version, file));
+            }
+            Sequence sequence = Sequence.valueOf(in.readLong());
+            int count = in.readInt();
+            List<Decision> decisions = new ArrayList<Decision>(count);
+            for(int i = 0; i < count; i++) {
+                decisions.add(read(in));
+            }
+            long expected = checksum.getValue();
+            if(in.readLong() != expected) {
+                throw new IOException("Corrupt snapshot file " + file);
+            }
+            return new Snapshot(sequence, decisions);
+        }
+        finally {
+            in.close();
+        }
+    }
+
+    private void write(DataOutputStream out, Decision decision) throws IOException {
+        byte[] payload;
+        try {
+            payload = serializer.serialize(decision.getData());
+        } catch (Exception e) {
+            throw new IOException("Failed to serialize data " + decision.getDataId(), e);
+        }
+        DateTime time = decision.getTime();
+        GraphRequestType requestType = decision.getRequestType();
+
+        out.writeLong(decision.getSequence().number());
+        out.writeLong(time != null ? time.getMillis() : NO_TIME);
+        out.writeInt(requestType != null ? requestType.ordinal() : NO_REQUEST_TYPE);
+        out.writeUTF(decision.getDataId());
+        out.writeInt(payload.length);
+        out.write(payload);
+    }
+
+    private Decision read(DataInputStream in) throws IOException {
+        Sequence sequence = Sequence.valueOf(in.readLong());
+        long time = in.readLong();
+        int requestType = in.readInt();
+        String dataId = in.readUTF();
+        byte[] payload = new byte[in.readInt()];
+        in.readFully(payload);
+        Data data;
+        try {
+            data = serializer.deserialize(payload);
+        } catch (Exception e) {
+            throw new IOException("Failed to deserialize data " + dataId, e);
+        }
+        return new DecisionImpl(sequence, time != NO_TIME ? new DateTime(time) : null,
+                requestType != NO_REQUEST_TYPE ? GraphRequestType.values()[requestType] : null, dataId, data);
+    }
+
+    /**
+     * What a {@link GraphDataSnapshotFile} holds.
+     */
+    public static final class Snapshot {
+        private final Sequence sequence;
+        private final List<Decision> decisions;
+
+        Snapshot(Sequence sequence, List<Decision> decisions) {
+            this.sequence = sequence;
+            this.decisions = Collections.unmodifiableList(decisions);
+        }
+
+        /**
+         * Returns the {@link Sequence} of the latest decision the snapshot reflects.
+         * @return {@link Sequence}
+         */
+        public Sequence sequence() {
+            return sequence;
+        }
+
+        /**
+         * Returns the decisions that produced the data in the snapshot, in the order they were written.
+         * @return list of {@link Decision}
+         */
+        public List<Decision> decisions() {
+            return decisions;
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package org.memgraphd.data;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import org.apache.log4j.Logger;
+import org.memgraphd.AbstractPeriodicLifecycleHandler;
 import org.memgraphd.Graph;
 import org.memgraphd.GraphMappings;
 import org.memgraphd.GraphRequestType;
@@ -10,26 +14,39 @@ import org.memgraphd.decision.Decision;
 import org.memgraphd.decision.DecisionMaker;
 import org.memgraphd.decision.Sequence;
 import org.memgraphd.exception.GraphException;
+import org.memgraphd.memory.MemoryImage;
 import org.memgraphd.memory.MemoryReference;
+import org.memgraphd.operation.GraphCheckpointer;
 import org.memgraphd.operation.GraphReader;
 import org.memgraphd.operation.GraphStateManager;
 import org.memgraphd.operation.GraphWriter;
 /**
  * Its sole responsibility is to replay all decision stored in the book on application startup
  * so that the {@link Graph}'s state can be restored.
+ * <br><br>
+ * When memory outlives the process as a {@link MemoryImage}, the data restored from the image is
+ * registered first and only the decisions made after the image was saved are replayed. The image
+ * is saved again when the {@link Graph} shuts down and thrown away as soon as it starts up.
+ * <br><br>
+ * Otherwise, when snapshots are on, a {@link GraphDataSnapshotFile} with all the data is written
+ * every so often in the background and when the {@link Graph} shuts down. On startup the data is
+ * loaded from the snapshot and only the decisions made after it are replayed.
  * 
  * @author Ilirjan Papa
  * @since October 27, 2012
  *
  */
-public class GraphDataSnapshotManagerImpl implements GraphDataSnapshotManager {
+public class GraphDataSnapshotManagerImpl extends AbstractPeriodicLifecycleHandler implements GraphDataSnapshotManager {
     private static final Logger LOGGER = Logger.getLogger(GraphDataSnapshotManagerImpl.class);
     
     private final GraphWriter writer;
+    private final GraphCheckpointer checkpointer;
     private final GraphStateManager stateManager;
     private final GraphReader reader;
     private final GraphMappings mappings;
     private final DecisionMaker decisionMaker;
+    private final MemoryImage image;
+    private final GraphDataSnapshotFile snapshotFile;
     
     /**
      * Constructs a new instance.
@@ -41,11 +58,51 @@ public class GraphDataSnapshotManagerImpl implements GraphDataSnapshotManager {
      */
     public GraphDataSnapshotManagerImpl(GraphReader reader, GraphWriter writer, GraphMappings mappings, 
             DecisionMaker decisionMaker, GraphStateManager stateManager) {
+        this(reader, writer, mappings, decisionMaker, stateManager, null);
+    }
+    
+    /**
+     * Constructs a new instance that restores the data kept in a {@link MemoryImage}.
+     * @param reader {@link GraphReader}
+     * @param writer {@link GraphWriter}
+     * @param mappings {@link GraphMappings}
+     * @param decisionMaker {@link DecisionMaker}
+     * @param stateManager {@link GraphStateManager}
+     * @param image {@link MemoryImage}, null if memory does not outlive the process
+     */
+    public GraphDataSnapshotManagerImpl(GraphReader reader, GraphWriter writer, GraphMappings mappings, 
+            DecisionMaker decisionMaker, GraphStateManager stateManager, MemoryImage image) {
+        this(reader, writer, null, mappings, decisionMaker, stateManager, image, null, 0L);
+    }
+    
+    /**
+     * Constructs a new instance that restores the data kept in a {@link MemoryImage} or, failing
+     * that, in a {@link GraphDataSnapshotFile} written every so often.
+     * @param reader {@link GraphReader}
+     * @param writer {@link GraphWriter}
+     * @param checkpointer {@link GraphCheckpointer} snapshots are taken with, null if snapshots are off
+     * @param mappings {@link GraphMappings}
+     * @param decisionMaker {@link DecisionMaker}
+     * @param stateManager {@link GraphStateManager}
+     * @param image {@link MemoryImage}, null if memory does not outlive the process
+     * @param snapshotFile {@link GraphDataSnapshotFile}, null if snapshots are off
+     * @param snapshotFrequency time in milliseconds between two snapshots
+     */
+    public GraphDataSnapshotManagerImpl(GraphReader reader, GraphWriter writer, GraphCheckpointer checkpointer,
+            GraphMappings mappings, DecisionMaker decisionMaker, GraphStateManager stateManager, MemoryImage image, 
+            GraphDataSnapshotFile snapshotFile, long snapshotFrequency) {
+        super("memgraphd-snapshot", snapshotFrequency);
+        if(snapshotFile != null && checkpointer == null) {
+            throw new IllegalArgumentException("Snapshots have to be taken at a checkpoint.");
+        }
         this.reader = reader;
         this.mappings = mappings;
         this.writer = writer;
+        this.checkpointer = checkpointer;
         this.stateManager = stateManager;
         this.decisionMaker = decisionMaker;
+        this.image = image;
+        this.snapshotFile = snapshotFile;
     }
     
     /**
@@ -53,20 +110,56 @@ public class GraphDataSnapshotManagerImpl implements GraphDataSnapshotManager {
      */
     @Override
     public synchronized void initialize() throws GraphException {
+        long restored = restoreImage();
+        if(restored == 0) {
+            restored = restoreSnapshot();
+        }
         Sequence totalDecisions = decisionMaker.latestDecision();
-        LOGGER.info(String.format("GraphDataInitializer is replaying %d decisions from disk", totalDecisions.number()));
+        long pending = Math.max(0, totalDecisions.number() - restored);
+        LOGGER.info(String.format("GraphDataInitializer is replaying %d decisions from disk", pending));
 
-        long iterations = totalDecisions.number() / decisionMaker.getReadWriteBatchSize();
-        long remainder = totalDecisions.number() % decisionMaker.getReadWriteBatchSize();
+        long iterations = pending / decisionMaker.getReadWriteBatchSize();
+        long remainder = pending % decisionMaker.getReadWriteBatchSize();
         for(int i=0; i < iterations; i++) {
-            Sequence start = Sequence.valueOf(i * decisionMaker.getReadWriteBatchSize());
+            Sequence start = Sequence.valueOf(restored + i * decisionMaker.getReadWriteBatchSize());
             Sequence end = Sequence.valueOf(start.number() + decisionMaker.getReadWriteBatchSize());
-            replayDecisionRange(start, end);
+            replayDecisionRange(start, end, restored);
         }
         if(remainder > 0) {
-            Sequence start = Sequence.valueOf(iterations * decisionMaker.getReadWriteBatchSize());
+            Sequence start = Sequence.valueOf(restored + iterations * decisionMaker.getReadWriteBatchSize());
             Sequence end = Sequence.valueOf(start.number() + remainder);
-            replayDecisionRange(start, end);
+            replayDecisionRange(start, end, restored);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void onStartup() {
+        if(image != null) {
+            // memory is about to change, the saved image no longer holds
+            image.discard();
+        }
+        if(snapshotFile != null) {
+            start();
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void onShutdown() {
+        if(stop()) {
+            try {
+                snapshot();
+            } catch (GraphException e) {
+                LOGGER.error("Failed to write snapshot on shutdown", e);
+            }
+        }
+        if(image != null) {
+            image.save(decisionMaker.latestDecision());
         }
     }
     
@@ -89,15 +182,108 @@ public class GraphDataSnapshotManagerImpl implements GraphDataSnapshotManager {
         }
         // clear all enacted decisions as well.
         decisionMaker.reverseAll();
+        
+        // and the snapshot taken of them
+        if(snapshotFile != null) {
+            snapshotFile.delete();
+        }
+
+    }
+
+    /**
+     * Writes down a snapshot of all the data in the graph, taken while no decision is being made
+     * so that it matches the latest decision exactly. Only taking the snapshot holds back changes,
+     * writing it to disk does not. The data is not read to take it, so eviction policies and the
+     * cold tier do not count it as in use.
+     * @return {@link Sequence} of the latest decision in the snapshot, null if snapshots are off
+     * @throws GraphException if the snapshot cannot be written
+     */
+    public Sequence snapshot() throws GraphException {
+        if(snapshotFile == null) {
+            return null;
+        }
+        synchronized (snapshotFile) {
+            long startTime = System.currentTimeMillis();
+            final List<Decision> data = new ArrayList<Decision>();
+            Callable<Sequence> capture = new Callable<Sequence>() {
+                @Override
+                public Sequence call() {
+                    for(MemoryReference ref : mappings.getAllMemoryReferences()) {
+                        // not a read, so that it tells nothing about which data is in use
+                        Decision decision = stateManager.decisionOf(ref);
+                        if(decision != null) {
+                            data.add(decision);
+                        }
+                    }
+                    return decisionMaker.latestDecision();
+                }
+            };
+            try {
+                Sequence sequence = checkpointer.checkpoint(capture);
+                snapshotFile.write(sequence, data);
+                LOGGER.info(String.format("Wrote snapshot of %d data at sequence=%d in %d milliseconds.", 
+                        data.size(), sequence.number(), (System.currentTimeMillis() - startTime)));
+                return sequence;
+            } catch (Exception e) {
+                throw new GraphException("Failed to write snapshot", e);
+            }
+        }
+    }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void runPeriodically() throws GraphException {
+        snapshot();
     }
 
-    private void replayDecisionRange(Sequence start, Sequence end) throws GraphException {
+    private long restoreSnapshot() throws GraphException {
+        if(snapshotFile == null || !snapshotFile.exists() || !mappings.getAllMemoryReferences().isEmpty()) {
+            return 0;
+        }
+        long startTime = System.currentTimeMillis();
+        GraphDataSnapshotFile.Snapshot snapshot;
+        try {
+            snapshot = snapshotFile.read();
+        } catch (IOException e) {
+            LOGGER.error("Failed to read snapshot, replaying all decisions instead", e);
+            return 0;
+        }
+        for(Decision d : snapshot.decisions()) {
+            stateManager.create(d);
+        }
+        LOGGER.info(String.format("Loaded %d data from snapshot at sequence=%d in %d milliseconds.", 
+                snapshot.decisions().size(), snapshot.sequence().number(), (System.currentTimeMillis() - startTime)));
+        return snapshot.sequence().number();
+    }
+
+    private long restoreImage() {
+        if(image == null || image.restoredSequence() == null || !mappings.getAllMemoryReferences().isEmpty()) {
+            return 0;
+        }
+        long startTime = System.currentTimeMillis();
+        int restored = 0;
+        for(MemoryReference ref : image.restoredReferences()) {
+            if(stateManager.restore(ref) != null) {
+                restored++;
+            }
+        }
+        LOGGER.info(String.format("Restored %d data from memory image at sequence=%d in %d milliseconds.", 
+                restored, image.restoredSequence().number(), (System.currentTimeMillis() - startTime)));
+        return image.restoredSequence().number();
+    }
+
+    private void replayDecisionRange(Sequence start, Sequence end, long restored) throws GraphException {
         long startTime = System.currentTimeMillis();
         List<Decision> allDecsions = decisionMaker.readRange(start, end);
         LOGGER.info(String.format("Loaded %d decisions from disk in %d milliseconds.", allDecsions.size(), (System.currentTimeMillis() - startTime)));
         
         for(Decision d : allDecsions) {
+            if(d.getSequence().number() <= restored) {
+                // already part of the memory image
+                continue;
+            }
             LOGGER.debug(String.format("Loading decision sequenceId=%d", d.getSequence().number()));
             if(GraphRequestType.CREATE == d.getRequestType())  {
                 stateManager.create(d);
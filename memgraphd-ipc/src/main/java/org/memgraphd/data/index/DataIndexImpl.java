@@ -0,0 +1,165 @@
+package org.memgraphd.data.index;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.apache.log4j.Logger;
+import org.memgraphd.data.Data;
+import org.memgraphd.data.ExpiringDataReaper;
+import org.memgraphd.data.GraphData;
+import org.memgraphd.operation.GraphReader;
+
+/**
+ * Default implementation of {@link DataIndex}. Keys are kept in a skip list, each with the ids of
+ * the data filed under it, and the key of every id is remembered so that data can be moved when
+ * its key changes. Lookups take no lock and read the data of the ids they find through a
+ * {@link GraphReader}, so they return the data as it is now. Data whose key changed since it was
+ * found is left out.
+ *
+ * @author Ilirjan Papa
+ * @since August 31, 2013
+ *
+ * @param <K> type of the key
+ */
+public class DataIndexImpl<K extends Comparable<? super K>> implements DataIndex<K> {
+    private static final Logger LOGGER = Logger.getLogger(DataIndexImpl.class);
+
+    private static final GraphData[] NONE = new GraphData[0];
+
+    private final String name;
+    private final DataKeyExtractor<K> extractor;
+    private final GraphReader reader;
+    private final ConcurrentSkipListMap<K, Set<String>> entries;
+    private final ConcurrentMap<String, K> keys;
+
+    public DataIndexImpl(String name, DataKeyExtractor<K> extractor, GraphReader reader) {
+        this.name = name;
+        this.extractor = extractor;
+        this.reader = reader;
+        this.entries = new ConcurrentSkipListMap<K, Set<String>>();
+        this.keys = new ConcurrentHashMap<String, K>();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public GraphData[] get(K key) {
+        if(key == null) {
+            return NONE;
+        }
+        Set<String> ids = entries.get(key);
+        return ids != null ? read(Collections.singletonMap(key, ids)) : NONE;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public GraphData[] range(K from, K to) {
+        if(from != null && to != null && from.compareTo(to) > 0) {
+            throw new IllegalArgumentException(String.format("Invalid range specified: %s > %s", from, to));
+        }
+        NavigableMap<K, Set<String>> range = entries;
+        if(from != null) {
+            range = range.tailMap(from, true);
+        }
+        if(to != null) {
+            range = range.headMap(to, false);
+        }
+        return read(range);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return keys.size();
+    }
+
+    /**
+     * Files this {@link Data} under its key, or takes it out if it no longer has one.
+     * @param data {@link Data}
+     */
+    synchronized void index(Data data) {
+        K key = extract(data);
+        K previous = key != null ? keys.put(data.getId(), key) : keys.remove(data.getId());
+        if(previous != null && !previous.equals(key)) {
+            remove(previous, data.getId());
+        }
+        if(key != null) {
+            Set<String> ids = entries.get(key);
+            if(ids == null) {
+                ids = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+                entries.put(key, ids);
+            }
+            ids.add(data.getId());
+        }
+    }
+
+    /**
+     * Takes this {@link Data} out of the index.
+     * @param data {@link Data}
+     */
+    synchronized void unindex(Data data) {
+        K previous = keys.remove(data.getId());
+        if(previous != null) {
+            remove(previous, data.getId());
+        }
+    }
+
+    private void remove(K key, String id) {
+        Set<String> ids = entries.get(key);
+        if(ids != null) {
+            ids.remove(id);
+            if(ids.isEmpty()) {
+                entries.remove(key);
+            }
+        }
+    }
+
+    private K extract(Data data) {
+        try {
+            return extractor.extract(data);
+        } catch (RuntimeException e) {
+            LOGGER.error(String.format("Failed to extract key of data id=%s for index=%s, leaving it out",
+                    data.getId(), name), e);
+            return null;
+        }
+    }
+
+    private GraphData[] read(Map<K, Set<String>> range) {
+        List<GraphData> result = new ArrayList<GraphData>();
+        for(Map.Entry<K, Set<String>> entry : range.entrySet()) {
+            read(entry.getKey(), entry.getValue(), result);
+        }
+        return result.toArray(new GraphData[result.size()]);
+    }
+
+    private void read(K key, Collection<String> ids, List<GraphData> result) {
+        for(String id : ids) {
+            GraphData gData = reader.read(id);
+            // the data might have changed or expired since it was filed under this key
+            if(gData != null && !ExpiringDataReaper.hasExpired(gData) && key.equals(extract(gData.getData()))) {
+                result.add(gData);
+            }
+        }
+    }
+}
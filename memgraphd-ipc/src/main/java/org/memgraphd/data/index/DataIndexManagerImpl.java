@@ -0,0 +1,128 @@
+package org.memgraphd.data.index;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.log4j.Logger;
+import org.memgraphd.GraphMappings;
+import org.memgraphd.data.GraphData;
+import org.memgraphd.data.event.GraphDataEventHandler;
+import org.memgraphd.exception.GraphException;
+import org.memgraphd.memory.MemoryReference;
+import org.memgraphd.operation.GraphCheckpointer;
+import org.memgraphd.operation.GraphReader;
+
+/**
+ * Default implementation of {@link DataIndexManager}. It listens for data being created, updated
+ * and deleted, and keeps every {@link DataIndexImpl} in step with the graph. A new index is filled
+ * with the data already in the graph while no decision is being made, so that no write can slip
+ * between the data it reads and the events it gets from then on.
+ *
+ * @author Ilirjan Papa
+ * @since August 31, 2013
+ *
+ */
+public class DataIndexManagerImpl implements DataIndexManager, GraphDataEventHandler {
+    private static final Logger LOGGER = Logger.getLogger(DataIndexManagerImpl.class);
+
+    private final GraphReader reader;
+    private final GraphCheckpointer checkpointer;
+    private final GraphMappings mappings;
+    private final ConcurrentMap<String, DataIndexImpl<?>> indexes;
+
+    public DataIndexManagerImpl(GraphReader reader, GraphCheckpointer checkpointer, GraphMappings mappings) {
+        this.reader = reader;
+        this.checkpointer = checkpointer;
+        this.mappings = mappings;
+        this.indexes = new ConcurrentHashMap<String, DataIndexImpl<?>>();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <K extends Comparable<? super K>> DataIndex<K> createIndex(final String name,
+            DataKeyExtractor<K> extractor) throws GraphException {
+        if(name == null || extractor == null) {
+            throw new IllegalArgumentException("Index name and key extractor are required.");
+        }
+        final DataIndexImpl<K> index = new DataIndexImpl<K>(name, extractor, reader);
+        Callable<Void> fill = new Callable<Void>() {
+            @Override
+            public Void call() {
+                if(indexes.containsKey(name)) {
+                    throw new IllegalArgumentException("There already is an index named " + name);
+                }
+                for(MemoryReference ref : mappings.getAllMemoryReferences()) {
+                    GraphData gData = reader.read(ref);
+                    if(gData != null) {
+                        index.index(gData.getData());
+                    }
+                }
+                indexes.put(name, index);
+                return null;
+            }
+        };
+        long startTime = System.currentTimeMillis();
+        try {
+            checkpointer.checkpoint(fill);
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new GraphException("Failed to create index " + name, e);
+        }
+        LOGGER.info(String.format("Created index=%s of %d data in %d milliseconds.",
+                name, index.size(), (System.currentTimeMillis() - startTime)));
+        return index;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public <K> DataIndex<K> index(String name) {
+        return name != null ? (DataIndex<K>) indexes.get(name) : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void dropIndex(String name) {
+        if(name != null && indexes.remove(name) != null) {
+            LOGGER.info(String.format("Dropped index=%s", name));
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onCreate(GraphData dataCreated) {
+        for(DataIndexImpl<?> index : indexes.values()) {
+            index.index(dataCreated.getData());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onUpdate(GraphData oldData, GraphData newData) {
+        for(DataIndexImpl<?> index : indexes.values()) {
+            index.index(newData.getData());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onDelete(GraphData dataDeleted) {
+        for(DataIndexImpl<?> index : indexes.values()) {
+            index.unindex(dataDeleted.getData());
+        }
+    }
+}
@@ -109,6 +109,21 @@ public class DefaultLibrary implements Librarian, Library {
         }
     }
     
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public final boolean holds(GraphData gData) {
+        for(Map<Category, Set<GraphData>> mapping : map.values()) {
+            for(Set<GraphData> dataSet : mapping.values()) {
+                if(dataSet.contains(gData)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
     /**
      * {@inheritDoc}
      */
@@ -97,6 +97,15 @@ public class DataMatchmakerImpl extends AbstractGraphAccess implements DataMatch
         }
     }
     
+    @Override
+    public void relocate(MemoryReference from, MemoryReference to) {
+        for (Set<MemoryReference> refs : getSingles().values()) {
+            if (refs.remove(from)) {
+                refs.add(to);
+            }
+        }
+    }
+    
     private void handleExistingSingles(MemoryReference ref, DataRelationship data) {
         if (getSingles().containsKey(data.getId())) {
             for (MemoryReference r : getSingles().get(data.getId())) {
@@ -1,5 +1,6 @@
 package org.memgraphd.decision;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -51,6 +52,33 @@ public class SingleDecisionMaker implements DecisionMaker {
         bookKeeper.record(decision);
         return decision;
     }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Decision> decideAll(List<GraphRequestContext> contexts) throws GraphException {
+        for(GraphRequestContext context : contexts) {
+            if(GraphRequestType.READ.equals(context.getRequestType())) {
+                throw new GraphException("No decision needed for READ requests.");
+            }
+        }
+        List<Decision> decisions = new ArrayList<Decision>(contexts.size());
+        if(contexts.isEmpty()) {
+            return decisions;
+        }
+        // the whole range is reserved at once, so the batch is not interleaved with other decisions
+        long first = latestInUseSequence.addAndGet(contexts.size()) - contexts.size() + 1;
+        DateTime time = new DateTime();
+        for(GraphRequestContext context : contexts) {
+            decisions.add(new DecisionImpl(Sequence.valueOf(first + decisions.size()), time, 
+                    context.getRequestType(), context.getData().getId(), context.getData()));
+        }
+        LOGGER.info(String.format("Assigned sequences=%d-%d to a batch of %d decisions",
+                first, first + contexts.size() - 1, contexts.size()));
+        bookKeeper.recordAll(decisions);
+        return decisions;
+    }
    
     /**
      * {@inheritDoc}
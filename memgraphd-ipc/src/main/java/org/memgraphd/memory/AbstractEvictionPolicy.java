@@ -0,0 +1,134 @@
+package org.memgraphd.memory;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.memgraphd.data.GraphData;
+
+/**
+ * Base class for {@link EvictionPolicy} implementations that look after a single {@link MemoryBlock}.
+ * It keeps track of which memory locations in the block hold data that can be evicted, data that
+ * cannot be deleted is never a candidate, and sweeps them with a clock hand on behalf of the
+ * implementation. Memory references outside of the block are ignored, so policies for
+ * different blocks can be combined with {@link CompositeEvictionPolicy}.
+ *
+ * @author Ilirjan Papa
+ * @since August 14, 2013
+ *
+ */
+public abstract class AbstractEvictionPolicy implements EvictionPolicy {
+    private final MemoryBlock block;
+    private final int start;
+    private final int size;
+    private final AtomicIntegerArray live;
+    private int hand;
+
+    protected AbstractEvictionPolicy(MemoryBlock block) {
+        this.block = block;
+        this.start = block.startsWith().id();
+        this.size = block.ceiling().id() - start + 1;
+        this.live = new AtomicIntegerArray(size);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public final void onAccess(MemoryReference ref) {
+        int index = ref.id() - start;
+        if(index >= 0 && index < size) {
+            accessed(index);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public final void onWrite(MemoryReference ref, GraphData data) {
+        int index = ref.id() - start;
+        if(index >= 0 && index < size) {
+            if(data.getData().canDelete()) {
+                written(index, live.getAndSet(index, 1) == 0, data);
+            }
+            else {
+                live.set(index, 0);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public final void onFree(MemoryReference ref) {
+        int index = ref.id() - start;
+        if(index >= 0 && index < size) {
+            live.set(index, 0);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public final synchronized MemoryReference victim(MemoryBlock block) {
+        if(this.block != block) {
+            return null;
+        }
+        int index = select();
+        return index < 0 ? null : MemoryReference.valueOf(start + index);
+    }
+
+    /**
+     * Returns the {@link MemoryBlock} this policy looks after.
+     * @return {@link MemoryBlock}
+     */
+    public final MemoryBlock block() {
+        return block;
+    }
+
+    /**
+     * Returns how many memory locations this policy keeps track of, as many as the block
+     * can grow to.
+     * @return integer
+     */
+    protected final int size() {
+        return size;
+    }
+
+    /**
+     * Moves the clock hand to the next memory location that holds evictable data.
+     * @return index of the memory location, relative to the start of the block, or -1 if there is none
+     */
+    protected final int advance() {
+        int limit = block.endsWith().id() - start + 1;
+        for(int i = 0; i < limit; i++) {
+            int index = hand;
+            hand = hand + 1 < limit ? hand + 1 : 0;
+            if(live.get(index) == 1) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Called on every read of a memory location in the block, it must not block.
+     * @param index index of the memory location, relative to the start of the block
+     */
+    protected abstract void accessed(int index);
+
+    /**
+     * Called when evictable data has been written in a memory location in the block.
+     * @param index index of the memory location, relative to the start of the block
+     * @param created true if the memory location did not hold evictable data before
+     * @param data {@link GraphData}
+     */
+    protected abstract void written(int index, boolean created, GraphData data);
+
+    /**
+     * Picks the victim, it is called while holding the lock of this policy.
+     * @return index of the victim, relative to the start of the block, or -1 if there is none
+     */
+    protected abstract int select();
+}
@@ -0,0 +1,173 @@
+package org.memgraphd.memory;
+
+/**
+ * Base class for {@link MemoryManager} implementations. It takes care of the bookkeeping that
+ * does not depend on where the memory locations are actually kept, such as capacity and memory
+ * statistics, and leaves to the implementation the job of locating a {@link MemoryLocation}.
+ * <br><br>
+ * Capacity follows the memory blocks as they grow, while the address space, the range of valid
+ * memory references, is fixed up front by the ceilings of the blocks.
+ * <br><br>
+ * It also keeps the {@link GraphDataViewCache} of the data it stores, so that whatever changes a
+ * memory location, {@link MemoryAccess} or the {@link MemoryDeflater}, drops the view of it.
+ *
+ * @author Ilirjan Papa
+ * @since July 31, 2012
+ *
+ */
+public abstract class AbstractMemoryManager implements MemoryManager {
+    private final MemoryBlockResolver resolver;
+    private final int addressSpace;
+    private final GraphDataViewCache views;
+
+    protected AbstractMemoryManager(MemoryBlockResolver resolver) {
+        this.resolver = resolver;
+        this.addressSpace = computeAddressSpace(resolver.blocks());
+        this.views = new GraphDataViewCache(addressSpace);
+        MemoryReference.ensureCapacity(capacity());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public final int capacity() {
+        int capacity = 0;
+        for(MemoryBlock mb : blocks()) {
+            capacity += mb.capacity();
+        }
+        return capacity;
+    }
+
+    /**
+     * Returns the cache of the views of the data stored here.
+     * @return {@link GraphDataViewCache}
+     */
+    final GraphDataViewCache views() {
+        return views;
+    }
+
+    /**
+     * Returns the number of memory references this memory manager can ever hand out, that is
+     * one past the highest ceiling of its memory blocks.
+     * @return integer
+     */
+    public final int addressSpace() {
+        return addressSpace;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int occupied() {
+        int occupied = 0;
+        for(MemoryBlock mb : blocks()) {
+            occupied += mb.occupied();
+        }
+        return occupied;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int available() {
+        int available = 0;
+        for(MemoryBlock mb : blocks()) {
+            available += mb.available();
+        }
+        return available;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int recycled() {
+        int recycled = 0;
+        for(MemoryBlock mb : blocks()) {
+            recycled += mb.recycled();
+        }
+        return recycled;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int segments() {
+        int segments = 0;
+        for(MemoryBlock mb : blocks()) {
+            segments += mb.segments();
+        }
+        return segments;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int growths() {
+        int growths = 0;
+        for(MemoryBlock mb : blocks()) {
+            growths += mb.growths();
+        }
+        return growths;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long footprint() {
+        long footprint = 0L;
+        for(MemoryBlock mb : blocks()) {
+            footprint += mb.footprint();
+        }
+        return footprint;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public final MemoryBlock[] blocks() {
+        return resolver().blocks();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public final MemoryBlockResolver resolver() {
+        return resolver;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public final MemoryLocation read(MemoryReference ref) {
+        if(ref.id() < 0 || ref.id() >= addressSpace) {
+            throw new IllegalArgumentException("Out of bound memory reference: " + ref.id());
+        }
+        return locate(ref);
+    }
+
+    /**
+     * Returns the {@link MemoryLocation} for a {@link MemoryReference} that has already been
+     * checked to be within the bounds of this memory manager.
+     * @param ref {@link MemoryReference}
+     * @return {@link MemoryLocation}
+     */
+    protected abstract MemoryLocation locate(MemoryReference ref);
+
+    private int computeAddressSpace(MemoryBlock[] blocks) {
+        int addressSpace = 0;
+        for(MemoryBlock mb : blocks) {
+            addressSpace = Math.max(addressSpace, mb.ceiling().id() + 1);
+        }
+        return addressSpace;
+    }
+}
@@ -0,0 +1,127 @@
+package org.memgraphd.memory;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.memgraphd.data.Data;
+
+/**
+ * The default {@link SizeEstimator}. The size of the data is its shallow size plus whatever strings
+ * and arrays of primitives it holds directly, any other object it holds is counted at a flat rate.
+ * The layout of each class is worked out once and cached, so estimating costs a handful of field
+ * reads per write.
+ *
+ * @author Ilirjan Papa
+ * @since August 30, 2013
+ *
+ */
+public final class ClassSizeEstimator implements SizeEstimator {
+    private static final int HEADER_BYTES = 16;
+    private static final int REFERENCE_BYTES = 8;
+    private static final int STRING_BYTES = 40;
+    private static final int OBJECT_BYTES = 32;
+
+    private final ConcurrentMap<Class<?>, Layout> layouts;
+
+    public ClassSizeEstimator() {
+        this.layouts = new ConcurrentHashMap<Class<?>, Layout>();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int sizeOf(Data data) {
+        if(data == null) {
+            return 0;
+        }
+        Layout layout = layout(data.getClass());
+        int size = layout.shallow;
+        for(Field field : layout.references) {
+            try {
+                size += referenced(field.get(data));
+            } catch (IllegalAccessException e) {
+                size += OBJECT_BYTES;
+            }
+        }
+        return size;
+    }
+
+    private static int referenced(Object value) {
+        if(value == null) {
+            return 0;
+        }
+        if(value instanceof String) {
+            return align(STRING_BYTES + 2 * ((String) value).length());
+        }
+        Class<?> type = value.getClass();
+        if(type.isArray() && type.getComponentType().isPrimitive()) {
+            return align(HEADER_BYTES + Array.getLength(value) * width(type.getComponentType()));
+        }
+        return OBJECT_BYTES;
+    }
+
+    private Layout layout(Class<?> type) {
+        Layout layout = layouts.get(type);
+        if(layout == null) {
+            layout = new Layout(type);
+            layouts.putIfAbsent(type, layout);
+        }
+        return layout;
+    }
+
+    private static int width(Class<?> type) {
+        if(type == long.class || type == double.class) {
+            return 8;
+        }
+        if(type == int.class || type == float.class) {
+            return 4;
+        }
+        if(type == short.class || type == char.class) {
+            return 2;
+        }
+        return 1;
+    }
+
+    private static int align(int size) {
+        return (size + 7) & ~7;
+    }
+
+    /**
+     * Shallow size of a class and the fields that refer to other objects.
+     */
+    private static final class Layout {
+        private final int shallow;
+        private final Field[] references;
+
+        private Layout(Class<?> type) {
+            int shallow = HEADER_BYTES;
+            List<Field> references = new ArrayList<Field>();
+            for(Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for(Field field : c.getDeclaredFields()) {
+                    if(Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+                    if(field.getType().isPrimitive()) {
+                        shallow += width(field.getType());
+                        continue;
+                    }
+                    shallow += REFERENCE_BYTES;
+                    try {
+                        field.setAccessible(true);
+                        references.add(field);
+                    } catch (SecurityException e) {
+                        // counted as a plain reference
+                    }
+                }
+            }
+            this.shallow = align(shallow);
+            this.references = references.toArray(new Field[references.size()]);
+        }
+    }
+}
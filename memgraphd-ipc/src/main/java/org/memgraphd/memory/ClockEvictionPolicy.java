@@ -0,0 +1,57 @@
+package org.memgraphd.memory;
+
+import org.memgraphd.data.GraphData;
+
+/**
+ * An {@link EvictionPolicy} that approximates least recently used with the CLOCK algorithm. Every
+ * memory location has an access bit that reads set without any locking. The clock hand sweeps
+ * the block clearing the bits it finds set and evicts the first data whose bit is already clear,
+ * that is data that has not been read since it was created or since the hand last went by.
+ *
+ * @author Ilirjan Papa
+ * @since August 14, 2013
+ *
+ */
+public class ClockEvictionPolicy extends AbstractEvictionPolicy {
+    private final byte[] accessed;
+
+    public ClockEvictionPolicy(MemoryBlock block) {
+        super(block);
+        this.accessed = new byte[size()];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected final void accessed(int index) {
+        accessed[index] = 1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected final void written(int index, boolean created, GraphData data) {
+        // new data has to be read before it earns a second chance, updates count as a use
+        accessed[index] = created ? (byte) 0 : (byte) 1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected final int select() {
+        // two sweeps at most, the first one might only clear access bits, after that give up
+        // on readers that keep setting them and evict whatever is under the hand
+        int index = advance();
+        for(int steps = 0; index >= 0 && steps < 2 * size(); steps++) {
+            if(accessed[index] == 0) {
+                return index;
+            }
+            accessed[index] = 0;
+            index = advance();
+        }
+        return index;
+    }
+}
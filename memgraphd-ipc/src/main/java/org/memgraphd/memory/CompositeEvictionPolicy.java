@@ -0,0 +1,64 @@
+package org.memgraphd.memory;
+
+import org.memgraphd.data.GraphData;
+
+/**
+ * An {@link EvictionPolicy} made of other policies, typically one per {@link MemoryBlock}, so that
+ * each block can be configured with its own eviction policy. Blocks without a policy never evict.
+ *
+ * @author Ilirjan Papa
+ * @since August 14, 2013
+ *
+ */
+public final class CompositeEvictionPolicy implements EvictionPolicy {
+    private final EvictionPolicy[] policies;
+
+    public CompositeEvictionPolicy(EvictionPolicy... policies) {
+        this.policies = policies;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onAccess(MemoryReference ref) {
+        for(EvictionPolicy policy : policies) {
+            policy.onAccess(ref);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onWrite(MemoryReference ref, GraphData data) {
+        for(EvictionPolicy policy : policies) {
+            policy.onWrite(ref, data);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onFree(MemoryReference ref) {
+        for(EvictionPolicy policy : policies) {
+            policy.onFree(ref);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public MemoryReference victim(MemoryBlock block) {
+        for(EvictionPolicy policy : policies) {
+            MemoryReference victim = policy.victim(block);
+            if(victim != null) {
+                return victim;
+            }
+        }
+        return null;
+    }
+
+}
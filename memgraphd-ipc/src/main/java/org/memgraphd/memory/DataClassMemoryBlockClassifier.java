@@ -0,0 +1,55 @@
+package org.memgraphd.memory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.memgraphd.data.Data;
+
+/**
+ * A {@link MemoryBlockClassifier} that classifies {@link Data} by its class. Each registered class
+ * names a block after {@link Class#getName()}, sub-classes go to the block of their closest
+ * registered super-class or interface. The outcome is cached per concrete class, so classification
+ * costs a single lookup once a class has been seen.
+ *
+ * @author Ilirjan Papa
+ * @since August 7, 2013
+ *
+ */
+public class DataClassMemoryBlockClassifier implements MemoryBlockClassifier {
+    private static final String UNCLASSIFIED = "";
+
+    private final Class<?>[] classes;
+    private final ConcurrentMap<Class<?>, String> cache;
+
+    public DataClassMemoryBlockClassifier(Class<?>... classes) {
+        this.classes = classes;
+        this.cache = new ConcurrentHashMap<Class<?>, String>();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String classify(Data data) {
+        if(data == null) {
+            return null;
+        }
+        Class<?> type = data.getClass();
+        String name = cache.get(type);
+        if(name == null) {
+            name = lookup(type);
+            cache.putIfAbsent(type, name);
+        }
+        return UNCLASSIFIED.equals(name) ? null : name;
+    }
+
+    private String lookup(Class<?> type) {
+        Class<?> closest = null;
+        for(Class<?> candidate : classes) {
+            if(candidate.isAssignableFrom(type) && (closest == null || closest.isAssignableFrom(candidate))) {
+                closest = candidate;
+            }
+        }
+        return closest != null ? closest.getName() : UNCLASSIFIED;
+    }
+}
@@ -0,0 +1,60 @@
+package org.memgraphd.memory;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.memgraphd.data.Data;
+
+/**
+ * A {@link PartitionedMemoryBlockResolver} with one dedicated {@link MemoryBlock} per {@link Data}
+ * class, named after {@link Class#getName()}. Data of a class that was not registered, directly
+ * or through one of its super-classes, goes to the
+ * {@link DefaultMemoryBlockResolver#DEFAULT_MEMORYBLOCK_NAME} block.
+ *
+ * @author Ilirjan Papa
+ * @since August 7, 2013
+ *
+ */
+public class DataClassMemoryBlockResolver extends PartitionedMemoryBlockResolver {
+
+    /**
+     * @param capacities capacity of the block of each {@link Data} class, use a map with predictable
+     * iteration order
+     * @param defaultCapacity capacity of the block for all other data
+     */
+    public DataClassMemoryBlockResolver(Map<Class<? extends Data>, Integer> capacities, int defaultCapacity) {
+        this(capacities, defaultCapacity, Collections.<Class<? extends Data>, Long>emptyMap(), 0L);
+    }
+
+    /**
+     * @param capacities capacity of the block of each {@link Data} class, use a map with predictable
+     * iteration order
+     * @param defaultCapacity capacity of the block for all other data
+     * @param budgets budget in bytes of the block of each {@link Data} class, blocks left out have none
+     * @param defaultBudget budget in bytes of the block for all other data, 0 for none
+     */
+    public DataClassMemoryBlockResolver(Map<Class<? extends Data>, Integer> capacities, int defaultCapacity,
+            Map<Class<? extends Data>, Long> budgets, long defaultBudget) {
+        super(new DataClassMemoryBlockClassifier(capacities.keySet().toArray(new Class<?>[capacities.size()])),
+                names(capacities), defaultCapacity, names(budgets), defaultBudget);
+    }
+
+    /**
+     * Returns the {@link MemoryBlock} dedicated to this {@link Data} class.
+     * @param type class of {@link Data}
+     * @return {@link MemoryBlock} or null if there is no such block
+     */
+    public final MemoryBlock block(Class<? extends Data> type) {
+        return block(type.getName());
+    }
+
+    private static <V> Map<String, V> names(Map<Class<? extends Data>, V> values) {
+        Map<String, V> names = new LinkedHashMap<String, V>();
+        for(Entry<Class<? extends Data>, V> entry : values.entrySet()) {
+            names.put(entry.getKey().getName(), entry.getValue());
+        }
+        return names;
+    }
+}
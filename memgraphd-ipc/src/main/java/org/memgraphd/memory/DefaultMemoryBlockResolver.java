@@ -17,7 +17,29 @@ public class DefaultMemoryBlockResolver implements MemoryBlockResolver {
     final MemoryBlock[] blocks;
 
     public DefaultMemoryBlockResolver(int capacity) {
-        this.block = new MemoryBlockImpl(DEFAULT_MEMORYBLOCK_NAME, MemoryReference.valueOf(0), MemoryReference.valueOf(capacity - 1));
+        this(capacity, capacity);
+    }
+
+    /**
+     * Creates a block that starts with room for capacity memory locations and grows, a capacity
+     * sized segment at a time, up to the ceiling.
+     * @param capacity initial capacity
+     * @param ceiling maximum capacity
+     */
+    public DefaultMemoryBlockResolver(int capacity, int ceiling) {
+        this(capacity, ceiling, 0L);
+    }
+
+    /**
+     * Creates a block that grows up to the ceiling as long as the data stored in it stays within
+     * budget bytes, whichever limit is hit first.
+     * @param capacity initial capacity
+     * @param ceiling maximum capacity
+     * @param budget maximum number of bytes, 0 for none
+     */
+    public DefaultMemoryBlockResolver(int capacity, int ceiling, long budget) {
+        this.block = new MemoryBlockImpl(DEFAULT_MEMORYBLOCK_NAME, MemoryReference.valueOf(0),
+                MemoryReference.valueOf(capacity - 1), MemoryReference.valueOf(ceiling - 1), budget);
         this.blocks = new MemoryBlock[] { block };
     }
 
@@ -0,0 +1,91 @@
+package org.memgraphd.memory;
+
+import org.joda.time.DateTime;
+import org.memgraphd.GraphRequestType;
+import org.memgraphd.data.GraphData;
+import org.memgraphd.decision.Decision;
+import org.memgraphd.decision.Sequence;
+
+/**
+ * {@link GraphData} kept in the cold tier by a {@link MemoryDeflater}. The {@link org.memgraphd.data.Data}
+ * is serialized and deflated, while the rest of the {@link Decision} that produced it is kept as is.
+ *
+ * @author Ilirjan Papa
+ * @since August 30, 2013
+ *
+ */
+final class DeflatedData {
+    private final MemoryDeflater deflater;
+    private final Sequence sequence;
+    private final DateTime time;
+    private final GraphRequestType requestType;
+    private final String dataId;
+    private final byte[] payload;
+    private final int length;
+
+    DeflatedData(MemoryDeflater deflater, Decision decision, byte[] payload, int length) {
+        this.deflater = deflater;
+        this.sequence = decision.getSequence();
+        this.time = decision.getTime();
+        this.requestType = decision.getRequestType();
+        this.dataId = decision.getDataId();
+        this.payload = payload;
+        this.length = length;
+    }
+
+    Sequence sequence() {
+        return sequence;
+    }
+
+    DateTime time() {
+        return time;
+    }
+
+    GraphRequestType requestType() {
+        return requestType;
+    }
+
+    String dataId() {
+        return dataId;
+    }
+
+    /**
+     * Returns the deflated bytes of the serialized data.
+     * @return byte[]
+     */
+    byte[] payload() {
+        return payload;
+    }
+
+    /**
+     * Returns the length of the serialized data once inflated.
+     * @return integer
+     */
+    int length() {
+        return length;
+    }
+
+    /**
+     * Inflates the data back into {@link GraphData} stored at this {@link MemoryReference}.
+     * @param ref {@link MemoryReference}
+     * @return {@link GraphData}
+     */
+    GraphData inflate(MemoryReference ref) {
+        return deflater.inflate(this, ref);
+    }
+
+    /**
+     * Returns the {@link Decision} that produced the data, leaving the data in the cold tier.
+     * @return {@link Decision}
+     */
+    Decision decision() {
+        return deflater.decision(this);
+    }
+
+    /**
+     * Lets the {@link MemoryDeflater} know this data is gone without being inflated.
+     */
+    void discard() {
+        deflater.discard(this);
+    }
+}
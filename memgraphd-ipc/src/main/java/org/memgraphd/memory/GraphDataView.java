@@ -0,0 +1,146 @@
+package org.memgraphd.memory;
+
+import org.memgraphd.data.Data;
+import org.memgraphd.data.GraphData;
+import org.memgraphd.data.GraphDataRelationship;
+import org.memgraphd.data.GraphDataRelationshipImpl;
+import org.memgraphd.data.GraphRelatedData;
+import org.memgraphd.decision.Sequence;
+
+/**
+ * An immutable view of {@link GraphData} together with its relationships, handed out by
+ * {@link MemoryAccess#readGraph(MemoryReference)} and kept in a {@link GraphDataViewCache} for as
+ * long as the version of its node in the {@link MemoryAdjacency} stays the same. Links and references
+ * are materialized the first time they are asked for, as views of the related nodes, and kept for as
+ * long as the view is cached, so reading the same part of the graph over and over allocates nothing
+ * as long as it fits in the cache.
+ * <br><br>
+ * Navigating from a view always lands on the latest view of the node, relationships reflect the
+ * graph as it is when they are asked for, while the view itself never changes under a reader.
+ *
+ * @author Ilirjan Papa
+ * @since August 27, 2013
+ *
+ */
+final class GraphDataView implements GraphData, GraphRelatedData {
+    private static final GraphDataRelationship UNRESOLVED = new GraphDataRelationshipImpl(new GraphData[0]);
+
+    private final MemoryAccess access;
+    private final GraphData data;
+    private final int id;
+    private final long version;
+
+    private volatile GraphDataRelationship links;
+    private volatile GraphDataRelationship references;
+
+    GraphDataView(MemoryAccess access, GraphData data, long version) {
+        this.access = access;
+        this.data = data;
+        this.id = data.getReference().id();
+        this.version = version;
+        this.links = UNRESOLVED;
+        this.references = UNRESOLVED;
+    }
+
+    /**
+     * Returns the id of the node this view was built for.
+     * @return integer
+     */
+    int id() {
+        return id;
+    }
+
+    /**
+     * Returns the version of the node this view was built for.
+     * @return long
+     */
+    long version() {
+        return version;
+    }
+
+    /**
+     * Lets go of the views of the neighbors once this view leaves the {@link GraphDataViewCache},
+     * they are materialized again should anybody still holding this view ask for them.
+     */
+    void release() {
+        links = UNRESOLVED;
+        references = UNRESOLVED;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public MemoryReference getReference() {
+        return data.getReference();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Sequence getSequence() {
+        return data.getSequence();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Data getData() {
+        return data.getData();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public GraphRelatedData getRelatedData() {
+        GraphDataView latest = access.view(getReference());
+        return latest != null && latest.equals(this) ? latest : this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public GraphDataRelationship getLinks() {
+        GraphDataRelationship resolved = links;
+        if(resolved == UNRESOLVED) {
+            resolved = access.views(access.adjacency().links(getReference().id()));
+            links = resolved;
+        }
+        return resolved;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public GraphDataRelationship getReferences() {
+        GraphDataRelationship resolved = references;
+        if(resolved == UNRESOLVED) {
+            resolved = access.views(access.adjacency().references(getReference().id()));
+            references = resolved;
+        }
+        return resolved;
+    }
+
+    /**
+     * Views are equal to any {@link GraphData} produced by the same decision.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        return data.equals(obj);
+    }
+
+    @Override
+    public int hashCode() {
+        return data.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return data.toString();
+    }
+}
@@ -0,0 +1,90 @@
+package org.memgraphd.memory;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A fixed number of slots holding the latest {@link GraphDataView} of the nodes read most recently.
+ * Every memory reference maps to a single slot, so a lookup is a plain array read and a new view
+ * simply takes the place of whatever view was in its slot. The cache never holds more than
+ * {@link #capacity()} views no matter how much data is read, which matters when the data itself
+ * is kept off the heap.
+ * <br><br>
+ * Views that leave the cache let go of the views of their neighbors, so that the views still
+ * around are the cached ones and at most their direct neighbors.
+ *
+ * @author Ilirjan Papa
+ * @since September 2, 2013
+ *
+ */
+final class GraphDataViewCache {
+    /**
+     * Largest number of views kept at once.
+     */
+    static final int MAX_CAPACITY = 4096;
+
+    private final AtomicReferenceArray<GraphDataView> slots;
+    private final int mask;
+
+    GraphDataViewCache(int addressSpace) {
+        int wanted = Math.min(MAX_CAPACITY, Math.max(1, addressSpace));
+        int capacity = Integer.highestOneBit(wanted) < wanted ? Integer.highestOneBit(wanted) << 1 : wanted;
+        this.slots = new AtomicReferenceArray<GraphDataView>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Returns the cached view of the node with this id, provided it was built for this version.
+     * @param id id of the node
+     * @param version version of the node
+     * @return {@link GraphDataView}, null if there is none
+     */
+    GraphDataView get(int id, long version) {
+        GraphDataView view = slots.get(id & mask);
+        return view != null && view.id() == id && view.version() == version ? view : null;
+    }
+
+    /**
+     * Caches this view in place of whatever view was in its slot.
+     * @param view {@link GraphDataView}
+     */
+    void put(GraphDataView view) {
+        GraphDataView replaced = slots.getAndSet(view.id() & mask, view);
+        if(replaced != null && replaced != view) {
+            replaced.release();
+        }
+    }
+
+    /**
+     * Drops the cached view of the node with this id, if there is one.
+     * @param id id of the node
+     */
+    void remove(int id) {
+        int slot = id & mask;
+        GraphDataView view = slots.get(slot);
+        if(view != null && view.id() == id && slots.compareAndSet(slot, view, null)) {
+            view.release();
+        }
+    }
+
+    /**
+     * Returns how many views are cached right now.
+     * @return integer
+     */
+    int size() {
+        int size = 0;
+        for(int slot = 0; slot < slots.length(); slot++) {
+            if(slots.get(slot) != null) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns the largest number of views this cache holds at once.
+     * @return integer
+     */
+    int capacity() {
+        return slots.length();
+    }
+}
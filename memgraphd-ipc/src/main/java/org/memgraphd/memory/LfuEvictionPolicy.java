@@ -0,0 +1,153 @@
+package org.memgraphd.memory;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.memgraphd.data.GraphData;
+
+/**
+ * An {@link EvictionPolicy} that evicts the least frequently used data. Reads are counted in a
+ * count-min frequency sketch of four bit counters, sixteen to a long, four counters per memory
+ * location, and the frequency of a memory location is the smallest of its four counters. The sketch
+ * has one counter per memory location the block can grow to, that is half a byte each. Every memory
+ * location also has an epoch that moves on whenever new data is stored in it, so that new data is
+ * counted apart from the data that was there before it, while the counters of the old data age out.
+ * <br><br>
+ * Reads only try to bump each counter once and give up if another reader got there first, they
+ * never lock or spin and write nothing else. Aging is driven by the clock hand: all counters are
+ * halved once the hand has sampled as many candidates as there are memory locations, or as soon as
+ * even the least used candidate has a saturated counter. The victim is the least used among a
+ * handful of candidates sampled by the clock hand, which keeps eviction cheap no matter how big the
+ * block is.
+ *
+ * @author Ilirjan Papa
+ * @since August 14, 2013
+ *
+ */
+public class LfuEvictionPolicy extends AbstractEvictionPolicy {
+    /**
+     * How many candidates are sampled to pick a victim.
+     */
+    public static final int SAMPLE_SIZE = 8;
+
+    private static final int MAX_FREQUENCY = 15;
+    private static final int COUNTER_BITS = 4;
+    private static final int COUNTERS_PER_WORD = Long.SIZE / COUNTER_BITS;
+    private static final int DEPTH = 4;
+    private static final int MIN_COUNTERS = 64;
+    // the low bit of every counter, shifting a word right by one and clearing these halves them all
+    private static final long HALF_MASK = 0x7777777777777777L;
+
+    private final AtomicLongArray sketch;
+    private final int mask;
+    private final byte[] epoch;
+    private int sampled;
+
+    public LfuEvictionPolicy(MemoryBlock block) {
+        super(block);
+        int counters = Math.max(MIN_COUNTERS, Integer.highestOneBit(Math.max(1, size() - 1)) << 1);
+        this.sketch = new AtomicLongArray(counters / COUNTERS_PER_WORD);
+        this.mask = counters - 1;
+        this.epoch = new byte[size()];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected final void accessed(int index) {
+        int hash = hash(index);
+        int step = step(hash);
+        for(int i = 0; i < DEPTH; i++) {
+            increment((hash + i * step) & mask);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected final void written(int index, boolean created, GraphData data) {
+        if(created) {
+            epoch[index]++;
+        }
+        accessed(index);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected final int select() {
+        int victim = -1;
+        int least = 0;
+        for(int i = 0; i < SAMPLE_SIZE; i++) {
+            int index = advance();
+            if(index < 0) {
+                break;
+            }
+            sampled++;
+            int frequency = frequency(index);
+            if(victim < 0 || frequency < least) {
+                victim = index;
+                least = frequency;
+            }
+        }
+        if(victim >= 0 && (least == MAX_FREQUENCY || sampled >= size())) {
+            age();
+        }
+        return victim;
+    }
+
+    /**
+     * Returns how often the data at this memory location has been used, as estimated by the sketch.
+     * @param index index of the memory location, relative to the start of the block
+     * @return integer between 0 and 15
+     */
+    final int frequency(int index) {
+        int hash = hash(index);
+        int step = step(hash);
+        int frequency = MAX_FREQUENCY;
+        for(int i = 0; i < DEPTH; i++) {
+            frequency = Math.min(frequency, count((hash + i * step) & mask));
+        }
+        return frequency;
+    }
+
+    private int hash(int index) {
+        int hash = (index << Byte.SIZE | (epoch[index] & 0xff)) * 0x9e3779b9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int step(int hash) {
+        // an odd step, so that the counters of a memory location are four different ones
+        return (hash >>> 8) * 0x85ebca6b | 1;
+    }
+
+    private int count(int counter) {
+        return (int) (sketch.get(counter / COUNTERS_PER_WORD) >>> shift(counter)) & MAX_FREQUENCY;
+    }
+
+    private void increment(int counter) {
+        int word = counter / COUNTERS_PER_WORD;
+        int shift = shift(counter);
+        long current = sketch.get(word);
+        if(((current >>> shift) & MAX_FREQUENCY) < MAX_FREQUENCY) {
+            // lost increments only make the estimate a little lower
+            sketch.compareAndSet(word, current, current + (1L << shift));
+        }
+    }
+
+    private void age() {
+        for(int word = 0; word < sketch.length(); word++) {
+            long current;
+            do {
+                current = sketch.get(word);
+            } while(!sketch.compareAndSet(word, current, (current >>> 1) & HALF_MASK));
+        }
+        sampled = 0;
+    }
+
+    private static int shift(int counter) {
+        return (counter % COUNTERS_PER_WORD) * COUNTER_BITS;
+    }
+}
@@ -0,0 +1,259 @@
+package org.memgraphd.memory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.apache.log4j.Logger;
+import org.memgraphd.data.GraphData;
+import org.memgraphd.data.serializer.DataSerializer;
+import org.memgraphd.data.serializer.JavaDataSerializer;
+import org.memgraphd.decision.Sequence;
+
+/**
+ * An {@link OffHeapMemoryManager} whose slot table and payload pages are memory-mapped files in a
+ * directory, so that the {@link GraphData} it stores outlives the process.
+ * <br><br>
+ * On a clean shutdown the pages are forced to disk and the bookkeeping of the payload arena is
+ * saved to an image file, together with the {@link Sequence} of the latest decision the memory
+ * holds. On restart the image is read back and the pages are mapped again, the operating system
+ * loads them on demand as the data is read, so only the decisions made after the image was saved
+ * need to be replayed. The image file is deleted as soon as it is read, if the process does not
+ * shut down cleanly there is no image on the next restart and all pages are wiped.
+ *
+ * @author Ilirjan Papa
+ * @since August 26, 2013
+ *
+ */
+public final class MappedMemoryManager extends OffHeapMemoryManager implements MemoryImage {
+    private static final Logger LOGGER = Logger.getLogger(MappedMemoryManager.class);
+
+    private static final int MAGIC = 0x6D676469;
+    private static final String IMAGE = "memory.image";
+    private static final String SLOT_PAGES = "slot-";
+    private static final String PAYLOAD_PAGES = "payload-";
+
+    private final File directory;
+    private final MappedPages payloadPages;
+    private final MappedPages slotPages;
+    private final Sequence restoredSequence;
+    private final MemoryReference[] restoredReferences;
+
+    public MappedMemoryManager(MemoryBlockResolver resolver, File directory) {
+        this(resolver, directory, new JavaDataSerializer(), DEFAULT_PAGE_SIZE, DEFAULT_HOT_CACHE_SIZE);
+    }
+
+    public MappedMemoryManager(MemoryBlockResolver resolver, File directory, DataSerializer<byte[]> serializer,
+                               int pageSize, int hotCacheSize) {
+        this(resolver, directory, serializer, pageSize, hotCacheSize,
+                new MappedPages(directory, PAYLOAD_PAGES), new MappedPages(directory, SLOT_PAGES));
+    }
+
+    private MappedMemoryManager(MemoryBlockResolver resolver, File directory, DataSerializer<byte[]> serializer,
+                                int pageSize, int hotCacheSize, MappedPages payloadPages, MappedPages slotPages) {
+        super(resolver, serializer, pageSize, hotCacheSize, payloadPages, slotPages);
+        if(!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IllegalArgumentException("Invalid memory directory " + directory.getAbsolutePath());
+        }
+        this.directory = directory;
+        this.payloadPages = payloadPages;
+        this.slotPages = slotPages;
+        this.restoredSequence = open();
+        this.restoredReferences = restoredSequence != null ? reserveOccupied() : new MemoryReference[0];
+        if(restoredSequence == null) {
+            payloadPages.clear();
+            slotPages.clear();
+        }
+        LOGGER.info(String.format("Restored %d memory references from %s", restoredReferences.length,
+                directory.getAbsolutePath()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Sequence restoredSequence() {
+        return restoredSequence;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public MemoryReference[] restoredReferences() {
+        return restoredReferences;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void save(Sequence latest) {
+        payloadPages.force();
+        slotPages.force();
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            writeLayout(out);
+            out.writeLong(latest.number());
+            saveArena(out);
+            out.flush();
+
+            CRC32 crc = new CRC32();
+            crc.update(bytes.toByteArray());
+            out.writeLong(crc.getValue());
+            out.flush();
+
+            // write it aside first, a crash half way through must not leave a broken image behind
+            File temp = new File(directory, IMAGE + ".tmp");
+            OutputStream file = new FileOutputStream(temp);
+            try {
+                bytes.writeTo(file);
+                file.flush();
+            }
+            finally {
+                file.close();
+            }
+            File image = new File(directory, IMAGE);
+            if((image.exists() && !image.delete()) || !temp.renameTo(image)) {
+                throw new IOException("Failed to replace " + image.getAbsolutePath());
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to save memory image in " + directory.getAbsolutePath(), e);
+        }
+        LOGGER.info(String.format("Saved memory image at sequence=%d in %s", latest.number(),
+                directory.getAbsolutePath()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void discard() {
+        File image = new File(directory, IMAGE);
+        if(image.exists() && !image.delete()) {
+            throw new RuntimeException("Failed to delete memory image " + image.getAbsolutePath());
+        }
+    }
+
+    private Sequence open() {
+        byte[] image = readImage();
+        // whatever happens next the image is stale, memory is about to change
+        discard();
+        if(image == null) {
+            return null;
+        }
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(image));
+            if(in.readInt() != MAGIC || !readLayout(in)) {
+                LOGGER.warn("Memory image does not match the memory blocks, ignoring it.");
+                return null;
+            }
+            Sequence sequence = Sequence.valueOf(in.readLong());
+            restoreArena(in);
+            return sequence;
+        } catch (IOException e) {
+            LOGGER.warn("Failed to read memory image, ignoring it.", e);
+            return null;
+        }
+    }
+
+    private byte[] readImage() {
+        File file = new File(directory, IMAGE);
+        if(!file.isFile() || file.length() < 8) {
+            return null;
+        }
+        try {
+            byte[] image = new byte[(int) file.length()];
+            InputStream in = new FileInputStream(file);
+            try {
+                new DataInputStream(in).readFully(image);
+            }
+            finally {
+                in.close();
+            }
+            CRC32 crc = new CRC32();
+            crc.update(image, 0, image.length - 8);
+            long expected = new DataInputStream(new ByteArrayInputStream(image, image.length - 8, 8)).readLong();
+            if(crc.getValue() != expected) {
+                LOGGER.warn("Memory image is corrupt, ignoring it.");
+                return null;
+            }
+            return image;
+        } catch (IOException e) {
+            LOGGER.warn("Failed to read memory image, ignoring it.", e);
+            return null;
+        }
+    }
+
+    private void writeLayout(DataOutputStream out) throws IOException {
+        MemoryBlock[] blocks = blocks();
+        out.writeInt(addressSpace());
+        out.writeInt(blocks.length);
+        for(MemoryBlock block : blocks) {
+            out.writeInt(block.startsWith().id());
+            out.writeInt(block.ceiling().id());
+        }
+    }
+
+    private boolean readLayout(DataInputStream in) throws IOException {
+        MemoryBlock[] blocks = blocks();
+        if(in.readInt() != addressSpace() || in.readInt() != blocks.length) {
+            return false;
+        }
+        for(MemoryBlock block : blocks) {
+            if(in.readInt() != block.startsWith().id() || in.readInt() != block.ceiling().id()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private MemoryReference[] reserveOccupied() {
+        Map<MemoryBlock, List<Integer>> occupied = new HashMap<MemoryBlock, List<Integer>>();
+        List<MemoryReference> references = new ArrayList<MemoryReference>();
+        for(int index : slotPages.indexes()) {
+            if(index >= slotPageCount()) {
+                continue;
+            }
+            restoreSlotPage(index, slotPages.allocate(index, slotPageSize(index)));
+            int first = index * SLOTS_PER_PAGE;
+            int last = Math.min(first + SLOTS_PER_PAGE, addressSpace());
+            for(int id = first; id < last; id++) {
+                if(isOccupied(id)) {
+                    MemoryReference ref = MemoryReference.valueOf(id);
+                    MemoryBlock block = block(ref);
+                    if(!occupied.containsKey(block)) {
+                        occupied.put(block, new ArrayList<Integer>());
+                    }
+                    occupied.get(block).add(id);
+                    references.add(ref);
+                }
+            }
+        }
+        for(Map.Entry<MemoryBlock, List<Integer>> entry : occupied.entrySet()) {
+            if(!(entry.getKey() instanceof MemoryBlockImpl)) {
+                throw new IllegalStateException("Memory block " + entry.getKey().name() + " cannot be restored.");
+            }
+            int[] ids = new int[entry.getValue().size()];
+            for(int i = 0; i < ids.length; i++) {
+                ids[i] = entry.getValue().get(i);
+            }
+            ((MemoryBlockImpl) entry.getKey()).reserve(ids);
+        }
+        return references.toArray(new MemoryReference[references.size()]);
+    }
+}
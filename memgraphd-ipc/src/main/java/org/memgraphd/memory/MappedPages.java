@@ -0,0 +1,124 @@
+package org.memgraphd.memory;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hands out pages that are memory-mapped files, one file per page named after its index, so that
+ * their content survives the process. The operating system loads each page on demand and writes
+ * it back lazily, {@link #force()} makes sure all of it is on disk.
+ *
+ * @author Ilirjan Papa
+ * @since August 26, 2013
+ *
+ */
+final class MappedPages implements OffHeapArena.PageSource {
+    private static final String SUFFIX = ".page";
+
+    private final File directory;
+    private final String prefix;
+    private final Map<Integer, MappedByteBuffer> mapped;
+
+    MappedPages(File directory, String prefix) {
+        this.directory = directory;
+        this.prefix = prefix;
+        this.mapped = new ConcurrentHashMap<Integer, MappedByteBuffer>();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ByteBuffer allocate(int index, int size) {
+        File file = file(index);
+        try {
+            RandomAccessFile raf = new RandomAccessFile(file, "rw");
+            try {
+                // the mapping stays valid once the file is closed
+                MappedByteBuffer page = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+                mapped.put(index, page);
+                return page;
+            }
+            finally {
+                raf.close();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to map page " + file.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void release(int index) {
+        mapped.remove(index);
+        File file = file(index);
+        if(file.exists() && !file.delete()) {
+            throw new RuntimeException("Failed to delete page " + file.getAbsolutePath());
+        }
+    }
+
+    /**
+     * Returns the indexes of all pages found on disk, in ascending order.
+     * @return list of indexes
+     */
+    List<Integer> indexes() {
+        List<Integer> indexes = new ArrayList<Integer>();
+        for(File file : files()) {
+            String name = file.getName();
+            try {
+                indexes.add(Integer.valueOf(name.substring(prefix.length(), name.length() - SUFFIX.length())));
+            } catch (NumberFormatException e) {
+                // not one of ours
+            }
+        }
+        Collections.sort(indexes);
+        return indexes;
+    }
+
+    /**
+     * Writes every change made to the pages back to disk.
+     */
+    void force() {
+        for(MappedByteBuffer page : mapped.values()) {
+            page.force();
+        }
+    }
+
+    /**
+     * Deletes all pages found on disk.
+     */
+    void clear() {
+        mapped.clear();
+        for(File file : files()) {
+            if(!file.delete()) {
+                throw new RuntimeException("Failed to delete page " + file.getAbsolutePath());
+            }
+        }
+    }
+
+    private File[] files() {
+        File[] files = directory.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.startsWith(prefix) && name.endsWith(SUFFIX);
+            }
+        });
+        return files != null ? files : new File[0];
+    }
+
+    private File file(int index) {
+        return new File(directory, prefix + index + SUFFIX);
+    }
+}
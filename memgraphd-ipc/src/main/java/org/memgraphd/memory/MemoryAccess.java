@@ -1,16 +1,30 @@
 package org.memgraphd.memory;
 
-import java.util.LinkedList;
-import java.util.Set;
+import java.util.Arrays;
 
+import org.memgraphd.data.Data;
 import org.memgraphd.data.GraphData;
+import org.memgraphd.data.GraphDataImpl;
+import org.memgraphd.data.GraphDataRelationship;
 import org.memgraphd.data.GraphDataRelationshipImpl;
-import org.memgraphd.data.GraphRelatedDataImpl;
+import org.memgraphd.decision.Decision;
 import org.memgraphd.memory.operation.MemoryLocationOperations;
 import org.memgraphd.memory.operation.MemoryOperations;
 
 /**
  * Default implementation of {@link MemoryAccess} that gives you full read-write access to memory layer.
+ * <br><br>
+ * Data read together with its relationships is handed out as a {@link GraphDataView}, kept in the
+ * bounded {@link GraphDataViewCache} of the memory manager until the version of the node in the
+ * {@link MemoryAdjacency} moves on, which happens whenever the data or any of its relationships
+ * change, or until the view of another node takes its place. Views served from the cache still mark
+ * their {@link MemoryLocation} as read, only {@link #decisionOf(MemoryReference)} looks at the data
+ * without reading it.
+ * <br><br>
+ * It also keeps the {@link MemoryStats#footprint()} of every {@link MemoryBlockImpl} up to date,
+ * charging each block with the estimated size of the data it stores and with its side of every
+ * relationship, see {@link MemoryFootprint}. Blocks with a {@link MemoryBlock#budget()} ask for
+ * data to be evicted once new data would take them over it.
  * 
  * @author Ilirjan Papa
  * @since July 17, 2012
@@ -18,11 +32,26 @@ import org.memgraphd.memory.operation.MemoryOperations;
  */
 public final class MemoryAccess implements MemoryOperations {
     private final MemoryManager memoryManager;
-    
-    private static final GraphData[] EMPTY = new GraphData[0];
+    private final MemoryAdjacency adjacency;
+    private final EvictionPolicy evictionPolicy;
+    private final SizeEstimator estimator;
+    private final GraphDataViewCache views;
     
     public MemoryAccess(MemoryManager manager) {
+        this(manager, new NoEvictionPolicy());
+    }
+    
+    public MemoryAccess(MemoryManager manager, EvictionPolicy evictionPolicy) {
+        this(manager, evictionPolicy, new ClassSizeEstimator());
+    }
+    
+    public MemoryAccess(MemoryManager manager, EvictionPolicy evictionPolicy, SizeEstimator estimator) {
         this.memoryManager = manager;
+        this.estimator = estimator;
+        this.adjacency = new MemoryAdjacency(manager.capacity());
+        this.evictionPolicy = evictionPolicy;
+        this.views = manager instanceof AbstractMemoryManager ? ((AbstractMemoryManager) manager).views()
+                : new GraphDataViewCache(manager.capacity());
     }
     
     /**
@@ -33,6 +62,9 @@ public final class MemoryAccess implements MemoryOperations {
         MemoryBlock block = memoryManager.resolver().resolve(item.getData());
         MemoryReference nextAvailableRef = block.next();
         ((MemoryLocationOperations)memoryManager.read(nextAvailableRef)).update(item);
+        retain(block, nextAvailableRef, item);
+        adjacency.touch(nextAvailableRef.id());
+        evictionPolicy.onWrite(nextAvailableRef, item);
         return nextAvailableRef;
     }
     
@@ -41,6 +73,7 @@ public final class MemoryAccess implements MemoryOperations {
      */
     @Override
     public GraphData read(MemoryReference ref) {
+        evictionPolicy.onAccess(ref);
         return getMemoryLocation(ref).data();
     }
     
@@ -49,25 +82,22 @@ public final class MemoryAccess implements MemoryOperations {
      */
     @Override
     public GraphData readGraph(MemoryReference reference) {
-        MemoryLocation location = getMemoryLocation(reference);
-        // reset old relationships that might no longer be valid
-        resetRelationships(location.data());
-        // build new set of relationships
-        LinkedList<GraphData> graph = new LinkedList<GraphData>();
-        read(location, true, graph);
-        GraphData last = graph.peekFirst();
-        if(last != null) {
-            read(getMemoryLocation(last.getReference()), false, graph);
-        }
-        return read(location, false, graph);
+        evictionPolicy.onAccess(reference);
+        return view(reference);
     }
     
-    private void resetRelationships(GraphData gData) {
-        if(gData.getRelatedData() != null) {
-            GraphRelatedDataImpl relations = (GraphRelatedDataImpl) gData.getRelatedData();
-            relations.setReferences(null);
-            relations.setRelationships(null);
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Decision decisionOf(MemoryReference reference) {
+        MemoryLocation location = getMemoryLocation(reference);
+        if(location instanceof MemoryLocationImpl) {
+            return ((MemoryLocationImpl) location).decision();
         }
+        // nothing to mark as read anywhere else
+        GraphData data = location.data();
+        return data instanceof GraphDataImpl ? ((GraphDataImpl) data).getDecision() : null;
     }
     
     /**
@@ -75,7 +105,25 @@ public final class MemoryAccess implements MemoryOperations {
      */
     @Override
     public void update(MemoryReference ref, GraphData data) {
-        ((MemoryLocationOperations)getMemoryLocation(ref)).update(data);
+        MemoryLocation location = getMemoryLocation(ref);
+        ((MemoryLocationOperations)location).update(data);
+        retain(location.block(), ref, data);
+        adjacency.touch(ref.id());
+        evictionPolicy.onWrite(ref, data);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public GraphData restore(MemoryReference ref) {
+        MemoryLocation location = getMemoryLocation(ref);
+        GraphData data = location.data();
+        if(data != null) {
+            retain(location.block(), ref, data);
+            evictionPolicy.onWrite(ref, data);
+        }
+        return data;
     }
     
     /**
@@ -117,7 +165,10 @@ public final class MemoryAccess implements MemoryOperations {
     public void free(MemoryReference ref) {
         MemoryLocation location = getMemoryLocation(ref);
         if(location != null) {
+            evictionPolicy.onFree(ref);
             ((MemoryLocationOperations)location).free();
+            adjacency.touch(ref.id());
+            views.remove(ref.id());
         }
     } 
     
@@ -125,18 +176,123 @@ public final class MemoryAccess implements MemoryOperations {
      * {@inheritDoc}
      */
     @Override
-    public synchronized void delinkAll(MemoryReference ref) {
-        MemoryLocation loc = getMemoryLocation(ref);
-        ((MemoryLocationOperations)loc).delinkAll();
+    public GraphData relocate(MemoryReference from, MemoryReference to) {
+        GraphData data = getMemoryLocation(from).data();
+        if(data == null) {
+            return null;
+        }
+        ((GraphDataImpl) data).setRefence(to);
+        MemoryLocation location = getMemoryLocation(to);
+        ((MemoryLocationOperations)location).update(data);
+        retain(location.block(), to, data);
+        adjacency.relocate(from.id(), to.id());
+        views.remove(from.id());
+        views.remove(to.id());
+        evictionPolicy.onFree(from);
+        evictionPolicy.onWrite(to, data);
+        return data;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public MemoryReference evictionCandidate(Data data) {
+        MemoryBlock block = blockOf(data);
+        return evictionCandidate(block, 1, block.budget() > 0L ? footprintOf(data) : 0L);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public MemoryReference evictionCandidate(MemoryBlock block, int references, long bytes) {
+        // the block can still grow up to its ceiling
+        long room = (long) block.available() + block.ceiling().id() - block.endsWith().id();
+        if(room >= references && !overBudget(block, bytes)) {
+            return null;
+        }
+        return evictionPolicy.victim(block);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public MemoryBlock blockOf(Data data) {
+        return memoryManager.resolver().resolve(data);
     }
     
     /**
      * {@inheritDoc}
      */
     @Override
-    public synchronized void dereferenceAll(MemoryReference ref) {
-        MemoryLocation loc = getMemoryLocation(ref);
-        ((MemoryLocationOperations)loc).dereferenceAll();
+    public long footprintOf(Data data) {
+        return MemoryFootprint.of(data, estimator);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean overBudget(Data data, MemoryReference replaced) {
+        // updates stay where the data is stored already
+        MemoryBlock block = replaced != null ? getMemoryLocation(replaced).block() 
+                : memoryManager.resolver().resolve(data);
+        return overBudget(block, data, replaced);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean overBudget(MemoryBlock block, long bytes) {
+        if(!(block instanceof MemoryBlockImpl) || block.budget() == 0L) {
+            return false;
+        }
+        return !((MemoryBlockImpl) block).fits(bytes);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void delinkAll(MemoryReference ref) {
+        int id = getMemoryLocation(ref).reference().id();
+        int[] links = adjacency.links(id);
+        adjacency.delinkAll(id);
+        for(int link : links) {
+            retain(id, link, -MemoryFootprint.EDGE_BYTES);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void dereferenceAll(MemoryReference ref) {
+        int id = getMemoryLocation(ref).reference().id();
+        int[] references = adjacency.references(id);
+        adjacency.dereferenceAll(id);
+        for(int reference : references) {
+            retain(reference, id, -MemoryFootprint.EDGE_BYTES);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int[] linksOf(MemoryReference ref) {
+        return adjacency.links(ref.id());
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int[] referencesOf(MemoryReference ref) {
+        return adjacency.references(ref.id());
     }
 
     private void linkDelink(MemoryReference ref, MemoryReference[] links, boolean isLink) {
@@ -148,54 +304,104 @@ public final class MemoryAccess implements MemoryOperations {
     }
 
     private MemoryLocation getMemoryLocation(MemoryReference ref) {
-        
-        if(ref.id() < 0 || ref.id() >= memoryManager.capacity())
-            throw new IllegalStateException("Reference id out of range: " + ref.id());
-        
+        // bounds are checked by the memory manager, blocks might have grown since we last looked
         return memoryManager.read(ref);
     }
 
-    private GraphData read(MemoryLocation location, boolean isLink, LinkedList<GraphData> graph) {
-        GraphData[] links = EMPTY;
-        GraphData[] references = EMPTY;
-        if(isLink && !location.links().isEmpty()) {
-            links = getRelatedData(location.links(), isLink, graph);
-            ((GraphRelatedDataImpl)location.data().getRelatedData()).
-                setRelationships(new GraphDataRelationshipImpl(links));
+    /**
+     * Returns the latest view of the data stored at this memory reference, building a new one only
+     * if the node has changed since the cached view was built or the view is no longer cached.
+     * @param reference {@link MemoryReference}
+     * @return {@link GraphDataView}, null if there is no data stored there
+     */
+    GraphDataView view(MemoryReference reference) {
+        // the version is read before the data, writers move it forward after they write
+        long version = adjacency.version(reference.id());
+        GraphDataView view = views.get(reference.id(), version);
+        MemoryLocation location = getMemoryLocation(reference);
+        if(view != null) {
+            if(location instanceof MemoryLocationImpl) {
+                ((MemoryLocationImpl) location).touch();
+            }
+            return view;
         }
-        else if(!isLink && !location.references().isEmpty()) {
-            references = getRelatedData(location.references(), isLink, graph);
-            ((GraphRelatedDataImpl)location.data().getRelatedData()).
-                setReferences(new GraphDataRelationshipImpl(references));
+        GraphData data = location.data();
+        if(data == null) {
+            views.remove(reference.id());
+            return null;
         }
-        return location.data();
+        view = new GraphDataView(this, data, version);
+        views.put(view);
+        return view;
     }
-
-    private GraphData[] getRelatedData(Set<MemoryLocation> relatedLocs, boolean isLink, LinkedList<GraphData> graph) {
-        GraphData[] relationships = new GraphData[relatedLocs.size()];
+    
+    /**
+     * Returns the views of all the nodes with these ids as a {@link GraphDataRelationship}.
+     * @param ids ids of the nodes
+     * @return {@link GraphDataRelationship}, null if there are none
+     */
+    GraphDataRelationship views(int[] ids) {
+        if(ids.length == 0) {
+            return null;
+        }
+        GraphData[] related = new GraphData[ids.length];
         int count = 0;
-        for(MemoryLocation loc : relatedLocs) {
-            GraphData data = read(loc, isLink, graph);
-            graph.add(data);
-            relationships[count] =  data;
-            count++;
+        for(int id : ids) {
+            GraphDataView view = view(MemoryReference.valueOf(id));
+            if(view != null) {
+                related[count++] = view;
+            }
+        }
+        if(count == 0) {
+            return null;
         }
-        return relationships;
+        return new GraphDataRelationshipImpl(count == related.length ? related : Arrays.copyOf(related, count));
+    }
+    
+    MemoryAdjacency adjacency() {
+        return adjacency;
     }
 
     private void linkDelink(MemoryReference ref, MemoryReference link, boolean isLink) {
-        MemoryLocation loc = getMemoryLocation(ref);
-        if(loc != null) {
-            MemoryLocation linkLoc = getMemoryLocation(link);
-            if(linkLoc != null && isLink) {
-                ((MemoryLocationOperations)loc).link(linkLoc);
-                ((MemoryLocationOperations)linkLoc).reference(loc);
-            }
-            else if(linkLoc != null && !isLink) {
-                ((MemoryLocationOperations)loc).delink(linkLoc);
-                ((MemoryLocationOperations)linkLoc).delink(loc);
+        int from = getMemoryLocation(ref).reference().id();
+        int to = getMemoryLocation(link).reference().id();
+        if(isLink) {
+            if(adjacency.link(from, to)) {
+                retain(from, to, MemoryFootprint.EDGE_BYTES);
             }
         }
+        else if(adjacency.delink(from, to)) {
+            retain(from, to, -MemoryFootprint.EDGE_BYTES);
+        }
+    }
+    
+    private boolean overBudget(MemoryBlock block, Data data, MemoryReference replaced) {
+        if(!(block instanceof MemoryBlockImpl) || block.budget() == 0L) {
+            return false;
+        }
+        long bytes = MemoryFootprint.of(data, estimator);
+        if(replaced != null) {
+            bytes -= ((MemoryBlockImpl) block).retained(replaced);
+        }
+        return overBudget(block, bytes);
+    }
+    
+    private void retain(MemoryBlock block, MemoryReference ref, GraphData data) {
+        if(block instanceof MemoryBlockImpl) {
+            ((MemoryBlockImpl) block).retain(ref, MemoryFootprint.of(data, estimator));
+        }
+    }
+    
+    private void retain(int from, int to, int bytes) {
+        // each side of the relationship is charged to the block of the node that keeps it
+        retain(getMemoryLocation(MemoryReference.valueOf(from)).block(), bytes);
+        retain(getMemoryLocation(MemoryReference.valueOf(to)).block(), bytes);
+    }
+    
+    private static void retain(MemoryBlock block, int bytes) {
+        if(block instanceof MemoryBlockImpl) {
+            ((MemoryBlockImpl) block).retain((long) bytes);
+        }
     }
     
 }
@@ -0,0 +1,527 @@
+package org.memgraphd.memory;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps the relationships between memory locations as primitive adjacency lists indexed by
+ * {@link MemoryReference#id()}. Every node has a segment of outgoing edges (its links) and a
+ * segment of incoming edges (its references). Segments are only allocated for nodes that have
+ * edges and grow by doubling. The index itself grows as well, as memory blocks grow and hand
+ * out higher memory references.
+ * <br><br>
+ * Each edge is stored twice, once in the links of its source and once in the references of its
+ * target, and each copy remembers the position of its twin. That way removing an edge from the
+ * other side never needs to search, which is what keeps nodes with thousands of references
+ * cheap to maintain: removals swap the last entry of a segment into the freed position.
+ * <br><br>
+ * The segments of a node are guarded by one of a fixed table of striped locks, picked by the id
+ * of the node. Changing an edge takes the locks of both of its nodes, plus the locks of the
+ * nodes whose twins move when an entry is swapped into the freed position, always in ascending
+ * order of the stripes so that two threads can never wait on each other. Changes to unrelated
+ * parts of the graph therefore run in parallel. Growing the index and relocating a node take
+ * the whole adjacency exclusively.
+ * <br><br>
+ * Every node also carries a version that goes up whenever one of its edges changes, or when it
+ * or one of its neighbors is touched, so that views of its relationships can be cached.
+ *
+ * @author Ilirjan Papa
+ * @since July 31, 2013
+ *
+ */
+public final class MemoryAdjacency {
+    private static final int[] NONE = new int[0];
+    private static final int INITIAL_SEGMENT_SIZE = 4;
+    private static final int LOCK_STRIPES = 256;
+
+    private final ReadWriteLock structure;
+    private final Lock[] stripes;
+
+    private int[][] links;
+    private int[] linkCount;
+    private int[][] references;
+    private int[] referenceCount;
+    private volatile AtomicLongArray versions;
+
+    public MemoryAdjacency(int capacity) {
+        this.structure = new ReentrantReadWriteLock();
+        this.stripes = new Lock[LOCK_STRIPES];
+        for(int i = 0; i < LOCK_STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.links = new int[capacity][];
+        this.linkCount = new int[capacity];
+        this.references = new int[capacity][];
+        this.referenceCount = new int[capacity];
+        this.versions = new AtomicLongArray(capacity);
+    }
+
+    /**
+     * Links node from to node to, unless they are already linked.
+     * @param from id of the node that links
+     * @param to id of the node being linked
+     * @return true if a new link was created
+     */
+    public boolean link(int from, int to) {
+        share(Math.max(from, to) + 1);
+        try {
+            int[] held = lock(from, to);
+            try {
+                if(find(links[from], linkCount[from], to) >= 0) {
+                    return false;
+                }
+                int linkPosition = linkCount[from] * 2;
+                int referencePosition = referenceCount[to] * 2;
+                append(links, linkCount, from, to, referencePosition);
+                append(references, referenceCount, to, from, linkPosition);
+                versions.incrementAndGet(from);
+                versions.incrementAndGet(to);
+                return true;
+            }
+            finally {
+                unlock(held);
+            }
+        }
+        finally {
+            structure.readLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the link from node from to node to, if there is one.
+     * @param from id of the node that links
+     * @param to id of the node being linked
+     * @return true if a link was removed
+     */
+    public boolean delink(int from, int to) {
+        structure.readLock().lock();
+        try {
+            return from < links.length && remove(from, to, -1);
+        }
+        finally {
+            structure.readLock().unlock();
+        }
+    }
+
+    /**
+     * Removes all links of a node.
+     * @param from id of the node
+     */
+    public void delinkAll(int from) {
+        structure.readLock().lock();
+        try {
+            while(from < links.length) {
+                int position;
+                int to;
+                Lock lock = stripe(from);
+                lock.lock();
+                try {
+                    if(linkCount[from] == 0) {
+                        return;
+                    }
+                    // the last link, nothing has to be swapped into its position
+                    position = (linkCount[from] - 1) * 2;
+                    to = links[from][position];
+                }
+                finally {
+                    lock.unlock();
+                }
+                remove(from, to, position);
+            }
+        }
+        finally {
+            structure.readLock().unlock();
+        }
+    }
+
+    /**
+     * Removes all references to a node.
+     * @param to id of the node
+     */
+    public void dereferenceAll(int to) {
+        structure.readLock().lock();
+        try {
+            while(to < references.length) {
+                int from;
+                int position;
+                Lock lock = stripe(to);
+                lock.lock();
+                try {
+                    if(referenceCount[to] == 0) {
+                        return;
+                    }
+                    int last = (referenceCount[to] - 1) * 2;
+                    from = references[to][last];
+                    position = references[to][last + 1];
+                }
+                finally {
+                    lock.unlock();
+                }
+                remove(from, to, position);
+            }
+        }
+        finally {
+            structure.readLock().unlock();
+        }
+    }
+
+    /**
+     * Moves all links and references of a node to another node that has none, as if the node
+     * had always been stored there.
+     * @param from id of the node
+     * @param to new id of the node
+     */
+    public void relocate(int from, int to) {
+        structure.writeLock().lock();
+        try {
+            ensureCapacity(Math.max(from, to) + 1);
+            if(linkCount[to] > 0 || referenceCount[to] > 0) {
+                throw new IllegalStateException("Node " + to + " is linked already.");
+            }
+            links[to] = links[from];
+            linkCount[to] = linkCount[from];
+            references[to] = references[from];
+            referenceCount[to] = referenceCount[from];
+            links[from] = null;
+            linkCount[from] = 0;
+            references[from] = null;
+            referenceCount[from] = 0;
+            // a node linking to itself shows up on both sides
+            rename(links[to], linkCount[to], from, to);
+            rename(references[to], referenceCount[to], from, to);
+            // the twins of all edges have to learn about the new id
+            for(int i = 0; i < linkCount[to] * 2; i += 2) {
+                references[links[to][i]][links[to][i + 1]] = to;
+            }
+            for(int i = 0; i < referenceCount[to] * 2; i += 2) {
+                links[references[to][i]][references[to][i + 1]] = to;
+            }
+            versions.incrementAndGet(from);
+            bump(to);
+        }
+        finally {
+            structure.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the version of a node.
+     * @param id id of the node
+     * @return long
+     */
+    public long version(int id) {
+        // no lock, reads of cached views should not pay for one; the versions only move to a grown
+        // array while nobody can touch them, so a read that raced with the growth is tried again
+        AtomicLongArray current;
+        long version;
+        do {
+            current = versions;
+            version = id < current.length() ? current.get(id) : 0L;
+        } while(current != versions);
+        return version;
+    }
+
+    /**
+     * Moves the version of a node and of all of its neighbors forward, since whatever is stored
+     * in the node has changed.
+     * @param id id of the node
+     */
+    public void touch(int id) {
+        share(id + 1);
+        try {
+            Lock lock = stripe(id);
+            lock.lock();
+            try {
+                bump(id);
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+        finally {
+            structure.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a copy of the ids of all the nodes this node links to.
+     * @param id id of the node
+     * @return array of ids
+     */
+    public int[] links(int id) {
+        structure.readLock().lock();
+        try {
+            if(id >= links.length) {
+                return NONE;
+            }
+            Lock lock = stripe(id);
+            lock.lock();
+            try {
+                return copy(links[id], linkCount[id]);
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+        finally {
+            structure.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a copy of the ids of all the nodes linking to this node.
+     * @param id id of the node
+     * @return array of ids
+     */
+    public int[] references(int id) {
+        structure.readLock().lock();
+        try {
+            if(id >= references.length) {
+                return NONE;
+            }
+            Lock lock = stripe(id);
+            lock.lock();
+            try {
+                return copy(references[id], referenceCount[id]);
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+        finally {
+            structure.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of nodes this node links to.
+     * @param id id of the node
+     * @return integer
+     */
+    public int linkCount(int id) {
+        return count(id, true);
+    }
+
+    /**
+     * Returns the number of nodes linking to this node.
+     * @param id id of the node
+     * @return integer
+     */
+    public int referenceCount(int id) {
+        return count(id, false);
+    }
+
+    private int count(int id, boolean isLink) {
+        structure.readLock().lock();
+        try {
+            if(id >= linkCount.length) {
+                return 0;
+            }
+            Lock lock = stripe(id);
+            lock.lock();
+            try {
+                return isLink ? linkCount[id] : referenceCount[id];
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+        finally {
+            structure.readLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the edge from node from to node to, looking for it at the hinted position of the
+     * links of from first. Takes the locks of both nodes and of the nodes whose twins move, if
+     * those turn out to be different once the locks are held it starts over with all of them.
+     * Expects the read lock of the structure to be held.
+     */
+    private boolean remove(int from, int to, int hint) {
+        int[] held = lock(from, to);
+        try {
+            while(true) {
+                int position = hint >= 0 && hint < linkCount[from] * 2 && links[from][hint] == to
+                        ? hint : find(links[from], linkCount[from], to);
+                if(position < 0) {
+                    return false;
+                }
+                int twin = links[from][position + 1];
+                int lastLink = (linkCount[from] - 1) * 2;
+                int lastReference = (referenceCount[to] - 1) * 2;
+                int movedLink = position != lastLink ? links[from][lastLink] : from;
+                int movedReference = twin != lastReference ? references[to][lastReference] : to;
+                if(holds(held, movedLink) && holds(held, movedReference)) {
+                    removeLink(from, position);
+                    removeReference(to, twin);
+                    versions.incrementAndGet(from);
+                    versions.incrementAndGet(to);
+                    return true;
+                }
+                unlock(held);
+                held = lock(from, to, movedLink, movedReference);
+            }
+        }
+        finally {
+            unlock(held);
+        }
+    }
+
+    /**
+     * Takes the read lock of the structure, once it is large enough to hold this many nodes.
+     */
+    private void share(int capacity) {
+        structure.readLock().lock();
+        while(capacity > links.length) {
+            structure.readLock().unlock();
+            structure.writeLock().lock();
+            try {
+                ensureCapacity(capacity);
+            }
+            finally {
+                structure.writeLock().unlock();
+            }
+            structure.readLock().lock();
+        }
+    }
+
+    /**
+     * Moves the version of a node and its neighbors forward, expects the lock of the node.
+     */
+    private void bump(int id) {
+        versions.incrementAndGet(id);
+        for(int i = 0; i < linkCount[id] * 2; i += 2) {
+            versions.incrementAndGet(links[id][i]);
+        }
+        for(int i = 0; i < referenceCount[id] * 2; i += 2) {
+            versions.incrementAndGet(references[id][i]);
+        }
+    }
+
+    private Lock stripe(int id) {
+        return stripes[id & (LOCK_STRIPES - 1)];
+    }
+
+    private int[] lock(int... ids) {
+        int[] held = new int[ids.length];
+        for(int i = 0; i < ids.length; i++) {
+            held[i] = ids[i] & (LOCK_STRIPES - 1);
+        }
+        Arrays.sort(held);
+        int count = 0;
+        for(int i = 0; i < held.length; i++) {
+            if(i == 0 || held[i] != held[i - 1]) {
+                held[count++] = held[i];
+            }
+        }
+        held = Arrays.copyOf(held, count);
+        for(int stripe : held) {
+            stripes[stripe].lock();
+        }
+        return held;
+    }
+
+    private void unlock(int[] held) {
+        for(int i = held.length - 1; i >= 0; i--) {
+            stripes[held[i]].unlock();
+        }
+    }
+
+    private static boolean holds(int[] held, int id) {
+        return Arrays.binarySearch(held, id & (LOCK_STRIPES - 1)) >= 0;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if(capacity <= links.length) {
+            return;
+        }
+        int grown = Math.max(capacity, links.length * 2);
+        links = Arrays.copyOf(links, grown);
+        linkCount = Arrays.copyOf(linkCount, grown);
+        references = Arrays.copyOf(references, grown);
+        referenceCount = Arrays.copyOf(referenceCount, grown);
+        AtomicLongArray grownVersions = new AtomicLongArray(grown);
+        for(int i = 0; i < versions.length(); i++) {
+            grownVersions.set(i, versions.get(i));
+        }
+        versions = grownVersions;
+    }
+
+    private void removeLink(int from, int position) {
+        int last = --linkCount[from] * 2;
+        int[] segment = links[from];
+        if(position != last) {
+            segment[position] = segment[last];
+            segment[position + 1] = segment[last + 1];
+            // the moved link's twin has to learn about its new position
+            references[segment[position]][segment[position + 1] + 1] = position;
+        }
+        if(linkCount[from] == 0) {
+            links[from] = null;
+        }
+    }
+
+    private void removeReference(int to, int position) {
+        int last = --referenceCount[to] * 2;
+        int[] segment = references[to];
+        if(position != last) {
+            segment[position] = segment[last];
+            segment[position + 1] = segment[last + 1];
+            // the moved reference's twin has to learn about its new position
+            links[segment[position]][segment[position + 1] + 1] = position;
+        }
+        if(referenceCount[to] == 0) {
+            references[to] = null;
+        }
+    }
+
+    private static void append(int[][] segments, int[] counts, int id, int neighbor, int twin) {
+        int[] segment = segments[id];
+        int position = counts[id] * 2;
+        if(segment == null) {
+            segment = new int[INITIAL_SEGMENT_SIZE * 2];
+            segments[id] = segment;
+        }
+        else if(position == segment.length) {
+            int[] grown = new int[segment.length * 2];
+            System.arraycopy(segment, 0, grown, 0, position);
+            segment = grown;
+            segments[id] = segment;
+        }
+        segment[position] = neighbor;
+        segment[position + 1] = twin;
+        counts[id]++;
+    }
+
+    private static void rename(int[] segment, int count, int from, int to) {
+        for(int i = 0; i < count * 2; i += 2) {
+            if(segment[i] == from) {
+                segment[i] = to;
+            }
+        }
+    }
+
+    private static int find(int[] segment, int count, int neighbor) {
+        for(int i = 0; i < count * 2; i += 2) {
+            if(segment[i] == neighbor) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int[] copy(int[] segment, int count) {
+        if(count == 0) {
+            return NONE;
+        }
+        int[] ids = new int[count];
+        for(int i = 0; i < count; i++) {
+            ids[i] = segment[i * 2];
+        }
+        return ids;
+    }
+}
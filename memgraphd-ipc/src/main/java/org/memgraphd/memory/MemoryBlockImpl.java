@@ -1,35 +1,120 @@
 package org.memgraphd.memory;
 
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Implements the {@link MemoryBlock} and all its operations.
+ * <br><br>
+ * A block starts with one segment spanning its initial range and, once that is used up, grows
+ * by chaining another segment of the same size right after it until it reaches its ceiling.
+ * Writers keep getting references while a block grows, only the ones that race for the very
+ * first reference of the new segment wait for it to be added.
+ * <br><br>
+ * Every thread allocates from a pool of its own, claiming a run of {@link #RUN_SIZE} consecutive
+ * references at a time and keeping the references it recycles in a small free list, so most
+ * calls to {@link #next()} and {@link #recycle(MemoryReference)} touch no shared state. A free list
+ * that overflows spills half of it into one of a few shared stripes, a pool that runs dry refills
+ * from the stripes before claiming another run and, once the block cannot grow any more, takes
+ * whatever other pools still hold.
+ * <br><br>
+ * {@link #compact(int, MemoryRelocator)} moves data from the highest memory references handed
+ * out into the lowest recycled ones and gives the block back whatever it freed at the top, so
+ * that after heavy churn the data ends up stored next to each other again.
+ * <br><br>
+ * Memory statistics are kept in striped counters updated as references are handed out and
+ * recycled, so reading them costs the same no matter how many threads or references there are.
+ * The block also keeps an estimate of the bytes retained by the data stored in each of its
+ * references, see {@link #retain(MemoryReference, int)}, which is released when the reference
+ * is recycled, and of the bytes retained on behalf of the block as a whole. A block created with
+ * a {@link #budget()} uses it to tell whether more data {@link #fits(long)}.
  *
  * @author Ilirjan Papa
  * @since July 28, 2012
  *
  */
 public final class MemoryBlockImpl implements MemoryBlock {
+    /**
+     * Number of references a thread claims at a time.
+     */
+    public static final int RUN_SIZE = 16;
+
+    private static final int STRIPES = stripes();
+    private static final int FOOTPRINT_PAGE_SIZE = 1 << 10;
+    private static final int FOOTPRINT_PAGE_SHIFT = Integer.numberOfTrailingZeros(FOOTPRINT_PAGE_SIZE);
+
     private final String name;
-    private final AtomicInteger capacity;
-    private final Queue<MemoryReference> recycled;
+    private final ThreadLocal<Pool> pool;
+    private final List<Pool> pools;
+    private final Stripe[] stripes;
+    private final AtomicInteger cursor;
+    private final MemoryReference startsWith;
+    private final MemoryReference ceiling;
+    private final int segmentSize;
+    private final long budget;
+
+    private final Counter occupied;
+    private final Counter recycled;
+    private final Counter footprint;
+    private final AtomicReferenceArray<AtomicIntegerArray> retained;
+
+    private final Object compaction;
 
-    private AtomicInteger cursor;
-    private MemoryReference startsWith;
-    private MemoryReference endsWith;
+    private volatile MemoryReference endsWith;
+    private volatile int segments;
+    private volatile int held;
 
     public MemoryBlockImpl(String name, MemoryReference start, MemoryReference end) {
-        this.name = name;
-        this.capacity = new AtomicInteger(end.id() - start.id());
-        this.recycled = new ConcurrentLinkedQueue<MemoryReference>();
-        this.cursor = new AtomicInteger(start.id() - 1);
+        this(name, start, end, end);
+    }
 
-        validate(start, end);
+    public MemoryBlockImpl(String name, MemoryReference start, MemoryReference end, MemoryReference ceiling) {
+        this(name, start, end, ceiling, 0L);
+    }
 
+    /**
+     * Creates a block whose data is allowed to retain up to budget bytes, as estimated by its
+     * {@link #footprint()}, no matter how much room it has left for memory references.
+     * @param name name of the block
+     * @param start first memory reference
+     * @param end last memory reference of the first segment
+     * @param ceiling last memory reference the block may grow to
+     * @param budget number of bytes, 0 for none
+     */
+    public MemoryBlockImpl(String name, MemoryReference start, MemoryReference end, MemoryReference ceiling,
+            long budget) {
+        validate(start, end, ceiling);
+        if(budget < 0) {
+            throw new IllegalArgumentException("Invalid memory budget for memory block: " + budget);
+        }
+
+        this.name = name;
+        this.pool = new ThreadLocal<Pool>();
+        this.pools = new CopyOnWriteArrayList<Pool>();
+        this.stripes = new Stripe[STRIPES];
+        for(int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.compaction = new Object();
+        this.cursor = new AtomicInteger(start.id() - 1);
         this.startsWith = start;
         this.endsWith = end;
+        this.ceiling = ceiling;
+        this.segmentSize = end.id() - start.id() + 1;
+        this.budget = budget;
+        this.segments = 1;
+        this.occupied = new Counter();
+        this.recycled = new Counter();
+        this.footprint = new Counter();
+        this.retained = new AtomicReferenceArray<AtomicIntegerArray>(
+                ((ceiling.id() - start.id()) >>> FOOTPRINT_PAGE_SHIFT) + 1);
     }
 
     /**
@@ -45,7 +130,7 @@ public final class MemoryBlockImpl implements MemoryBlock {
      */
     @Override
     public final int capacity() {
-        return capacity.intValue();
+        return endsWith.id() - startsWith.id() + 1;
     }
 
     /**
@@ -53,7 +138,7 @@ public final class MemoryBlockImpl implements MemoryBlock {
      */
     @Override
     public final int occupied() {
-        return cursor.intValue() - startsWith().id() - recycled.size() + 1;
+        return (int) occupied.sum();
     }
 
     /**
@@ -61,7 +146,7 @@ public final class MemoryBlockImpl implements MemoryBlock {
      */
     @Override
     public final int available() {
-        return capacity.intValue() - (cursor.intValue() + 1) + recycled.size();
+        return capacity() - occupied();
     }
 
     /**
@@ -69,7 +154,64 @@ public final class MemoryBlockImpl implements MemoryBlock {
      */
     @Override
     public int recycled() {
-        return recycled.size();
+        return (int) recycled.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int segments() {
+        return segments;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int growths() {
+        return segments - 1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long footprint() {
+        return footprint.sum();
+    }
+
+    /**
+     * Records the estimate of the bytes retained by the data stored at this memory reference,
+     * replacing the previous one. It counts towards the {@link #footprint()} of the block until the
+     * reference is recycled.
+     * @param reference {@link MemoryReference} in this block
+     * @param bytes number of bytes
+     */
+    public void retain(MemoryReference reference, int bytes) {
+        AtomicIntegerArray page = page(reference.id(), bytes != 0);
+        if(page != null) {
+            footprint.add(bytes - page.getAndSet(offset(reference.id()), bytes));
+        }
+    }
+
+    /**
+     * Adds to the {@link #footprint()} of the block bytes that are not tied to the data stored at a
+     * single memory reference, such as relationships.
+     * @param bytes number of bytes, negative to release them
+     */
+    public void retain(long bytes) {
+        footprint.add(bytes);
+    }
+
+    /**
+     * Returns the estimate of the bytes retained by the data stored at this memory reference.
+     * @param reference {@link MemoryReference} in this block
+     * @return integer
+     */
+    public int retained(MemoryReference reference) {
+        AtomicIntegerArray page = page(reference.id(), false);
+        return page != null ? page.get(offset(reference.id())) : 0;
     }
 
     /**
@@ -88,10 +230,38 @@ public final class MemoryBlockImpl implements MemoryBlock {
         return endsWith;
     }
 
-    private final void validate(MemoryReference startsWith, MemoryReference endsWith) {
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public final MemoryReference ceiling() {
+        return ceiling;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public final long budget() {
+        return budget;
+    }
+
+    /**
+     * Returns true if the block can take on this many more bytes without going over its budget.
+     * @param bytes number of bytes
+     * @return true if it has no budget or stays within it
+     */
+    public final boolean fits(long bytes) {
+        return budget == 0L || footprint.sum() + bytes <= budget;
+    }
+
+    private final void validate(MemoryReference startsWith, MemoryReference endsWith, MemoryReference ceiling) {
         if(startsWith.id() > endsWith.id()) {
             throw new IllegalArgumentException("Invalid memory block range for memory block.");
         }
+        if(endsWith.id() > ceiling.id()) {
+            throw new IllegalArgumentException("Invalid memory block ceiling for memory block.");
+        }
     }
 
     /**
@@ -99,11 +269,13 @@ public final class MemoryBlockImpl implements MemoryBlock {
      */
     @Override
     public final MemoryReference next() {
-        if(cursor.intValue() == endsWith().id()) {
-            throw new IllegalStateException("Memory block " + name() + " is full.");
+        Pool local = pool();
+        int id = local.take();
+        while(id < 0) {
+            id = refill(local);
         }
-        MemoryReference ref = recycled.poll();
-        return ref != null ? ref : MemoryReference.valueOf(cursor.incrementAndGet());
+        occupied.add(1);
+        return MemoryReference.valueOf(id);
     }
 
     /**
@@ -111,7 +283,413 @@ public final class MemoryBlockImpl implements MemoryBlock {
      */
     @Override
     public final void recycle(MemoryReference reference) {
-        recycled.add(reference);
+        release(reference);
+        occupied.add(-1);
+        recycled.add(1);
+        Pool local = pool();
+        if(!local.put(reference.id())) {
+            stripe().push(local.spill(), RUN_SIZE);
+            local.put(reference.id());
+        }
+    }
+
+    /**
+     * Moves up to max of the {@link GraphData} stored in the highest memory references handed out
+     * into the lowest recycled ones, below them. Recycled references are taken out of circulation
+     * while it runs, the ones at the top of the block are then dropped so that they are handed out
+     * again in order, the rest go back to be recycled.
+     * @param max maximum number of data to move, bounds how long it runs
+     * @param relocator {@link MemoryRelocator} that moves the data
+     * @return how many data were moved
+     */
+    public int compact(int max, MemoryRelocator relocator) {
+        synchronized (compaction) {
+            int[] free = drain();
+            held = free.length;
+            int moved = 0;
+            int hole = 0;
+            try {
+                int top = free.length - 1;
+                int candidate = cursor.get();
+                while(moved < max && hole <= top && candidate > free[hole]) {
+                    if(free[top] == candidate) {
+                        top--;
+                    }
+                    else if(relocate(relocator, candidate, free[hole])) {
+                        hole++;
+                        moved++;
+                    }
+                    candidate--;
+                }
+            }
+            finally {
+                restore(Arrays.copyOfRange(free, hole, free.length));
+            }
+            return moved;
+        }
+    }
+
+    /**
+     * Marks these memory references as handed out, for memory that comes back holding data from a
+     * previous run. The block grows as far as it takes to cover them and every reference below the
+     * highest one that is not in use gets recycled. Only meant to be called before the block hands
+     * out any memory references.
+     * @param occupied ids of the memory references in use
+     */
+    public void reserve(int[] occupied) {
+        synchronized (compaction) {
+            if(occupied.length == 0) {
+                return;
+            }
+            int[] ids = Arrays.copyOf(occupied, occupied.length);
+            Arrays.sort(ids);
+            int top = ids[ids.length - 1];
+            if(ids[0] < startsWith.id() || top > ceiling.id()) {
+                throw new IllegalArgumentException(String.format("Memory references %d-%d are outside of memory block %s.", 
+                        ids[0], top, name()));
+            }
+            if(cursor.get() >= startsWith.id() || !pools.isEmpty()) {
+                throw new IllegalStateException("Memory block " + name() + " is already in use.");
+            }
+            while(endsWith.id() < top) {
+                grow(endsWith.id());
+            }
+            cursor.set(top);
+            this.occupied.add(ids.length);
+            int[] free = new int[top - startsWith.id() + 1 - ids.length];
+            int count = 0;
+            int next = 0;
+            for(int id = startsWith.id(); id < top; id++) {
+                if(ids[next] == id) {
+                    next++;
+                }
+                else {
+                    free[count++] = id;
+                }
+            }
+            recycled.add(count);
+            restore(Arrays.copyOf(free, count));
+        }
+    }
+
+    private boolean relocate(MemoryRelocator relocator, int from, int to) {
+        // the recycled reference is handed out to the data moving in, the one it leaves is recycled
+        occupied.add(1);
+        recycled.add(-1);
+        if(relocator.relocate(MemoryReference.valueOf(from), MemoryReference.valueOf(to))) {
+            return true;
+        }
+        occupied.add(-1);
+        recycled.add(1);
+        return false;
+    }
+
+    private void release(MemoryReference reference) {
+        AtomicIntegerArray page = page(reference.id(), false);
+        if(page != null) {
+            footprint.add(-page.getAndSet(offset(reference.id()), 0));
+        }
+    }
+
+    private AtomicIntegerArray page(int id, boolean allocate) {
+        int index = (id - startsWith.id()) >>> FOOTPRINT_PAGE_SHIFT;
+        AtomicIntegerArray page = retained.get(index);
+        if(page == null && allocate) {
+            retained.compareAndSet(index, null, new AtomicIntegerArray(FOOTPRINT_PAGE_SIZE));
+            page = retained.get(index);
+        }
+        return page;
+    }
+
+    private int offset(int id) {
+        return (id - startsWith.id()) & (FOOTPRINT_PAGE_SIZE - 1);
+    }
+
+    private int[] drain() {
+        int[] ids = new int[0];
+        for(Pool p : pools) {
+            ids = concat(ids, p.drain());
+        }
+        for(Stripe stripe : stripes) {
+            ids = concat(ids, stripe.pop(Integer.MAX_VALUE));
+        }
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    private void restore(int[] unused) {
+        // the vacated references were recycled as the data moved out of them
+        int[] free = concat(unused, drain());
+        Arrays.sort(free);
+        int top = cursor.get();
+        int count = free.length;
+        while(count > 0 && free[count - 1] == top - (free.length - count)) {
+            count--;
+        }
+        if(count < free.length) {
+            if(cursor.compareAndSet(top, top - (free.length - count))) {
+                // the references dropped at the top are no longer recycled, they are handed out anew
+                recycled.add(count - free.length);
+            }
+            else {
+                // references were handed out from the top in the meantime
+                count = free.length;
+            }
+        }
+        for(int i = 0; i < count; i += RUN_SIZE) {
+            int length = Math.min(RUN_SIZE, count - i);
+            stripes[(i / RUN_SIZE) & (STRIPES - 1)].push(Arrays.copyOfRange(free, i, i + length), length);
+        }
+        held = 0;
+    }
+
+    private static int[] concat(int[] first, int[] second) {
+        if(second == null || second.length == 0) {
+            return first;
+        }
+        int[] ids = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, ids, first.length, second.length);
+        return ids;
+    }
+
+    private int refill(Pool local) {
+        // recycled references spilled by any thread first, starting with the stripe of this thread
+        int first = stripeIndex();
+        for(int i = 0; i < STRIPES; i++) {
+            int[] ids = stripes[(first + i) & (STRIPES - 1)].pop(RUN_SIZE);
+            if(ids != null) {
+                local.fill(ids);
+                return local.take();
+            }
+        }
+        while(true) {
+            int current = cursor.get();
+            int end = endsWith.id();
+            if(current < end) {
+                int last = Math.min(current + RUN_SIZE, end);
+                if(cursor.compareAndSet(current, last)) {
+                    local.claim(current + 1, last + 1);
+                    return local.take();
+                }
+            }
+            else if(end < ceiling.id()) {
+                grow(current);
+            }
+            else {
+                return steal(local);
+            }
+        }
+    }
+
+    private int steal(Pool local) {
+        Iterator<Pool> iterator = pools.iterator();
+        while(iterator.hasNext()) {
+            Pool other = iterator.next();
+            if(other != local && other.transferTo(local)) {
+                return local.take();
+            }
+            if(other.isAbandoned()) {
+                pools.remove(other);
+            }
+        }
+        for(Stripe stripe : stripes) {
+            // something might have been spilled while the other pools were checked
+            if(stripe.size > 0) {
+                return -1;
+            }
+        }
+        if(held > 0) {
+            // compaction is holding on to recycled references, they come back shortly
+            Thread.yield();
+            return -1;
+        }
+        throw new IllegalStateException("Memory block " + name() + " is full.");
+    }
+
+    private Pool pool() {
+        Pool local = pool.get();
+        if(local == null) {
+            local = new Pool(recycled);
+            pool.set(local);
+            pools.add(local);
+        }
+        return local;
+    }
+
+    private Stripe stripe() {
+        return stripes[stripeIndex()];
+    }
+
+    private static int stripeIndex() {
+        return (int) Thread.currentThread().getId() & (STRIPES - 1);
+    }
+
+    private static int stripes() {
+        int stripes = 1;
+        while(stripes < Runtime.getRuntime().availableProcessors() && stripes < 64) {
+            stripes <<= 1;
+        }
+        return stripes;
+    }
+
+    private synchronized void grow(int current) {
+        if(current < endsWith.id()) {
+            // somebody else grew the block in the meantime
+            return;
+        }
+        if(endsWith.id() >= ceiling.id()) {
+            throw new IllegalStateException("Memory block " + name() + " is full.");
+        }
+        endsWith = MemoryReference.valueOf((int) Math.min((long) endsWith.id() + segmentSize, ceiling.id()));
+        segments++;
     }
 
+    /**
+     * References held by a single thread, the run it claimed last and the ones it recycled. Only
+     * the owner uses a pool except for a thread stealing from it, so its lock is hardly ever
+     * contended.
+     */
+    private static final class Pool {
+        private final WeakReference<Thread> owner;
+        private final Counter recycled;
+        private final int[] free;
+        private volatile int size;
+        private volatile int runNext;
+        private volatile int runEnd;
+
+        private Pool(Counter recycled) {
+            this.owner = new WeakReference<Thread>(Thread.currentThread());
+            this.recycled = recycled;
+            this.free = new int[RUN_SIZE * 2];
+        }
+
+        private synchronized int take() {
+            if(size > 0) {
+                recycled.add(-1);
+                return free[--size];
+            }
+            if(runNext < runEnd) {
+                return runNext++;
+            }
+            return -1;
+        }
+
+        private synchronized boolean put(int id) {
+            if(size == free.length) {
+                return false;
+            }
+            free[size++] = id;
+            return true;
+        }
+
+        private synchronized int[] spill() {
+            int[] ids = new int[RUN_SIZE];
+            size -= RUN_SIZE;
+            System.arraycopy(free, size, ids, 0, RUN_SIZE);
+            return ids;
+        }
+
+        private synchronized void fill(int[] ids) {
+            System.arraycopy(ids, 0, free, size, ids.length);
+            size += ids.length;
+        }
+
+        private synchronized void claim(int next, int end) {
+            runNext = next;
+            runEnd = end;
+        }
+
+        private synchronized int[] drain() {
+            int unclaimed = remaining();
+            int[] ids = Arrays.copyOf(free, size + unclaimed);
+            for(int i = 0; i < unclaimed; i++) {
+                ids[size + i] = runNext + i;
+            }
+            size = 0;
+            runNext = runEnd;
+            // the part of the run that was never handed out is recycled from now on
+            recycled.add(unclaimed);
+            return ids;
+        }
+
+        private int remaining() {
+            return Math.max(runEnd - runNext, 0);
+        }
+
+        private boolean isAbandoned() {
+            Thread thread = owner.get();
+            return (thread == null || !thread.isAlive()) && size == 0 && remaining() == 0;
+        }
+
+        private boolean transferTo(Pool other) {
+            int[] ids;
+            int next;
+            int end;
+            synchronized (this) {
+                if(size == 0 && runNext >= runEnd) {
+                    return false;
+                }
+                ids = new int[size];
+                System.arraycopy(free, 0, ids, 0, size);
+                size = 0;
+                next = runNext;
+                end = runEnd;
+                runNext = runEnd;
+            }
+            other.fill(ids);
+            other.claim(next, end);
+            return true;
+        }
+    }
+
+    /**
+     * A counter split across cells picked by the thread that updates it, so that threads allocating
+     * from their own pools do not contend on it. Each cell sits on a cache line of its own.
+     */
+    private static final class Counter {
+        private static final int PADDING = 8;
+
+        private final AtomicLongArray cells = new AtomicLongArray(STRIPES * PADDING);
+
+        private void add(long delta) {
+            cells.addAndGet(stripeIndex() * PADDING, delta);
+        }
+
+        private long sum() {
+            long sum = 0L;
+            for(int i = 0; i < STRIPES; i++) {
+                sum += cells.get(i * PADDING);
+            }
+            return sum;
+        }
+    }
+
+    /**
+     * Shared stack of recycled references, filled and emptied a run at a time.
+     */
+    private static final class Stripe {
+        private int[] ids = new int[RUN_SIZE * 4];
+        private volatile int size;
+
+        private synchronized void push(int[] run, int length) {
+            if(size + length > ids.length) {
+                int[] copy = new int[Math.max(ids.length * 2, size + length)];
+                System.arraycopy(ids, 0, copy, 0, size);
+                ids = copy;
+            }
+            System.arraycopy(run, 0, ids, size, length);
+            size += length;
+        }
+
+        private synchronized int[] pop(int max) {
+            if(size == 0) {
+                return null;
+            }
+            int length = Math.min(max, size);
+            int[] run = new int[length];
+            size -= length;
+            System.arraycopy(ids, size, run, 0, length);
+            return run;
+        }
+    }
 }
@@ -0,0 +1,67 @@
+package org.memgraphd.memory;
+
+import org.apache.log4j.Logger;
+import org.memgraphd.AbstractPeriodicLifecycleHandler;
+
+/**
+ * Keeps the data in every {@link MemoryBlockImpl} stored next to each other while the graph is
+ * running. Every so often a background thread compacts each block that has recycled memory
+ * references, a step at a time, so that the data is never locked away for long.
+ *
+ * @author Ilirjan Papa
+ * @since August 24, 2013
+ *
+ */
+public class MemoryCompactor extends AbstractPeriodicLifecycleHandler {
+    /**
+     * Default time in milliseconds between two runs of the compactor.
+     */
+    public static final long DEFAULT_INTERVAL_MILLIS = 10000L;
+
+    /**
+     * Default maximum number of data moved per block in a single step.
+     */
+    public static final int DEFAULT_STEP_SIZE = 256;
+
+    private static final Logger LOGGER = Logger.getLogger(MemoryCompactor.class);
+
+    private final MemoryManager memoryManager;
+    private final MemoryRelocator relocator;
+    private final int stepSize;
+
+    public MemoryCompactor(MemoryManager memoryManager, MemoryRelocator relocator) {
+        this(memoryManager, relocator, DEFAULT_INTERVAL_MILLIS, DEFAULT_STEP_SIZE);
+    }
+
+    public MemoryCompactor(MemoryManager memoryManager, MemoryRelocator relocator, long intervalMillis, int stepSize) {
+        super("memgraphd-compactor", intervalMillis);
+        this.memoryManager = memoryManager;
+        this.relocator = relocator;
+        this.stepSize = stepSize;
+    }
+
+    /**
+     * Runs a single step of compaction over all memory blocks.
+     * @return how many data were moved
+     */
+    public int compact() {
+        int moved = 0;
+        for(MemoryBlock block : memoryManager.blocks()) {
+            if(block instanceof MemoryBlockImpl && block.recycled() > 0) {
+                moved += ((MemoryBlockImpl) block).compact(stepSize, relocator);
+            }
+        }
+        if(moved > 0) {
+            LOGGER.info(String.format("Compacted %d data entries", moved));
+        }
+        return moved;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void runPeriodically() {
+        compact();
+    }
+}
@@ -0,0 +1,237 @@
+package org.memgraphd.memory;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.apache.log4j.Logger;
+import org.memgraphd.AbstractPeriodicLifecycleHandler;
+import org.memgraphd.data.Data;
+import org.memgraphd.data.GraphData;
+import org.memgraphd.data.GraphDataImpl;
+import org.memgraphd.data.library.Librarian;
+import org.memgraphd.data.library.Library;
+import org.memgraphd.data.serializer.DataSerializer;
+import org.memgraphd.data.serializer.JavaDataSerializer;
+import org.memgraphd.decision.Decision;
+import org.memgraphd.decision.DecisionImpl;
+
+/**
+ * Keeps the data nobody reads in a cold tier. While the graph is running a background thread
+ * sweeps every memory location of a {@link MemoryManagerImpl} once per window, and deflates the
+ * serialized form of the data that has not been read since the previous sweep. Data in the cold
+ * tier is inflated back by the next read of its {@link MemoryLocation}, so it stays cold for at
+ * least a window and at most two. Reads served by a cached {@link GraphDataView} count as reads of
+ * the memory location too, and the view of data is dropped as soon as it is deflated.
+ * <br><br>
+ * Data archived in the {@link Library} is left inflated, since its {@link Librarian} holds on to
+ * it anyway and deflating it would save nothing.
+ * <br><br>
+ * The cold tier is optional, it is enabled by registering a {@link MemoryDeflater} with the graph.
+ * The {@link MemoryStats#footprint()} of the memory blocks keeps counting data in the cold tier at
+ * its inflated size.
+ *
+ * @author Ilirjan Papa
+ * @since August 30, 2013
+ *
+ */
+public class MemoryDeflater extends AbstractPeriodicLifecycleHandler {
+    /**
+     * Default time in milliseconds data has to go without being read to be deflated.
+     */
+    public static final long DEFAULT_WINDOW_MILLIS = 60000L;
+
+    private static final Logger LOGGER = Logger.getLogger(MemoryDeflater.class);
+
+    private static final int BUFFER_SIZE = 1024;
+
+    private final MemoryManagerImpl memoryManager;
+    private final Librarian librarian;
+    private final DataSerializer<byte[]> serializer;
+    private final int level;
+    private final AtomicInteger cold;
+    private final AtomicLong inflations;
+    private final AtomicLong inflateNanos;
+    private Deflater deflater;
+
+    public MemoryDeflater(MemoryManager memoryManager, Librarian librarian) {
+        this(memoryManager, librarian, new JavaDataSerializer(), DEFAULT_WINDOW_MILLIS, Deflater.BEST_SPEED);
+    }
+
+    public MemoryDeflater(MemoryManager memoryManager, Librarian librarian, DataSerializer<byte[]> serializer,
+            long windowMillis, int level) {
+        super("memgraphd-deflater", windowMillis);
+        if(!(memoryManager instanceof MemoryManagerImpl)) {
+            throw new IllegalArgumentException("Only data kept on the heap by MemoryManagerImpl can be deflated");
+        }
+        if(windowMillis <= 0) {
+            throw new IllegalArgumentException("Window must be positive: " + windowMillis);
+        }
+        this.memoryManager = (MemoryManagerImpl) memoryManager;
+        this.librarian = librarian;
+        this.serializer = serializer;
+        this.level = level;
+        this.cold = new AtomicInteger();
+        this.inflations = new AtomicLong();
+        this.inflateNanos = new AtomicLong();
+    }
+
+    /**
+     * Sweeps every memory location once, deflating the data that has not been read since the
+     * previous sweep.
+     * @return how many data were deflated
+     */
+    public synchronized int sweep() {
+        int deflated = 0;
+        deflater = new Deflater(level);
+        try {
+            for(int id = 0; id < memoryManager.addressSpace(); id++) {
+                MemoryLocation location = memoryManager.allocated(id);
+                if(location instanceof MemoryLocationImpl && ((MemoryLocationImpl) location).deflate(this)) {
+                    // the view would keep the data inflated on its behalf
+                    memoryManager.views().remove(id);
+                    deflated++;
+                }
+            }
+        } finally {
+            deflater.end();
+            deflater = null;
+        }
+        if(deflated > 0) {
+            LOGGER.info(String.format("Deflated %d data entries, %d in the cold tier", deflated, cold()));
+        }
+        return deflated;
+    }
+
+    /**
+     * Returns how many data are kept deflated in the cold tier.
+     * @return integer
+     */
+    public int cold() {
+        return cold.get();
+    }
+
+    /**
+     * Returns how many data are kept inflated.
+     * @return integer
+     */
+    public int hot() {
+        return Math.max(0, memoryManager.occupied() - cold());
+    }
+
+    /**
+     * Returns the share of the data kept in the cold tier, between 0 and 1.
+     * @return double
+     */
+    public double coldRatio() {
+        int cold = cold();
+        int total = cold + hot();
+        return total == 0 ? 0d : (double) cold / total;
+    }
+
+    /**
+     * Returns how many times data was inflated back from the cold tier.
+     * @return long
+     */
+    public long inflations() {
+        return inflations.get();
+    }
+
+    /**
+     * Returns the average time in nanoseconds it took to inflate data back from the cold tier.
+     * @return long
+     */
+    public long averageInflateNanos() {
+        long count = inflations.get();
+        return count == 0 ? 0L : inflateNanos.get() / count;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void runPeriodically() {
+        sweep();
+    }
+
+    /**
+     * Deflates this {@link GraphData}, only ever called while sweeping.
+     * @param gData {@link GraphData}
+     * @return {@link DeflatedData}, null if the data cannot or need not be deflated
+     */
+    DeflatedData deflate(GraphData gData) {
+        if(!(gData instanceof GraphDataImpl) || librarian.holds(gData)) {
+            return null;
+        }
+        byte[] serialized;
+        try {
+            serialized = serializer.serialize(gData.getData());
+        } catch (Exception e) {
+            LOGGER.error(String.format("Failed to serialize data id=%s, leaving it inflated",
+                    gData.getData().getId()), e);
+            return null;
+        }
+        deflater.reset();
+        deflater.setInput(serialized);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.min(serialized.length, BUFFER_SIZE));
+        byte[] buffer = new byte[BUFFER_SIZE];
+        while(!deflater.finished()) {
+            out.write(buffer, 0, deflater.deflate(buffer));
+        }
+        cold.incrementAndGet();
+        return new DeflatedData(this, ((GraphDataImpl) gData).getDecision(), out.toByteArray(), serialized.length);
+    }
+
+    /**
+     * Inflates {@link DeflatedData} back into the {@link GraphData} stored at this {@link MemoryReference}.
+     * @param deflated {@link DeflatedData}
+     * @param ref {@link MemoryReference}
+     * @return {@link GraphData}
+     */
+    GraphData inflate(DeflatedData deflated, MemoryReference ref) {
+        long start = System.nanoTime();
+        GraphDataImpl gData = new GraphDataImpl(decision(deflated));
+        gData.setRefence(ref);
+        cold.decrementAndGet();
+        inflations.incrementAndGet();
+        inflateNanos.addAndGet(System.nanoTime() - start);
+        return gData;
+    }
+
+    /**
+     * Returns the {@link Decision} behind {@link DeflatedData}, inflating a copy of the data for it
+     * while the data itself stays in the cold tier.
+     * @param deflated {@link DeflatedData}
+     * @return {@link Decision}
+     */
+    Decision decision(DeflatedData deflated) {
+        byte[] serialized = new byte[deflated.length()];
+        Inflater inflater = new Inflater();
+        Data data;
+        try {
+            inflater.setInput(deflated.payload());
+            if(inflater.inflate(serialized) != serialized.length) {
+                throw new DataFormatException("Truncated payload");
+            }
+            data = serializer.deserialize(serialized);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to inflate data id=" + deflated.dataId(), e);
+        } finally {
+            inflater.end();
+        }
+        return new DecisionImpl(deflated.sequence(), deflated.time(), deflated.requestType(), deflated.dataId(), data);
+    }
+
+    /**
+     * Takes {@link DeflatedData} out of the cold tier without inflating it, because it was
+     * replaced or deleted.
+     * @param deflated {@link DeflatedData}
+     */
+    void discard(DeflatedData deflated) {
+        cold.decrementAndGet();
+    }
+}
@@ -0,0 +1,56 @@
+package org.memgraphd.memory;
+
+import org.memgraphd.data.Data;
+import org.memgraphd.data.GraphData;
+
+/**
+ * Estimates how many bytes {@link GraphData} retains once it is stored in memory. The estimate adds
+ * up a fixed cost for the memory location and the objects wrapping the data, a fixed cost for the
+ * mappings that find it by id and by sequence, and the size of the data itself as told by a
+ * {@link SizeEstimator}.
+ *
+ * @author Ilirjan Papa
+ * @since August 29, 2013
+ *
+ */
+final class MemoryFootprint {
+    /**
+     * Bytes taken by a memory location, the graph data wrapper and its cached view.
+     */
+    static final int ENTRY_BYTES = 96;
+
+    /**
+     * Bytes taken by the mapping entries of a data id and sequence.
+     */
+    static final int MAPPING_BYTES = 88;
+
+    /**
+     * Bytes taken by one side of a relationship, the id of the neighbor and the position of its twin.
+     */
+    static final int EDGE_BYTES = 8;
+
+    private MemoryFootprint() {
+    }
+
+    /**
+     * Returns the estimated number of bytes retained by this {@link GraphData} and its mappings,
+     * not counting its relationships.
+     * @param gData {@link GraphData}
+     * @param estimator {@link SizeEstimator} that sizes the data itself
+     * @return integer
+     */
+    static int of(GraphData gData, SizeEstimator estimator) {
+        return gData != null ? of(gData.getData(), estimator) : 0;
+    }
+
+    /**
+     * Returns the estimated number of bytes this {@link Data} will retain once stored, together with
+     * its mappings, not counting its relationships.
+     * @param data {@link Data}
+     * @param estimator {@link SizeEstimator} that sizes the data itself
+     * @return integer
+     */
+    static int of(Data data, SizeEstimator estimator) {
+        return ENTRY_BYTES + MAPPING_BYTES + estimator.sizeOf(data);
+    }
+}
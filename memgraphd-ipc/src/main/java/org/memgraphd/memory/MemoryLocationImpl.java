@@ -1,13 +1,15 @@
 package org.memgraphd.memory;
 
-import java.util.Set;
-import java.util.concurrent.CopyOnWriteArraySet;
-
 import org.memgraphd.data.GraphData;
+import org.memgraphd.data.GraphDataImpl;
+import org.memgraphd.decision.Decision;
 import org.memgraphd.memory.operation.MemoryLocationOperations;
 
 /**
  * Implements {@link MemoryLocation} and {@link MemoryLocationOperations}.
+ * <br><br>
+ * The data stored here can be put in the cold tier by a {@link MemoryDeflater}, in which case it
+ * is kept as {@link DeflatedData} and inflated back the next time anybody reads it.
  *
  * @author Ilirjan Papa
  * @since July 31, 2012
@@ -15,16 +17,14 @@ import org.memgraphd.memory.operation.MemoryLocationOperations;
  */
 public class MemoryLocationImpl implements MemoryLocation, MemoryLocationOperations {
     private final MemoryReference reference;
-    private final Set<MemoryLocation> links;
-    private final Set<MemoryLocation> references;
-    private GraphData data;
+    // either the GraphData or its DeflatedData, in a single field so that readers always see one of them
+    private volatile Object content;
+    private volatile boolean accessed;
     private MemoryBlock block;
 
     public MemoryLocationImpl(MemoryReference ref, GraphData data) {
         this.reference = ref;
-        this.data = data;
-        this.links = new CopyOnWriteArraySet<MemoryLocation>();
-        this.references = new CopyOnWriteArraySet<MemoryLocation>();
+        this.content = data;
     }
 
     /**
@@ -40,7 +40,14 @@ public class MemoryLocationImpl implements MemoryLocation, MemoryLocationOperati
      */
     @Override
     public final GraphData data() {
-        return data;
+        Object current = content;
+        if(current == null) {
+            return null;
+        }
+        if(!accessed) {
+            accessed = true;
+        }
+        return current instanceof GraphData ? (GraphData) current : inflate((DeflatedData) current);
     }
 
     /**
@@ -64,89 +71,87 @@ public class MemoryLocationImpl implements MemoryLocation, MemoryLocationOperati
      */
     @Override
     public final synchronized void update(GraphData data) {
-        this.data = data;
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    public final synchronized void link(MemoryLocation location) {
-        if(!links.contains(location)) {
-            links.add(location);
-        }
+        discard();
+        this.content = data;
+        this.accessed = true;
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public final synchronized void delink(MemoryLocation location) {
-        links.remove(location);
+    public final synchronized void free() {
+        discard();
+        content = null;
+        block.recycle(reference());
     }
 
     /**
-     * {@inheritDoc}
+     * Marks the data stored here as read without reading it, for reads served by a view of it.
      */
-    @Override
-    public final synchronized void reference(MemoryLocation ref) {
-        if(!references.contains(ref)) {
-            references.add(ref);
+    final void touch() {
+        if(!accessed) {
+            accessed = true;
         }
     }
 
     /**
-     * {@inheritDoc}
-     */
-    @Override
-    public final synchronized void dereference(MemoryLocation loc) {
-        references.remove(loc);
-    }
-
-    /**
-     * {@inheritDoc}
+     * Returns the {@link Decision} that produced the data stored here without reading the data, so
+     * it is not marked as read and stays deflated if it is.
+     * @return {@link Decision} or null if there is no data stored here
      */
-    @Override
-    public final synchronized void free() {
-        data = null;
-        block.recycle(reference());
+    final Decision decision() {
+        Object current = content;
+        if(current instanceof DeflatedData) {
+            return ((DeflatedData) current).decision();
+        }
+        return current instanceof GraphDataImpl ? ((GraphDataImpl) current).getDecision() : null;
     }
 
     /**
-     * {@inheritDoc}
+     * Returns true if the data stored here is kept deflated.
+     * @return boolean
      */
-    @Override
-    public final Set<MemoryLocation> links() {
-        return links;
+    public final boolean isDeflated() {
+        return content instanceof DeflatedData;
     }
 
     /**
-     * {@inheritDoc}
+     * Deflates the data stored here, unless it has been read or written since the last time this
+     * method was called or it is deflated already.
+     * @param deflater {@link MemoryDeflater}
+     * @return true if the data was deflated, false otherwise
      */
-    @Override
-    public final Set<MemoryLocation> references() {
-        return references;
+    final synchronized boolean deflate(MemoryDeflater deflater) {
+        if(accessed) {
+            accessed = false;
+            return false;
+        }
+        if(!(content instanceof GraphData)) {
+            return false;
+        }
+        DeflatedData deflated = deflater.deflate((GraphData) content);
+        if(deflated == null) {
+            return false;
+        }
+        content = deflated;
+        return true;
     }
 
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    public void delinkAll() {
-        for(MemoryLocation ml : links()) {
-            delink(ml);
-            ((MemoryLocationOperations)ml).dereference(this);
+    private synchronized GraphData inflate(DeflatedData deflated) {
+        // somebody else might have inflated or replaced the data in the meantime
+        Object current = content;
+        if(current != deflated) {
+            return current instanceof DeflatedData ? inflate((DeflatedData) current) : (GraphData) current;
         }
+        GraphData data = deflated.inflate(reference);
+        content = data;
+        return data;
     }
 
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    public void dereferenceAll() {
-        for(MemoryLocation ml : references()) {
-            dereference(ml);
-            ((MemoryLocationOperations)ml).delink(this);
+    private void discard() {
+        if(content instanceof DeflatedData) {
+            ((DeflatedData) content).discard();
         }
     }
 }
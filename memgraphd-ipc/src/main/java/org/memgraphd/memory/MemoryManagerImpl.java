@@ -1,134 +1,109 @@
 package org.memgraphd.memory;
 
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.log4j.Logger;
 import org.memgraphd.memory.operation.MemoryLocationOperations;
 
 /**
- * A base implementation of a {@link MemoryManager}.
+ * A base implementation of a {@link MemoryManager} that keeps all memory locations on the heap.
+ * <br><br>
+ * Memory locations are kept in fixed size pages that are only allocated the first time one of
+ * their references is accessed, which in practice is when {@link MemoryBlock#next()} hands it out
+ * for a write. Startup time and resident memory are therefore proportional to the number of
+ * memory locations in use and not to the configured capacity.
  *
  * @author Ilirjan Papa
  * @since July 31, 2012
  *
  */
-public final class MemoryManagerImpl implements MemoryManager {
-    private final MemoryLocation[] buffer;
-    private final MemoryBlockResolver resolver;
+public final class MemoryManagerImpl extends AbstractMemoryManager {
+    /**
+     * Number of memory locations in each page, always a power of two.
+     */
+    public static final int PAGE_SIZE = 1 << 10;
 
-    private final int capacity;
+    private static final Logger LOGGER = Logger.getLogger(MemoryManagerImpl.class);
 
-    public MemoryManagerImpl(MemoryBlockResolver resolver) {
-        this.resolver = resolver;
+    private static final int PAGE_SHIFT = Integer.numberOfTrailingZeros(PAGE_SIZE);
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
 
-        MemoryBlock[] blocks = resolver.blocks();
+    private final AtomicReferenceArray<MemoryLocation[]> pages;
 
+    public MemoryManagerImpl(MemoryBlockResolver resolver) {
         // 1. Compute overall capacity of the graph.
-        this.capacity = computeCapacity(blocks);
-
-        // 2. Create buffer with that capacity
-        this.buffer = new MemoryLocation[capacity];
+        super(resolver);
 
-        // 3. Initialize the buffer with memory locations
-        initialize();
+        // 2. Create the page table for the whole address space, pages are allocated on demand
+        this.pages = new AtomicReferenceArray<MemoryLocation[]>((addressSpace() + PAGE_MASK) >>> PAGE_SHIFT);
 
-        // 4. Reserve memory blocks in the buffer
-        reserveBlocks(blocks);
+        LOGGER.info(String.format("Created page table of %d pages for %d memory locations",
+                pages.length(), addressSpace()));
     }
 
     /**
-     * {@inheritDoc}
+     * Returns the number of pages of memory locations allocated so far.
+     * @return integer
      */
-    @Override
-    public final int capacity() {
-        return capacity;
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    public int occupied() {
-        int occupied = 0;
-        for(MemoryBlock mb : blocks()) {
-            occupied += mb.occupied();
-        }
-        return occupied;
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    public int available() {
-        int available = 1;
-        for(MemoryBlock mb : blocks()) {
-            available += mb.available();
+    public int allocatedPages() {
+        int allocated = 0;
+        for(int i = 0; i < pages.length(); i++) {
+            if(pages.get(i) != null) {
+                allocated++;
+            }
         }
-        return available;
+        return allocated;
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public int recycled() {
-        int recycled = 0;
-        for(MemoryBlock mb : blocks()) {
-            recycled += mb.recycled();
+    protected final MemoryLocation locate(MemoryReference ref) {
+        int id = ref.id();
+        MemoryLocation[] page = pages.get(id >>> PAGE_SHIFT);
+        if(page == null) {
+            page = allocate(id >>> PAGE_SHIFT);
         }
-        return recycled;
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    public final MemoryBlock[] blocks() {
-        return resolver().blocks();
+        return page[id & PAGE_MASK];
     }
 
     /**
-     * {@inheritDoc}
+     * Returns the memory location with this id, without allocating its page if nobody has
+     * accessed it yet.
+     * @param id id of the {@link MemoryReference}
+     * @return {@link MemoryLocation}, null if its page has not been allocated
      */
-    @Override
-    public final MemoryBlockResolver resolver() {
-        return resolver;
+    final MemoryLocation allocated(int id) {
+        MemoryLocation[] page = pages.get(id >>> PAGE_SHIFT);
+        return page != null ? page[id & PAGE_MASK] : null;
     }
 
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    public final MemoryLocation read(MemoryReference ref) {
-        if(ref.id() < 0 || ref.id() > capacity()) {
-            throw new IllegalArgumentException("Out of bound memory reference: " + ref.id());
+    private MemoryLocation[] allocate(int index) {
+        int first = index << PAGE_SHIFT;
+        int size = Math.min(PAGE_SIZE, addressSpace() - first);
+        MemoryLocation[] page = new MemoryLocation[size];
+        for(int i = 0; i < size; i++) {
+            MemoryLocation location = new MemoryLocationImpl(MemoryReference.valueOf(first + i), null);
+            MemoryBlock block = blockOf(first + i);
+            if(block != null) {
+                ((MemoryLocationOperations)location).reserve(block);
+            }
+            page[i] = location;
         }
-
-        return buffer[ref.id()];
-    }
-
-    private void initialize() {
-        for(int i=0; i < capacity(); i++) {
-            buffer[i] = new MemoryLocationImpl(MemoryReference.valueOf(i), null);
+        if(pages.compareAndSet(index, null, page)) {
+            return page;
         }
+        // somebody else allocated the same page in the meantime
+        return pages.get(index);
     }
 
-    private void reserveBlocks(MemoryBlock[] blocks) {
-        int startWith = 0;
-        for(MemoryBlock block : blocks) {
-            for(int i = startWith; i <= block.capacity(); i++) {
-                if(startWith > capacity()) {
-                    throw new IllegalArgumentException("MemoryBlock sizes do not match size of memory allocated");
-                }
-                ((MemoryLocationOperations)buffer[i]).reserve(block);
-                startWith++;
+    private MemoryBlock blockOf(int id) {
+        for(MemoryBlock block : blocks()) {
+            if(id >= block.startsWith().id() && id <= block.ceiling().id()) {
+                return block;
             }
         }
-    }
-
-    private int computeCapacity(MemoryBlock[] blocks) {
-        int capacity = 1;
-        for(MemoryBlock mb : blocks) {
-            capacity += mb.capacity();
-        }
-        return capacity;
+        return null;
     }
 }
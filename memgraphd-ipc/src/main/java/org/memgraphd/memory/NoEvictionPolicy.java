@@ -0,0 +1,43 @@
+package org.memgraphd.memory;
+
+import org.memgraphd.data.GraphData;
+
+/**
+ * An {@link EvictionPolicy} that never evicts anything, writes to a full {@link MemoryBlock} fail.
+ *
+ * @author Ilirjan Papa
+ * @since August 14, 2013
+ *
+ */
+public final class NoEvictionPolicy implements EvictionPolicy {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onAccess(MemoryReference ref) {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onWrite(MemoryReference ref, GraphData data) {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onFree(MemoryReference ref) {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public MemoryReference victim(MemoryBlock block) {
+        return null;
+    }
+
+}
@@ -0,0 +1,277 @@
+package org.memgraphd.memory;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A simple slab allocator on top of direct {@link ByteBuffer} pages. Requests are rounded up to
+ * a power of two size class and carved out of pages dedicated to that size class, so that a
+ * released chunk can be handed out again to a request of the same class. Requests larger than a
+ * page get a dedicated page which is dropped as soon as the chunk is released.
+ * <br><br>
+ * A chunk is identified by an address that packs the page index in the upper 32 bits and the
+ * offset within the page in the lower 32 bits.
+ * <br><br>
+ * Pages come from a {@link PageSource}, direct buffers unless told otherwise. The bookkeeping of
+ * the arena can be saved and restored, so that an arena whose pages outlive the process, like
+ * memory-mapped files do, can pick up where it left off.
+ *
+ * @author Ilirjan Papa
+ * @since July 31, 2013
+ *
+ */
+final class OffHeapArena {
+    static final int MIN_CHUNK_SIZE = 64;
+
+    private static final int MIN_CHUNK_SHIFT = Integer.numberOfTrailingZeros(MIN_CHUNK_SIZE);
+    private static final int INITIAL_PAGES = 16;
+    private static final int INITIAL_FREE_CHUNKS = 64;
+
+    /**
+     * Hands out the pages of an arena.
+     */
+    interface PageSource {
+
+        /**
+         * Returns the page with this index, the page keeps its content if it already existed.
+         * @param index index of the page
+         * @param size size of the page in bytes
+         * @return {@link ByteBuffer}
+         */
+        ByteBuffer allocate(int index, int size);
+
+        /**
+         * Drops the page with this index, it is never used again.
+         * @param index index of the page
+         */
+        void release(int index);
+    }
+
+    static final PageSource DIRECT = new PageSource() {
+        @Override
+        public ByteBuffer allocate(int index, int size) {
+            return ByteBuffer.allocateDirect(size);
+        }
+
+        @Override
+        public void release(int index) {
+            // the garbage collector takes care of it
+        }
+    };
+
+    private final int pageSize;
+    private final PageSource source;
+    private final int[] classPage;
+    private final int[] classOffset;
+    private final long[][] freeChunks;
+    private final int[] freeCount;
+
+    private volatile ByteBuffer[] pages;
+    private int pageCount;
+    private long reserved;
+    private long used;
+
+    OffHeapArena(int pageSize) {
+        this(pageSize, DIRECT);
+    }
+
+    OffHeapArena(int pageSize, PageSource source) {
+        if(pageSize < MIN_CHUNK_SIZE || Integer.bitCount(pageSize) != 1) {
+            throw new IllegalArgumentException("Page size must be a power of two and at least "
+                    + MIN_CHUNK_SIZE + " bytes: " + pageSize);
+        }
+        int classes = Integer.numberOfTrailingZeros(pageSize) - MIN_CHUNK_SHIFT + 1;
+        this.pageSize = pageSize;
+        this.source = source;
+        this.classPage = new int[classes];
+        this.classOffset = new int[classes];
+        this.freeChunks = new long[classes][];
+        this.freeCount = new int[classes];
+        this.pages = new ByteBuffer[INITIAL_PAGES];
+        for(int i = 0; i < classes; i++) {
+            classPage[i] = -1;
+            freeChunks[i] = new long[INITIAL_FREE_CHUNKS];
+        }
+    }
+
+    /**
+     * Reserves a chunk big enough to hold length bytes.
+     * @param length number of bytes
+     * @return the address of the chunk
+     */
+    synchronized long allocate(int length) {
+        if(length > pageSize) {
+            int page = addPage(length);
+            reserved += length;
+            used += length;
+            return address(page, 0);
+        }
+        int sizeClass = sizeClass(length);
+        int chunkSize = chunkSize(sizeClass);
+        used += chunkSize;
+        if(freeCount[sizeClass] > 0) {
+            return freeChunks[sizeClass][--freeCount[sizeClass]];
+        }
+        if(classPage[sizeClass] < 0 || classOffset[sizeClass] + chunkSize > pageSize) {
+            classPage[sizeClass] = addPage(pageSize);
+            classOffset[sizeClass] = 0;
+            reserved += pageSize;
+        }
+        long address = address(classPage[sizeClass], classOffset[sizeClass]);
+        classOffset[sizeClass] += chunkSize;
+        return address;
+    }
+
+    /**
+     * Gives back a chunk previously reserved with {@link #allocate(int)}.
+     * @param address the address of the chunk
+     * @param length the same number of bytes the chunk was reserved for
+     */
+    synchronized void release(long address, int length) {
+        if(length > pageSize) {
+            pages[page(address)] = null;
+            source.release(page(address));
+            reserved -= length;
+            used -= length;
+            return;
+        }
+        int sizeClass = sizeClass(length);
+        used -= chunkSize(sizeClass);
+        if(freeCount[sizeClass] == freeChunks[sizeClass].length) {
+            long[] grown = new long[freeChunks[sizeClass].length * 2];
+            System.arraycopy(freeChunks[sizeClass], 0, grown, 0, freeCount[sizeClass]);
+            freeChunks[sizeClass] = grown;
+        }
+        freeChunks[sizeClass][freeCount[sizeClass]++] = address;
+    }
+
+    /**
+     * Copies the bytes into the chunk at this address.
+     * @param address the address of the chunk
+     * @param bytes the bytes to write
+     */
+    void write(long address, byte[] bytes) {
+        ByteBuffer buffer = pages[page(address)].duplicate();
+        buffer.position(offset(address));
+        buffer.put(bytes);
+    }
+
+    /**
+     * Copies length bytes out of the chunk at this address.
+     * @param address the address of the chunk
+     * @param length number of bytes to read
+     * @return array of bytes
+     */
+    byte[] read(long address, int length) {
+        byte[] bytes = new byte[length];
+        ByteBuffer buffer = pages[page(address)].duplicate();
+        buffer.position(offset(address));
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Returns the number of off-heap bytes held by this arena.
+     * @return long
+     */
+    synchronized long reserved() {
+        return reserved;
+    }
+
+    /**
+     * Returns the number of off-heap bytes currently handed out, including the padding of each
+     * chunk up to its size class.
+     * @return long
+     */
+    synchronized long used() {
+        return used;
+    }
+
+    /**
+     * Writes down the bookkeeping of this arena, not the pages themselves.
+     * @param out {@link DataOutput}
+     * @throws IOException
+     */
+    synchronized void save(DataOutput out) throws IOException {
+        out.writeInt(pageSize);
+        out.writeInt(pageCount);
+        for(int i = 0; i < pageCount; i++) {
+            out.writeInt(pages[i] != null ? pages[i].capacity() : 0);
+        }
+        for(int i = 0; i < classPage.length; i++) {
+            out.writeInt(classPage[i]);
+            out.writeInt(classOffset[i]);
+            out.writeInt(freeCount[i]);
+            for(int j = 0; j < freeCount[i]; j++) {
+                out.writeLong(freeChunks[i][j]);
+            }
+        }
+        out.writeLong(reserved);
+        out.writeLong(used);
+    }
+
+    /**
+     * Picks up the bookkeeping written down by {@link #save(DataOutput)}, asking the
+     * {@link PageSource} for the pages that were in use. Meant for an arena that is still empty.
+     * @param in {@link DataInput}
+     * @throws IOException
+     */
+    synchronized void restore(DataInput in) throws IOException {
+        if(in.readInt() != pageSize) {
+            throw new IOException("Arena was saved with a different page size.");
+        }
+        int count = in.readInt();
+        for(int i = 0; i < count; i++) {
+            // pages of released chunks larger than a page were dropped
+            addPage(in.readInt());
+        }
+        for(int i = 0; i < classPage.length; i++) {
+            classPage[i] = in.readInt();
+            classOffset[i] = in.readInt();
+            freeCount[i] = in.readInt();
+            if(freeCount[i] > freeChunks[i].length) {
+                freeChunks[i] = new long[Integer.highestOneBit(freeCount[i]) * 2];
+            }
+            for(int j = 0; j < freeCount[i]; j++) {
+                freeChunks[i][j] = in.readLong();
+            }
+        }
+        reserved = in.readLong();
+        used = in.readLong();
+    }
+
+    private int addPage(int size) {
+        if(pageCount == pages.length) {
+            ByteBuffer[] grown = new ByteBuffer[pages.length * 2];
+            System.arraycopy(pages, 0, grown, 0, pageCount);
+            pages = grown;
+        }
+        pages[pageCount] = size > 0 ? source.allocate(pageCount, size) : null;
+        return pageCount++;
+    }
+
+    private static int sizeClass(int length) {
+        if(length <= MIN_CHUNK_SIZE) {
+            return 0;
+        }
+        return 32 - Integer.numberOfLeadingZeros(length - 1) - MIN_CHUNK_SHIFT;
+    }
+
+    private static int chunkSize(int sizeClass) {
+        return MIN_CHUNK_SIZE << sizeClass;
+    }
+
+    private static long address(int page, int offset) {
+        return ((long) page << 32) | offset;
+    }
+
+    private static int page(long address) {
+        return (int) (address >>> 32);
+    }
+
+    private static int offset(long address) {
+        return (int) address;
+    }
+}
@@ -0,0 +1,88 @@
+package org.memgraphd.memory;
+
+import org.memgraphd.data.GraphData;
+import org.memgraphd.memory.operation.MemoryLocationOperations;
+
+/**
+ * A light-weight view of a memory slot managed by {@link OffHeapMemoryManager}. It holds no state
+ * other than its {@link MemoryReference}, every operation is delegated to the memory manager.
+ * Two instances are equal when they point to the same memory reference.
+ *
+ * @author Ilirjan Papa
+ * @since July 31, 2013
+ *
+ */
+final class OffHeapMemoryLocation implements MemoryLocation, MemoryLocationOperations {
+    private final OffHeapMemoryManager manager;
+    private final MemoryReference reference;
+
+    OffHeapMemoryLocation(OffHeapMemoryManager manager, MemoryReference reference) {
+        this.manager = manager;
+        this.reference = reference;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public MemoryReference reference() {
+        return reference;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public GraphData data() {
+        return manager.load(reference);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public MemoryBlock block() {
+        return manager.block(reference);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void reserve(MemoryBlock block) {
+        manager.reserve(reference, block);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void update(GraphData data) {
+        manager.store(reference, data);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void free() {
+        manager.release(reference);
+        block().recycle(reference);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if(this == obj) {
+            return true;
+        }
+        if(!(obj instanceof OffHeapMemoryLocation)) {
+            return false;
+        }
+        return reference.equals(((OffHeapMemoryLocation) obj).reference);
+    }
+
+    @Override
+    public int hashCode() {
+        return reference.hashCode();
+    }
+}
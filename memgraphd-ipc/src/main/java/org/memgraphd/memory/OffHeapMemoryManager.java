@@ -0,0 +1,309 @@
+package org.memgraphd.memory;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.log4j.Logger;
+import org.memgraphd.data.Data;
+import org.memgraphd.data.GraphData;
+import org.memgraphd.data.GraphDataImpl;
+import org.memgraphd.data.serializer.DataSerializer;
+import org.memgraphd.data.serializer.JavaDataSerializer;
+import org.memgraphd.decision.DecisionImpl;
+import org.memgraphd.decision.Sequence;
+
+/**
+ * A {@link MemoryManager} that keeps {@link GraphData} outside of the java heap. Each memory location
+ * is a fixed size slot in a direct {@link ByteBuffer} page, allocated the first time one of its slots
+ * is accessed, that holds the sequence of the decision that
+ * produced the data, while the {@link Data} itself is serialized into an {@link OffHeapArena}. Reads
+ * deserialize the data on demand, except for the most recently used entries which are served
+ * from a small on-heap hot cache.
+ * <br><br>
+ * The time and request type of the originating {@link org.memgraphd.decision.Decision} are not
+ * retained.
+ *
+ * @author Ilirjan Papa
+ * @since July 31, 2013
+ *
+ */
+public class OffHeapMemoryManager extends AbstractMemoryManager {
+    /**
+     * Default size in bytes of each off-heap page that payloads are carved from.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 1 << 20;
+
+    /**
+     * Default number of entries kept in the on-heap hot cache.
+     */
+    public static final int DEFAULT_HOT_CACHE_SIZE = 1024;
+
+    private static final Logger LOGGER = Logger.getLogger(OffHeapMemoryManager.class);
+
+    private static final int SLOT_SIZE = 24;
+    private static final int ADDRESS = 0;
+    private static final int LENGTH = 8;
+    private static final int BLOCK = 12;
+    private static final int SEQUENCE = 16;
+    private static final int EMPTY = -1;
+    private static final int LOCK_STRIPES = 64;
+    static final int SLOTS_PER_PAGE = 1 << 12;
+    private static final int SLOT_PAGE_SHIFT = Integer.numberOfTrailingZeros(SLOTS_PER_PAGE);
+    private static final int SLOT_PAGE_MASK = SLOTS_PER_PAGE - 1;
+
+    private final AtomicReferenceArray<ByteBuffer> slots;
+    private final OffHeapArena arena;
+    private final OffHeapArena.PageSource slotPages;
+    private final DataSerializer<byte[]> serializer;
+    private final AtomicReferenceArray<GraphData> hotCache;
+    private final int hotCacheMask;
+    private final Object[] locks;
+    private final MemoryBlock[] blockIndex;
+
+    public OffHeapMemoryManager(MemoryBlockResolver resolver) {
+        this(resolver, new JavaDataSerializer(), DEFAULT_PAGE_SIZE, DEFAULT_HOT_CACHE_SIZE);
+    }
+
+    public OffHeapMemoryManager(MemoryBlockResolver resolver, DataSerializer<byte[]> serializer,
+                                int pageSize, int hotCacheSize) {
+        this(resolver, serializer, pageSize, hotCacheSize, OffHeapArena.DIRECT, OffHeapArena.DIRECT);
+    }
+
+    OffHeapMemoryManager(MemoryBlockResolver resolver, DataSerializer<byte[]> serializer, int pageSize,
+                         int hotCacheSize, OffHeapArena.PageSource payloadPages, OffHeapArena.PageSource slotPages) {
+        super(resolver);
+        if(hotCacheSize < 1 || Integer.bitCount(hotCacheSize) != 1) {
+            throw new IllegalArgumentException("Hot cache size must be a power of two: " + hotCacheSize);
+        }
+        this.slots = new AtomicReferenceArray<ByteBuffer>((addressSpace() + SLOT_PAGE_MASK) >>> SLOT_PAGE_SHIFT);
+        this.arena = new OffHeapArena(pageSize, payloadPages);
+        this.slotPages = slotPages;
+        this.serializer = serializer;
+        this.hotCache = new AtomicReferenceArray<GraphData>(hotCacheSize);
+        this.hotCacheMask = hotCacheSize - 1;
+        this.locks = new Object[LOCK_STRIPES];
+        this.blockIndex = resolver.blocks();
+
+        for(int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        LOGGER.info(String.format("Created off-heap slot table of %d pages for %d memory slots",
+                slots.length(), addressSpace()));
+    }
+
+    /**
+     * Returns the number of off-heap bytes reserved for payloads, not counting the slot table.
+     * @return long
+     */
+    public long reservedBytes() {
+        return arena.reserved();
+    }
+
+    /**
+     * Returns the number of off-heap bytes currently used by payloads.
+     * @return long
+     */
+    public long usedBytes() {
+        return arena.used();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected MemoryLocation locate(MemoryReference ref) {
+        return new OffHeapMemoryLocation(this, ref);
+    }
+
+    GraphData load(MemoryReference ref) {
+        int id = ref.id();
+        GraphData cached = hotCache.get(id & hotCacheMask);
+        if(cached != null && ref.equals(cached.getReference())) {
+            return cached;
+        }
+
+        byte[] payload;
+        long sequence;
+        synchronized (lockFor(id)) {
+            int length = slots(id).getInt(slot(id) + LENGTH);
+            if(length == EMPTY) {
+                return null;
+            }
+            payload = arena.read(slots(id).getLong(slot(id) + ADDRESS), length);
+            sequence = slots(id).getLong(slot(id) + SEQUENCE);
+        }
+
+        Data data;
+        try {
+            data = serializer.deserialize(payload);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to deserialize data at memory reference " + id, e);
+        }
+        GraphDataImpl gData = new GraphDataImpl(
+                new DecisionImpl(Sequence.valueOf(sequence), null, null, data.getId(), data));
+        gData.setRefence(ref);
+
+        synchronized (lockFor(id)) {
+            if(slots(id).getInt(slot(id) + LENGTH) != EMPTY && slots(id).getLong(slot(id) + SEQUENCE) == sequence) {
+                hotCache.set(id & hotCacheMask, gData);
+            }
+        }
+        return gData;
+    }
+
+    void store(MemoryReference ref, GraphData gData) {
+        if(gData == null) {
+            release(ref);
+            return;
+        }
+        byte[] payload;
+        try {
+            payload = serializer.serialize(gData.getData());
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to serialize data " + gData.getData().getId(), e);
+        }
+        int id = ref.id();
+        synchronized (lockFor(id)) {
+            freePayload(id);
+            long address = arena.allocate(payload.length);
+            arena.write(address, payload);
+            slots(id).putLong(slot(id) + ADDRESS, address);
+            slots(id).putInt(slot(id) + LENGTH, payload.length);
+            slots(id).putLong(slot(id) + SEQUENCE, gData.getSequence().number());
+            hotCache.set(id & hotCacheMask, gData);
+        }
+    }
+
+    void release(MemoryReference ref) {
+        int id = ref.id();
+        synchronized (lockFor(id)) {
+            freePayload(id);
+            GraphData cached = hotCache.get(id & hotCacheMask);
+            if(cached != null && ref.equals(cached.getReference())) {
+                hotCache.set(id & hotCacheMask, null);
+            }
+        }
+    }
+
+    MemoryBlock block(MemoryReference ref) {
+        int id = ref.id();
+        int index = slots(id).getInt(slot(id) + BLOCK);
+        return index == EMPTY ? null : blockIndex[index];
+    }
+
+    void reserve(MemoryReference ref, MemoryBlock block) {
+        for(int i = 0; i < blockIndex.length; i++) {
+            if(blockIndex[i] == block) {
+                int id = ref.id();
+                slots(id).putInt(slot(id) + BLOCK, i);
+                return;
+            }
+        }
+        throw new IllegalArgumentException("Unknown memory block " + block.name());
+    }
+
+    private void freePayload(int id) {
+        int length = slots(id).getInt(slot(id) + LENGTH);
+        if(length != EMPTY) {
+            arena.release(slots(id).getLong(slot(id) + ADDRESS), length);
+            slots(id).putInt(slot(id) + LENGTH, EMPTY);
+        }
+    }
+
+    private Object lockFor(int id) {
+        return locks[id & (LOCK_STRIPES - 1)];
+    }
+
+    private ByteBuffer slots(int id) {
+        ByteBuffer page = slots.get(id >>> SLOT_PAGE_SHIFT);
+        return page != null ? page : allocate(id >>> SLOT_PAGE_SHIFT);
+    }
+
+    private ByteBuffer allocate(int index) {
+        synchronized (slots) {
+            ByteBuffer page = slots.get(index);
+            if(page != null) {
+                // somebody else allocated the same page in the meantime
+                return page;
+            }
+            int first = index << SLOT_PAGE_SHIFT;
+            page = slotPages.allocate(index, slotPageSize(index));
+            for(int i = 0; i < page.capacity() / SLOT_SIZE; i++) {
+                page.putInt(i * SLOT_SIZE + LENGTH, EMPTY);
+                page.putInt(i * SLOT_SIZE + BLOCK, blockOf(first + i));
+            }
+            slots.set(index, page);
+            return page;
+        }
+    }
+
+    /**
+     * Returns the size in bytes of the slot page with this index.
+     * @param index index of the page
+     * @return integer
+     */
+    final int slotPageSize(int index) {
+        return Math.min(SLOTS_PER_PAGE, addressSpace() - (index << SLOT_PAGE_SHIFT)) * SLOT_SIZE;
+    }
+
+    /**
+     * Returns how many slot pages it takes to cover the whole address space.
+     * @return integer
+     */
+    final int slotPageCount() {
+        return slots.length();
+    }
+
+    /**
+     * Puts back a slot page that kept its content from a previous run, before anybody accesses it.
+     * @param index index of the page
+     * @param page {@link ByteBuffer}
+     */
+    final void restoreSlotPage(int index, ByteBuffer page) {
+        slots.set(index, page);
+    }
+
+    /**
+     * Returns true if there is data stored in this memory slot.
+     * @param id id of the {@link MemoryReference}
+     * @return boolean
+     */
+    final boolean isOccupied(int id) {
+        ByteBuffer page = slots.get(id >>> SLOT_PAGE_SHIFT);
+        return page != null && page.getInt(slot(id) + LENGTH) != EMPTY;
+    }
+
+    /**
+     * Writes down the bookkeeping of the payload arena.
+     * @param out {@link DataOutput}
+     * @throws IOException
+     */
+    final void saveArena(DataOutput out) throws IOException {
+        arena.save(out);
+    }
+
+    /**
+     * Picks up the bookkeeping of the payload arena written down by {@link #saveArena(DataOutput)}.
+     * @param in {@link DataInput}
+     * @throws IOException
+     */
+    final void restoreArena(DataInput in) throws IOException {
+        arena.restore(in);
+    }
+
+    private int blockOf(int id) {
+        for(int i = 0; i < blockIndex.length; i++) {
+            if(id >= blockIndex[i].startsWith().id() && id <= blockIndex[i].ceiling().id()) {
+                return i;
+            }
+        }
+        return EMPTY;
+    }
+
+    private static int slot(int id) {
+        return (id & SLOT_PAGE_MASK) * SLOT_SIZE;
+    }
+}
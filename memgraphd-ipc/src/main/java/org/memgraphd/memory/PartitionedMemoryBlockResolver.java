@@ -0,0 +1,110 @@
+package org.memgraphd.memory;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.memgraphd.data.Data;
+
+/**
+ * A {@link MemoryBlockResolver} that partitions the memory buffer into one dedicated {@link MemoryBlock}
+ * per name, each with its own capacity, followed by a
+ * {@link DefaultMemoryBlockResolver#DEFAULT_MEMORYBLOCK_NAME} block for everything else. A
+ * {@link MemoryBlockClassifier} decides which block a {@link Data} goes to.
+ * <br><br>
+ * Blocks are laid out contiguously in the iteration order of the capacities map, so scanning one
+ * block only touches data of the same kind. Every block has its own cursor and recycled references,
+ * which spreads allocation across blocks instead of having all writers contend on one. Blocks can
+ * also be given a budget of bytes, see {@link MemoryBlock#budget()}.
+ *
+ * @author Ilirjan Papa
+ * @since August 7, 2013
+ *
+ */
+public class PartitionedMemoryBlockResolver implements MemoryBlockResolver {
+    private final MemoryBlockClassifier classifier;
+    private final Map<String, MemoryBlock> blocksByName;
+    private final MemoryBlock[] blocks;
+    private final MemoryBlock defaultBlock;
+
+    /**
+     * @param classifier {@link MemoryBlockClassifier}
+     * @param capacities capacity of each named block, use a map with predictable iteration order
+     * @param defaultCapacity capacity of the block for data that is not classified
+     */
+    public PartitionedMemoryBlockResolver(MemoryBlockClassifier classifier, Map<String, Integer> capacities,
+                                          int defaultCapacity) {
+        this(classifier, capacities, defaultCapacity, Collections.<String, Long>emptyMap(), 0L);
+    }
+
+    /**
+     * @param classifier {@link MemoryBlockClassifier}
+     * @param capacities capacity of each named block, use a map with predictable iteration order
+     * @param defaultCapacity capacity of the block for data that is not classified
+     * @param budgets budget in bytes of each named block, blocks left out have none
+     * @param defaultBudget budget in bytes of the block for data that is not classified, 0 for none
+     */
+    public PartitionedMemoryBlockResolver(MemoryBlockClassifier classifier, Map<String, Integer> capacities,
+                                          int defaultCapacity, Map<String, Long> budgets, long defaultBudget) {
+        if(capacities.containsKey(DefaultMemoryBlockResolver.DEFAULT_MEMORYBLOCK_NAME)) {
+            throw new IllegalArgumentException("Memory block name is reserved: "
+                    + DefaultMemoryBlockResolver.DEFAULT_MEMORYBLOCK_NAME);
+        }
+        this.classifier = classifier;
+        this.blocksByName = new HashMap<String, MemoryBlock>();
+        this.blocks = new MemoryBlock[capacities.size() + 1];
+
+        int start = 0;
+        int index = 0;
+        for(Entry<String, Integer> entry : capacities.entrySet()) {
+            Long budget = budgets.get(entry.getKey());
+            MemoryBlock block = createBlock(entry.getKey(), start, entry.getValue(), budget != null ? budget : 0L);
+            blocksByName.put(entry.getKey(), block);
+            blocks[index++] = block;
+            start += entry.getValue();
+        }
+        this.defaultBlock = createBlock(DefaultMemoryBlockResolver.DEFAULT_MEMORYBLOCK_NAME, start, defaultCapacity,
+                defaultBudget);
+        blocksByName.put(defaultBlock.name(), defaultBlock);
+        blocks[index] = defaultBlock;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public final MemoryBlock[] blocks() {
+        return blocks;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public final MemoryBlock resolve(Data data) {
+        String name = classifier.classify(data);
+        if(name == null) {
+            return defaultBlock;
+        }
+        MemoryBlock block = blocksByName.get(name);
+        return block != null ? block : defaultBlock;
+    }
+
+    /**
+     * Returns the {@link MemoryBlock} with this name.
+     * @param name {@link String}
+     * @return {@link MemoryBlock} or null if there is no such block
+     */
+    public final MemoryBlock block(String name) {
+        return blocksByName.get(name);
+    }
+
+    private static MemoryBlock createBlock(String name, int start, int capacity, long budget) {
+        if(capacity < 1) {
+            throw new IllegalArgumentException("Invalid capacity for memory block " + name + ": " + capacity);
+        }
+        MemoryReference end = MemoryReference.valueOf(start + capacity - 1);
+        return new MemoryBlockImpl(name, MemoryReference.valueOf(start), end, end, budget);
+    }
+}
@@ -0,0 +1,36 @@
+package org.memgraphd.memory;
+
+import org.memgraphd.data.Data;
+import org.memgraphd.data.serializer.DataSerializer;
+
+/**
+ * A {@link SizeEstimator} that measures data by serializing it, which is exactly what it takes when
+ * stored by {@link OffHeapMemoryManager} with the same {@link DataSerializer}. Serializing on every
+ * write is not free, prefer {@link ClassSizeEstimator} for data kept on the heap.
+ *
+ * @author Ilirjan Papa
+ * @since August 30, 2013
+ *
+ */
+public final class SerializedSizeEstimator implements SizeEstimator {
+    private final DataSerializer<byte[]> serializer;
+
+    public SerializedSizeEstimator(DataSerializer<byte[]> serializer) {
+        this.serializer = serializer;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int sizeOf(Data data) {
+        if(data == null) {
+            return 0;
+        }
+        try {
+            return serializer.serialize(data).length;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to serialize data " + data.getId(), e);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package org.memgraphd.memory;
+
+import org.memgraphd.data.ExpiringData;
+import org.memgraphd.data.GraphData;
+
+/**
+ * An {@link EvictionPolicy} that evicts data closest to its expiration first. Among a handful of
+ * candidates sampled by the clock hand it picks data that has already expired, or else the one
+ * expiring the soonest. Data that never expires is only evicted when none of the candidates
+ * does, in the order the clock hand finds it.
+ *
+ * @author Ilirjan Papa
+ * @since August 14, 2013
+ *
+ */
+public class TtlEvictionPolicy extends AbstractEvictionPolicy {
+    /**
+     * How many candidates are sampled to pick a victim.
+     */
+    public static final int SAMPLE_SIZE = 8;
+
+    private static final long NEVER = Long.MAX_VALUE;
+
+    private final long[] expiration;
+
+    public TtlEvictionPolicy(MemoryBlock block) {
+        super(block);
+        this.expiration = new long[size()];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected final void accessed(int index) {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected final void written(int index, boolean created, GraphData data) {
+        if(data.getData() instanceof ExpiringData) {
+            expiration[index] = ((ExpiringData) data.getData()).getExpirationDate().getMillis();
+        }
+        else {
+            expiration[index] = NEVER;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected final int select() {
+        long now = System.currentTimeMillis();
+        int victim = -1;
+        for(int i = 0; i < SAMPLE_SIZE; i++) {
+            int index = advance();
+            if(index < 0) {
+                break;
+            }
+            if(expiration[index] <= now) {
+                return index;
+            }
+            if(victim < 0 || expiration[index] < expiration[victim]) {
+                victim = index;
+            }
+        }
+        return victim;
+    }
+}
@@ -48,12 +48,13 @@ public class GraphFilterImpl extends AbstractGraphAccess implements GraphFilter
      */
     @Override
     public GraphData[] filterByRange(Sequence startSeq, Sequence endSeq) {
-        Sequence[] range = Sequence.rangeOf(startSeq.number(), endSeq.number());
-        GraphData[] result = new GraphData[range.length];
-        int count = 0;
-        for(Sequence seq : range) {
-            result[count] = reader.read(seq);
-            count++;
+        if(endSeq.number() < startSeq.number()) {
+            throw new RuntimeException("Invalid range specified: end < start");
+        }
+        GraphData[] result = new GraphData[(int) (endSeq.number() - startSeq.number() + 1)];
+        for(int i = 0; i < result.length; i++) {
+            // sequences are cached, unlike the range of them Sequence.rangeOf would build
+            result[i] = reader.read(Sequence.valueOf(startSeq.number() + i));
         }
         return result;
     }
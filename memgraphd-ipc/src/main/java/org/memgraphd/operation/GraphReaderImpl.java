@@ -26,7 +26,15 @@ public class GraphReaderImpl extends AbstractGraphAccess implements GraphReader
     public final GraphData read(String id) {
         MemoryReference ref = seeker.seekById(id);
         if(ref != null) {
-            return read(ref);
+            GraphData gData = read(ref);
+            if(gData == null) {
+                // the data might have been relocated while we were looking for it
+                MemoryReference relocated = seeker.seekById(id);
+                if(relocated != null && !relocated.equals(ref)) {
+                    return read(relocated);
+                }
+            }
+            return gData;
         }
         return null;
     }
@@ -38,7 +46,15 @@ public class GraphReaderImpl extends AbstractGraphAccess implements GraphReader
     public final GraphData read(Sequence seq) {
         MemoryReference ref = seeker.seekBySequence(seq);
         if(ref != null) {
-            return read(ref);
+            GraphData gData = read(ref);
+            if(gData == null) {
+                // the data might have been relocated while we were looking for it
+                MemoryReference relocated = seeker.seekBySequence(seq);
+                if(relocated != null && !relocated.equals(ref)) {
+                    return read(relocated);
+                }
+            }
+            return gData;
         }
         return null;
     }
@@ -51,4 +67,32 @@ public class GraphReaderImpl extends AbstractGraphAccess implements GraphReader
         return getMemoryAccess().readGraph(ref);
     }
     
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public final GraphData read(long sequence) {
+        MemoryReference ref = seeker.seekBySequence(sequence);
+        if(ref != null) {
+            GraphData gData = read(ref);
+            if(gData == null) {
+                // the data might have been relocated while we were looking for it
+                MemoryReference relocated = seeker.seekBySequence(sequence);
+                if(relocated != null && !relocated.equals(ref)) {
+                    return read(relocated);
+                }
+            }
+            return gData;
+        }
+        return null;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public final GraphData read(int referenceId) {
+        return read(MemoryReference.valueOf(referenceId));
+    }
+    
 }
@@ -0,0 +1,112 @@
+package org.memgraphd.operation;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.memgraphd.GraphMappings;
+import org.memgraphd.data.ExpiringDataReaper;
+import org.memgraphd.data.GraphData;
+
+/**
+ * Default implementation of {@link GraphScanner} that walks the data ids the {@link GraphMappings}
+ * keep in order and reads the data of each one as the iterator advances, so the cost of a scan
+ * only depends on how many ids fall in its range. Expired data, and data deleted after its id was
+ * reached, is skipped.
+ *
+ * @author Ilirjan Papa
+ * @since August 31, 2013
+ *
+ */
+public class GraphScannerImpl implements GraphScanner {
+    private final GraphMappings mappings;
+    private final GraphReader reader;
+
+    public GraphScannerImpl(GraphMappings mappings, GraphReader reader) {
+        this.mappings = mappings;
+        this.reader = reader;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterator<GraphData> scanByIdPrefix(String prefix) {
+        if(prefix == null) {
+            throw new IllegalArgumentException("Id prefix is required.");
+        }
+        return new Scan(mappings.getIdsInOrder(prefix, successor(prefix)));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterator<GraphData> scanByIdRange(String from, String to) {
+        return new Scan(mappings.getIdsInOrder(from, to));
+    }
+
+    /**
+     * Returns the first string that comes after every string starting with this prefix.
+     * @return {@link String}, null if there is none
+     */
+    static String successor(String prefix) {
+        int end = prefix.length();
+        while(end > 0 && prefix.charAt(end - 1) == Character.MAX_VALUE) {
+            end--;
+        }
+        if(end == 0) {
+            return null;
+        }
+        return prefix.substring(0, end - 1) + (char) (prefix.charAt(end - 1) + 1);
+    }
+
+    private final class Scan implements Iterator<GraphData> {
+        private final Iterator<String> ids;
+        private GraphData next;
+
+        private Scan(Iterator<String> ids) {
+            this.ids = ids;
+            advance();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public GraphData next() {
+            if(next == null) {
+                throw new NoSuchElementException();
+            }
+            GraphData current = next;
+            advance();
+            return current;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Scans are read only.");
+        }
+
+        private void advance() {
+            next = null;
+            while(ids.hasNext()) {
+                GraphData gData = reader.read(ids.next());
+                if(gData != null && !ExpiringDataReaper.hasExpired(gData)) {
+                    next = gData;
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -35,6 +35,14 @@ public class GraphSeekerImpl extends AbstractGraphAccess implements GraphSeeker
         return mappings.getBySequence(seq);
     }
     
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public MemoryReference seekBySequence(long sequence) {
+        return mappings.getBySequence(sequence);
+    }
+    
     /**
      * {@inheritDoc}
      */
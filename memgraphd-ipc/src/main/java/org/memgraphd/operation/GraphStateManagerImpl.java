@@ -1,5 +1,9 @@
 package org.memgraphd.operation;
 
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
 import org.apache.log4j.Logger;
 import org.memgraphd.GraphMappings;
 import org.memgraphd.data.Data;
@@ -10,6 +14,8 @@ import org.memgraphd.data.library.Librarian;
 import org.memgraphd.data.relationship.DataMatchmaker;
 import org.memgraphd.data.relationship.DataRelationship;
 import org.memgraphd.decision.Decision;
+import org.memgraphd.decision.Sequence;
+import org.memgraphd.exception.GraphBatchException;
 import org.memgraphd.exception.GraphException;
 import org.memgraphd.memory.MemoryReference;
 import org.memgraphd.memory.operation.MemoryOperations;
@@ -18,6 +24,9 @@ import com.sun.corba.se.impl.orbutil.graph.Graph;
 /**
  * And implementation of {@link GraphStateManager} that manages change request to the
  * state of the {@link Graph} data.
+ * <br><br>
+ * Changes run concurrently with each-other, but never while data is being relocated, so that
+ * a change always sees data either where it used to be or where it has been moved to.
  * @author Ilirjan Papa
  * @since February 9, 2013
  *
@@ -33,6 +42,8 @@ public class GraphStateManagerImpl extends AbstractGraphAccess implements GraphS
     
     private GraphDataEventListenerManager eventManager;
     
+    private final ReadWriteLock relocationLock;
+    
     /**
      * Constructs a new instance.
      * @param operations {@link MemoryOperations}
@@ -48,6 +59,7 @@ public class GraphStateManagerImpl extends AbstractGraphAccess implements GraphS
         this.mappings = mapping;
         this.librarian = librarian;
         this.eventManager = eventManager;
+        this.relocationLock = new ReentrantReadWriteLock();
     }
     
     /**
@@ -55,6 +67,175 @@ public class GraphStateManagerImpl extends AbstractGraphAccess implements GraphS
      */
     @Override
     public MemoryReference create(Decision decision) throws GraphException {
+        relocationLock.readLock().lock();
+        try {
+            return doCreate(decision);
+        }
+        finally {
+            relocationLock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public MemoryReference[] createAll(List<Decision> decisions) throws GraphException {
+        MemoryReference[] refs = new MemoryReference[decisions.size()];
+        GraphException[] errors = new GraphException[decisions.size()];
+        GraphDataImpl[] created = new GraphDataImpl[decisions.size()];
+        int failed = 0;
+        relocationLock.readLock().lock();
+        try {
+            // 1. Write all the data and map it, so that relationships within the batch are found right away
+            for(int i = 0; i < decisions.size(); i++) {
+                Decision decision = decisions.get(i);
+                try {
+                    GraphDataImpl newData = new GraphDataImpl(decision);
+                    MemoryReference ref = getMemoryAccess().write(newData);
+                    newData.setRefence(ref);
+                    mappings.put(decision.getData().getId(), ref);
+                    mappings.put(decision.getSequence(), ref);
+                    created[i] = newData;
+                    refs[i] = ref;
+                } catch (RuntimeException e) {
+                    errors[i] = new GraphException(String.format("Failed to write data id=%s", 
+                            decision.getDataId()), e);
+                    failed++;
+                }
+            }
+            
+            // 2. Match relationships in one pass
+            for(GraphDataImpl newData : created) {
+                if(newData != null) {
+                    buildDataRelationships(newData);
+                }
+            }
+            
+            // 3. Let listeners and librarian know
+            for(GraphDataImpl newData : created) {
+                if(newData != null) {
+                    eventManager.onCreate(newData);
+                    librarian.archive(newData);
+                }
+            }
+        }
+        finally {
+            relocationLock.readLock().unlock();
+        }
+        
+        LOGGER.info(String.format("Wrote a batch of %d data, %d failed", decisions.size(), failed));
+        if(failed > 0) {
+            throw new GraphBatchException(String.format("Failed to write %d of %d data", failed, decisions.size()), 
+                    refs, errors);
+        }
+        return refs;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public MemoryReference update(Decision decision, GraphData graphData) throws GraphException {
+        relocationLock.readLock().lock();
+        try {
+            return doUpdate(decision, current(decision.getDataId(), graphData));
+        }
+        finally {
+            relocationLock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void delete(Decision decision, GraphData gData) throws GraphException {
+        relocationLock.readLock().lock();
+        try {
+            doDelete(decision, current(decision.getDataId(), gData));
+        }
+        finally {
+            relocationLock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean relocate(MemoryReference from, MemoryReference to) {
+        relocationLock.writeLock().lock();
+        try {
+            // 1. Copy the data and its relationships over
+            GraphData gData = getMemoryAccess().relocate(from, to);
+            if(gData == null) {
+                return false;
+            }
+            
+            // 2. Update mappings, from now on the data is found in its new location
+            mappings.put(gData.getData().getId(), to);
+            mappings.put(gData.getSequence(), to);
+            dataMatchmaker.relocate(from, to);
+            
+            // 3. Free the old location
+            getMemoryAccess().free(from);
+            
+            LOGGER.info(String.format("Relocated data id=%s from memory reference=%d to memory reference=%d", 
+                    gData.getData().getId(), from.id(), to.id()));
+            return true;
+        }
+        finally {
+            relocationLock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Decision decisionOf(MemoryReference reference) {
+        relocationLock.readLock().lock();
+        try {
+            return getMemoryAccess().decisionOf(reference);
+        }
+        finally {
+            relocationLock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public GraphData restore(MemoryReference reference) {
+        relocationLock.readLock().lock();
+        try {
+            GraphData gData = getMemoryAccess().restore(reference);
+            if(gData == null) {
+                return null;
+            }
+            
+            // 1. Update mappings
+            mappings.put(gData.getData().getId(), reference);
+            mappings.put(gData.getSequence(), reference);
+            
+            // 2. Rebuild relationships, they are not part of what is stored
+            buildDataRelationships(gData);
+            
+            // 3. Let librarian and listeners know
+            librarian.archive(gData);
+            eventManager.onCreate(gData);
+            
+            LOGGER.debug(String.format("Restored data id=%s at memory reference=%d", gData.getData().getId(), reference.id()));
+            return gData;
+        }
+        finally {
+            relocationLock.readLock().unlock();
+        }
+    }
+    
+    private MemoryReference doCreate(Decision decision) throws GraphException {
         // 1. Instantiate the graph data wrapper for this data.
         GraphDataImpl newData = new GraphDataImpl(decision);
         
@@ -75,11 +256,7 @@ public class GraphStateManagerImpl extends AbstractGraphAccess implements GraphS
         return ref;
     }
     
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    public MemoryReference update(Decision decision, GraphData graphData) throws GraphException {
+    private MemoryReference doUpdate(Decision decision, GraphData graphData) throws GraphException {
         // 1. Instantiate the graph data wrapper for this data.
         GraphDataImpl newData = new GraphDataImpl(decision);
         
@@ -89,7 +266,11 @@ public class GraphStateManagerImpl extends AbstractGraphAccess implements GraphS
         // 3. Update data snapshot
         handleUpdate(decision.getData(), newData, graphData);
         
-        // 4. Update sequence mappings.
+        // 4. Update sequence mappings, the previous sequence of the data has been superseded.
+        Sequence superseded = graphData.getSequence();
+        if(superseded != null && !superseded.equals(decision.getSequence())) {
+            mappings.delete(superseded);
+        }
         mappings.put(decision.getSequence(), graphData.getReference());
         
         // 5. Let librarian know
@@ -100,11 +281,7 @@ public class GraphStateManagerImpl extends AbstractGraphAccess implements GraphS
         return newData.getReference();
     }
     
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    public void delete(Decision decision, GraphData gData) throws GraphException {
+    private void doDelete(Decision decision, GraphData gData) throws GraphException {
         Data data = decision.getData();
         
         LOGGER.info(String.format("Deleting data id=%s at memory reference=%d", decision.getDataId(), gData.getReference().id()));
@@ -126,6 +303,16 @@ public class GraphStateManagerImpl extends AbstractGraphAccess implements GraphS
         eventManager.onDelete(gData);
     }
 
+    private GraphData current(String id, GraphData gData) {
+        // the data might have been relocated since the caller read it
+        MemoryReference ref = id != null ? mappings.getById(id) : null;
+        if(ref == null || ref.equals(gData.getReference())) {
+            return gData;
+        }
+        GraphData relocated = getMemoryAccess().read(ref);
+        return relocated != null ? relocated : gData;
+    }
+
     private void handleDataRelationships(GraphData gData, Data data) {
         if(data instanceof DataRelationship) {
             DataRelationship relationships = (DataRelationship) data;         
@@ -0,0 +1,177 @@
+package org.memgraphd.operation;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.memgraphd.data.Data;
+import org.memgraphd.data.ExpiringDataReaper;
+import org.memgraphd.data.GraphData;
+import org.memgraphd.memory.MemoryReference;
+import org.memgraphd.memory.operation.MemoryOperations;
+
+/**
+ * A breadth first implementation of {@link GraphTraverser} that walks the adjacency kept in
+ * memory directly. The frontier is a plain array of memory reference ids and the data visited is
+ * tracked in a {@link VisitedSet} that each thread reuses, so the cost of a traversal only depends
+ * on how much of the graph it visits. Expired data is treated as if it was not there, it is
+ * neither returned nor traversed through.
+ *
+ * @author Ilirjan Papa
+ * @since August 28, 2013
+ *
+ */
+public class GraphTraverserImpl extends AbstractGraphAccess implements GraphTraverser {
+    private final GraphSeeker seeker;
+    private final ThreadLocal<VisitedSet> visitedSets;
+
+    public GraphTraverserImpl(MemoryOperations memoryAccess, GraphSeeker seeker) {
+        super(memoryAccess);
+        this.seeker = seeker;
+        this.visitedSets = new ThreadLocal<VisitedSet>();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterator<GraphData> traverse(String id, int depth, TraversalDirection direction,
+            Class<? extends Data> filter) {
+        if(depth < 0) {
+            throw new IllegalArgumentException("Invalid depth: " + depth);
+        }
+        if(direction == null) {
+            throw new IllegalArgumentException("Traversal direction is required.");
+        }
+        MemoryReference start = id != null ? seeker.seekById(id) : null;
+        return new Traversal(start, depth, direction, filter, acquire());
+    }
+
+    private VisitedSet acquire() {
+        VisitedSet visited = visitedSets.get();
+        if(visited == null || visited.isInUse()) {
+            // either the first traversal of this thread or one is still going on, or was abandoned
+            visited = new VisitedSet();
+            visitedSets.set(visited);
+        }
+        visited.setInUse(true);
+        return visited;
+    }
+
+    private final class Traversal implements Iterator<GraphData> {
+        private final int depth;
+        private final TraversalDirection direction;
+        private final Class<? extends Data> filter;
+        private VisitedSet visited;
+        private int[] queue;
+        private int[] levels;
+        private int head;
+        private int tail;
+        private GraphData next;
+
+        private Traversal(MemoryReference start, int depth, TraversalDirection direction,
+                Class<? extends Data> filter, VisitedSet visited) {
+            this.depth = depth;
+            this.direction = direction;
+            this.filter = filter;
+            this.visited = visited;
+            this.queue = new int[16];
+            this.levels = new int[16];
+            if(start != null) {
+                visited.visit(start.id());
+                enqueue(start.id(), 0);
+            }
+            advance();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public GraphData next() {
+            if(next == null) {
+                throw new NoSuchElementException();
+            }
+            GraphData current = next;
+            advance();
+            return current;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Traversals are read only.");
+        }
+
+        private void advance() {
+            next = null;
+            while(head < tail) {
+                int id = queue[head];
+                int level = levels[head];
+                head++;
+                GraphData gData = getMemoryAccess().readGraph(MemoryReference.valueOf(id));
+                if(gData == null || ExpiringDataReaper.hasExpired(gData)) {
+                    continue;
+                }
+                if(level < depth) {
+                    if(direction != TraversalDirection.REFERENCES) {
+                        expand(getMemoryAccess().linksOf(MemoryReference.valueOf(id)), level + 1);
+                    }
+                    if(direction != TraversalDirection.LINKS) {
+                        expand(getMemoryAccess().referencesOf(MemoryReference.valueOf(id)), level + 1);
+                    }
+                }
+                if(level > 0 && (filter == null || filter.isInstance(gData.getData()))) {
+                    next = gData;
+                    return;
+                }
+            }
+            release();
+        }
+
+        private void expand(int[] ids, int level) {
+            for(int id : ids) {
+                if(visited.visit(id)) {
+                    enqueue(id, level);
+                }
+            }
+        }
+
+        private void enqueue(int id, int level) {
+            if(tail == queue.length) {
+                if(head > 0) {
+                    // reuse the room left by what was already visited
+                    System.arraycopy(queue, head, queue, 0, tail - head);
+                    System.arraycopy(levels, head, levels, 0, tail - head);
+                    tail -= head;
+                    head = 0;
+                }
+                if(tail == queue.length) {
+                    queue = Arrays.copyOf(queue, queue.length * 2);
+                    levels = Arrays.copyOf(levels, levels.length * 2);
+                }
+            }
+            queue[tail] = id;
+            levels[tail] = level;
+            tail++;
+        }
+
+        private void release() {
+            if(visited != null) {
+                visited.clear();
+                visited.setInUse(false);
+                visited = null;
+            }
+        }
+    }
+}
@@ -1,10 +1,23 @@
 package org.memgraphd.operation;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
 import org.memgraphd.GraphRequestType;
 import org.memgraphd.data.Data;
+import org.memgraphd.data.GraphData;
 import org.memgraphd.decision.Decision;
 import org.memgraphd.decision.DecisionMaker;
+import org.memgraphd.exception.GraphBatchException;
 import org.memgraphd.exception.GraphException;
+import org.memgraphd.memory.MemoryBlock;
 import org.memgraphd.memory.MemoryReference;
 import org.memgraphd.memory.operation.MemoryOperations;
 import org.memgraphd.security.GraphAuthority;
@@ -13,18 +26,27 @@ import org.memgraphd.security.GraphRequestResolver;
 import org.memgraphd.security.GraphValidator;
 /**
  * Base implementation for {@link GraphWriter}.
+ * <br><br>
+ * Decisions are made and enacted concurrently with each-other, but never during a 
+ * {@link #checkpoint(Callable)}, so that a checkpoint sees every decision made so far enacted.
+ * <br><br>
+ * Batch writes go through the same steps as single ones, but every request of the batch is
+ * checked before any decision is made, and the decisions of the batch are made at once. Batch
+ * creates make room in each memory block for all the data of the batch headed its way, once per
+ * block, before deciding on any of it.
  * 
  * @author Ilirjan Papa
  * @since August 4, 2012
  *
  */
-public class GraphWriterImpl extends AbstractGraphAccess implements GraphWriter {
+public class GraphWriterImpl extends AbstractGraphAccess implements GraphWriter, GraphCheckpointer {
     
     private final GraphRequestResolver requestResolver;
     private final GraphValidator validator;
     private final GraphAuthority authority;
     private final DecisionMaker decisionMaker;
     private final GraphStateManager stateManager;
+    private final ReadWriteLock checkpointLock;
     
     /**
      * 
@@ -43,6 +65,7 @@ public class GraphWriterImpl extends AbstractGraphAccess implements GraphWriter
         this.validator = validator;
         this.requestResolver = requestResolver;
         this.decisionMaker = decisionMaker;
+        this.checkpointLock = new ReentrantReadWriteLock();
     }
     
     /**
@@ -60,11 +83,20 @@ public class GraphWriterImpl extends AbstractGraphAccess implements GraphWriter
         // 3. Authorize the request.
         authority.authorize(context);
         
-        // 4. Generate a decision sequence for this request and log the transaction.
-        Decision decision = decisionMaker.decide(context);
+        // 4. Make room for the data, in case its memory block is full or over its budget.
+        evict(data);
         
-        // 5. Update the state of the graph
-        return stateManager.create(decision);
+        checkpointLock.readLock().lock();
+        try {
+            // 5. Generate a decision sequence for this request and log the transaction.
+            Decision decision = decisionMaker.decide(context);
+            
+            // 6. Update the state of the graph
+            return stateManager.create(decision);
+        }
+        finally {
+            checkpointLock.readLock().unlock();
+        }
     }
     
     /**
@@ -82,11 +114,20 @@ public class GraphWriterImpl extends AbstractGraphAccess implements GraphWriter
         // 3. Authorize the request.
         authority.authorize(context);
         
-        // 4. Generate a decision sequence for this request and log the transaction.
-        Decision decision = decisionMaker.decide(context);
+        // 4. Make sure the new version of the data fits in the budget of its memory block.
+        checkBudget(data, context.getGraphData() != null ? context.getGraphData().getReference() : null);
         
-        // 5. Update the state of the graph
-        return stateManager.update(decision, context.getGraphData());
+        checkpointLock.readLock().lock();
+        try {
+            // 5. Generate a decision sequence for this request and log the transaction.
+            Decision decision = decisionMaker.decide(context);
+            
+            // 6. Update the state of the graph
+            return stateManager.update(decision, context.getGraphData());
+        }
+        finally {
+            checkpointLock.readLock().unlock();
+        }
     }
 
     /**
@@ -103,11 +144,17 @@ public class GraphWriterImpl extends AbstractGraphAccess implements GraphWriter
         // 3. Authorize the request
         authority.authorize(context);
         
-        // 4. Get a sequence assigned by decision maker to this delete request
-        Decision decision = decisionMaker.decide(context);
-        
-        // 5. Delete the actual data
-        stateManager.delete(decision, context.getGraphData());
+        checkpointLock.readLock().lock();
+        try {
+            // 4. Get a sequence assigned by decision maker to this delete request
+            Decision decision = decisionMaker.decide(context);
+            
+            // 5. Delete the actual data
+            stateManager.delete(decision, context.getGraphData());
+        }
+        finally {
+            checkpointLock.readLock().unlock();
+        }
       
     }
     
@@ -125,12 +172,305 @@ public class GraphWriterImpl extends AbstractGraphAccess implements GraphWriter
         // 3. Authorize the request
         authority.authorize(context);
         
-        // 4. Get a sequence assigned by decision maker to this delete request
-        Decision decision = decisionMaker.decide(context);
-        
-        // 5. Delete the actual data
-        stateManager.delete(decision, context.getGraphData());
+        checkpointLock.readLock().lock();
+        try {
+            // 4. Get a sequence assigned by decision maker to this delete request
+            Decision decision = decisionMaker.decide(context);
+            
+            // 5. Delete the actual data
+            stateManager.delete(decision, context.getGraphData());
+        }
+        finally {
+            checkpointLock.readLock().unlock();
+        }
       
     }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public MemoryReference[] createAll(Data[] data) throws GraphException {
+        MemoryReference[] refs = new MemoryReference[data.length];
+        GraphException[] errors = new GraphException[data.length];
+        Set<String> ids = new HashSet<String>();
+        GraphRequestContext[] contexts = new GraphRequestContext[data.length];
+        MemoryBlock[] blocks = new MemoryBlock[data.length];
+        long[] bytes = new long[data.length];
+        // references and bytes the batch needs in each memory block
+        Map<MemoryBlock, long[]> needed = new LinkedHashMap<MemoryBlock, long[]>();
+        for(int i = 0; i < data.length; i++) {
+            try {
+                // 1. Create, validate and authorize the request
+                contexts[i] = accept(requestResolver.resolve(GraphRequestType.CREATE, data[i]), ids);
+                
+                // 2. Count the data against the room its memory block needs for the whole batch.
+                blocks[i] = getMemoryAccess().blockOf(data[i]);
+                bytes[i] = blocks[i].budget() > 0L ? getMemoryAccess().footprintOf(data[i]) : 0L;
+                long[] room = needed.get(blocks[i]);
+                if(room == null) {
+                    room = new long[2];
+                    needed.put(blocks[i], room);
+                }
+                room[0]++;
+                room[1] += bytes[i];
+            } catch (GraphException e) {
+                contexts[i] = null;
+                errors[i] = e;
+            }
+        }
+        
+        // 3. Make room in every memory block for all the data of the batch at once, in case it is 
+        //    full or the data would take it over its budget.
+        for(Map.Entry<MemoryBlock, long[]> entry : needed.entrySet()) {
+            MemoryBlock block = entry.getKey();
+            long total = entry.getValue()[1];
+            try {
+                evict(block, (int) entry.getValue()[0], total);
+            } catch (GraphException e) {
+                reject(contexts, errors, blocks, block, e);
+                continue;
+            }
+            // whatever still goes over the budget is left out, the latest data first
+            for(int i = data.length - 1; i >= 0 && getMemoryAccess().overBudget(block, total); i--) {
+                if(contexts[i] != null && blocks[i] == block) {
+                    total -= bytes[i];
+                    contexts[i] = null;
+                    errors[i] = outOfBudget(data[i]);
+                }
+            }
+        }
+        
+        List<GraphRequestContext> accepted = accepted(contexts);
+        if(!accepted.isEmpty()) {
+            MemoryReference[] created;
+            checkpointLock.readLock().lock();
+            try {
+                // 3. Generate decision sequences for the whole batch and log the transactions.
+                List<Decision> decisions = decisionMaker.decideAll(accepted);
+                
+                // 4. Update the state of the graph
+                try {
+                    created = stateManager.createAll(decisions);
+                } catch (GraphBatchException e) {
+                    created = e.getReferences();
+                    merge(contexts, e.getErrors(), errors);
+                }
+            }
+            finally {
+                checkpointLock.readLock().unlock();
+            }
+            merge(contexts, created, refs);
+        }
+        return complete("create", refs, errors);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public MemoryReference[] updateAll(Data[] data) throws GraphException {
+        MemoryReference[] refs = new MemoryReference[data.length];
+        GraphException[] errors = new GraphException[data.length];
+        Set<String> ids = new HashSet<String>();
+        GraphRequestContext[] contexts = new GraphRequestContext[data.length];
+        for(int i = 0; i < data.length; i++) {
+            try {
+                // 1. Create, validate and authorize the request
+                GraphRequestContext context = accept(requestResolver.resolve(GraphRequestType.UPDATE, data[i]), ids);
+                
+                // 2. Make sure the new version of the data fits in the budget of its memory block.
+                checkBudget(data[i], context.getGraphData().getReference());
+                contexts[i] = context;
+            } catch (GraphException e) {
+                errors[i] = e;
+            }
+        }
+        
+        List<GraphRequestContext> accepted = accepted(contexts);
+        if(!accepted.isEmpty()) {
+            checkpointLock.readLock().lock();
+            try {
+                // 3. Generate decision sequences for the whole batch and log the transactions.
+                List<Decision> decisions = decisionMaker.decideAll(accepted);
+                
+                // 4. Update the state of the graph
+                int next = 0;
+                for(int i = 0; i < contexts.length; i++) {
+                    if(contexts[i] != null) {
+                        try {
+                            refs[i] = stateManager.update(decisions.get(next++), contexts[i].getGraphData());
+                        } catch (GraphException e) {
+                            errors[i] = e;
+                        }
+                    }
+                }
+            }
+            finally {
+                checkpointLock.readLock().unlock();
+            }
+        }
+        return complete("update", refs, errors);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void deleteAll(String[] dataIds) throws GraphException {
+        GraphException[] errors = new GraphException[dataIds.length];
+        Set<String> ids = new HashSet<String>();
+        GraphRequestContext[] contexts = new GraphRequestContext[dataIds.length];
+        for(int i = 0; i < dataIds.length; i++) {
+            try {
+                // 1. Create, validate and authorize the request
+                contexts[i] = accept(requestResolver.resolve(GraphRequestType.DELETE, dataIds[i]), ids);
+            } catch (GraphException e) {
+                errors[i] = e;
+            }
+        }
+        
+        List<GraphRequestContext> accepted = accepted(contexts);
+        if(!accepted.isEmpty()) {
+            checkpointLock.readLock().lock();
+            try {
+                // 2. Get sequences assigned by decision maker to the whole batch
+                List<Decision> decisions = decisionMaker.decideAll(accepted);
+                
+                // 3. Delete the actual data
+                int next = 0;
+                for(int i = 0; i < contexts.length; i++) {
+                    if(contexts[i] != null) {
+                        try {
+                            stateManager.delete(decisions.get(next++), contexts[i].getGraphData());
+                        } catch (GraphException e) {
+                            errors[i] = e;
+                        }
+                    }
+                }
+            }
+            finally {
+                checkpointLock.readLock().unlock();
+            }
+        }
+        complete("delete", new MemoryReference[dataIds.length], errors);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> T checkpoint(Callable<T> task) throws Exception {
+        checkpointLock.writeLock().lock();
+        try {
+            return task.call();
+        }
+        finally {
+            checkpointLock.writeLock().unlock();
+        }
+    }
+    
+    private void evict(Data data) throws GraphException {
+        MemoryReference victim = getMemoryAccess().evictionCandidate(data);
+        while(victim != null) {
+            GraphData gData = getMemoryAccess().read(victim);
+            if(gData == null) {
+                break;
+            }
+            // evicted data goes through the regular delete, so that the decision is logged
+            delete(gData.getData().getId());
+            
+            // a single victim frees a memory reference but not necessarily enough bytes
+            victim = getMemoryAccess().overBudget(data, null) ? getMemoryAccess().evictionCandidate(data) : null;
+        }
+        checkBudget(data, null);
+    }
+    
+    private void evict(MemoryBlock block, int references, long bytes) throws GraphException {
+        MemoryReference victim = getMemoryAccess().evictionCandidate(block, references, bytes);
+        while(victim != null) {
+            GraphData gData = getMemoryAccess().read(victim);
+            if(gData == null) {
+                break;
+            }
+            delete(gData.getData().getId());
+            victim = getMemoryAccess().evictionCandidate(block, references, bytes);
+        }
+    }
+    
+    /**
+     * Fails every request of a batch still accepted whose data goes to this memory block.
+     */
+    private static void reject(GraphRequestContext[] contexts, GraphException[] errors, MemoryBlock[] blocks, 
+            MemoryBlock block, GraphException error) {
+        for(int i = 0; i < contexts.length; i++) {
+            if(contexts[i] != null && blocks[i] == block) {
+                contexts[i] = null;
+                errors[i] = error;
+            }
+        }
+    }
+    
+    private GraphRequestContext accept(GraphRequestContext context, Set<String> batchIds) throws GraphException {
+        validator.validate(context);
+        // requests of a batch are all checked against the graph before any of them is enacted
+        String id = context.getData() != null ? context.getData().getId() : null;
+        if(!batchIds.add(id)) {
+            throw new GraphException(String.format("Data id=%s is more than once in the batch.", id));
+        }
+        authority.authorize(context);
+        return context;
+    }
+    
+    private static List<GraphRequestContext> accepted(GraphRequestContext[] contexts) {
+        List<GraphRequestContext> accepted = new ArrayList<GraphRequestContext>(contexts.length);
+        for(GraphRequestContext context : contexts) {
+            if(context != null) {
+                accepted.add(context);
+            }
+        }
+        return accepted;
+    }
+    
+    /**
+     * Spreads what came back for the accepted requests of a batch over the positions of the requests.
+     */
+    private static <T> void merge(GraphRequestContext[] contexts, T[] accepted, T[] all) {
+        int next = 0;
+        for(int i = 0; i < contexts.length; i++) {
+            if(contexts[i] != null) {
+                T value = accepted[next++];
+                if(value != null) {
+                    all[i] = value;
+                }
+            }
+        }
+    }
+    
+    private static MemoryReference[] complete(String operation, MemoryReference[] refs, GraphException[] errors) 
+            throws GraphBatchException {
+        int failed = 0;
+        for(GraphException error : errors) {
+            if(error != null) {
+                failed++;
+            }
+        }
+        if(failed > 0) {
+            throw new GraphBatchException(String.format("Failed to %s %d of %d data", operation, failed, errors.length),
+                    refs, errors);
+        }
+        return refs;
+    }
+    
+    private void checkBudget(Data data, MemoryReference replaced) throws GraphException {
+        if(getMemoryAccess().overBudget(data, replaced)) {
+            throw outOfBudget(data);
+        }
+    }
+    
+    private static GraphException outOfBudget(Data data) {
+        return new GraphException(String.format("Not enough memory left in the budget to store data id=%s", 
+                data.getId()));
+    }
 
 }
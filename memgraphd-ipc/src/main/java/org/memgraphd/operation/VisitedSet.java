@@ -0,0 +1,66 @@
+package org.memgraphd.operation;
+
+import java.util.Arrays;
+
+/**
+ * A bitset of the memory reference ids a traversal has visited. Clearing it only resets the words
+ * that were actually touched, so a single instance can be reused by traversal after traversal
+ * without paying for the size of the whole graph each time.
+ *
+ * @author Ilirjan Papa
+ * @since August 28, 2013
+ *
+ */
+final class VisitedSet {
+    private long[] words;
+    private int[] touched;
+    private int touchedCount;
+    private boolean inUse;
+
+    VisitedSet() {
+        this.words = new long[64];
+        this.touched = new int[16];
+    }
+
+    /**
+     * Marks the id as visited.
+     * @param id memory reference id
+     * @return true if it had not been visited before
+     */
+    boolean visit(int id) {
+        int word = id >>> 6;
+        if(word >= words.length) {
+            words = Arrays.copyOf(words, Math.max(word + 1, words.length * 2));
+        }
+        long bit = 1L << id;
+        if((words[word] & bit) != 0) {
+            return false;
+        }
+        if(words[word] == 0) {
+            if(touchedCount == touched.length) {
+                touched = Arrays.copyOf(touched, touched.length * 2);
+            }
+            touched[touchedCount++] = word;
+        }
+        words[word] |= bit;
+        return true;
+    }
+
+    /**
+     * Forgets all visited ids.
+     */
+    void clear() {
+        for(int i = 0; i < touchedCount; i++) {
+            words[touched[i]] = 0L;
+        }
+        touchedCount = 0;
+    }
+
+    boolean isInUse() {
+        return inUse;
+    }
+
+    void setInUse(boolean inUse) {
+        this.inUse = inUse;
+    }
+}
@@ -0,0 +1,59 @@
+package org.memgraphd;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AbstractPeriodicLifecycleHandlerTest {
+
+    private CountDownLatch runs;
+    private AbstractPeriodicLifecycleHandler handler;
+
+    @Before
+    public void setUp() {
+        runs = new CountDownLatch(3);
+        handler = new AbstractPeriodicLifecycleHandler("test-periodic", 10L) {
+            @Override
+            protected void runPeriodically() {
+                runs.countDown();
+                // failures must not stop the runs after this one
+                throw new IllegalStateException("failed run");
+            }
+        };
+    }
+
+    @After
+    public void tearDown() {
+        handler.onShutdown();
+    }
+
+    @Test
+    public void testOnStartup() throws InterruptedException {
+        handler.onStartup();
+
+        assertTrue(runs.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testStartStop() {
+        assertFalse(handler.stop());
+        assertTrue(handler.start());
+        assertFalse(handler.start());
+        assertTrue(handler.stop());
+        assertFalse(handler.stop());
+    }
+
+    @Test
+    public void testOnShutdown() throws InterruptedException {
+        handler.onStartup();
+        handler.onShutdown();
+
+        assertFalse(runs.await(100, TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,138 @@
+package org.memgraphd;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CountingBloomFilterTest {
+    private static final int IDS = 10000;
+
+    private CountingBloomFilter filter;
+
+    @Before
+    public void setUp() {
+        filter = new CountingBloomFilter(IDS, 0.01d);
+    }
+
+    @Test
+    public void testSizing() {
+        // about 9.6 counters and 7 hashes per id for a false positive rate of 1%
+        assertEquals(7, filter.hashes());
+        assertTrue(filter.counters() >= 95851 && filter.counters() < 95851 + 16);
+        assertEquals(filter.counters() / 2, filter.footprint());
+        assertEquals(IDS, filter.expectedInsertions());
+        assertEquals(0.01d, filter.expectedFalsePositiveRate(), 0d);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testSizing_noIds() {
+        new CountingBloomFilter(0, 0.01d);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testSizing_invalidRate() {
+        new CountingBloomFilter(IDS, 1d);
+    }
+
+    @Test
+    public void testAdd() {
+        assertFalse(filter.mightContain("id"));
+        assertEquals(0d, filter.falsePositiveRate(), 0d);
+
+        filter.add("id");
+        assertTrue(filter.mightContain("id"));
+        assertTrue(filter.falsePositiveRate() > 0d);
+    }
+
+    @Test
+    public void testRemove() {
+        filter.add("id");
+        filter.add("id");
+        filter.remove("id");
+        assertTrue(filter.mightContain("id"));
+
+        filter.remove("id");
+        assertFalse(filter.mightContain("id"));
+        assertEquals(0d, filter.falsePositiveRate(), 0d);
+    }
+
+    @Test
+    public void testRemove_saturated() {
+        filter = new CountingBloomFilter(1, 0.5d);
+        for(int i = 0; i < 20; i++) {
+            filter.add("id");
+        }
+        for(int i = 0; i < 20; i++) {
+            filter.remove("id");
+        }
+        // the counters overflowed, they cannot tell how many ids are left so they stay put
+        assertTrue(filter.mightContain("id"));
+    }
+
+    @Test
+    public void testFalsePositiveRate() {
+        for(int i = 0; i < IDS; i++) {
+            filter.add("id-" + i);
+        }
+        int falsePositives = 0;
+        for(int i = 0; i < IDS; i++) {
+            assertTrue(filter.mightContain("id-" + i));
+            if(filter.mightContain("missing-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue("False positives: " + falsePositives, falsePositives < IDS * 0.02d);
+        assertEquals(0.01d, filter.falsePositiveRate(), 0.005d);
+    }
+
+    @Test
+    public void testConcurrentUpdates() throws InterruptedException {
+        final int writers = 4;
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        List<Thread> threads = new ArrayList<Thread>();
+        for(int w = 0; w < writers; w++) {
+            final int writer = w;
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for(int i = writer; i < IDS; i += writers) {
+                            filter.add("id-" + i);
+                            if(i % 2 == 0) {
+                                filter.remove("id-" + i);
+                            }
+                        }
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for(Thread thread : threads) {
+            thread.join();
+        }
+
+        assertNull(failure.get());
+        for(int i = 1; i < IDS; i += 2) {
+            assertTrue(filter.mightContain("id-" + i));
+        }
+        for(int i = 1; i < IDS; i += 2) {
+            filter.remove("id-" + i);
+        }
+        assertEquals(0d, filter.falsePositiveRate(), 0d);
+    }
+}
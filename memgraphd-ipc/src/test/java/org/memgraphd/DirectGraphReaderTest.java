@@ -0,0 +1,88 @@
+package org.memgraphd;
+
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.memgraphd.data.GraphData;
+import org.memgraphd.data.ReadWriteExpiringData;
+import org.memgraphd.decision.Sequence;
+import org.memgraphd.memory.MemoryReference;
+import org.memgraphd.operation.GraphReader;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DirectGraphReaderTest {
+
+    @Mock
+    private GraphReader reader;
+
+    @Mock
+    private GraphSupervisor supervisor;
+
+    @Mock
+    private GraphData gData;
+
+    private DirectGraphReader directReader;
+
+    @Before
+    public void setUp() {
+        directReader = new DirectGraphReader(reader, supervisor);
+        when(supervisor.isRunning()).thenReturn(true);
+    }
+
+    @Test
+    public void testReadId() {
+        when(reader.read("some id")).thenReturn(gData);
+        assertSame(gData, directReader.read("some id"));
+    }
+
+    @Test
+    public void testReadSequence() {
+        when(reader.read(Sequence.valueOf(1))).thenReturn(gData);
+        assertSame(gData, directReader.read(Sequence.valueOf(1)));
+    }
+
+    @Test
+    public void testReadReference() {
+        when(reader.read(MemoryReference.valueOf(1))).thenReturn(gData);
+        assertSame(gData, directReader.read(MemoryReference.valueOf(1)));
+    }
+
+    @Test
+    public void testReadSequenceNumber() {
+        when(reader.read(1L)).thenReturn(gData);
+        assertSame(gData, directReader.read(1L));
+    }
+
+    @Test
+    public void testReadReferenceId() {
+        when(reader.read(1)).thenReturn(gData);
+        assertSame(gData, directReader.read(1));
+    }
+
+    @Test
+    public void testReadId_expired() {
+        when(reader.read("some id")).thenReturn(gData);
+        when(gData.getData()).thenReturn(new ReadWriteExpiringData("some id", new DateTime(), new DateTime().minusMinutes(1)));
+        assertNull(directReader.read("some id"));
+    }
+
+    @Test
+    public void testReadId_notRunning() {
+        when(supervisor.isRunning()).thenReturn(false);
+        try {
+            directReader.read("some id");
+            fail("Reads should be refused while the graph is not running");
+        } catch (RuntimeException e) {
+            verifyZeroInteractions(reader);
+        }
+    }
+}
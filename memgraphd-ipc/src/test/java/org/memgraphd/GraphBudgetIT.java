@@ -0,0 +1,92 @@
+package org.memgraphd;
+
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.memgraphd.data.Data;
+import org.memgraphd.data.ReadWriteData;
+import org.memgraphd.exception.GraphException;
+import org.memgraphd.memory.ClockEvictionPolicy;
+import org.memgraphd.memory.DefaultMemoryBlockResolver;
+import org.memgraphd.memory.EvictionPolicy;
+import org.memgraphd.memory.MemoryManager;
+import org.memgraphd.memory.MemoryManagerImpl;
+import org.memgraphd.memory.NoEvictionPolicy;
+import org.memgraphd.memory.SizeEstimator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class GraphBudgetIT {
+
+    private static final int CAPACITY = 100;
+    private static final int DATA_SIZE = 10000;
+    private static final int FITS = 5;
+
+    private MemoryManager memoryManager;
+    private Graph graph;
+    private long budget;
+
+    @Before
+    public void setUp() throws Exception {
+        // every data takes the same, plus a little on top for its memory location and mappings
+        budget = FITS * DATA_SIZE + DATA_SIZE / 2;
+        memoryManager = new MemoryManagerImpl(new DefaultMemoryBlockResolver(CAPACITY, CAPACITY, budget));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if(graph != null) {
+            graph.clear();
+            graph.shutdown();
+        }
+    }
+
+    @Test
+    public void testGraph_evictsOverBudget() throws Exception {
+        build(new ClockEvictionPolicy(memoryManager.blocks()[0]));
+        for(int i = 0; i < FITS * 3; i++) {
+            write(i);
+            assertTrue(graph.footprint() <= budget);
+        }
+        assertEquals(FITS, graph.occupied());
+        assertNull(graph.read("0"));
+        assertNotNull(graph.read(String.valueOf(FITS * 3 - 1)));
+    }
+
+    @Test
+    public void testGraph_rejectsOverBudget() throws Exception {
+        build(new NoEvictionPolicy());
+        for(int i = 0; i < FITS; i++) {
+            write(i);
+        }
+        try {
+            write(FITS);
+            fail("Data should not fit in the budget");
+        } catch (GraphException e) {
+            // expected
+        }
+        assertEquals(FITS, graph.occupied());
+        assertNull(graph.read(String.valueOf(FITS)));
+        assertTrue(graph.footprint() <= budget);
+    }
+
+    private void build(EvictionPolicy evictionPolicy) throws Exception {
+        graph = GraphImpl.build(new GraphConfigDefaults("budgetGraph", memoryManager, evictionPolicy, 
+                new SizeEstimator() {
+                    @Override
+                    public int sizeOf(Data data) {
+                        return DATA_SIZE;
+                    }
+                }));
+        graph.run();
+    }
+
+    private void write(int id) throws GraphException {
+        graph.create(new ReadWriteData(String.valueOf(id), new DateTime(), new DateTime()));
+    }
+}
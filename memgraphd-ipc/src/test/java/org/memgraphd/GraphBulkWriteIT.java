@@ -0,0 +1,127 @@
+package org.memgraphd;
+
+import java.sql.SQLException;
+
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.memgraphd.data.Data;
+import org.memgraphd.data.GraphData;
+import org.memgraphd.exception.GraphBatchException;
+import org.memgraphd.exception.GraphException;
+import org.memgraphd.memory.ClockEvictionPolicy;
+import org.memgraphd.memory.DefaultMemoryBlockResolver;
+import org.memgraphd.memory.MemoryManager;
+import org.memgraphd.memory.MemoryManagerImpl;
+import org.memgraphd.memory.MemoryReference;
+import org.memgraphd.test.data.TvEpisode;
+import org.memgraphd.test.data.TvSeason;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class GraphBulkWriteIT {
+    private static final int EPISODES = 1000;
+    private static final int FULL_CAPACITY = 10;
+
+    private Graph graph;
+
+    @Before
+    public void setUp() throws SQLException, GraphException {
+        graph = GraphImpl.build(new GraphConfigDefaults("bulkGraph", EPISODES * 2));
+        graph.run();
+        graph.clear();
+    }
+
+    @After
+    public void tearDown() throws GraphException {
+        graph.clear();
+        graph.shutdown();
+    }
+
+    @Test
+    public void testCreateAll() throws GraphException {
+        Data[] data = new Data[EPISODES + 1];
+        // episodes come before the season they belong to, they are matched once it is all written
+        for(int i = 0; i < EPISODES; i++) {
+            data[i] = episode("ep-" + i, "Episode " + i);
+        }
+        data[EPISODES] = new TvSeason("season-1", new DateTime(), new DateTime(), "1", "series-1");
+
+        MemoryReference[] refs = graph.createAll(data);
+
+        assertEquals(EPISODES + 1, refs.length);
+        for(int i = 0; i < refs.length; i++) {
+            GraphData gData = graph.read(refs[i]);
+            assertSame(data[i], gData.getData());
+        }
+        GraphData season = graph.read("season-1");
+        assertEquals(EPISODES, season.getRelatedData().getReferences().oneToMany(TvEpisode.class).size());
+    }
+
+    @Test
+    public void testCreateAll_someFail() throws GraphException {
+        graph.create(episode("ep-0", "Episode 0"));
+
+        try {
+            graph.createAll(new Data[] { episode("ep-0", "Again"), episode("ep-1", "Episode 1"), 
+                    episode("ep-1", "Again") });
+            fail("Expected GraphBatchException");
+        } catch (GraphBatchException e) {
+            assertNotNull(e.getErrors()[0]);
+            assertNull(e.getErrors()[1]);
+            assertNotNull(e.getErrors()[2]);
+            assertEquals(graph.read("ep-1").getReference(), e.getReferences()[1]);
+        }
+        assertEquals("Episode 0", ((TvEpisode) graph.read("ep-0").getData()).getEpisodeName());
+        assertEquals("Episode 1", ((TvEpisode) graph.read("ep-1").getData()).getEpisodeName());
+    }
+
+    @Test
+    public void testUpdateAllAndDeleteAll() throws GraphException {
+        graph.createAll(new Data[] { episode("ep-0", "Episode 0"), episode("ep-1", "Episode 1") });
+
+        graph.updateAll(new Data[] { episode("ep-0", "Pilot"), episode("ep-1", "Second") });
+        assertEquals("Pilot", ((TvEpisode) graph.read("ep-0").getData()).getEpisodeName());
+        assertEquals("Second", ((TvEpisode) graph.read("ep-1").getData()).getEpisodeName());
+
+        graph.deleteAll(new String[] { "ep-0", "ep-1" });
+        assertNull(graph.read("ep-0"));
+        assertNull(graph.read("ep-1"));
+    }
+
+    @Test
+    public void testCreateAll_evictsForTheWholeBatch() throws SQLException, GraphException {
+        MemoryManager memoryManager = new MemoryManagerImpl(new DefaultMemoryBlockResolver(FULL_CAPACITY));
+        Graph full = GraphImpl.build(new GraphConfigDefaults("fullBulkGraph", memoryManager,
+                new ClockEvictionPolicy(memoryManager.blocks()[0])));
+        full.run();
+        try {
+            for(int i = 0; i < FULL_CAPACITY; i++) {
+                full.create(episode("old-" + i, "Old " + i));
+            }
+
+            MemoryReference[] refs = full.createAll(new Data[] { episode("new-0", "New 0"), 
+                    episode("new-1", "New 1"), episode("new-2", "New 2") });
+
+            assertEquals(3, refs.length);
+            for(int i = 0; i < refs.length; i++) {
+                assertNotNull(refs[i]);
+                assertEquals("new-" + i, full.read(refs[i]).getData().getId());
+            }
+            assertEquals(FULL_CAPACITY, full.occupied());
+        }
+        finally {
+            full.clear();
+            full.shutdown();
+        }
+    }
+
+    private static Data episode(String id, String name) {
+        return new TvEpisode(id, new DateTime(), new DateTime(), "season-1", name, "1", new DateTime());
+    }
+}
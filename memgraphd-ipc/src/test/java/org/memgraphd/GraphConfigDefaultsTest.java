@@ -1,5 +1,7 @@
 package org.memgraphd;
 
+import java.sql.SQLException;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -10,11 +12,20 @@ import org.memgraphd.data.library.DefaultLibrary;
 import org.memgraphd.data.library.LibrarySection;
 import org.memgraphd.data.library.LibrarySectionImpl;
 import org.memgraphd.decision.SingleDecisionMaker;
+import org.memgraphd.memory.ClassSizeEstimator;
+import org.memgraphd.memory.ClockEvictionPolicy;
 import org.memgraphd.memory.DefaultMemoryBlockResolver;
+import org.memgraphd.memory.EvictionPolicy;
+import org.memgraphd.memory.MemoryManager;
+import org.memgraphd.memory.MemoryManagerImpl;
+import org.memgraphd.memory.NoEvictionPolicy;
+import org.memgraphd.memory.OffHeapMemoryManager;
+import org.memgraphd.memory.SizeEstimator;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
@@ -22,7 +33,14 @@ import static org.junit.Assert.assertTrue;
 @RunWith(PowerMockRunner.class)
 @PrepareForTest({HSQLPersistenceStore.class})
 public class GraphConfigDefaultsTest {
-    private GraphConfig configZero, configOne, configTwo, configThree, configFour;
+    private GraphConfig configZero, configOne, configTwo, configThree, configFour, configFive, configSix,
+        configSeven, configEight;
+    
+    private EvictionPolicy evictionPolicy;
+    
+    private SizeEstimator sizeEstimator;
+    
+    private MemoryManager offHeapMemoryManager;
     
     private LibrarySection section;
     private LibrarySection[] sections;
@@ -36,6 +54,13 @@ public class GraphConfigDefaultsTest {
         configTwo = new GraphConfigDefaults("name", 1);
         configThree = new GraphConfigDefaults("name", 1, "dbName", "/tmp/dbPath");
         configFour = new GraphConfigDefaults("name", 1, "dbName", "/tmp/dbPath", 1000L, 2000L, sections);
+        offHeapMemoryManager = new OffHeapMemoryManager(new DefaultMemoryBlockResolver(10));
+        configFive = new GraphConfigDefaults("name", offHeapMemoryManager);
+        evictionPolicy = new ClockEvictionPolicy(offHeapMemoryManager.blocks()[0]);
+        configSix = new GraphConfigDefaults("name", offHeapMemoryManager, evictionPolicy);
+        sizeEstimator = new ClassSizeEstimator();
+        configSeven = new GraphConfigDefaults("name", offHeapMemoryManager, evictionPolicy, sizeEstimator);
+        configEight = new GraphConfigDefaults("name", 1, "dbName", "/tmp/dbPath", 1000L, 2000L, sections, 60000L);
     }
 
     @Test
@@ -128,6 +153,68 @@ public class GraphConfigDefaultsTest {
         assertTrue(configFour.getMemoryBlockResolver() instanceof DefaultMemoryBlockResolver);
     }
 
+    @Test
+    public void testGetMemoryManager() {
+        assertTrue(configZero.getMemoryManager() instanceof MemoryManagerImpl);
+        assertSame(configZero.getMemoryBlockResolver(), configZero.getMemoryManager().resolver());
+        assertEquals(GraphConfig.DEFAULT_CAPACITY, configZero.getMemoryManager().capacity());
+        
+        assertTrue(configFour.getMemoryManager() instanceof MemoryManagerImpl);
+        assertSame(configFour.getMemoryBlockResolver(), configFour.getMemoryManager().resolver());
+        
+        assertSame(offHeapMemoryManager, configFive.getMemoryManager());
+        assertSame(offHeapMemoryManager.resolver(), configFive.getMemoryBlockResolver());
+        assertEquals(10, configFive.getCapacity());
+        assertEquals(GraphConfig.DEFAULT_DB_NAME, configFive.getBookKeeperDatabaseName());
+    }
+
+    @Test
+    public void testGetEvictionPolicy() {
+        assertTrue(configZero.getEvictionPolicy() instanceof NoEvictionPolicy);
+        assertTrue(configFive.getEvictionPolicy() instanceof NoEvictionPolicy);
+        assertSame(evictionPolicy, configSix.getEvictionPolicy());
+        assertSame(offHeapMemoryManager, configSix.getMemoryManager());
+    }
+
+    @Test
+    public void testGetSizeEstimator() {
+        assertTrue(configZero.getSizeEstimator() instanceof ClassSizeEstimator);
+        assertTrue(configSix.getSizeEstimator() instanceof ClassSizeEstimator);
+        assertSame(sizeEstimator, configSeven.getSizeEstimator());
+        assertSame(evictionPolicy, configSeven.getEvictionPolicy());
+        assertEquals(10, configSeven.getCapacity());
+    }
+
+    @Test
+    public void testGetSnapshotFrequency() {
+        assertEquals(GraphConfig.DEFAULT_SNAPSHOT_FREQUENCY, configZero.getSnapshotFrequency());
+        assertEquals(GraphConfig.DEFAULT_SNAPSHOT_FREQUENCY, configFour.getSnapshotFrequency());
+        assertEquals(GraphConfig.DEFAULT_SNAPSHOT_FREQUENCY, configSeven.getSnapshotFrequency());
+        assertEquals(60000L, configEight.getSnapshotFrequency());
+        assertEquals(1, configEight.getCapacity());
+    }
+    
+    @Test
+    public void testIsOrderedIdIndexEnabled() throws SQLException {
+        assertFalse(configZero.isOrderedIdIndexEnabled());
+        assertFalse(configEight.isOrderedIdIndexEnabled());
+        assertTrue(new GraphConfigDefaults("name", 1, "dbName", "/tmp/dbPath", 1000L, 2000L, sections, 0L, true)
+                .isOrderedIdIndexEnabled());
+    }
+
+    @Test
+    public void testGetIdFilterFalsePositiveRate() throws SQLException {
+        assertEquals(0d, configZero.getIdFilterFalsePositiveRate(), 0d);
+        assertEquals(0d, configEight.getIdFilterFalsePositiveRate(), 0d);
+        assertEquals(0.01d, new GraphConfigDefaults("name", 1, "dbName", "/tmp/dbPath", 1000L, 2000L, sections, 
+                0L, false, 0.01d).getIdFilterFalsePositiveRate(), 0d);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testGetIdFilterFalsePositiveRate_invalid() throws SQLException {
+        new GraphConfigDefaults("name", 1, "dbName", "/tmp/dbPath", 1000L, 2000L, sections, 0L, false, 1d);
+    }
+
     @Test
     public void testGetDecisionMaker() {
         assertNotNull(configZero.getDecisionMaker());
@@ -0,0 +1,91 @@
+package org.memgraphd;
+
+import java.util.zip.Deflater;
+
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.memgraphd.data.GraphData;
+import org.memgraphd.data.serializer.JavaDataSerializer;
+import org.memgraphd.exception.GraphException;
+import org.memgraphd.memory.DefaultMemoryBlockResolver;
+import org.memgraphd.memory.MemoryDeflater;
+import org.memgraphd.memory.MemoryLocationImpl;
+import org.memgraphd.memory.MemoryManager;
+import org.memgraphd.memory.MemoryManagerImpl;
+import org.memgraphd.memory.MemoryReference;
+import org.memgraphd.test.data.TvEpisode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class GraphDeflaterIT {
+    private static final int CAPACITY = 10;
+
+    private MemoryManager memoryManager;
+    private MemoryDeflater deflater;
+    private Graph graph;
+
+    @Before
+    public void setUp() throws Exception {
+        memoryManager = new MemoryManagerImpl(new DefaultMemoryBlockResolver(CAPACITY));
+        GraphConfig config = new GraphConfigDefaults("deflaterGraph", memoryManager);
+        graph = GraphImpl.build(config);
+        // swept by hand, the window only matters to the background thread
+        deflater = new MemoryDeflater(memoryManager, config.getLibrarian(), new JavaDataSerializer(), 60000L,
+                Deflater.BEST_SPEED);
+        graph.run();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        graph.clear();
+        graph.shutdown();
+    }
+
+    @Test
+    public void testSweep_keepsDataReadThroughCachedViewsInflated() throws GraphException {
+        MemoryReference hot = graph.create(episode("ep-1"));
+        MemoryReference cold = graph.create(episode("ep-2"));
+        GraphData view = graph.read("ep-1");
+        graph.read("ep-2");
+        deflater.sweep();
+
+        // served by the cached view, without reading the memory location itself
+        assertSame(view, graph.read("ep-1"));
+        deflater.sweep();
+
+        assertFalse(location(hot).isDeflated());
+        assertTrue(location(cold).isDeflated());
+        assertEquals(1, deflater.cold());
+    }
+
+    @Test
+    public void testSweep_dropsViewOfDeflatedData() throws GraphException {
+        MemoryReference ref = graph.create(episode("ep-1"));
+        GraphData view = graph.read("ep-1");
+        deflater.sweep();
+        deflater.sweep();
+        assertTrue(location(ref).isDeflated());
+
+        GraphData inflated = graph.read("ep-1");
+
+        assertNotSame(view, inflated);
+        assertEquals("ep-1", inflated.getData().getId());
+        assertFalse(location(ref).isDeflated());
+        assertEquals(0, deflater.cold());
+        assertEquals(1, deflater.inflations());
+    }
+
+    private MemoryLocationImpl location(MemoryReference ref) {
+        return (MemoryLocationImpl) memoryManager.read(ref);
+    }
+
+    private static TvEpisode episode(String id) {
+        return new TvEpisode(id, DateTime.now(), DateTime.now(), "season-1", null, id, DateTime.now());
+    }
+}
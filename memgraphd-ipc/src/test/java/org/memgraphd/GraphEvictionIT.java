@@ -0,0 +1,68 @@
+package org.memgraphd;
+
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.memgraphd.data.ReadWriteData;
+import org.memgraphd.exception.GraphException;
+import org.memgraphd.memory.ClockEvictionPolicy;
+import org.memgraphd.memory.DefaultMemoryBlockResolver;
+import org.memgraphd.memory.MemoryManager;
+import org.memgraphd.memory.MemoryManagerImpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class GraphEvictionIT {
+
+    private final int CAPACITY = 10;
+
+    private Graph graph;
+
+    @Before
+    public void setUp() throws Exception {
+        MemoryManager memoryManager = new MemoryManagerImpl(new DefaultMemoryBlockResolver(CAPACITY));
+        graph = GraphImpl.build(new GraphConfigDefaults("evictingGraph", memoryManager,
+                new ClockEvictionPolicy(memoryManager.blocks()[0])));
+        graph.run();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        graph.clear();
+        graph.shutdown();
+    }
+
+    @Test
+    public void testGraph_evictsWhenFull() throws GraphException {
+        for(int i = 0; i < CAPACITY; i++) {
+            write(i);
+        }
+        // keep the first one warm
+        graph.read("0");
+
+        write(CAPACITY);
+
+        assertEquals(CAPACITY, graph.occupied());
+        assertNotNull(graph.read("0"));
+        assertNull(graph.read("1"));
+        assertNotNull(graph.read(String.valueOf(CAPACITY)));
+    }
+
+    @Test
+    public void testGraph_keepsEvicting() throws GraphException {
+        for(int i = 0; i < CAPACITY * 3; i++) {
+            write(i);
+        }
+        assertEquals(CAPACITY, graph.occupied());
+        for(int i = CAPACITY * 2; i < CAPACITY * 3; i++) {
+            assertNotNull(graph.read(String.valueOf(i)));
+        }
+    }
+
+    private void write(int id) throws GraphException {
+        graph.create(new ReadWriteData(String.valueOf(id), new DateTime(), new DateTime()));
+    }
+}
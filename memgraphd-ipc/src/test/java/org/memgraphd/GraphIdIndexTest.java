@@ -0,0 +1,175 @@
+package org.memgraphd;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.memgraphd.memory.MemoryReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class GraphIdIndexTest {
+    private GraphIdIndex index;
+
+    @Before
+    public void setUp() {
+        index = new GraphIdIndex();
+    }
+
+    @Test
+    public void testGet_empty() {
+        assertEquals(GraphIdIndex.NONE, index.get("id"));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void testPut() {
+        index.put("id-1", 1);
+        index.put("id-2", 2);
+        assertEquals(1, index.get("id-1"));
+        assertEquals(2, index.get("id-2"));
+        assertEquals(2, index.size());
+
+        index.put("id-1", 3);
+        assertEquals(3, index.get("id-1"));
+        assertEquals(2, index.size());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testPut_negative() {
+        index.put("id", -1);
+    }
+
+    @Test
+    public void testPut_collidingHashes() {
+        // both strings have the same hash code
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        index.put("Aa", 1);
+        index.put("BB", 2);
+        assertEquals(1, index.get("Aa"));
+        assertEquals(2, index.get("BB"));
+
+        index.delete("Aa");
+        assertEquals(GraphIdIndex.NONE, index.get("Aa"));
+        assertEquals(2, index.get("BB"));
+    }
+
+    @Test
+    public void testFilter() {
+        CountingBloomFilter filter = new CountingBloomFilter(100, 0.01d);
+        index = new GraphIdIndex(0, filter);
+        assertSame(filter, index.filter());
+
+        index.put("id", 1);
+        index.put("id", 2);
+        assertTrue(filter.mightContain("id"));
+        assertEquals(2, index.get("id"));
+
+        // replacing the mapping of an id does not add it twice, one delete takes it out
+        index.delete("id");
+        index.delete("id");
+        assertFalse(filter.mightContain("id"));
+        assertEquals(GraphIdIndex.NONE, index.get("id"));
+    }
+
+    @Test
+    public void testDelete() {
+        index.delete("id");
+        index.put("id", 1);
+        index.delete("id");
+        assertEquals(GraphIdIndex.NONE, index.get("id"));
+        assertEquals(0, index.size());
+
+        index.put("id", 2);
+        assertEquals(2, index.get("id"));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void testPut_grows() {
+        int capacity = index.capacity();
+        for(int i = 0; i < capacity; i++) {
+            index.put("id-" + i, i);
+        }
+        assertTrue(index.capacity() > capacity);
+        assertEquals(capacity, index.size());
+        for(int i = 0; i < capacity; i++) {
+            assertEquals(i, index.get("id-" + i));
+        }
+    }
+
+    @Test
+    public void testPut_reclaimsTombstones() {
+        int capacity = index.capacity();
+        for(int i = 0; i < capacity * 4; i++) {
+            index.put("id-" + i, i);
+            index.delete("id-" + i);
+        }
+        // deleted slots are dropped when the table is rebuilt instead of growing it
+        assertEquals(capacity, index.capacity());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void testValues() {
+        index.put("id-1", 1);
+        index.put("id-2", 2);
+        index.put("id-3", 3);
+        index.delete("id-2");
+
+        List<MemoryReference> values = index.values();
+        assertEquals(2, values.size());
+        assertTrue(values.contains(MemoryReference.valueOf(1)));
+        assertTrue(values.contains(MemoryReference.valueOf(3)));
+    }
+
+    @Test
+    public void testConcurrentWrites() throws InterruptedException {
+        final int writers = 4;
+        final int ids = 5000;
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        List<Thread> threads = new ArrayList<Thread>();
+        for(int w = 0; w < writers; w++) {
+            final int writer = w;
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for(int i = writer; i < ids; i += writers) {
+                            index.put("id-" + i, i);
+                            if(index.get("id-" + i) != i) {
+                                throw new AssertionError("Lost id-" + i);
+                            }
+                            if(i % 3 == 0) {
+                                index.delete("id-" + i);
+                            }
+                        }
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for(Thread thread : threads) {
+            thread.join();
+        }
+
+        assertNull(failure.get());
+        for(int i = 0; i < ids; i++) {
+            assertEquals(i % 3 == 0 ? GraphIdIndex.NONE : i, index.get("id-" + i));
+        }
+        assertEquals(ids - (ids + 2) / 3, index.size());
+    }
+}
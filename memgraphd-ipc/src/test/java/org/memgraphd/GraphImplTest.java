@@ -1,26 +1,38 @@
 package org.memgraphd;
 
 import java.lang.reflect.Constructor;
+import java.util.Iterator;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.joda.time.DateTime;
 import org.junit.runner.RunWith;
 import org.memgraphd.bookkeeper.BookKeeper;
 import org.memgraphd.data.Data;
 import org.memgraphd.data.GraphData;
+import org.memgraphd.data.ReadWriteExpiringData;
+import org.memgraphd.data.index.DataIndex;
+import org.memgraphd.data.index.DataIndexManager;
+import org.memgraphd.data.index.DataKeyExtractor;
 import org.memgraphd.data.library.DefaultLibrary;
 import org.memgraphd.data.relationship.DataMatchmaker;
 import org.memgraphd.decision.DecisionMaker;
 import org.memgraphd.decision.Sequence;
 import org.memgraphd.exception.GraphException;
+import org.memgraphd.memory.ClassSizeEstimator;
 import org.memgraphd.memory.MemoryBlock;
 import org.memgraphd.memory.MemoryBlockResolver;
+import org.memgraphd.memory.MemoryManager;
 import org.memgraphd.memory.MemoryReference;
+import org.memgraphd.memory.NoEvictionPolicy;
 import org.memgraphd.memory.operation.MemoryOperations;
 import org.memgraphd.operation.GraphFilter;
 import org.memgraphd.operation.GraphReader;
 import org.memgraphd.operation.GraphSeeker;
+import org.memgraphd.operation.GraphScanner;
+import org.memgraphd.operation.GraphTraverser;
+import org.memgraphd.operation.TraversalDirection;
 import org.memgraphd.operation.GraphWriter;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
@@ -29,6 +41,7 @@ import org.springframework.test.util.ReflectionTestUtils;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
@@ -63,6 +76,15 @@ public class GraphImplTest {
     @Mock
     private GraphFilter filter;
     
+    @Mock
+    private GraphTraverser traverser;
+    
+    @Mock
+    private GraphScanner scanner;
+    
+    @Mock
+    private DataIndexManager indexManager;
+    
     @Mock
     private MemoryOperations memoryAccess;
     
@@ -78,6 +100,9 @@ public class GraphImplTest {
     @Mock
     private MemoryBlockResolver memoryBlockResolver;
     
+    @Mock
+    private MemoryManager memoryManager;
+    
     @Mock
     private DecisionMaker decisionMaker;
     
@@ -94,6 +119,9 @@ public class GraphImplTest {
         when(config.getBookKeeperDatabaseName()).thenReturn("dbName");
         when(config.getBookKeeperDatabasePath()).thenReturn("/tmp/book/");
         when(config.getMemoryBlockResolver()).thenReturn(memoryBlockResolver);
+        when(config.getMemoryManager()).thenReturn(memoryManager);
+        when(config.getEvictionPolicy()).thenReturn(new NoEvictionPolicy());
+        when(config.getSizeEstimator()).thenReturn(new ClassSizeEstimator());
         when(config.getBookKeeper()).thenReturn(bookKeeper);
         when(config.getDecisionMaker()).thenReturn(decisionMaker);
         when(config.getBookKeeperOperationBatchSize()).thenReturn(1000L);
@@ -111,6 +139,9 @@ public class GraphImplTest {
         ReflectionTestUtils.setField(graph, "reader", reader);
         ReflectionTestUtils.setField(graph, "filter", filter);
         ReflectionTestUtils.setField(graph, "seeker", seeker);
+        ReflectionTestUtils.setField(graph, "traverser", traverser);
+        ReflectionTestUtils.setField(graph, "scanner", scanner);
+        ReflectionTestUtils.setField(graph, "indexManager", indexManager);
         ReflectionTestUtils.setField(graph, "mappings", mappings);
         ReflectionTestUtils.setField(graph, "memoryAccess", memoryAccess);
         ReflectionTestUtils.setField(graph, "supervisor", supervisor);
@@ -160,6 +191,20 @@ public class GraphImplTest {
         assertSame(gData, graph.read(MemoryReference.valueOf(1)));
         verify(reader).read(MemoryReference.valueOf(1));
     }
+    
+    @Test
+    public void testReadSequenceNumber() {
+        when(reader.read(1L)).thenReturn(gData);
+        assertSame(gData, graph.read(1L));
+        verify(reader).read(1L);
+    }
+    
+    @Test
+    public void testReadReferenceId() {
+        when(reader.read(1)).thenReturn(gData);
+        assertSame(gData, graph.read(1));
+        verify(reader).read(1);
+    }
 
     @Test
     public void testCreateData() throws GraphException {
@@ -190,6 +235,31 @@ public class GraphImplTest {
         verify(writer).delete(data);
     }
 
+    @Test
+    public void testReadId_expired() {
+        when(reader.read("some id")).thenReturn(gData);
+        when(gData.getData()).thenReturn(new ReadWriteExpiringData("some id", new DateTime(), new DateTime().minusMinutes(1)));
+        assertNull(graph.read("some id"));
+    }
+
+    @Test
+    public void testReadId_notExpired() {
+        when(reader.read("some id")).thenReturn(gData);
+        when(gData.getData()).thenReturn(new ReadWriteExpiringData("some id", new DateTime(), new DateTime().plusMinutes(1)));
+        assertSame(gData, graph.read("some id"));
+    }
+
+    @Test
+    public void testFilterBy_expired() {
+        GraphData expired = mock(GraphData.class);
+        when(expired.getData()).thenReturn(new ReadWriteExpiringData("expired", new DateTime(), new DateTime().minusMinutes(1)));
+        when(filter.filterBy(null)).thenReturn(new GraphData[] {gData, expired});
+        
+        GraphData[] result = graph.filterBy(null);
+        assertSame(gData, result[0]);
+        assertNull(result[1]);
+    }
+
     @Test
     public void testFilterBy() {
         GraphData[] values = new GraphData[] {gData, gData, gData};
@@ -376,10 +446,148 @@ public class GraphImplTest {
         
         verify(supervisor).recycled();
     }
+
+    @Test
+    public void testSegments() {
+        when(supervisor.segments()).thenReturn(2);
+        assertEquals(2, graph.segments());
+        
+        verify(supervisor).segments();
+    }
+
+    @Test
+    public void testGrowths() {
+        when(supervisor.growths()).thenReturn(1);
+        assertEquals(1, graph.growths());
+        
+        verify(supervisor).growths();
+    }
+
+    @Test
+    public void testFootprint() {
+        when(supervisor.footprint()).thenReturn(1024L);
+        assertEquals(1024L, graph.footprint());
+        
+        verify(supervisor).footprint();
+    }
+    
+    @Test
+    public void testTraverse() {
+        @SuppressWarnings("unchecked")
+        Iterator<GraphData> iterator = mock(Iterator.class);
+        when(traverser.traverse("id", 2, TraversalDirection.BOTH, Data.class)).thenReturn(iterator);
+        
+        assertSame(iterator, graph.traverse("id", 2, TraversalDirection.BOTH, Data.class));
+        
+        verify(traverser).traverse("id", 2, TraversalDirection.BOTH, Data.class);
+    }
+    
+    @Test
+    public void testCreateAll() throws GraphException {
+        Data[] data = new Data[] { mock(Data.class) };
+        MemoryReference[] refs = new MemoryReference[] { MemoryReference.valueOf(1) };
+        when(writer.createAll(data)).thenReturn(refs);
+        
+        assertSame(refs, graph.createAll(data));
+        
+        verify(writer).createAll(data);
+    }
+    
+    @Test
+    public void testUpdateAll() throws GraphException {
+        Data[] data = new Data[] { mock(Data.class) };
+        MemoryReference[] refs = new MemoryReference[] { MemoryReference.valueOf(1) };
+        when(writer.updateAll(data)).thenReturn(refs);
+        
+        assertSame(refs, graph.updateAll(data));
+        
+        verify(writer).updateAll(data);
+    }
+    
+    @Test
+    public void testDeleteAll() throws GraphException {
+        String[] ids = new String[] { "id-1", "id-2" };
+        
+        graph.deleteAll(ids);
+        
+        verify(writer).deleteAll(ids);
+    }
+    
+    @Test
+    public void testScanByIdPrefix() {
+        @SuppressWarnings("unchecked")
+        Iterator<GraphData> iterator = mock(Iterator.class);
+        when(scanner.scanByIdPrefix("series-1/")).thenReturn(iterator);
+        
+        assertSame(iterator, graph.scanByIdPrefix("series-1/"));
+        
+        verify(scanner).scanByIdPrefix("series-1/");
+    }
+    
+    @Test
+    public void testScanByIdRange() {
+        @SuppressWarnings("unchecked")
+        Iterator<GraphData> iterator = mock(Iterator.class);
+        when(scanner.scanByIdRange("a", "b")).thenReturn(iterator);
+        
+        assertSame(iterator, graph.scanByIdRange("a", "b"));
+        
+        verify(scanner).scanByIdRange("a", "b");
+    }
+    
+    @Test
+    public void testCreateIndex() throws GraphException {
+        @SuppressWarnings("unchecked")
+        DataKeyExtractor<String> extractor = mock(DataKeyExtractor.class);
+        @SuppressWarnings("unchecked")
+        DataIndex<String> index = mock(DataIndex.class);
+        when(indexManager.createIndex("airDate", extractor)).thenReturn(index);
+        
+        assertSame(index, graph.createIndex("airDate", extractor));
+        
+        verify(indexManager).createIndex("airDate", extractor);
+    }
+    
+    @Test
+    public void testIndex() {
+        @SuppressWarnings("unchecked")
+        DataIndex<Object> index = mock(DataIndex.class);
+        when(indexManager.index("airDate")).thenReturn(index);
+        
+        assertSame(index, graph.index("airDate"));
+        
+        verify(indexManager).index("airDate");
+    }
+    
+    @Test
+    public void testDropIndex() {
+        graph.dropIndex("airDate");
+        
+        verify(indexManager).dropIndex("airDate");
+    }
     
     @Test
     public void testGetLibrary() {
         assertSame(librarian, graph.getLibrary());
     }
+    
+    @Test
+    public void testGetReader() {
+        assertTrue(graph.getReader() instanceof DirectGraphReader);
+        assertSame(graph.getReader(), graph.getReader());
+    }
+    
+    @Test
+    public void testGetIdFilter() throws Exception {
+        assertNull(graph.getIdFilter());
+        
+        when(config.getIdFilterFalsePositiveRate()).thenReturn(0.01d);
+        Constructor<?>[] constructors = GraphImpl.class.getDeclaredConstructors();
+        constructors[0].setAccessible(true);
+        GraphImpl filtered = (GraphImpl) constructors[0].newInstance(config);
+        
+        assertNotNull(filtered.getIdFilter());
+        assertEquals(10, filtered.getIdFilter().expectedInsertions());
+    }
 
 }
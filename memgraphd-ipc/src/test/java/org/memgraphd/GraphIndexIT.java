@@ -0,0 +1,77 @@
+package org.memgraphd;
+
+import java.sql.SQLException;
+
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.memgraphd.data.Data;
+import org.memgraphd.data.GraphData;
+import org.memgraphd.data.index.DataIndex;
+import org.memgraphd.data.index.DataKeyExtractor;
+import org.memgraphd.exception.GraphException;
+import org.memgraphd.test.data.TvEpisode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class GraphIndexIT {
+    private static final DateTime AIR_DATE = new DateTime(2013, 8, 31, 20, 0);
+
+    private Graph graph;
+
+    @Before
+    public void setUp() throws SQLException, GraphException {
+        graph = GraphImpl.build(new GraphConfigDefaults("indexGraph", GraphConfig.DEFAULT_CAPACITY));
+        graph.run();
+        graph.clear();
+        for(int i = 0; i < 10; i++) {
+            graph.create(episode("ep-" + i, AIR_DATE.plusWeeks(i)));
+        }
+    }
+
+    @After
+    public void tearDown() throws GraphException {
+        graph.clear();
+        graph.shutdown();
+    }
+
+    @Test
+    public void testIndex() throws GraphException {
+        DataIndex<DateTime> index = graph.createIndex("airDate", new AirDateExtractor());
+        assertSame(index, graph.index("airDate"));
+        assertEquals(10, index.size());
+
+        GraphData[] aired = index.range(AIR_DATE.plusWeeks(2), AIR_DATE.plusWeeks(5));
+        assertEquals(3, aired.length);
+        assertEquals("ep-2", aired[0].getData().getId());
+        assertEquals("ep-4", aired[2].getData().getId());
+
+        // kept up to date as data is written
+        graph.create(episode("ep-10", AIR_DATE.plusWeeks(3).plusHours(1)));
+        graph.update(episode("ep-2", AIR_DATE.plusWeeks(20)));
+        graph.delete(graph.read("ep-4").getData());
+        aired = index.range(AIR_DATE.plusWeeks(2), AIR_DATE.plusWeeks(5));
+        assertEquals(2, aired.length);
+        assertEquals("ep-3", aired[0].getData().getId());
+        assertEquals("ep-10", aired[1].getData().getId());
+        assertEquals("ep-2", index.get(AIR_DATE.plusWeeks(20))[0].getData().getId());
+        assertEquals(10, index.size());
+
+        graph.dropIndex("airDate");
+        assertNull(graph.index("airDate"));
+    }
+
+    private static Data episode(String id, DateTime airDate) {
+        return new TvEpisode(id, new DateTime(), new DateTime(), "season-1", id, "1", airDate);
+    }
+
+    private static final class AirDateExtractor implements DataKeyExtractor<DateTime> {
+        @Override
+        public DateTime extract(Data data) {
+            return data instanceof TvEpisode ? ((TvEpisode) data).getEpisodeOriginalAirDate() : null;
+        }
+    }
+}
@@ -1,5 +1,10 @@
 package org.memgraphd;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.memgraphd.decision.Sequence;
@@ -59,6 +64,13 @@ public class GraphMappingsImplTest {
         assertSame(MemoryReference.valueOf(1), mappings.getBySequence(Sequence.valueOf(1)));
     }
 
+    @Test
+    public void testGetBySequenceNumber() {
+        assertNull(mappings.getBySequence(1L));
+        mappings.put(Sequence.valueOf(1), MemoryReference.valueOf(1));
+        assertSame(MemoryReference.valueOf(1), mappings.getBySequence(1L));
+    }
+
     @Test
     public void testPutSequenceMemoryReference() {
         mappings.put(Sequence.valueOf(1), MemoryReference.valueOf(1));
@@ -100,4 +112,57 @@ public class GraphMappingsImplTest {
         assertTrue(mappings.getAllMemoryReferences().contains(MemoryReference.valueOf(1)));
     }
 
+    @Test(expected=IllegalStateException.class)
+    public void testGetIdsInOrder_notOrdered() {
+        mappings.getIdsInOrder(null, null);
+    }
+
+    @Test
+    public void testGetIdsInOrder() {
+        mappings = new GraphMappingsImpl(true);
+        mappings.put("b", MemoryReference.valueOf(2));
+        mappings.put("a", MemoryReference.valueOf(1));
+        mappings.put("d", MemoryReference.valueOf(4));
+        mappings.put("c", MemoryReference.valueOf(3));
+        mappings.delete("d");
+
+        assertEquals(Arrays.asList("a", "b", "c"), list(mappings.getIdsInOrder(null, null)));
+        assertEquals(Arrays.asList("b", "c"), list(mappings.getIdsInOrder("b", null)));
+        assertEquals(Arrays.asList("a", "b"), list(mappings.getIdsInOrder(null, "c")));
+        assertEquals(Arrays.asList("b"), list(mappings.getIdsInOrder("aa", "bb")));
+    }
+
+    @Test
+    public void testGetIdFilter() {
+        assertNull(mappings.getIdFilter());
+
+        mappings = new GraphMappingsImpl(false, 100, 0.01d);
+        GraphIdFilter filter = mappings.getIdFilter();
+        assertNotNull(filter);
+        assertEquals(100, filter.expectedInsertions());
+        assertEquals(0.01d, filter.expectedFalsePositiveRate(), 0d);
+
+        mappings.put("id", MemoryReference.valueOf(1));
+        assertTrue(filter.mightContain("id"));
+        assertTrue(mappings.containsId("id"));
+        assertEquals(MemoryReference.valueOf(1), mappings.getById("id"));
+
+        mappings.delete("id");
+        assertFalse(filter.mightContain("id"));
+        assertFalse(mappings.containsId("id"));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testGetIdsInOrder_invalidRange() {
+        new GraphMappingsImpl(true).getIdsInOrder("b", "a");
+    }
+
+    private static List<String> list(Iterator<String> ids) {
+        List<String> list = new ArrayList<String>();
+        while(ids.hasNext()) {
+            list.add(ids.next());
+        }
+        return list;
+    }
+
 }
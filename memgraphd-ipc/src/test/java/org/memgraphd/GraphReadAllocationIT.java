@@ -0,0 +1,75 @@
+package org.memgraphd;
+
+import java.lang.management.ManagementFactory;
+
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.memgraphd.data.GraphData;
+import org.memgraphd.operation.GraphReader;
+import org.memgraphd.test.data.TvEpisode;
+
+import com.sun.management.ThreadMXBean;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class GraphReadAllocationIT {
+    private static final int CAPACITY = 100;
+    private static final int WARMUP = 200000;
+    private static final int OPERATIONS = 1000000;
+    private static final String ID = "ep1";
+    private static final long MAX_NOISE_BYTES = 1024L;
+
+    private Graph graph;
+    private ThreadMXBean threads;
+
+    @Before
+    public void setUp() throws Exception {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof ThreadMXBean);
+        threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        graph = GraphImpl.build(new GraphConfigDefaults("readAllocationGraph", CAPACITY));
+        graph.run();
+        graph.create(new TvEpisode(ID, DateTime.now(), DateTime.now(), "season-1", null, "ep-1", DateTime.now()));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if(graph != null) {
+            graph.clear();
+            graph.shutdown();
+        }
+    }
+
+    @Test
+    public void testReadId_allocatesNothing() {
+        GraphReader reader = graph.getReader();
+        GraphData first = reader.read(ID);
+        assertNotNull(first);
+        // let the JIT compile the read path before measuring it
+        for(int i = 0; i < WARMUP; i++) {
+            assertSame(first, reader.read(ID));
+        }
+
+        long overhead = allocatedBytes(0, reader);
+        long allocated = allocatedBytes(OPERATIONS, reader) - overhead;
+
+        // reads of data whose view is cached allocate nothing, allow for noise from the measurement
+        assertTrue("Bytes allocated by " + OPERATIONS + " reads: " + allocated, allocated < MAX_NOISE_BYTES);
+    }
+
+    private long allocatedBytes(int operations, GraphReader reader) {
+        long id = Thread.currentThread().getId();
+        long start = threads.getThreadAllocatedBytes(id);
+        for(int i = 0; i < operations; i++) {
+            reader.read(ID);
+        }
+        return threads.getThreadAllocatedBytes(id) - start;
+    }
+}
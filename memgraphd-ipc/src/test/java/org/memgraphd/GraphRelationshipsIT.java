@@ -1,6 +1,9 @@
 package org.memgraphd;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 
 import org.joda.time.DateTime;
@@ -10,6 +13,7 @@ import org.junit.Test;
 import org.memgraphd.data.Data;
 import org.memgraphd.data.GraphData;
 import org.memgraphd.exception.GraphException;
+import org.memgraphd.operation.TraversalDirection;
 import org.memgraphd.test.data.Movie;
 import org.memgraphd.test.data.OnlineVideo;
 import org.memgraphd.test.data.TvEpisode;
@@ -18,6 +22,7 @@ import org.memgraphd.test.data.TvSeason;
 import org.memgraphd.test.data.TvSeries;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
@@ -350,4 +355,45 @@ public class GraphRelationshipsIT {
         assertNotNull(graphSeason.getRelatedData().getLinks().relationships()[0]);
         assertNull(graphSeason.getRelatedData().getReferences());
     }
+    
+    @Test
+    public void testTraverse() throws GraphException {
+        graph.create(network);
+        graph.create(video);
+        graph.create(episode);
+        graph.create(season);
+        graph.create(series);
+        graph.create(movie1);
+        
+        assertEquals(1, collect(graph.traverse(VIDEO_ID, 1, TraversalDirection.LINKS, null)).size());
+        
+        List<Data> links = collect(graph.traverse(VIDEO_ID, 4, TraversalDirection.LINKS, null));
+        assertEquals(4, links.size());
+        assertSame(episode, links.get(0));
+        assertSame(season, links.get(1));
+        assertSame(series, links.get(2));
+        assertSame(network, links.get(3));
+        
+        List<Data> references = collect(graph.traverse(NETWORK_ID, 2, TraversalDirection.REFERENCES, null));
+        assertEquals(3, references.size());
+        assertTrue(references.contains(series));
+        assertTrue(references.contains(movie1));
+        assertTrue(references.contains(season));
+        
+        List<Data> seasons = collect(graph.traverse(TVEPISODE_ID, 5, TraversalDirection.BOTH, TvSeason.class));
+        assertEquals(1, seasons.size());
+        assertSame(season, seasons.get(0));
+        
+        graph.delete(TVSEASON_ID);
+        assertEquals(1, collect(graph.traverse(VIDEO_ID, 4, TraversalDirection.LINKS, null)).size());
+        assertFalse(graph.traverse(TVSEASON_ID, 4, TraversalDirection.BOTH, null).hasNext());
+    }
+    
+    private List<Data> collect(Iterator<GraphData> iterator) {
+        List<Data> list = new ArrayList<Data>();
+        while(iterator.hasNext()) {
+            list.add(iterator.next().getData());
+        }
+        return list;
+    }
 }
@@ -0,0 +1,73 @@
+package org.memgraphd;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.memgraphd.data.GraphData;
+import org.memgraphd.data.ReadWriteData;
+import org.memgraphd.exception.GraphException;
+
+import static org.junit.Assert.assertEquals;
+
+public class GraphScanIT {
+    private static final String DB_NAME = "PUBLIC.SCAN";
+    private static final String DB_PATH = "/tmp/book/scan/";
+
+    private Graph graph;
+
+    @Before
+    public void setUp() throws Exception {
+        graph = GraphImpl.build(config());
+        graph.run();
+        graph.clear();
+        for(String id : new String[] { "series-2/season-1/ep-1", "series-1/season-2/ep-1", 
+                "series-1/season-1/ep-2", "series-1/season-1/ep-1", "series-10/season-1/ep-1" }) {
+            graph.create(new ReadWriteData(id, new DateTime(), new DateTime()));
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        graph.clear();
+        graph.shutdown();
+    }
+
+    @Test
+    public void testScanByIdPrefix() throws GraphException {
+        assertEquals(Arrays.asList("series-1/season-1/ep-1", "series-1/season-1/ep-2", "series-1/season-2/ep-1"),
+                ids(graph.scanByIdPrefix("series-1/")));
+        assertEquals(Arrays.asList("series-1/season-1/ep-1", "series-1/season-1/ep-2"),
+                ids(graph.scanByIdPrefix("series-1/season-1/")));
+
+        graph.delete(graph.read("series-1/season-1/ep-2").getData());
+        assertEquals(Arrays.asList("series-1/season-1/ep-1"), ids(graph.scanByIdPrefix("series-1/season-1/")));
+    }
+
+    @Test
+    public void testScanByIdRange() {
+        assertEquals(Arrays.asList("series-1/season-2/ep-1", "series-10/season-1/ep-1"),
+                ids(graph.scanByIdRange("series-1/season-2/", "series-2/")));
+        assertEquals(5, ids(graph.scanByIdRange(null, null)).size());
+    }
+
+    private static List<String> ids(Iterator<GraphData> scan) {
+        List<String> ids = new ArrayList<String>();
+        while(scan.hasNext()) {
+            ids.add(scan.next().getData().getId());
+        }
+        return ids;
+    }
+
+    private GraphConfig config() throws SQLException {
+        return new GraphConfigDefaults("scanGraph", GraphConfig.DEFAULT_CAPACITY, DB_NAME, DB_PATH,
+                GraphConfig.DEFAULT_BATCH_SIZE, GraphConfig.DEFAULT_WRITE_FREQUENCY,
+                GraphConfig.DEFAULT_LIBRARY_SECTIONS, GraphConfig.DEFAULT_SNAPSHOT_FREQUENCY, true);
+    }
+}
@@ -0,0 +1,168 @@
+package org.memgraphd;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GraphSequenceIndexTest {
+    private GraphSequenceIndex index;
+
+    @Before
+    public void setUp() {
+        index = new GraphSequenceIndex();
+    }
+
+    @Test
+    public void testGet_empty() {
+        assertEquals(GraphSequenceIndex.NONE, index.get(1L));
+        assertEquals(GraphSequenceIndex.NONE, index.get(Long.MAX_VALUE));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void testPut() {
+        index.put(1L, 5);
+        index.put(2L, 6);
+        assertEquals(5, index.get(1L));
+        assertEquals(6, index.get(2L));
+        assertEquals(GraphSequenceIndex.NONE, index.get(3L));
+        assertEquals(2, index.size());
+
+        index.put(1L, 7);
+        assertEquals(7, index.get(1L));
+        assertEquals(2, index.size());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testPut_negativeReference() {
+        index.put(1L, -1);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testPut_negativeSequence() {
+        index.put(-1L, 1);
+    }
+
+    @Test
+    public void testDelete() {
+        index.delete(1L);
+        index.put(1L, 5);
+        index.delete(1L);
+        assertEquals(GraphSequenceIndex.NONE, index.get(1L));
+        assertEquals(0, index.size());
+        assertEquals(0, index.segments());
+    }
+
+    @Test
+    public void testPut_movesForward() {
+        // every sequence superseded by the next one, like data updated over and over
+        for(long seq = 1; seq <= 100000; seq++) {
+            index.put(seq, 1);
+            index.delete(seq - 1);
+        }
+        assertEquals(1, index.size());
+        assertEquals(1, index.segments());
+        assertEquals(1, index.get(100000L));
+        assertEquals(GraphSequenceIndex.NONE, index.get(99999L));
+    }
+
+    @Test
+    public void testPut_dropsOldSegments() {
+        index.put(1L, 1);
+        for(long seq = 2; seq <= 100000; seq++) {
+            index.put(seq, 2);
+            index.delete(seq - 1 == 1 ? 0 : seq - 1);
+        }
+        assertEquals(1, index.get(1L));
+        assertEquals(2, index.get(100000L));
+        assertEquals(2, index.size());
+        // the long lived sequence went to the overflow table along the way
+        assertEquals(1, index.segments());
+    }
+
+    @Test
+    public void testPut_longLivedUnderChurn() {
+        // a few sequences that are never deleted, among many that are superseded soon after
+        for(long seq = 0; seq < 1000000; seq++) {
+            index.put(seq, (int) (seq % 1000));
+            if(seq >= 100 && (seq - 100) % 5000 != 0) {
+                index.delete(seq - 100);
+            }
+        }
+        for(long seq = 0; seq < 999900; seq += 5000) {
+            assertEquals((int) (seq % 1000), index.get(seq));
+            assertEquals(GraphSequenceIndex.NONE, index.get(seq + 1));
+        }
+        assertEquals(200 + 100, index.size());
+        assertTrue(index.segments() <= 2);
+        assertTrue(index.capacity() <= 2 * 256 + 8 * 200);
+    }
+
+    @Test
+    public void testPut_farApart() {
+        index.put(1L, 1);
+        index.put(Long.MAX_VALUE / 2, 2);
+        index.put(Long.MAX_VALUE, 3);
+        assertEquals(1, index.get(1L));
+        assertEquals(2, index.get(Long.MAX_VALUE / 2));
+        assertEquals(3, index.get(Long.MAX_VALUE));
+        assertEquals(3, index.size());
+        assertEquals(1, index.segments());
+    }
+
+    @Test
+    public void testDelete_sparseSegment() {
+        for(long seq = 0; seq < 512; seq++) {
+            index.put(seq, (int) seq);
+        }
+        assertEquals(2, index.segments());
+        for(long seq = 0; seq < 250; seq++) {
+            index.delete(seq);
+        }
+        // what is left of the older segment moved to the overflow table
+        assertEquals(1, index.segments());
+        for(long seq = 250; seq < 512; seq++) {
+            assertEquals((int) seq, index.get(seq));
+        }
+        index.put(251L, 7);
+        index.put(100L, 8);
+        assertEquals(7, index.get(251L));
+        assertEquals(8, index.get(100L));
+        assertEquals(263, index.size());
+
+        index.delete(251L);
+        index.delete(100L);
+        assertEquals(GraphSequenceIndex.NONE, index.get(251L));
+        assertEquals(GraphSequenceIndex.NONE, index.get(100L));
+        assertEquals(261, index.size());
+    }
+
+    @Test
+    public void testDelete_shrinksOverflow() {
+        index.put(1000000L, 1);
+        for(long seq = 0; seq < 10000; seq += 2) {
+            index.put(seq, 2);
+        }
+        assertTrue(index.capacity() > 5000);
+        for(long seq = 0; seq < 10000; seq += 2) {
+            index.delete(seq);
+        }
+        assertEquals(1, index.size());
+        // the newest segment and an overflow table back to a handful of slots
+        assertTrue(index.capacity() <= 256 + 64);
+        assertEquals(1, index.get(1000000L));
+    }
+
+    @Test
+    public void testPut_outOfOrder() {
+        index.put(1000000L, 1);
+        index.put(1L, 2);
+        index.put(500000L, 3);
+        assertEquals(1, index.get(1000000L));
+        assertEquals(2, index.get(1L));
+        assertEquals(3, index.get(500000L));
+        assertEquals(3, index.size());
+    }
+}
@@ -0,0 +1,129 @@
+package org.memgraphd;
+
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.util.Collection;
+
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.memgraphd.data.GraphData;
+import org.memgraphd.data.GraphDataSnapshotManagerImpl;
+import org.memgraphd.decision.Decision;
+import org.memgraphd.exception.GraphException;
+import org.memgraphd.memory.EvictionPolicy;
+import org.memgraphd.memory.MemoryManager;
+import org.memgraphd.memory.MemoryReference;
+import org.memgraphd.memory.operation.MemoryOperations;
+import org.memgraphd.operation.GraphStateManager;
+import org.memgraphd.test.data.OnlineVideo;
+import org.memgraphd.test.data.TvEpisode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.springframework.test.util.ReflectionTestUtils.getField;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+public class GraphSnapshotIT {
+    private static final String NAME = "snapshotGraph";
+    private static final String DB_NAME = "PUBLIC.SNAPSHOT";
+    private static final String DB_PATH = "/tmp/book/snapshot/";
+    private static final long SNAPSHOT_FREQUENCY = 60000L;
+
+    private Graph graph;
+
+    @Before
+    public void setUp() throws Exception {
+        new File(DB_PATH, NAME + ".snapshot").delete();
+        graph = GraphImpl.build(config());
+        graph.run();
+        graph.clear();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        graph.clear();
+        graph.shutdown();
+    }
+
+    @Test
+    public void testRestart_loadsSnapshot() throws GraphException, SQLException {
+        TvEpisode episode = new TvEpisode("episode", new DateTime(), new DateTime(), "season", "Pilot", "1",
+                new DateTime());
+        graph.create(new OnlineVideo("video", new DateTime(), new DateTime(), "Video #1", "episode", true));
+        graph.create(episode);
+        graph.shutdown();
+        assertTrue(new File(DB_PATH, NAME + ".snapshot").isFile());
+
+        // a new graph on the same book, nothing to replay once the snapshot is loaded
+        graph = GraphImpl.build(config());
+        graph.run();
+
+        assertEquals(2, graph.occupied());
+        GraphData video = graph.read("video");
+        assertNotNull(video);
+        assertEquals("episode", video.getRelatedData().getLinks().oneToOne(TvEpisode.class).getId());
+    }
+
+    @Test
+    public void testRestart_keepsDecisionTime() throws GraphException, SQLException {
+        graph.create(new OnlineVideo("video", new DateTime(), new DateTime(), "Video #1", "episode", true));
+        MemoryReference ref = graph.read("video").getReference();
+        Decision before = stateManager().decisionOf(ref);
+        assertNotNull(before.getTime());
+        graph.shutdown();
+
+        graph = GraphImpl.build(config());
+        graph.run();
+
+        Decision after = stateManager().decisionOf(graph.read("video").getReference());
+        assertEquals(before.getSequence(), after.getSequence());
+        assertEquals(before.getTime(), after.getTime());
+        assertEquals(before.getRequestType(), after.getRequestType());
+        assertEquals("video", after.getDataId());
+    }
+
+    @Test
+    public void testSnapshot_leavesEvictionStateAlone() throws GraphException {
+        graph.create(new OnlineVideo("video", new DateTime(), new DateTime(), "Video #1", "episode", true));
+        graph.create(new TvEpisode("episode", new DateTime(), new DateTime(), "season", "Pilot", "1",
+                new DateTime()));
+        MemoryOperations memoryAccess = (MemoryOperations) getField(graph(), "memoryAccess");
+        MemoryManager memoryManager = (MemoryManager) getField(memoryAccess, "memoryManager");
+        EvictionPolicy evictionPolicy = mock(EvictionPolicy.class);
+        setField(memoryAccess, "evictionPolicy", evictionPolicy);
+        Collection<MemoryReference> refs = ((GraphMappings) getField(graph(), "mappings")).getAllMemoryReferences();
+        for(MemoryReference ref : refs) {
+            setField(memoryManager.read(ref), "accessed", false);
+        }
+
+        GraphDataSnapshotManagerImpl snapshotManager = (GraphDataSnapshotManagerImpl) getField(
+                getField(graph(), "supervisor"), "snapshotManager");
+        assertNotNull(snapshotManager.snapshot());
+
+        assertEquals(2, refs.size());
+        for(MemoryReference ref : refs) {
+            assertEquals(Boolean.FALSE, getField(memoryManager.read(ref), "accessed"));
+        }
+        verifyZeroInteractions(evictionPolicy);
+    }
+
+    private Object graph() {
+        return getField(Proxy.getInvocationHandler(graph), "graph");
+    }
+
+    private GraphStateManager stateManager() {
+        return (GraphStateManager) getField(graph(), "stateManager");
+    }
+
+    private GraphConfig config() throws SQLException {
+        return new GraphConfigDefaults(NAME, GraphConfig.DEFAULT_CAPACITY, DB_NAME, DB_PATH,
+                GraphConfig.DEFAULT_BATCH_SIZE, GraphConfig.DEFAULT_WRITE_FREQUENCY,
+                GraphConfig.DEFAULT_LIBRARY_SECTIONS, SNAPSHOT_FREQUENCY);
+    }
+}
@@ -166,4 +166,28 @@ public class GraphSupervisorImplTest {
        
         verify(memoryStats).recycled();
     }
+    
+    @Test
+    public void testSegments() {
+        when(memoryStats.segments()).thenReturn(9393);
+        assertEquals(9393, supervisor.segments());
+       
+        verify(memoryStats).segments();
+    }
+    
+    @Test
+    public void testGrowths() {
+        when(memoryStats.growths()).thenReturn(9393);
+        assertEquals(9393, supervisor.growths());
+       
+        verify(memoryStats).growths();
+    }
+    
+    @Test
+    public void testFootprint() {
+        when(memoryStats.footprint()).thenReturn(9393L);
+        assertEquals(9393L, supervisor.footprint());
+       
+        verify(memoryStats).footprint();
+    }
 }
@@ -7,6 +7,7 @@ import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.joda.time.DateTime;
@@ -22,6 +23,7 @@ import org.mockito.Mockito;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 
 import static org.junit.Assert.assertEquals;
@@ -101,6 +103,20 @@ public class AbstractBookKeeperTest {
         keeper.openBook();
         keeper.record(decision);
     }
+    
+    @Test(expected=RuntimeException.class)
+    public void testRecordAll_bookNotOpened() {
+        keeper.recordAll(ImmutableList.of(d1, d2));
+    }
+    
+    @Test
+    public void testRecordAll() {
+        // open without the scheduler, so that nothing flushes the buffer in the meantime
+        ReflectionTestUtils.setField(keeper, "bookClosed", new AtomicBoolean(false));
+        keeper.recordAll(ImmutableList.of(d1, d2, d3));
+        
+        assertEquals(ImmutableSet.of(d1, d2, d3), keeper.swapBuffer());
+    }
 
     @Test
     public void testCloseBook() {
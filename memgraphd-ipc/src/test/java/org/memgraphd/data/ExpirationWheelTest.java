@@ -0,0 +1,108 @@
+package org.memgraphd.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ExpirationWheelTest {
+    private static final long TICK = 10L;
+    private static final long START = 1000L;
+
+    private ExpirationWheel wheel;
+    private List<String> due;
+
+    @Before
+    public void setUp() {
+        wheel = new ExpirationWheel(TICK, START);
+        due = new ArrayList<String>();
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testExpirationWheel_invalidTick() {
+        new ExpirationWheel(0, START);
+    }
+
+    @Test
+    public void testAdd_alreadyExpired() {
+        wheel.add("id", START - 1, due);
+        assertEquals(1, due.size());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testAdvance() {
+        wheel.add("id", START + 5 * TICK, due);
+        assertEquals(1, wheel.size());
+
+        wheel.advance(START + 4 * TICK, due);
+        assertTrue(due.isEmpty());
+
+        wheel.advance(START + 5 * TICK, due);
+        assertEquals(1, due.size());
+        assertEquals("id", due.get(0));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testAdvance_roundsUp() {
+        wheel.add("id", START + 5 * TICK + 1, due);
+
+        wheel.advance(START + 5 * TICK + 1, due);
+        assertTrue(due.isEmpty());
+
+        wheel.advance(START + 6 * TICK, due);
+        assertEquals(1, due.size());
+    }
+
+    @Test
+    public void testAdvance_cascades() {
+        long[] expirations = new long[] {
+                START + 3 * TICK,
+                START + (ExpirationWheel.SLOTS + 3) * TICK,
+                START + (ExpirationWheel.SLOTS * ExpirationWheel.SLOTS + 3) * TICK,
+                START + (ExpirationWheel.SLOTS * ExpirationWheel.SLOTS * ExpirationWheel.SLOTS + 3) * TICK };
+        for(int i = 0; i < expirations.length; i++) {
+            wheel.add("id-" + i, expirations[i], due);
+        }
+        assertEquals(expirations.length, wheel.size());
+
+        for(int i = 0; i < expirations.length; i++) {
+            wheel.advance(expirations[i] - 1, due);
+            assertEquals(i, due.size());
+            wheel.advance(expirations[i], due);
+            assertEquals(i + 1, due.size());
+            assertEquals("id-" + i, due.get(i));
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testAdvance_beyondTopLevel() {
+        long far = START + 5L * ExpirationWheel.SLOTS * ExpirationWheel.SLOTS * ExpirationWheel.SLOTS
+                * ExpirationWheel.SLOTS * TICK;
+        wheel.add("id", far, due);
+
+        wheel.advance(far - TICK, due);
+        assertTrue(due.isEmpty());
+        assertEquals(1, wheel.size());
+
+        wheel.advance(far, due);
+        assertEquals(1, due.size());
+    }
+
+    @Test
+    public void testAdvance_sameSlot() {
+        wheel.add("id-1", START + 2 * TICK, due);
+        wheel.add("id-2", START + 2 * TICK, due);
+        wheel.add("id-3", START + 7 * TICK, due);
+
+        wheel.advance(START + 2 * TICK, due);
+        assertEquals(2, due.size());
+        assertEquals(1, wheel.size());
+    }
+}
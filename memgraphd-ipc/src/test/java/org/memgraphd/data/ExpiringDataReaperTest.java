@@ -0,0 +1,136 @@
+package org.memgraphd.data;
+
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.memgraphd.exception.GraphException;
+import org.memgraphd.operation.GraphReader;
+import org.memgraphd.operation.GraphWriter;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ExpiringDataReaperTest {
+    private static final long TICK = 10L;
+
+    private ExpiringDataReaper reaper;
+
+    @Mock
+    private GraphReader reader;
+
+    @Mock
+    private GraphWriter writer;
+
+    @Before
+    public void setUp() {
+        reaper = new ExpiringDataReaper(reader, writer, TICK, 2);
+    }
+
+    @Test
+    public void testHasExpired() {
+        assertFalse(ExpiringDataReaper.hasExpired(null));
+        assertFalse(ExpiringDataReaper.hasExpired(graphData(new ReadWriteData("id", null, null))));
+        assertFalse(ExpiringDataReaper.hasExpired(expiring("id", System.currentTimeMillis() + 60000)));
+        assertTrue(ExpiringDataReaper.hasExpired(expiring("id", System.currentTimeMillis() - 60000)));
+    }
+
+    @Test
+    public void testOnCreate() {
+        reaper.onCreate(expiring("id", System.currentTimeMillis() + 60000));
+        reaper.onCreate(graphData(new ReadWriteData("id-2", null, null)));
+        assertEquals(1, reaper.pending());
+    }
+
+    @Test
+    public void testReap() throws GraphException {
+        long expiration = System.currentTimeMillis() + 100;
+        GraphData gData = expiring("id", expiration);
+        when(reader.read("id")).thenReturn(gData);
+        reaper.onCreate(gData);
+
+        assertEquals(0, reaper.reap(expiration - TICK));
+        verify(writer, never()).delete("id");
+
+        assertEquals(1, reaper.reap(expiration + TICK));
+        verify(writer).delete("id");
+        assertEquals(0, reaper.pending());
+    }
+
+    @Test
+    public void testReap_deleted() throws GraphException {
+        long expiration = System.currentTimeMillis() + 100;
+        reaper.onCreate(expiring("id", expiration));
+
+        assertEquals(0, reaper.reap(expiration + TICK));
+        verify(writer, never()).delete("id");
+    }
+
+    @Test
+    public void testReap_updated() throws GraphException {
+        long expiration = System.currentTimeMillis() + 100;
+        GraphData updated = expiring("id", expiration + 60000);
+        reaper.onCreate(expiring("id", expiration));
+        reaper.onUpdate(null, updated);
+        when(reader.read("id")).thenReturn(updated);
+
+        assertEquals(0, reaper.reap(expiration + TICK));
+        verify(writer, never()).delete("id");
+        assertEquals(1, reaper.pending());
+    }
+
+    @Test
+    public void testReap_batchSize() throws GraphException {
+        long expiration = System.currentTimeMillis() + 100;
+        for(int i = 0; i < 3; i++) {
+            GraphData gData = expiring("id-" + i, expiration);
+            when(reader.read("id-" + i)).thenReturn(gData);
+            reaper.onCreate(gData);
+        }
+
+        assertEquals(2, reaper.reap(expiration + TICK));
+        assertEquals(1, reaper.pending());
+        assertEquals(1, reaper.reap(expiration + TICK));
+        verify(writer, times(3)).delete(anyString());
+    }
+
+    @Test
+    public void testReap_failure() throws GraphException {
+        long expiration = System.currentTimeMillis() + 100;
+        GraphData gData = expiring("id", expiration);
+        when(reader.read("id")).thenReturn(gData);
+        doThrow(new GraphException("failed")).when(writer).delete("id");
+        reaper.onCreate(gData);
+
+        assertEquals(0, reaper.reap(expiration + TICK));
+    }
+
+    @Test
+    public void testOnStartupOnShutdown() {
+        reaper.onStartup();
+        reaper.onStartup();
+        reaper.onShutdown();
+        reaper.onShutdown();
+    }
+
+    private GraphData expiring(String id, long expirationMillis) {
+        return graphData(new ReadWriteExpiringData(id, new DateTime(), new DateTime(expirationMillis)));
+    }
+
+    private GraphData graphData(Data data) {
+        GraphData gData = mock(GraphData.class);
+        when(gData.getData()).thenReturn(data);
+        return gData;
+    }
+}
@@ -0,0 +1,126 @@
+package org.memgraphd.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.memgraphd.GraphRequestType;
+import org.memgraphd.decision.Decision;
+import org.memgraphd.decision.DecisionImpl;
+import org.memgraphd.decision.Sequence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class GraphDataSnapshotFileTest {
+
+    private File directory;
+    private GraphDataSnapshotFile snapshotFile;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = File.createTempFile("snapshot", "");
+        directory.delete();
+        snapshotFile = new GraphDataSnapshotFile(new File(directory, "graph.snapshot"));
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if(files != null) {
+            for(File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void testWriteRead() throws IOException {
+        DateTime time = new DateTime();
+        assertFalse(snapshotFile.exists());
+
+        snapshotFile.write(Sequence.valueOf(7), Arrays.<Decision>asList(
+                decision("id-1", 3, time, GraphRequestType.CREATE), decision("id-2", 7, null, null)));
+        assertTrue(snapshotFile.exists());
+
+        GraphDataSnapshotFile.Snapshot snapshot = snapshotFile.read();
+        assertEquals(Sequence.valueOf(7), snapshot.sequence());
+        List<Decision> decisions = snapshot.decisions();
+        assertEquals(2, decisions.size());
+        assertEquals(Sequence.valueOf(3), decisions.get(0).getSequence());
+        assertEquals("id-1", decisions.get(0).getDataId());
+        assertEquals("id-1", decisions.get(0).getData().getId());
+        assertEquals(time, decisions.get(0).getTime());
+        assertEquals(GraphRequestType.CREATE, decisions.get(0).getRequestType());
+        assertEquals("id-2", decisions.get(1).getData().getId());
+        assertNull(decisions.get(1).getTime());
+        assertNull(decisions.get(1).getRequestType());
+    }
+
+    @Test
+    public void testWrite_replaces() throws IOException {
+        snapshotFile.write(Sequence.valueOf(1), Arrays.<Decision>asList(
+                decision("id-1", 1, null, GraphRequestType.CREATE)));
+        snapshotFile.write(Sequence.valueOf(2), Collections.<Decision>emptyList());
+
+        GraphDataSnapshotFile.Snapshot snapshot = snapshotFile.read();
+        assertEquals(Sequence.valueOf(2), snapshot.sequence());
+        assertTrue(snapshot.decisions().isEmpty());
+        assertEquals(1, directory.listFiles().length);
+    }
+
+    @Test(expected=IOException.class)
+    public void testRead_corrupt() throws IOException {
+        snapshotFile.write(Sequence.valueOf(1), Arrays.<Decision>asList(
+                decision("id-1", 1, null, GraphRequestType.CREATE)));
+        RandomAccessFile file = new RandomAccessFile(new File(directory, "graph.snapshot"), "rw");
+        try {
+            long position = file.length() - 12;
+            file.seek(position);
+            int b = file.read();
+            file.seek(position);
+            file.write(b ^ 0xFF);
+        } finally {
+            file.close();
+        }
+
+        snapshotFile.read();
+    }
+
+    @Test(expected=IOException.class)
+    public void testRead_truncated() throws IOException {
+        snapshotFile.write(Sequence.valueOf(1), Arrays.<Decision>asList(
+                decision("id-1", 1, null, GraphRequestType.CREATE)));
+        RandomAccessFile file = new RandomAccessFile(new File(directory, "graph.snapshot"), "rw");
+        try {
+            file.setLength(file.length() - 4);
+        } finally {
+            file.close();
+        }
+
+        snapshotFile.read();
+    }
+
+    @Test
+    public void testDelete() throws IOException {
+        snapshotFile.write(Sequence.valueOf(1), Collections.<Decision>emptyList());
+        snapshotFile.delete();
+
+        assertFalse(snapshotFile.exists());
+    }
+
+    private Decision decision(String id, long sequence, DateTime time, GraphRequestType requestType) {
+        Data data = new ReadWriteData(id, new DateTime(), new DateTime());
+        return new DecisionImpl(Sequence.valueOf(sequence), time, requestType, id, data);
+    }
+}
@@ -1,7 +1,9 @@
 package org.memgraphd.data;
 
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -13,18 +15,27 @@ import org.memgraphd.decision.DecisionImpl;
 import org.memgraphd.decision.DecisionMaker;
 import org.memgraphd.decision.Sequence;
 import org.memgraphd.exception.GraphException;
+import org.memgraphd.memory.MemoryImage;
 import org.memgraphd.memory.MemoryReference;
+import org.memgraphd.operation.GraphCheckpointer;
 import org.memgraphd.operation.GraphReader;
 import org.memgraphd.operation.GraphStateManager;
 import org.memgraphd.operation.GraphWriter;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollectionOf;
 import static org.mockito.Matchers.anyString;
 
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
@@ -41,6 +52,9 @@ public class GraphDataSnapshotManagerImplTest {
     @Mock
     private GraphWriter writer;
     
+    @Mock
+    private GraphCheckpointer checkpointer;
+    
     @Mock
     private GraphMappings mappings;
     
@@ -56,11 +70,24 @@ public class GraphDataSnapshotManagerImplTest {
     @Mock
     private GraphStateManager stateManager;
     
+    @Mock
+    private MemoryImage image;
+    
+    @Mock
+    private GraphDataSnapshotFile snapshotFile;
+    
     private Decision decision1, decision2, decision3, decision4, decision5;
     
+    @SuppressWarnings("unchecked")
     @Before
     public void setUp() throws Exception {
         snapMan = new GraphDataSnapshotManagerImpl(reader, writer, mappings, decisionMaker, stateManager);
+        when(checkpointer.checkpoint(any(Callable.class))).thenAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                return ((Callable<?>) invocation.getArguments()[0]).call();
+            }
+        });
         
         when(decisionMaker.getReadWriteBatchSize()).thenReturn(5L);
         
@@ -160,6 +187,173 @@ public class GraphDataSnapshotManagerImplTest {
         verify(stateManager, times(2)).create(decision5);
     }
 
+    @Test
+    public void testInitialize_restoresImage() throws GraphException {
+        snapMan = new GraphDataSnapshotManagerImpl(reader, writer, mappings, decisionMaker, stateManager, image);
+        MemoryReference ref1 = MemoryReference.valueOf(1);
+        MemoryReference ref3 = MemoryReference.valueOf(3);
+        Sequence seq3 = Sequence.valueOf(3);
+        Sequence seq5 = Sequence.valueOf(5);
+        
+        when(image.restoredSequence()).thenReturn(seq3);
+        when(image.restoredReferences()).thenReturn(new MemoryReference[] { ref1, ref3 });
+        when(stateManager.restore(ref1)).thenReturn(graphData);
+        when(decisionMaker.latestDecision()).thenReturn(seq5);
+        when(decisionMaker.readRange(seq3, seq5)).thenReturn(Arrays.asList(decision3, decision4, decision5));
+        
+        snapMan.initialize();
+        
+        verify(stateManager).restore(ref1);
+        verify(stateManager).restore(ref3);
+        verify(stateManager, never()).create(decision3);
+        verify(stateManager).delete(decision4, null);
+        verify(stateManager).create(decision5);
+    }
+    
+    @Test
+    public void testInitialize_noImage() throws GraphException {
+        snapMan = new GraphDataSnapshotManagerImpl(reader, writer, mappings, decisionMaker, stateManager, image);
+        Sequence seq0 = Sequence.valueOf(0);
+        Sequence seq1 = Sequence.valueOf(1);
+        
+        when(decisionMaker.latestDecision()).thenReturn(seq1);
+        when(decisionMaker.readRange(seq0, seq1)).thenReturn(Arrays.asList(decision1));
+        
+        snapMan.initialize();
+        
+        verify(stateManager).create(decision1);
+    }
+    
+    @Test
+    public void testOnStartupOnShutdown() {
+        snapMan = new GraphDataSnapshotManagerImpl(reader, writer, mappings, decisionMaker, stateManager, image);
+        Sequence seq5 = Sequence.valueOf(5);
+        when(decisionMaker.latestDecision()).thenReturn(seq5);
+        
+        snapMan.onStartup();
+        verify(image).discard();
+        
+        snapMan.onShutdown();
+        verify(image).save(seq5);
+    }
+    
+    @Test
+    public void testInitialize_restoresSnapshot() throws Exception {
+        snapMan = new GraphDataSnapshotManagerImpl(reader, writer, checkpointer, mappings, decisionMaker, stateManager, null,
+                snapshotFile, 1000L);
+        Sequence seq3 = Sequence.valueOf(3);
+        Sequence seq5 = Sequence.valueOf(5);
+        
+        when(snapshotFile.exists()).thenReturn(true);
+        when(snapshotFile.read()).thenReturn(new GraphDataSnapshotFile.Snapshot(seq3, 
+                Arrays.asList(decision1, decision3)));
+        when(decisionMaker.latestDecision()).thenReturn(seq5);
+        when(decisionMaker.readRange(seq3, seq5)).thenReturn(Arrays.asList(decision4, decision5));
+        
+        snapMan.initialize();
+        
+        verify(stateManager).create(decision1);
+        verify(stateManager).create(decision3);
+        verify(stateManager).delete(decision4, null);
+        verify(stateManager).create(decision5);
+    }
+    
+    @Test
+    public void testInitialize_corruptSnapshot() throws Exception {
+        snapMan = new GraphDataSnapshotManagerImpl(reader, writer, checkpointer, mappings, decisionMaker, stateManager, null,
+                snapshotFile, 1000L);
+        Sequence seq0 = Sequence.valueOf(0);
+        Sequence seq1 = Sequence.valueOf(1);
+        
+        when(snapshotFile.exists()).thenReturn(true);
+        when(snapshotFile.read()).thenThrow(new IOException("corrupt"));
+        when(decisionMaker.latestDecision()).thenReturn(seq1);
+        when(decisionMaker.readRange(seq0, seq1)).thenReturn(Arrays.asList(decision1));
+        
+        snapMan.initialize();
+        
+        verify(stateManager).create(decision1);
+    }
+    
+    @Test
+    public void testSnapshot() throws Exception {
+        snapMan = new GraphDataSnapshotManagerImpl(reader, writer, checkpointer, mappings, decisionMaker, stateManager, null,
+                snapshotFile, 1000L);
+        MemoryReference ref1 = MemoryReference.valueOf(1);
+        MemoryReference ref2 = MemoryReference.valueOf(2);
+        Sequence seq5 = Sequence.valueOf(5);
+        
+        when(mappings.getAllMemoryReferences()).thenReturn(Arrays.asList(ref1, ref2));
+        when(stateManager.decisionOf(ref1)).thenReturn(decision1);
+        when(decisionMaker.latestDecision()).thenReturn(seq5);
+        
+        assertEquals(seq5, snapMan.snapshot());
+        verify(snapshotFile).write(seq5, Arrays.asList(decision1));
+        // taking a snapshot does not count as reading the data
+        verify(reader, never()).read(any(MemoryReference.class));
+    }
+    
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testSnapshot_checkpoint() throws Exception {
+        snapMan = new GraphDataSnapshotManagerImpl(reader, writer, checkpointer, mappings, decisionMaker, stateManager, null,
+                snapshotFile, 1000L);
+        Sequence seq5 = Sequence.valueOf(5);
+        
+        when(decisionMaker.latestDecision()).thenReturn(seq5);
+        
+        assertEquals(seq5, snapMan.snapshot());
+        verify(checkpointer).checkpoint(any(Callable.class));
+    }
+    
+    @Test(expected=IllegalArgumentException.class)
+    public void testSnapshot_noCheckpointer() {
+        new GraphDataSnapshotManagerImpl(reader, writer, null, mappings, decisionMaker, stateManager, null,
+                snapshotFile, 1000L);
+    }
+    
+    @Test(expected=GraphException.class)
+    public void testSnapshot_failure() throws Exception {
+        snapMan = new GraphDataSnapshotManagerImpl(reader, writer, checkpointer, mappings, decisionMaker, stateManager, null,
+                snapshotFile, 1000L);
+        when(decisionMaker.latestDecision()).thenReturn(Sequence.valueOf(5));
+        doThrow(new IOException("disk full")).when(snapshotFile).write(any(Sequence.class), 
+                anyCollectionOf(Decision.class));
+        
+        snapMan.snapshot();
+    }
+    
+    @Test
+    public void testSnapshot_off() throws GraphException {
+        assertNull(snapMan.snapshot());
+    }
+    
+    @Test
+    public void testOnStartupOnShutdown_snapshot() throws Exception {
+        snapMan = new GraphDataSnapshotManagerImpl(reader, writer, checkpointer, mappings, decisionMaker, stateManager, null,
+                snapshotFile, 60000L);
+        Sequence seq5 = Sequence.valueOf(5);
+        when(decisionMaker.latestDecision()).thenReturn(seq5);
+        
+        snapMan.onStartup();
+        snapMan.onStartup();
+        snapMan.onShutdown();
+        snapMan.onShutdown();
+        
+        verify(snapshotFile).write(any(Sequence.class), anyCollectionOf(Decision.class));
+    }
+    
+    @Test
+    public void testClear_deletesSnapshot() throws GraphException {
+        snapMan = new GraphDataSnapshotManagerImpl(reader, writer, checkpointer, mappings, decisionMaker, stateManager, null,
+                snapshotFile, 1000L);
+        
+        snapMan.clear();
+        
+        verify(decisionMaker).reverseAll();
+        verify(snapshotFile).delete();
+    }
+    
     @Test
     public void testClear() throws GraphException {
         MemoryReference memRef = MemoryReference.valueOf(1);
@@ -0,0 +1,167 @@
+package org.memgraphd.data.index;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.memgraphd.data.Data;
+import org.memgraphd.data.GraphData;
+import org.memgraphd.data.ReadWriteData;
+import org.memgraphd.data.ReadWriteExpiringData;
+import org.memgraphd.operation.GraphReader;
+import org.memgraphd.test.data.TvEpisode;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DataIndexImplTest {
+    private static final DateTime AIR_DATE = new DateTime(2013, 8, 31, 20, 0);
+
+    private DataIndexImpl<DateTime> index;
+
+    @Mock
+    private GraphReader reader;
+
+    @Before
+    public void setUp() {
+        index = new DataIndexImpl<DateTime>("airDate", new AirDateExtractor(), reader);
+    }
+
+    @Test
+    public void testGetName() {
+        assertEquals("airDate", index.getName());
+    }
+
+    @Test
+    public void testGet() {
+        GraphData ep1 = indexed(episode("ep-1", AIR_DATE));
+        GraphData ep2 = indexed(episode("ep-2", AIR_DATE));
+        indexed(episode("ep-3", AIR_DATE.plusDays(1)));
+
+        List<GraphData> result = Arrays.asList(index.get(AIR_DATE));
+        assertEquals(2, result.size());
+        assertTrue(result.contains(ep1));
+        assertTrue(result.contains(ep2));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    public void testGet_none() {
+        assertArrayEquals(new GraphData[0], index.get(AIR_DATE));
+        assertArrayEquals(new GraphData[0], index.get(null));
+    }
+
+    @Test
+    public void testIndex_notIndexed() {
+        GraphData gData = graphData(new ReadWriteData("id", null, null));
+        index.index(gData.getData());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void testIndex_extractorFails() {
+        index = new DataIndexImpl<DateTime>("airDate", new DataKeyExtractor<DateTime>() {
+            @Override
+            public DateTime extract(Data data) {
+                throw new IllegalStateException("boom");
+            }
+        }, reader);
+        index.index(episode("ep-1", AIR_DATE).getData());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void testIndex_keyChanged() {
+        indexed(episode("ep-1", AIR_DATE));
+        GraphData moved = indexed(episode("ep-1", AIR_DATE.plusDays(1)));
+
+        assertEquals(0, index.get(AIR_DATE).length);
+        assertArrayEquals(new GraphData[] { moved }, index.get(AIR_DATE.plusDays(1)));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void testGet_skipsStaleData() {
+        indexed(episode("ep-1", AIR_DATE));
+        // changed in the graph but not in the index yet
+        GraphData changed = episode("ep-1", AIR_DATE.plusDays(1));
+        when(reader.read("ep-1")).thenReturn(changed);
+
+        assertEquals(0, index.get(AIR_DATE).length);
+    }
+
+    @Test
+    public void testGet_skipsExpiredData() {
+        GraphData expired = graphData(new ReadWriteExpiringData("id", new DateTime(), new DateTime().minusDays(1)));
+        index = new DataIndexImpl<DateTime>("createdDate", new DataKeyExtractor<DateTime>() {
+            @Override
+            public DateTime extract(Data data) {
+                return AIR_DATE;
+            }
+        }, reader);
+        index.index(expired.getData());
+        when(reader.read("id")).thenReturn(expired);
+
+        assertEquals(1, index.size());
+        assertEquals(0, index.get(AIR_DATE).length);
+    }
+
+    @Test
+    public void testUnindex() {
+        GraphData ep1 = indexed(episode("ep-1", AIR_DATE));
+        index.unindex(ep1.getData());
+        index.unindex(ep1.getData());
+
+        assertEquals(0, index.get(AIR_DATE).length);
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void testRange() {
+        GraphData ep1 = indexed(episode("ep-1", AIR_DATE));
+        GraphData ep2 = indexed(episode("ep-2", AIR_DATE.plusDays(7)));
+        GraphData ep3 = indexed(episode("ep-3", AIR_DATE.plusDays(14)));
+
+        assertArrayEquals(new GraphData[] { ep1, ep2 }, index.range(AIR_DATE, AIR_DATE.plusDays(14)));
+        assertArrayEquals(new GraphData[] { ep2, ep3 }, index.range(AIR_DATE.plusDays(1), null));
+        assertArrayEquals(new GraphData[] { ep1 }, index.range(null, AIR_DATE.plusDays(7)));
+        assertArrayEquals(new GraphData[] { ep1, ep2, ep3 }, index.range(null, null));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testRange_invalid() {
+        index.range(AIR_DATE.plusDays(1), AIR_DATE);
+    }
+
+    private GraphData indexed(GraphData gData) {
+        index.index(gData.getData());
+        when(reader.read(gData.getData().getId())).thenReturn(gData);
+        return gData;
+    }
+
+    private GraphData episode(String id, DateTime airDate) {
+        return graphData(new TvEpisode(id, null, null, "season-1", id, id, airDate));
+    }
+
+    private GraphData graphData(Data data) {
+        GraphData gData = mock(GraphData.class);
+        when(gData.getData()).thenReturn(data);
+        return gData;
+    }
+
+    private static final class AirDateExtractor implements DataKeyExtractor<DateTime> {
+        @Override
+        public DateTime extract(Data data) {
+            return data instanceof TvEpisode ? ((TvEpisode) data).getEpisodeOriginalAirDate() : null;
+        }
+    }
+}
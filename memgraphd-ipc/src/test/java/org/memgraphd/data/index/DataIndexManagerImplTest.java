@@ -0,0 +1,154 @@
+package org.memgraphd.data.index;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.memgraphd.GraphMappings;
+import org.memgraphd.data.Data;
+import org.memgraphd.data.GraphData;
+import org.memgraphd.exception.GraphException;
+import org.memgraphd.memory.MemoryReference;
+import org.memgraphd.operation.GraphCheckpointer;
+import org.memgraphd.operation.GraphReader;
+import org.memgraphd.test.data.TvEpisode;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DataIndexManagerImplTest {
+    private static final DateTime AIR_DATE = new DateTime(2013, 8, 31, 20, 0);
+
+    private DataIndexManagerImpl manager;
+
+    @Mock
+    private GraphReader reader;
+
+    @Mock
+    private GraphCheckpointer checkpointer;
+
+    @Mock
+    private GraphMappings mappings;
+
+    @SuppressWarnings("unchecked")
+    @Before
+    public void setUp() throws Exception {
+        manager = new DataIndexManagerImpl(reader, checkpointer, mappings);
+        when(mappings.getAllMemoryReferences()).thenReturn(Collections.<MemoryReference>emptyList());
+        when(checkpointer.checkpoint(any(Callable.class))).thenAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                return ((Callable<?>) invocation.getArguments()[0]).call();
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testCreateIndex_fillsWithExistingData() throws Exception {
+        GraphData ep1 = episode("ep-1", AIR_DATE);
+        GraphData ep2 = episode("ep-2", AIR_DATE.plusDays(7));
+        when(mappings.getAllMemoryReferences()).thenReturn(Arrays.asList(
+                MemoryReference.valueOf(1), MemoryReference.valueOf(2), MemoryReference.valueOf(3)));
+        when(reader.read(MemoryReference.valueOf(1))).thenReturn(ep1);
+        when(reader.read(MemoryReference.valueOf(2))).thenReturn(ep2);
+
+        DataIndex<DateTime> index = manager.createIndex("airDate", new AirDateExtractor());
+
+        assertEquals(2, index.size());
+        assertArrayEquals(new GraphData[] { ep1, ep2 }, index.range(null, null));
+        assertSame(index, manager.index("airDate"));
+        verify(checkpointer).checkpoint(any(Callable.class));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testCreateIndex_duplicate() throws GraphException {
+        manager.createIndex("airDate", new AirDateExtractor());
+        manager.createIndex("airDate", new AirDateExtractor());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testCreateIndex_noName() throws GraphException {
+        manager.createIndex(null, new AirDateExtractor());
+    }
+
+    @Test
+    public void testIndex_none() {
+        assertNull(manager.index("airDate"));
+        assertNull(manager.index(null));
+    }
+
+    @Test
+    public void testDropIndex() throws GraphException {
+        manager.createIndex("airDate", new AirDateExtractor());
+        manager.dropIndex("airDate");
+        manager.dropIndex("airDate");
+        manager.dropIndex(null);
+        assertNull(manager.index("airDate"));
+    }
+
+    @Test
+    public void testOnCreate() throws GraphException {
+        DataIndex<DateTime> index = manager.createIndex("airDate", new AirDateExtractor());
+        GraphData ep1 = episode("ep-1", AIR_DATE);
+
+        manager.onCreate(ep1);
+
+        assertArrayEquals(new GraphData[] { ep1 }, index.get(AIR_DATE));
+    }
+
+    @Test
+    public void testOnUpdate() throws GraphException {
+        DataIndex<DateTime> index = manager.createIndex("airDate", new AirDateExtractor());
+        GraphData ep1 = episode("ep-1", AIR_DATE);
+        manager.onCreate(ep1);
+        GraphData updated = episode("ep-1", AIR_DATE.plusDays(1));
+
+        manager.onUpdate(ep1, updated);
+
+        assertEquals(0, index.get(AIR_DATE).length);
+        assertArrayEquals(new GraphData[] { updated }, index.get(AIR_DATE.plusDays(1)));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void testOnDelete() throws GraphException {
+        DataIndex<DateTime> index = manager.createIndex("airDate", new AirDateExtractor());
+        GraphData ep1 = episode("ep-1", AIR_DATE);
+        manager.onCreate(ep1);
+
+        manager.onDelete(ep1);
+
+        assertEquals(0, index.size());
+        assertEquals(0, index.get(AIR_DATE).length);
+    }
+
+    private GraphData episode(String id, DateTime airDate) {
+        GraphData gData = mock(GraphData.class);
+        when(gData.getData()).thenReturn(new TvEpisode(id, null, null, "season-1", id, id, airDate));
+        when(reader.read(id)).thenReturn(gData);
+        return gData;
+    }
+
+    private static final class AirDateExtractor implements DataKeyExtractor<DateTime> {
+        @Override
+        public DateTime extract(Data data) {
+            return data instanceof TvEpisode ? ((TvEpisode) data).getEpisodeOriginalAirDate() : null;
+        }
+    }
+}
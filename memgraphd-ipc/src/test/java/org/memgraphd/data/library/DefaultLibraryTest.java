@@ -11,8 +11,10 @@ import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -140,5 +142,18 @@ public class DefaultLibraryTest {
         assertEquals(1, library.size());
        
     }
+    
+    @Test
+    public void testHolds() {
+        
+        testArchive();
+        
+        assertTrue(librarian.holds(gData));
+        assertFalse(librarian.holds(gData2));
+        
+        librarian.unarchive(gData);
+        
+        assertFalse(librarian.holds(gData));
+    }
 
 }
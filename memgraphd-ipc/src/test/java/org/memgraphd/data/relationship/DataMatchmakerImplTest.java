@@ -302,4 +302,22 @@ public class DataMatchmakerImplTest {
         verify(memoryAccess).dereferenceAll(ref1);
     }
 
+    @Test
+    public void testRelocate() {
+        MemoryReference ref1 = MemoryReference.valueOf(1);
+        MemoryReference ref2 = MemoryReference.valueOf(2);
+        MemoryReference ref3 = MemoryReference.valueOf(3);
+        Map<String, Set<MemoryReference>> singles = new HashMap<String, Set<MemoryReference>>();
+        singles.put("id3", new HashSet<MemoryReference>());
+        singles.get("id3").add(ref2);
+        singles.get("id3").add(ref3);
+        ReflectionTestUtils.setField(matchmaker, "singles", singles);
+        
+        matchmaker.relocate(ref3, ref1);
+        
+        assertEquals(2, singles.get("id3").size());
+        assertTrue(singles.get("id3").contains(ref1));
+        assertTrue(singles.get("id3").contains(ref2));
+        verifyZeroInteractions(memoryAccess, seeker);
+    }
 }
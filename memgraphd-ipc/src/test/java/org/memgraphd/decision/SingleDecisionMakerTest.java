@@ -1,5 +1,9 @@
 package org.memgraphd.decision;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -14,6 +18,10 @@ import org.mockito.runners.MockitoJUnitRunner;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -113,6 +121,45 @@ public class SingleDecisionMakerTest {
         verify(data, times(2)).getId();
     }
 
+    @Test
+    public void testDecideAll() throws GraphException {
+        GraphRequestContext context2 = mock(GraphRequestContext.class);
+        Data data2 = mock(Data.class);
+        when(context.getRequestType()).thenReturn(GraphRequestType.CREATE);
+        when(context.getData()).thenReturn(data);
+        when(data.getId()).thenReturn("id");
+        when(context2.getRequestType()).thenReturn(GraphRequestType.DELETE);
+        when(context2.getData()).thenReturn(data2);
+        when(data2.getId()).thenReturn("id-2");
+        decisionMaker.decide(context);
+        
+        List<Decision> decisions = decisionMaker.decideAll(Arrays.asList(context, context2));
+        
+        assertEquals(2, decisions.size());
+        assertEquals(2L, decisions.get(0).getSequence().number());
+        assertSame(GraphRequestType.CREATE, decisions.get(0).getRequestType());
+        assertEquals("id", decisions.get(0).getDataId());
+        assertEquals(3L, decisions.get(1).getSequence().number());
+        assertSame(GraphRequestType.DELETE, decisions.get(1).getRequestType());
+        assertSame(data2, decisions.get(1).getData());
+        assertEquals(3L, decisionMaker.latestDecision().number());
+        verify(bookKeeper).recordAll(decisions);
+    }
+    
+    @Test
+    public void testDecideAll_empty() throws GraphException {
+        assertTrue(decisionMaker.decideAll(new ArrayList<GraphRequestContext>()).isEmpty());
+        
+        verify(bookKeeper, never()).recordAll(anyListOf(Decision.class));
+    }
+    
+    @Test(expected=GraphException.class)
+    public void testDecideAll_READ() throws GraphException {
+        when(context.getRequestType()).thenReturn(GraphRequestType.READ);
+        
+        decisionMaker.decideAll(Arrays.asList(context));
+    }
+    
     @Test
     public void testReadRange() {
         Sequence start = Sequence.valueOf(1L);
@@ -0,0 +1,51 @@
+package org.memgraphd.memory;
+
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+import org.memgraphd.data.ReadWriteData;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ClassSizeEstimatorTest {
+
+    private ClassSizeEstimator estimator;
+
+    @Before
+    public void setUp() {
+        estimator = new ClassSizeEstimator();
+    }
+
+    @Test
+    public void testSizeOf() {
+        assertEquals(0, estimator.sizeOf(null));
+
+        int small = estimator.sizeOf(new ReadWriteData("id", null, null));
+        int large = estimator.sizeOf(new ReadWriteData("a-much-longer-data-id-than-before", null, null));
+        int dated = estimator.sizeOf(new ReadWriteData("id", new DateTime(), new DateTime()));
+
+        assertTrue(small > 0);
+        assertTrue(large > small);
+        assertTrue(dated > small);
+        assertEquals(small, estimator.sizeOf(new ReadWriteData("di", null, null)));
+    }
+
+    @Test
+    public void testSizeOf_arrays() {
+        assertTrue(estimator.sizeOf(new ArrayData(new long[100])) > estimator.sizeOf(new ArrayData(new long[1])));
+        assertEquals(0, estimator.sizeOf(new ArrayData(null)) % 8);
+    }
+
+    private static final class ArrayData extends ReadWriteData {
+        private static final long serialVersionUID = 3326580196452012541L;
+
+        @SuppressWarnings("unused")
+        private final long[] values;
+
+        private ArrayData(long[] values) {
+            super("id", null, null);
+            this.values = values;
+        }
+    }
+}
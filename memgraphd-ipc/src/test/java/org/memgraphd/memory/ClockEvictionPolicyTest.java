@@ -0,0 +1,95 @@
+package org.memgraphd.memory;
+
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+import org.memgraphd.data.Data;
+import org.memgraphd.data.GraphData;
+import org.memgraphd.data.GraphDataImpl;
+import org.memgraphd.data.ReadWriteData;
+import org.memgraphd.data.ReadWriteProtectedData;
+import org.memgraphd.decision.DecisionImpl;
+import org.memgraphd.decision.Sequence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ClockEvictionPolicyTest {
+
+    private MemoryBlock block;
+    private ClockEvictionPolicy policy;
+
+    @Before
+    public void setUp() {
+        block = new MemoryBlockImpl("block", MemoryReference.valueOf(10), MemoryReference.valueOf(13));
+        policy = new ClockEvictionPolicy(block);
+    }
+
+    @Test
+    public void testVictim_empty() {
+        assertNull(policy.victim(block));
+    }
+
+    @Test
+    public void testVictim_otherBlock() {
+        write(10);
+        assertNull(policy.victim(new MemoryBlockImpl("other", MemoryReference.valueOf(0), MemoryReference.valueOf(9))));
+    }
+
+    @Test
+    public void testVictim_notRecentlyAccessed() {
+        for(int id = 10; id <= 13; id++) {
+            write(id);
+        }
+        assertEquals(10, policy.victim(block).id());
+
+        policy.onAccess(MemoryReference.valueOf(11));
+        assertEquals(12, policy.victim(block).id());
+    }
+
+    @Test
+    public void testVictim_allAccessed() {
+        for(int id = 10; id <= 13; id++) {
+            write(id);
+            policy.onAccess(MemoryReference.valueOf(id));
+        }
+        // first sweep clears all access bits and comes back to where it started
+        assertEquals(10, policy.victim(block).id());
+    }
+
+    @Test
+    public void testVictim_updated() {
+        write(10);
+        write(11);
+        write(10);
+        assertEquals(11, policy.victim(block).id());
+    }
+
+    @Test
+    public void testVictim_skipsFreedAndProtected() {
+        write(10);
+        write(11);
+        policy.onWrite(MemoryReference.valueOf(12), graphData(new ReadWriteProtectedData("12", new DateTime(), new DateTime())));
+        policy.onFree(MemoryReference.valueOf(10));
+
+        assertEquals(11, policy.victim(block).id());
+        policy.onFree(MemoryReference.valueOf(11));
+        assertNull(policy.victim(block));
+    }
+
+    @Test
+    public void testOnAccess_outOfBlock() {
+        policy.onAccess(MemoryReference.valueOf(1));
+        policy.onFree(MemoryReference.valueOf(100));
+        assertSame(block, policy.block());
+    }
+
+    private void write(int id) {
+        policy.onWrite(MemoryReference.valueOf(id), graphData(new ReadWriteData(String.valueOf(id), new DateTime(), new DateTime())));
+    }
+
+    static GraphData graphData(Data data) {
+        return new GraphDataImpl(new DecisionImpl(Sequence.valueOf(1), new DateTime(), null, data.getId(), data));
+    }
+}
@@ -0,0 +1,75 @@
+package org.memgraphd.memory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+import org.memgraphd.data.AbstractExpiringData;
+import org.memgraphd.data.Data;
+import org.memgraphd.data.ReadOnlyData;
+import org.memgraphd.data.ReadWriteData;
+import org.memgraphd.data.ReadWriteExpiringData;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class DataClassMemoryBlockResolverTest {
+
+    private DataClassMemoryBlockResolver resolver;
+
+    @Before
+    public void setUp() {
+        Map<Class<? extends Data>, Integer> capacities = new LinkedHashMap<Class<? extends Data>, Integer>();
+        capacities.put(ReadWriteData.class, 10);
+        capacities.put(AbstractExpiringData.class, 10);
+        resolver = new DataClassMemoryBlockResolver(capacities, 5);
+    }
+
+    @Test
+    public void testBlocks() {
+        MemoryBlock[] blocks = resolver.blocks();
+        assertEquals(3, blocks.length);
+        assertEquals(ReadWriteData.class.getName(), blocks[0].name());
+        assertEquals(AbstractExpiringData.class.getName(), blocks[1].name());
+        assertSame(blocks[0], resolver.block(ReadWriteData.class));
+    }
+
+    @Test
+    public void testBlocks_budgets() {
+        Map<Class<? extends Data>, Integer> capacities = new LinkedHashMap<Class<? extends Data>, Integer>();
+        capacities.put(ReadWriteData.class, 10);
+        Map<Class<? extends Data>, Long> budgets = new LinkedHashMap<Class<? extends Data>, Long>();
+        budgets.put(ReadWriteData.class, 1024L);
+        DataClassMemoryBlockResolver budgeted = new DataClassMemoryBlockResolver(capacities, 5, budgets, 0L);
+
+        assertEquals(1024L, budgeted.block(ReadWriteData.class).budget());
+        assertEquals(0L, budgeted.blocks()[1].budget());
+    }
+
+    @Test
+    public void testResolve() {
+        Data data = new ReadWriteData("id", new DateTime(), new DateTime());
+        assertSame(resolver.block(ReadWriteData.class), resolver.resolve(data));
+        // served from cache the second time around
+        assertSame(resolver.block(ReadWriteData.class), resolver.resolve(data));
+    }
+
+    @Test
+    public void testResolve_subClass() {
+        Data data = new ReadWriteExpiringData("id", new DateTime(), new DateTime());
+        assertSame(resolver.block(AbstractExpiringData.class), resolver.resolve(data));
+    }
+
+    @Test
+    public void testResolve_unregisteredClass() {
+        Data data = new ReadOnlyData("id", new DateTime());
+        assertSame(resolver.blocks()[2], resolver.resolve(data));
+    }
+
+    @Test
+    public void testResolve_null() {
+        assertSame(resolver.blocks()[2], resolver.resolve(null));
+    }
+}
@@ -30,6 +30,22 @@ public class DefaultMemoryBlockResolverTest {
         MemoryBlock[] blocks = resolver.blocks();
         assertNotNull(blocks);
         assertEquals(1, blocks.length);
+        assertEquals(100, blocks[0].capacity());
+        assertEquals(99, blocks[0].ceiling().id());
+    }
+
+    @Test
+    public void testBlocks_elastic() {
+        MemoryBlock block = new DefaultMemoryBlockResolver(100, 1000).blocks()[0];
+        assertEquals(100, block.capacity());
+        assertEquals(99, block.endsWith().id());
+        assertEquals(999, block.ceiling().id());
+    }
+
+    @Test
+    public void testBlocks_budget() {
+        assertEquals(0L, resolver.blocks()[0].budget());
+        assertEquals(4096L, new DefaultMemoryBlockResolver(100, 1000, 4096L).blocks()[0].budget());
     }
 
 }
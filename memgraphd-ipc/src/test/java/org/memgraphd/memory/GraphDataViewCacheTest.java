@@ -0,0 +1,108 @@
+package org.memgraphd.memory;
+
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+import org.memgraphd.GraphRequestType;
+import org.memgraphd.data.GraphDataRelationship;
+import org.memgraphd.data.GraphDataImpl;
+import org.memgraphd.data.ReadWriteData;
+import org.memgraphd.decision.DecisionImpl;
+import org.memgraphd.decision.Sequence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class GraphDataViewCacheTest {
+
+    private MemoryAccess access;
+    private GraphDataViewCache cache;
+
+    @Before
+    public void setUp() {
+        access = new MemoryAccess(new MemoryManagerImpl(new DefaultMemoryBlockResolver(10)));
+        cache = new GraphDataViewCache(10);
+    }
+
+    @Test
+    public void testCapacity() {
+        assertEquals(16, cache.capacity());
+        assertEquals(1, new GraphDataViewCache(0).capacity());
+        assertEquals(GraphDataViewCache.MAX_CAPACITY, new GraphDataViewCache(Integer.MAX_VALUE).capacity());
+    }
+
+    @Test
+    public void testGet() {
+        GraphDataView view = view(1, 5L);
+        assertNull(cache.get(1, 5L));
+
+        cache.put(view);
+
+        assertSame(view, cache.get(1, 5L));
+        assertNull(cache.get(1, 6L));
+        assertNull(cache.get(17, 5L));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testPut_replacesSameSlot() {
+        GraphDataView view = view(1, 5L);
+        cache.put(view);
+        GraphDataView other = view(17, 5L);
+
+        cache.put(other);
+
+        assertNull(cache.get(1, 5L));
+        assertSame(other, cache.get(17, 5L));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testRemove() {
+        cache.put(view(1, 5L));
+
+        cache.remove(17);
+        assertEquals(1, cache.size());
+
+        cache.remove(1);
+        assertNull(cache.get(1, 5L));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testPut_releasesReplacedView() {
+        MemoryReference ref1 = write(1);
+        MemoryReference ref2 = write(2);
+        access.link(ref1, ref2);
+        GraphDataView view = new GraphDataView(access, access.read(ref1), 5L);
+        GraphDataRelationship links = view.getLinks();
+        assertSame(links, view.getLinks());
+        cache.put(view);
+
+        cache.put(view(ref1.id() + cache.capacity(), 5L));
+
+        // the views of the neighbors are materialized again
+        assertNotSame(links, view.getLinks());
+        assertEquals(1, view.getLinks().relationships().length);
+    }
+
+    private MemoryReference write(int id) {
+        GraphDataImpl gData = graphData(id);
+        MemoryReference ref = access.write(gData);
+        gData.setRefence(ref);
+        return ref;
+    }
+
+    private GraphDataView view(int id, long version) {
+        GraphDataImpl gData = graphData(id);
+        gData.setRefence(MemoryReference.valueOf(id));
+        return new GraphDataView(access, gData, version);
+    }
+
+    private static GraphDataImpl graphData(int id) {
+        return new GraphDataImpl(new DecisionImpl(Sequence.valueOf(id), new DateTime(),
+                GraphRequestType.CREATE, "id-" + id, new ReadWriteData("id-" + id, new DateTime(), new DateTime())));
+    }
+}
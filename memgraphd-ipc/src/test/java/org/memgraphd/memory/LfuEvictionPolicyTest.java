@@ -0,0 +1,100 @@
+package org.memgraphd.memory;
+
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+import org.memgraphd.data.ReadWriteData;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class LfuEvictionPolicyTest {
+
+    private MemoryBlock block;
+    private LfuEvictionPolicy policy;
+
+    @Before
+    public void setUp() {
+        block = new MemoryBlockImpl("block", MemoryReference.valueOf(0), MemoryReference.valueOf(3));
+        policy = new LfuEvictionPolicy(block);
+    }
+
+    @Test
+    public void testVictim_empty() {
+        assertNull(policy.victim(block));
+    }
+
+    @Test
+    public void testVictim_leastFrequentlyUsed() {
+        for(int id = 0; id <= 3; id++) {
+            write(id);
+        }
+        access(0, 3);
+        access(1, 1);
+        access(3, 2);
+
+        assertEquals(2, policy.victim(block).id());
+    }
+
+    @Test
+    public void testVictim_updateCountsAsUse() {
+        write(0);
+        write(1);
+        write(0);
+
+        assertEquals(1, policy.victim(block).id());
+    }
+
+    @Test
+    public void testVictim_aging() {
+        write(0);
+        write(1);
+        // saturates the counters of 0, sampling the whole block then triggers aging
+        access(0, 4 * 15);
+        access(1, 4);
+
+        assertEquals(1, policy.victim(block).id());
+        // after aging 0 is still used more than 1
+        access(1, 3);
+        assertEquals(1, policy.victim(block).id());
+    }
+
+    @Test
+    public void testVictim_agingOutOfPopularity() {
+        write(0);
+        write(1);
+        access(0, 15);
+        access(1, 3);
+
+        // every pick samples the whole block and halves the counters, 0 goes 15, 7, 3, 1
+        for(int i = 0; i < 3; i++) {
+            assertEquals(1, policy.victim(block).id());
+        }
+        access(1, 2);
+        assertEquals(0, policy.victim(block).id());
+    }
+
+    @Test
+    public void testVictim_newDataIsCountedApart() {
+        write(0);
+        access(0, 10);
+        policy.onFree(MemoryReference.valueOf(0));
+        write(0);
+        write(1);
+        access(1, 2);
+
+        assertEquals(1, policy.frequency(0));
+        assertEquals(0, policy.victim(block).id());
+    }
+
+    private void access(int id, int times) {
+        for(int i = 0; i < times; i++) {
+            policy.onAccess(MemoryReference.valueOf(id));
+        }
+    }
+
+    private void write(int id) {
+        policy.onWrite(MemoryReference.valueOf(id),
+                ClockEvictionPolicyTest.graphData(new ReadWriteData(String.valueOf(id), new DateTime(), new DateTime())));
+    }
+}
@@ -0,0 +1,178 @@
+package org.memgraphd.memory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.memgraphd.GraphRequestType;
+import org.memgraphd.data.Data;
+import org.memgraphd.data.GraphData;
+import org.memgraphd.data.GraphDataImpl;
+import org.memgraphd.data.ReadWriteData;
+import org.memgraphd.data.serializer.JavaDataSerializer;
+import org.memgraphd.decision.DecisionImpl;
+import org.memgraphd.decision.Sequence;
+import org.memgraphd.memory.operation.MemoryLocationOperations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MappedMemoryManagerTest {
+    private static final int CAPACITY = 10;
+
+    private File directory;
+    private MappedMemoryManager manager;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = File.createTempFile("memory", "");
+        directory.delete();
+        manager = open();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if(files != null) {
+            for(File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void testMappedMemoryManager() {
+        assertNotNull(manager);
+        assertTrue(directory.isDirectory());
+        assertEquals(CAPACITY, manager.capacity());
+        assertNull(manager.restoredSequence());
+        assertEquals(0, manager.restoredReferences().length);
+    }
+
+    @Test
+    public void testSave() {
+        MemoryReference ref1 = manager.blocks()[0].next();
+        MemoryReference ref2 = manager.blocks()[0].next();
+        MemoryReference ref3 = manager.blocks()[0].next();
+        write(ref1, "data-1", 1);
+        write(ref2, "data-2", 2);
+        write(ref3, "data-3", 3);
+        ((MemoryLocationOperations) manager.read(ref2)).free();
+        manager.save(Sequence.valueOf(4));
+
+        manager = open();
+
+        assertEquals(Sequence.valueOf(4), manager.restoredSequence());
+        assertEquals(2, manager.restoredReferences().length);
+        assertEquals(ref1, manager.restoredReferences()[0]);
+        assertEquals(ref3, manager.restoredReferences()[1]);
+
+        GraphData gData = manager.read(ref1).data();
+        assertEquals("data-1", gData.getData().getId());
+        assertEquals(Sequence.valueOf(1), gData.getSequence());
+        assertEquals(ref1, gData.getReference());
+        assertEquals("data-3", manager.read(ref3).data().getData().getId());
+        assertNull(manager.read(ref2).data());
+
+        // the hole left by data-2 is handed out first
+        assertEquals(2, manager.occupied());
+        assertEquals(ref2, manager.blocks()[0].next());
+        assertEquals(MemoryReference.valueOf(ref3.id() + 1), manager.blocks()[0].next());
+    }
+
+    @Test
+    public void testSave_thenWrite() {
+        MemoryReference ref = manager.blocks()[0].next();
+        write(ref, "data-1", 1);
+        manager.save(Sequence.valueOf(1));
+        manager = open();
+
+        // written after the restart, the arena must not hand out the chunk of data-1 again
+        write(manager.blocks()[0].next(), "data-2", 2);
+
+        assertEquals("data-1", manager.read(ref).data().getData().getId());
+    }
+
+    @Test
+    public void testOpen_withoutImage() {
+        MemoryReference ref = manager.blocks()[0].next();
+        write(ref, "data-1", 1);
+
+        manager = open();
+
+        assertNull(manager.restoredSequence());
+        assertEquals(0, manager.restoredReferences().length);
+        assertNull(manager.read(ref).data());
+    }
+
+    @Test
+    public void testOpen_imageUsedOnce() {
+        write(manager.blocks()[0].next(), "data-1", 1);
+        manager.save(Sequence.valueOf(1));
+
+        assertNotNull(open().restoredSequence());
+        assertNull(open().restoredSequence());
+    }
+
+    @Test
+    public void testOpen_corruptImage() throws IOException {
+        write(manager.blocks()[0].next(), "data-1", 1);
+        manager.save(Sequence.valueOf(1));
+        RandomAccessFile image = new RandomAccessFile(new File(directory, "memory.image"), "rw");
+        try {
+            image.seek(4);
+            image.writeInt(-1);
+        }
+        finally {
+            image.close();
+        }
+
+        manager = open();
+
+        assertNull(manager.restoredSequence());
+        assertEquals(0, manager.occupied());
+    }
+
+    @Test
+    public void testOpen_differentLayout() {
+        write(manager.blocks()[0].next(), "data-1", 1);
+        manager.save(Sequence.valueOf(1));
+
+        manager = new MappedMemoryManager(new DefaultMemoryBlockResolver(CAPACITY * 2), directory,
+                new JavaDataSerializer(), 1024, 2);
+
+        assertNull(manager.restoredSequence());
+    }
+
+    @Test
+    public void testDiscard() {
+        manager.save(Sequence.valueOf(1));
+        assertTrue(new File(directory, "memory.image").exists());
+
+        manager.discard();
+
+        assertFalse(new File(directory, "memory.image").exists());
+    }
+
+    private MappedMemoryManager open() {
+        return new MappedMemoryManager(new DefaultMemoryBlockResolver(CAPACITY), directory,
+                new JavaDataSerializer(), 1024, 2);
+    }
+
+    private GraphData write(MemoryReference ref, String id, long sequence) {
+        Data data = new ReadWriteData(id, new DateTime(), new DateTime());
+        GraphDataImpl gData = new GraphDataImpl(new DecisionImpl(Sequence.valueOf(sequence), new DateTime(),
+                GraphRequestType.CREATE, id, data));
+        gData.setRefence(ref);
+        ((MemoryLocationOperations) manager.read(ref)).update(gData);
+        return gData;
+    }
+}
@@ -0,0 +1,315 @@
+package org.memgraphd.memory;
+
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+import org.memgraphd.GraphRequestType;
+import org.memgraphd.data.Data;
+import org.memgraphd.data.GraphData;
+import org.memgraphd.data.GraphDataImpl;
+import org.memgraphd.data.ReadWriteData;
+import org.memgraphd.decision.Decision;
+import org.memgraphd.decision.DecisionImpl;
+import org.memgraphd.decision.Sequence;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MemoryAccessTest {
+    private static final int CAPACITY = 10;
+
+    private MemoryManager manager;
+    private MemoryAccess access;
+
+    @Before
+    public void setUp() {
+        manager = new MemoryManagerImpl(new DefaultMemoryBlockResolver(CAPACITY));
+        access = new MemoryAccess(manager);
+    }
+
+    @Test
+    public void testReadGraph_cached() {
+        MemoryReference ref1 = write("id-1", 1);
+        MemoryReference ref2 = write("id-2", 2);
+        access.link(ref1, ref2);
+
+        GraphData gData = access.readGraph(ref1);
+        assertEquals("id-1", gData.getData().getId());
+        assertEquals(ref1, gData.getReference());
+        assertEquals(1, gData.getRelatedData().getLinks().relationships().length);
+
+        assertSame(gData, access.readGraph(ref1));
+        assertSame(gData.getRelatedData().getLinks(), access.readGraph(ref1).getRelatedData().getLinks());
+    }
+
+    @Test
+    public void testReadGraph_cachedMarksRead() {
+        MemoryReference ref = write("id-1", 1);
+        GraphData gData = access.readGraph(ref);
+        MemoryLocation location = manager.read(ref);
+        ReflectionTestUtils.setField(location, "accessed", false);
+
+        assertSame(gData, access.readGraph(ref));
+        assertEquals(Boolean.TRUE, ReflectionTestUtils.getField(location, "accessed"));
+    }
+
+    @Test
+    public void testDecisionOf() {
+        EvictionPolicy policy = mock(EvictionPolicy.class);
+        access = new MemoryAccess(manager, policy);
+        MemoryReference ref = write("id-1", 1);
+        MemoryLocation location = manager.read(ref);
+        ReflectionTestUtils.setField(location, "accessed", false);
+
+        Decision decision = access.decisionOf(ref);
+        assertEquals("id-1", decision.getDataId());
+        assertEquals(Sequence.valueOf(1), decision.getSequence());
+        assertEquals(GraphRequestType.CREATE, decision.getRequestType());
+        assertEquals(Boolean.FALSE, ReflectionTestUtils.getField(location, "accessed"));
+        verify(policy, never()).onAccess(any(MemoryReference.class));
+    }
+
+    @Test
+    public void testReadGraph_bounded() {
+        int capacity = 2 * GraphDataViewCache.MAX_CAPACITY;
+        manager = new MemoryManagerImpl(new DefaultMemoryBlockResolver(capacity));
+        access = new MemoryAccess(manager);
+        MemoryReference first = write("id-0", 0);
+        GraphData firstView = access.readGraph(first);
+        for(int i = 1; i < capacity; i++) {
+            access.readGraph(write("id-" + i, i));
+        }
+
+        GraphDataViewCache views = ((AbstractMemoryManager) manager).views();
+        assertEquals(GraphDataViewCache.MAX_CAPACITY, views.capacity());
+        assertEquals(GraphDataViewCache.MAX_CAPACITY, views.size());
+        // the view of the first data made way for another one, reading it again builds a new one
+        GraphData again = access.readGraph(first);
+        assertNotSame(firstView, again);
+        assertEquals(firstView, again);
+    }
+
+    @Test
+    public void testReadGraph_empty() {
+        assertNull(access.readGraph(MemoryReference.valueOf(1)));
+    }
+
+    @Test
+    public void testReadGraph_navigates() {
+        MemoryReference ref1 = write("id-1", 1);
+        MemoryReference ref2 = write("id-2", 2);
+        MemoryReference ref3 = write("id-3", 3);
+        access.link(ref1, ref2);
+        access.link(ref2, ref3);
+
+        GraphData linked = access.readGraph(ref1).getRelatedData().getLinks().relationships()[0];
+        assertEquals("id-2", linked.getData().getId());
+        assertEquals("id-1", linked.getRelatedData().getReferences().relationships()[0].getData().getId());
+        assertEquals("id-3", linked.getRelatedData().getLinks().relationships()[0].getData().getId());
+        assertNull(linked.getRelatedData().getLinks().relationships()[0].getRelatedData().getLinks());
+    }
+
+    @Test
+    public void testReadGraph_linkChanges() {
+        MemoryReference ref1 = write("id-1", 1);
+        MemoryReference ref2 = write("id-2", 2);
+        GraphData before = access.readGraph(ref1);
+        assertNull(before.getRelatedData().getLinks());
+
+        access.link(ref1, ref2);
+
+        GraphData after = access.readGraph(ref1);
+        assertNotSame(before, after);
+        assertEquals(1, after.getRelatedData().getLinks().relationships().length);
+
+        access.delink(ref1, ref2);
+        assertNull(access.readGraph(ref1).getRelatedData().getLinks());
+        assertNull(access.readGraph(ref2).getRelatedData().getReferences());
+    }
+
+    @Test
+    public void testReadGraph_neighborUpdated() {
+        MemoryReference ref1 = write("id-1", 1);
+        MemoryReference ref2 = write("id-2", 2);
+        access.link(ref1, ref2);
+        GraphData before = access.readGraph(ref1);
+        before.getRelatedData().getLinks();
+
+        access.update(ref2, graphData("id-2", 3, ref2));
+
+        GraphData linked = access.readGraph(ref1).getRelatedData().getLinks().relationships()[0];
+        assertEquals(Sequence.valueOf(3), linked.getSequence());
+    }
+
+    @Test
+    public void testReadGraph_freed() {
+        MemoryReference ref = write("id-1", 1);
+        access.readGraph(ref);
+
+        access.free(ref);
+
+        assertNull(access.readGraph(ref));
+    }
+
+    @Test
+    public void testFootprint() {
+        assertEquals(0L, manager.footprint());
+
+        MemoryReference ref1 = write("id-1", 1);
+        long one = manager.footprint();
+        assertTrue(one > MemoryFootprint.ENTRY_BYTES + MemoryFootprint.MAPPING_BYTES);
+
+        MemoryReference ref2 = write("id-2", 2);
+        assertEquals(2 * one, manager.footprint());
+
+        access.link(ref1, ref2);
+        access.link(ref1, ref2);
+        assertEquals(2 * one + 2 * MemoryFootprint.EDGE_BYTES, manager.footprint());
+
+        access.delinkAll(ref1);
+        assertEquals(2 * one, manager.footprint());
+
+        access.link(ref1, ref2);
+        access.dereferenceAll(ref2);
+        assertEquals(2 * one, manager.footprint());
+
+        access.free(ref1);
+        access.free(ref2);
+        assertEquals(0L, manager.footprint());
+    }
+
+    @Test
+    public void testFootprint_relocate() {
+        MemoryReference ref1 = write("id-1", 1);
+        MemoryReference ref2 = write("id-2", 2);
+        long footprint = manager.footprint();
+        access.free(ref1);
+
+        access.relocate(ref2, ref1);
+        access.free(ref2);
+
+        assertEquals(footprint / 2, manager.footprint());
+    }
+
+    @Test
+    public void testOverBudget() {
+        MemoryBlockImpl block = new MemoryBlockImpl("budgeted", MemoryReference.valueOf(0), MemoryReference.valueOf(9),
+                MemoryReference.valueOf(9), 3 * bytes());
+        access = new MemoryAccess(new MemoryManagerImpl(resolver(block)), new NoEvictionPolicy(), new FixedSizeEstimator());
+        Data data = new ReadWriteData("id", null, null);
+
+        MemoryReference ref = write("id-1", 1);
+        write("id-2", 2);
+        assertFalse(access.overBudget(data, null));
+        assertFalse(access.overBudget(data, ref));
+        assertNull(access.evictionCandidate(data));
+
+        write("id-3", 3);
+        assertTrue(access.overBudget(data, null));
+        // an update only takes what the data it replaces does not
+        assertFalse(access.overBudget(data, ref));
+    }
+
+    @Test
+    public void testEvictionCandidate_overBudget() {
+        MemoryBlockImpl block = new MemoryBlockImpl("budgeted", MemoryReference.valueOf(0), MemoryReference.valueOf(9),
+                MemoryReference.valueOf(9), 2 * bytes());
+        EvictionPolicy evictionPolicy = mock(EvictionPolicy.class);
+        access = new MemoryAccess(new MemoryManagerImpl(resolver(block)), evictionPolicy, new FixedSizeEstimator());
+        Data data = new ReadWriteData("id", null, null);
+        MemoryReference ref = write("id-1", 1);
+        when(evictionPolicy.victim(block)).thenReturn(ref);
+
+        assertNull(access.evictionCandidate(data));
+
+        write("id-2", 2);
+        assertEquals(ref, access.evictionCandidate(data));
+    }
+
+    @Test
+    public void testEvictionCandidate_batch() {
+        MemoryBlockImpl block = new MemoryBlockImpl("small", MemoryReference.valueOf(0), MemoryReference.valueOf(3),
+                MemoryReference.valueOf(3), 0L);
+        EvictionPolicy evictionPolicy = mock(EvictionPolicy.class);
+        access = new MemoryAccess(new MemoryManagerImpl(resolver(block)), evictionPolicy, new FixedSizeEstimator());
+        Data data = new ReadWriteData("id", null, null);
+        MemoryReference ref = write("id-1", 1);
+        write("id-2", 2);
+        when(evictionPolicy.victim(block)).thenReturn(ref);
+
+        assertSame(block, access.blockOf(data));
+        assertNull(access.evictionCandidate(data));
+        assertNull(access.evictionCandidate(block, 2, 0L));
+        // two references left, not three
+        assertEquals(ref, access.evictionCandidate(block, 3, 0L));
+    }
+
+    @Test
+    public void testEvictionCandidate_batchOverBudget() {
+        MemoryBlockImpl block = new MemoryBlockImpl("budgeted", MemoryReference.valueOf(0), MemoryReference.valueOf(9),
+                MemoryReference.valueOf(9), 3 * bytes());
+        EvictionPolicy evictionPolicy = mock(EvictionPolicy.class);
+        access = new MemoryAccess(new MemoryManagerImpl(resolver(block)), evictionPolicy, new FixedSizeEstimator());
+        Data data = new ReadWriteData("id", null, null);
+        MemoryReference ref = write("id-1", 1);
+        when(evictionPolicy.victim(block)).thenReturn(ref);
+
+        assertEquals(bytes(), access.footprintOf(data));
+        assertFalse(access.overBudget(block, 2 * bytes()));
+        assertTrue(access.overBudget(block, 3 * bytes()));
+        assertNull(access.evictionCandidate(block, 2, 2 * bytes()));
+        assertEquals(ref, access.evictionCandidate(block, 3, 3 * bytes()));
+    }
+
+    private static long bytes() {
+        return MemoryFootprint.ENTRY_BYTES + MemoryFootprint.MAPPING_BYTES + FixedSizeEstimator.SIZE;
+    }
+
+    private static MemoryBlockResolver resolver(final MemoryBlock block) {
+        return new MemoryBlockResolver() {
+            @Override
+            public MemoryBlock resolve(Data data) {
+                return block;
+            }
+
+            @Override
+            public MemoryBlock[] blocks() {
+                return new MemoryBlock[] { block };
+            }
+        };
+    }
+
+    private MemoryReference write(String id, long sequence) {
+        GraphDataImpl gData = graphData(id, sequence, null);
+        MemoryReference ref = access.write(gData);
+        gData.setRefence(ref);
+        return ref;
+    }
+
+    private GraphDataImpl graphData(String id, long sequence, MemoryReference ref) {
+        Data data = new ReadWriteData(id, new DateTime(), new DateTime());
+        GraphDataImpl gData = new GraphDataImpl(new DecisionImpl(Sequence.valueOf(sequence), new DateTime(),
+                GraphRequestType.CREATE, id, data));
+        gData.setRefence(ref);
+        return gData;
+    }
+
+    private static final class FixedSizeEstimator implements SizeEstimator {
+        private static final int SIZE = 100;
+
+        @Override
+        public int sizeOf(Data data) {
+            return SIZE;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package org.memgraphd.memory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MemoryAdjacencyTest {
+    private static final int CAPACITY = 100;
+
+    private MemoryAdjacency adjacency;
+
+    @Before
+    public void setUp() {
+        adjacency = new MemoryAdjacency(CAPACITY);
+    }
+
+    @Test
+    public void testMemoryAdjacency() {
+        assertEquals(0, adjacency.linkCount(0));
+        assertEquals(0, adjacency.referenceCount(0));
+        assertArrayEquals(new int[0], adjacency.links(0));
+        assertArrayEquals(new int[0], adjacency.references(0));
+    }
+
+    @Test
+    public void testLink() {
+        assertTrue(adjacency.link(1, 2));
+        assertArrayEquals(new int[] { 2 }, adjacency.links(1));
+        assertArrayEquals(new int[] { 1 }, adjacency.references(2));
+        assertEquals(0, adjacency.referenceCount(1));
+        assertEquals(0, adjacency.linkCount(2));
+    }
+
+    @Test
+    public void testLink_alreadyLinked() {
+        assertTrue(adjacency.link(1, 2));
+        assertFalse(adjacency.link(1, 2));
+        assertEquals(1, adjacency.linkCount(1));
+        assertEquals(1, adjacency.referenceCount(2));
+    }
+
+    @Test
+    public void testLink_self() {
+        assertTrue(adjacency.link(1, 1));
+        assertArrayEquals(new int[] { 1 }, adjacency.links(1));
+        assertArrayEquals(new int[] { 1 }, adjacency.references(1));
+        assertTrue(adjacency.delink(1, 1));
+        assertEquals(0, adjacency.linkCount(1));
+        assertEquals(0, adjacency.referenceCount(1));
+    }
+
+    @Test
+    public void testDelink() {
+        adjacency.link(1, 2);
+        adjacency.link(1, 3);
+        adjacency.link(4, 2);
+
+        assertTrue(adjacency.delink(1, 2));
+        assertFalse(adjacency.delink(1, 2));
+        assertArrayEquals(new int[] { 3 }, adjacency.links(1));
+        assertArrayEquals(new int[] { 4 }, adjacency.references(2));
+        assertArrayEquals(new int[] { 1 }, adjacency.references(3));
+    }
+
+    @Test
+    public void testDelinkAll() {
+        adjacency.link(1, 2);
+        adjacency.link(1, 3);
+        adjacency.link(4, 3);
+
+        adjacency.delinkAll(1);
+
+        assertEquals(0, adjacency.linkCount(1));
+        assertEquals(0, adjacency.referenceCount(2));
+        assertArrayEquals(new int[] { 4 }, adjacency.references(3));
+    }
+
+    @Test
+    public void testDereferenceAll() {
+        adjacency.link(1, 3);
+        adjacency.link(2, 3);
+        adjacency.link(2, 4);
+
+        adjacency.dereferenceAll(3);
+
+        assertEquals(0, adjacency.referenceCount(3));
+        assertEquals(0, adjacency.linkCount(1));
+        assertArrayEquals(new int[] { 4 }, adjacency.links(2));
+        assertArrayEquals(new int[] { 2 }, adjacency.references(4));
+    }
+
+    @Test
+    public void testSuperNode() {
+        // every node links to node 0, then every other one goes away
+        for(int i = 1; i < CAPACITY; i++) {
+            adjacency.link(i, 0);
+        }
+        assertEquals(CAPACITY - 1, adjacency.referenceCount(0));
+
+        for(int i = 1; i < CAPACITY; i += 2) {
+            assertTrue(adjacency.delink(i, 0));
+        }
+        assertEquals(CAPACITY / 2 - 1, adjacency.referenceCount(0));
+        for(int i = 2; i < CAPACITY; i += 2) {
+            assertArrayEquals(new int[] { 0 }, adjacency.links(i));
+            assertTrue(adjacency.delink(i, 0));
+        }
+        assertEquals(0, adjacency.referenceCount(0));
+    }
+
+    @Test
+    public void testSuperNode_dereferenceAll() {
+        for(int i = 1; i < CAPACITY; i++) {
+            adjacency.link(i, 0);
+            adjacency.link(i, i);
+        }
+        adjacency.dereferenceAll(0);
+
+        assertEquals(0, adjacency.referenceCount(0));
+        for(int i = 1; i < CAPACITY; i++) {
+            assertArrayEquals(new int[] { i }, adjacency.links(i));
+            assertArrayEquals(new int[] { i }, adjacency.references(i));
+        }
+    }
+
+    @Test
+    public void testLink_beyondCapacity() {
+        assertEquals(0, adjacency.linkCount(1000));
+        assertArrayEquals(new int[0], adjacency.references(1000));
+
+        assertTrue(adjacency.link(1, 1000));
+
+        assertArrayEquals(new int[] { 1000 }, adjacency.links(1));
+        assertArrayEquals(new int[] { 1 }, adjacency.references(1000));
+    }
+
+    @Test
+    public void testRelocate() {
+        adjacency.link(1, 2);
+        adjacency.link(3, 1);
+        adjacency.link(1, 1);
+
+        adjacency.relocate(1, 150);
+        assertEquals(0, adjacency.linkCount(1));
+        assertEquals(0, adjacency.referenceCount(1));
+        assertEquals(2, adjacency.linkCount(150));
+        assertEquals(2, adjacency.referenceCount(150));
+        assertArrayEquals(new int[] { 150 }, adjacency.references(2));
+        assertArrayEquals(new int[] { 150 }, adjacency.links(3));
+
+        // twins still point at each-other
+        assertTrue(adjacency.delink(150, 150));
+        assertTrue(adjacency.delink(3, 150));
+        adjacency.dereferenceAll(2);
+        assertEquals(0, adjacency.linkCount(150));
+        assertEquals(0, adjacency.referenceCount(150));
+        assertEquals(0, adjacency.linkCount(3));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRelocate_linked() {
+        adjacency.link(1, 2);
+        adjacency.relocate(1, 2);
+    }
+
+    @Test
+    public void testDelink_sameStripe() {
+        // 1, 257 and 513 share a lock stripe
+        adjacency.link(1, 257);
+        adjacency.link(1, 513);
+        adjacency.link(513, 257);
+
+        assertTrue(adjacency.delink(1, 257));
+        adjacency.dereferenceAll(257);
+
+        assertArrayEquals(new int[] { 513 }, adjacency.links(1));
+        assertEquals(0, adjacency.linkCount(513));
+        assertEquals(0, adjacency.referenceCount(257));
+    }
+
+    @Test
+    public void testConcurrentMutation() throws Exception {
+        final int threads = 8;
+        final int nodes = 600;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Void>> futures = new ArrayList<Future<Void>>();
+        for(int t = 0; t < threads; t++) {
+            final Random random = new Random(t);
+            futures.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    for(int i = 0; i < 20000; i++) {
+                        int from = random.nextInt(nodes);
+                        int to = random.nextInt(nodes);
+                        int operation = random.nextInt(20);
+                        if(operation == 0) {
+                            adjacency.delinkAll(from);
+                        }
+                        else if(operation == 1) {
+                            adjacency.dereferenceAll(to);
+                        }
+                        else if(operation < 8) {
+                            adjacency.delink(from, to);
+                        }
+                        else {
+                            adjacency.link(from, to);
+                        }
+                    }
+                    return null;
+                }
+            }));
+        }
+        for(Future<Void> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // every link has its reference and the twins still point at each-other
+        int links = 0;
+        int references = 0;
+        for(int id = 0; id < nodes; id++) {
+            links += adjacency.linkCount(id);
+            references += adjacency.referenceCount(id);
+            for(int to : adjacency.links(id)) {
+                assertTrue(contains(adjacency.references(to), id));
+            }
+        }
+        assertEquals(links, references);
+        for(int id = 0; id < nodes; id++) {
+            adjacency.delinkAll(id);
+        }
+        for(int id = 0; id < nodes; id++) {
+            assertEquals(0, adjacency.referenceCount(id));
+        }
+    }
+
+    private static boolean contains(int[] ids, int id) {
+        for(int i : ids) {
+            if(i == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,354 @@
+package org.memgraphd.memory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class MemoryBlockImplTest {
+
+    private MemoryBlockImpl block;
+    private MemoryBlockImpl elastic;
+
+    @Before
+    public void setUp() {
+        block = new MemoryBlockImpl("block", MemoryReference.valueOf(0), MemoryReference.valueOf(1));
+        elastic = new MemoryBlockImpl("elastic", MemoryReference.valueOf(10), MemoryReference.valueOf(11),
+                MemoryReference.valueOf(14));
+    }
+
+    @Test
+    public void testMemoryBlockImpl() {
+        assertEquals("block", block.name());
+        assertEquals(2, block.capacity());
+        assertEquals(0, block.occupied());
+        assertEquals(2, block.available());
+        assertEquals(0, block.recycled());
+        assertEquals(1, block.segments());
+        assertEquals(0, block.growths());
+        assertSame(block.endsWith(), block.ceiling());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMemoryBlockImpl_invalidRange() {
+        new MemoryBlockImpl("block", MemoryReference.valueOf(1), MemoryReference.valueOf(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMemoryBlockImpl_invalidCeiling() {
+        new MemoryBlockImpl("block", MemoryReference.valueOf(0), MemoryReference.valueOf(2), MemoryReference.valueOf(1));
+    }
+
+    @Test
+    public void testNext() {
+        assertEquals(0, block.next().id());
+        assertEquals(1, block.next().id());
+        assertEquals(2, block.occupied());
+        assertEquals(0, block.available());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNext_full() {
+        block.next();
+        block.next();
+        block.next();
+    }
+
+    @Test
+    public void testNext_fullButRecycled() {
+        MemoryReference first = block.next();
+        block.next();
+        block.recycle(first);
+
+        assertEquals(1, block.available());
+        assertSame(first, block.next());
+        assertEquals(2, block.occupied());
+    }
+
+    @Test
+    public void testNext_grows() {
+        assertEquals(10, elastic.next().id());
+        assertEquals(11, elastic.next().id());
+        assertEquals(12, elastic.next().id());
+
+        assertEquals(4, elastic.capacity());
+        assertEquals(13, elastic.endsWith().id());
+        assertEquals(2, elastic.segments());
+        assertEquals(1, elastic.growths());
+        assertEquals(3, elastic.occupied());
+        assertEquals(1, elastic.available());
+    }
+
+    @Test
+    public void testNext_growsUpToCeiling() {
+        for(int id = 10; id <= 14; id++) {
+            assertEquals(id, elastic.next().id());
+        }
+        assertEquals(5, elastic.capacity());
+        assertSame(elastic.ceiling(), elastic.endsWith());
+        assertEquals(3, elastic.segments());
+        assertEquals(2, elastic.growths());
+        assertEquals(0, elastic.available());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNext_fullAtCeiling() {
+        for(int id = 10; id <= 15; id++) {
+            elastic.next();
+        }
+    }
+
+    @Test
+    public void testNext_claimsRunPerThread() throws Exception {
+        MemoryBlockImpl large = new MemoryBlockImpl("large", MemoryReference.valueOf(0), MemoryReference.valueOf(99));
+        assertEquals(0, large.next().id());
+
+        assertEquals(MemoryBlockImpl.RUN_SIZE, inOtherThread(large).id());
+        assertEquals(1, large.next().id());
+        assertEquals(3, large.occupied());
+        assertEquals(97, large.available());
+    }
+
+    @Test
+    public void testNext_stealsWhenFull() throws Exception {
+        MemoryBlockImpl small = new MemoryBlockImpl("small", MemoryReference.valueOf(0),
+                MemoryReference.valueOf(MemoryBlockImpl.RUN_SIZE));
+        // the other thread claims a whole run and leaves it behind
+        inOtherThread(small);
+        assertEquals(MemoryBlockImpl.RUN_SIZE, small.next().id());
+        assertEquals(MemoryBlockImpl.RUN_SIZE - 1, small.available());
+
+        for(int i = 1; i < MemoryBlockImpl.RUN_SIZE; i++) {
+            small.next();
+        }
+        assertEquals(0, small.available());
+        assertEquals(MemoryBlockImpl.RUN_SIZE + 1, small.occupied());
+    }
+
+    @Test
+    public void testRecycle_spills() throws Exception {
+        int size = MemoryBlockImpl.RUN_SIZE * 4;
+        final MemoryBlockImpl large = new MemoryBlockImpl("large", MemoryReference.valueOf(0),
+                MemoryReference.valueOf(size - 1));
+        for(int i = 0; i < size; i++) {
+            large.next();
+        }
+        for(int i = 0; i < size; i++) {
+            large.recycle(MemoryReference.valueOf(i));
+        }
+        assertEquals(size, large.recycled());
+        assertEquals(size, large.available());
+        assertEquals(0, large.occupied());
+
+        // spilled references are visible to other threads
+        assertTrue(inOtherThread(large).id() < size);
+        assertEquals(size - 1, large.recycled());
+    }
+
+    @Test
+    public void testNext_concurrent() throws Exception {
+        final int threads = 8;
+        final int perThread = 1000;
+        final MemoryBlockImpl shared = new MemoryBlockImpl("shared", MemoryReference.valueOf(0),
+                MemoryReference.valueOf(999), MemoryReference.valueOf(threads * perThread - 1));
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<List<MemoryReference>>> futures = new ArrayList<Future<List<MemoryReference>>>();
+        for(int t = 0; t < threads; t++) {
+            futures.add(executor.submit(new Callable<List<MemoryReference>>() {
+                @Override
+                public List<MemoryReference> call() throws Exception {
+                    List<MemoryReference> refs = new ArrayList<MemoryReference>();
+                    for(int i = 0; i < perThread; i++) {
+                        MemoryReference ref = shared.next();
+                        if(i % 3 == 0) {
+                            shared.recycle(ref);
+                        }
+                        else {
+                            refs.add(ref);
+                        }
+                    }
+                    return refs;
+                }
+            }));
+        }
+        Set<Integer> ids = new HashSet<Integer>();
+        int allocated = 0;
+        for(Future<List<MemoryReference>> future : futures) {
+            for(MemoryReference ref : future.get()) {
+                assertTrue(ids.add(ref.id()));
+                allocated++;
+            }
+        }
+        executor.shutdown();
+        assertEquals(allocated, shared.occupied());
+        assertEquals(shared.capacity() - allocated, shared.available());
+    }
+
+    private MemoryReference inOtherThread(final MemoryBlockImpl memoryBlock) throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            return executor.submit(new Callable<MemoryReference>() {
+                @Override
+                public MemoryReference call() throws Exception {
+                    return memoryBlock.next();
+                }
+            }).get();
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testCompact() {
+        MemoryBlockImpl large = new MemoryBlockImpl("large", MemoryReference.valueOf(0), MemoryReference.valueOf(99));
+        Map<Integer, Integer> stored = new HashMap<Integer, Integer>();
+        for(int i = 0; i < 10; i++) {
+            stored.put(large.next().id(), i);
+        }
+        // free 1, 3, 5 and 7
+        for(int id = 1; id < 8; id += 2) {
+            stored.remove(id);
+            large.recycle(MemoryReference.valueOf(id));
+        }
+        FakeRelocator relocator = new FakeRelocator(stored, large);
+
+        assertEquals(2, large.compact(2, relocator));
+        assertEquals(6, large.occupied());
+        assertTrue(stored.containsKey(1));
+        assertTrue(stored.containsKey(3));
+        assertEquals(Integer.valueOf(9), stored.get(1));
+        assertEquals(Integer.valueOf(8), stored.get(3));
+
+        assertEquals(1, large.compact(10, relocator));
+        assertEquals(6, large.occupied());
+        assertEquals(Integer.valueOf(6), stored.get(5));
+
+        // the top of the block was given back, data is dense again
+        for(int id = 0; id < 6; id++) {
+            assertTrue(stored.containsKey(id));
+        }
+        assertEquals(0, large.recycled());
+        assertEquals(94, large.available());
+        assertEquals(6, large.next().id());
+        assertEquals(0, large.compact(10, relocator));
+    }
+
+    @Test
+    public void testCompact_skipsEmptyLocations() {
+        MemoryBlockImpl large = new MemoryBlockImpl("large", MemoryReference.valueOf(0), MemoryReference.valueOf(99));
+        Map<Integer, Integer> stored = new HashMap<Integer, Integer>();
+        for(int i = 0; i < 4; i++) {
+            stored.put(large.next().id(), i);
+        }
+        // handed out but not written yet
+        MemoryReference inFlight = large.next();
+        large.recycle(MemoryReference.valueOf(0));
+        stored.remove(0);
+
+        assertEquals(1, large.compact(10, new FakeRelocator(stored, large)));
+        assertEquals(Integer.valueOf(3), stored.get(0));
+        assertEquals(5 - 1, large.occupied());
+        assertTrue(large.next().id() != inFlight.id());
+    }
+
+    private static final class FakeRelocator implements MemoryRelocator {
+        private final Map<Integer, Integer> stored;
+        private final MemoryBlock block;
+
+        private FakeRelocator(Map<Integer, Integer> stored, MemoryBlock block) {
+            this.stored = stored;
+            this.block = block;
+        }
+
+        @Override
+        public boolean relocate(MemoryReference from, MemoryReference to) {
+            assertTrue(from.id() > to.id());
+            assertTrue(!stored.containsKey(to.id()));
+            Integer value = stored.remove(from.id());
+            if(value == null) {
+                return false;
+            }
+            stored.put(to.id(), value);
+            block.recycle(from);
+            return true;
+        }
+    }
+
+    @Test
+    public void testRetain() {
+        MemoryReference ref1 = elastic.next();
+        MemoryReference ref2 = elastic.next();
+        elastic.retain(ref1, 100);
+        elastic.retain(ref2, 50);
+        assertEquals(150L, elastic.footprint());
+        assertEquals(100, elastic.retained(ref1));
+
+        elastic.retain(ref1, 80);
+        assertEquals(130L, elastic.footprint());
+
+        elastic.recycle(ref1);
+        assertEquals(50L, elastic.footprint());
+        assertEquals(0, elastic.retained(ref1));
+        assertEquals(0, elastic.retained(MemoryReference.valueOf(14)));
+    }
+
+    @Test
+    public void testRetain_block() {
+        elastic.retain(16L);
+        elastic.retain(-8L);
+        assertEquals(8L, elastic.footprint());
+    }
+
+    @Test
+    public void testStats_unclaimedRun() {
+        MemoryBlockImpl large = new MemoryBlockImpl("large", MemoryReference.valueOf(0), MemoryReference.valueOf(99));
+        MemoryReference ref = large.next();
+        // the rest of the run claimed by this thread is still available
+        assertEquals(1, large.occupied());
+        assertEquals(99, large.available());
+
+        large.recycle(ref);
+        assertEquals(0, large.occupied());
+        assertEquals(1, large.recycled());
+        assertEquals(100, large.available());
+
+        assertEquals(ref, large.next());
+        assertEquals(0, large.recycled());
+    }
+
+    @Test
+    public void testFits() {
+        assertEquals(0L, elastic.budget());
+        assertTrue(elastic.fits(Long.MAX_VALUE / 2));
+
+        MemoryBlockImpl budgeted = new MemoryBlockImpl("budgeted", MemoryReference.valueOf(0), MemoryReference.valueOf(9),
+                MemoryReference.valueOf(9), 100L);
+        assertEquals(100L, budgeted.budget());
+        assertTrue(budgeted.fits(100L));
+        assertFalse(budgeted.fits(101L));
+
+        budgeted.retain(budgeted.next(), 60);
+        assertTrue(budgeted.fits(40L));
+        assertFalse(budgeted.fits(41L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMemoryBlockImpl_invalidBudget() {
+        new MemoryBlockImpl("block", MemoryReference.valueOf(0), MemoryReference.valueOf(1), MemoryReference.valueOf(1), -1L);
+    }
+}
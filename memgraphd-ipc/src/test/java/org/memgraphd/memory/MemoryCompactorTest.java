@@ -0,0 +1,60 @@
+package org.memgraphd.memory;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class MemoryCompactorTest {
+
+    private MemoryCompactor compactor;
+    private MemoryBlockImpl block;
+
+    @Mock
+    private MemoryManager memoryManager;
+
+    @Mock
+    private MemoryRelocator relocator;
+
+    @Before
+    public void setUp() {
+        block = new MemoryBlockImpl("block", MemoryReference.valueOf(0), MemoryReference.valueOf(9));
+        when(memoryManager.blocks()).thenReturn(new MemoryBlock[] { block });
+        compactor = new MemoryCompactor(memoryManager, relocator, 10L, 1);
+    }
+
+    @Test
+    public void testCompact() {
+        block.next();
+        block.next();
+        block.recycle(MemoryReference.valueOf(0));
+        when(relocator.relocate(MemoryReference.valueOf(1), MemoryReference.valueOf(0))).thenReturn(true);
+
+        assertEquals(1, compactor.compact());
+        verify(relocator).relocate(MemoryReference.valueOf(1), MemoryReference.valueOf(0));
+    }
+
+    @Test
+    public void testCompact_nothingRecycled() {
+        block.next();
+
+        assertEquals(0, compactor.compact());
+        verify(relocator, never()).relocate(any(MemoryReference.class), any(MemoryReference.class));
+    }
+
+    @Test
+    public void testOnStartupOnShutdown() {
+        compactor.onStartup();
+        compactor.onStartup();
+        compactor.onShutdown();
+        compactor.onShutdown();
+    }
+}
@@ -0,0 +1,202 @@
+package org.memgraphd.memory;
+
+import java.lang.ref.WeakReference;
+import java.util.zip.Deflater;
+
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+import org.memgraphd.GraphRequestType;
+import org.memgraphd.data.Data;
+import org.memgraphd.data.GraphData;
+import org.memgraphd.data.GraphDataImpl;
+import org.memgraphd.data.ReadWriteData;
+import org.memgraphd.data.library.Category;
+import org.memgraphd.data.library.CategoryImpl;
+import org.memgraphd.data.library.DataPredicate;
+import org.memgraphd.data.library.DefaultLibrary;
+import org.memgraphd.data.library.LibrarySection;
+import org.memgraphd.data.library.LibrarySectionImpl;
+import org.memgraphd.data.serializer.JavaDataSerializer;
+import org.memgraphd.decision.Decision;
+import org.memgraphd.decision.DecisionImpl;
+import org.memgraphd.decision.Sequence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class MemoryDeflaterTest {
+    private static final int CAPACITY = 10;
+
+    private MemoryManager manager;
+    private MemoryAccess access;
+    private DefaultLibrary library;
+    private MemoryDeflater deflater;
+
+    @Before
+    public void setUp() {
+        manager = new MemoryManagerImpl(new DefaultMemoryBlockResolver(CAPACITY));
+        access = new MemoryAccess(manager);
+        library = new DefaultLibrary(new LibrarySection[] { new LibrarySectionImpl("archived",
+                new Category[] { new CategoryImpl("archived", new ArchivedPredicate()) }) });
+        deflater = new MemoryDeflater(manager, library, new JavaDataSerializer(), 10L, Deflater.BEST_SPEED);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testMemoryDeflater_offHeap() {
+        new MemoryDeflater(mock(MemoryManager.class), library);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testMemoryDeflater_invalidWindow() {
+        new MemoryDeflater(manager, library, new JavaDataSerializer(), 0L, Deflater.BEST_SPEED);
+    }
+
+    @Test
+    public void testSweep() {
+        MemoryReference ref1 = write("id-1", 1);
+        MemoryReference ref2 = write("id-2", 2);
+
+        // just written, they get a whole window before going cold
+        assertEquals(0, deflater.sweep());
+        access.read(ref2);
+
+        assertEquals(1, deflater.sweep());
+        assertTrue(location(ref1).isDeflated());
+        assertFalse(location(ref2).isDeflated());
+        assertEquals(1, deflater.cold());
+        assertEquals(1, deflater.hot());
+        assertEquals(0.5d, deflater.coldRatio(), 0d);
+
+        assertEquals(1, deflater.sweep());
+        assertEquals(2, deflater.cold());
+        assertEquals(0, deflater.sweep());
+    }
+
+    @Test
+    public void testSweep_dropsDeflatedData() {
+        MemoryReference ref = write("id-1", 1);
+        WeakReference<GraphData> inflated = new WeakReference<GraphData>(location(ref).data());
+        deflater.sweep();
+        deflater.sweep();
+        assertTrue(location(ref).isDeflated());
+
+        // nothing holds on to the inflated data once it is deflated
+        for(int i = 0; i < 10 && inflated.get() != null; i++) {
+            System.gc();
+        }
+        assertNull(inflated.get());
+    }
+
+    @Test
+    public void testSweep_skipsLibraryData() {
+        MemoryReference archived = write("archived-1", 1);
+        MemoryReference ref = write("id-2", 2);
+        library.archive(location(archived).data());
+        deflater.sweep();
+
+        assertEquals(1, deflater.sweep());
+        assertFalse(location(archived).isDeflated());
+        assertTrue(location(ref).isDeflated());
+        assertEquals(1, deflater.cold());
+        assertEquals(1, deflater.hot());
+        assertEquals(0, deflater.sweep());
+    }
+
+    @Test
+    public void testInflate() {
+        DateTime time = new DateTime();
+        MemoryReference ref = write("id-1", 1, time);
+        deflater.sweep();
+        deflater.sweep();
+
+        GraphData gData = access.read(ref);
+        assertFalse(location(ref).isDeflated());
+        assertEquals("id-1", gData.getData().getId());
+        assertEquals(Sequence.valueOf(1), gData.getSequence());
+        assertEquals(ref, gData.getReference());
+        assertEquals(time, ((GraphDataImpl) gData).getDecision().getTime());
+        assertEquals(GraphRequestType.CREATE, ((GraphDataImpl) gData).getDecision().getRequestType());
+        assertEquals(0, deflater.cold());
+        assertEquals(1, deflater.inflations());
+        assertTrue(deflater.averageInflateNanos() > 0);
+    }
+
+    @Test
+    public void testDecisionOf() {
+        DateTime time = new DateTime();
+        MemoryReference ref = write("id-1", 1, time);
+        deflater.sweep();
+        deflater.sweep();
+
+        Decision decision = access.decisionOf(ref);
+        assertEquals("id-1", decision.getDataId());
+        assertEquals(Sequence.valueOf(1), decision.getSequence());
+        assertEquals(time, decision.getTime());
+        assertEquals(GraphRequestType.CREATE, decision.getRequestType());
+        assertEquals("id-1", decision.getData().getId());
+        // a copy, the data stays cold
+        assertTrue(location(ref).isDeflated());
+        assertEquals(1, deflater.cold());
+        assertEquals(0, deflater.inflations());
+    }
+
+    @Test
+    public void testDiscard() {
+        MemoryReference ref1 = write("id-1", 1);
+        MemoryReference ref2 = write("id-2", 2);
+        deflater.sweep();
+        assertEquals(2, deflater.sweep());
+
+        access.free(ref1);
+        access.update(ref2, graphData("id-2", 3, new DateTime()));
+        assertNull(access.read(ref1));
+        assertFalse(location(ref2).isDeflated());
+        assertEquals(0, deflater.cold());
+        assertEquals(0, deflater.inflations());
+    }
+
+    @Test
+    public void testColdRatio_empty() {
+        assertEquals(0d, deflater.coldRatio(), 0d);
+        assertEquals(0L, deflater.averageInflateNanos());
+    }
+
+    @Test
+    public void testOnStartupOnShutdown() {
+        deflater.onStartup();
+        deflater.onStartup();
+        deflater.onShutdown();
+        deflater.onShutdown();
+    }
+
+    private MemoryLocationImpl location(MemoryReference ref) {
+        return (MemoryLocationImpl) manager.read(ref);
+    }
+
+    private MemoryReference write(String id, long sequence) {
+        return write(id, sequence, new DateTime());
+    }
+
+    private MemoryReference write(String id, long sequence, DateTime time) {
+        GraphDataImpl gData = graphData(id, sequence, time);
+        MemoryReference ref = access.write(gData);
+        gData.setRefence(ref);
+        return ref;
+    }
+
+    private GraphDataImpl graphData(String id, long sequence, DateTime time) {
+        Data data = new ReadWriteData(id, time, time);
+        return new GraphDataImpl(new DecisionImpl(Sequence.valueOf(sequence), time, GraphRequestType.CREATE, id, data));
+    }
+
+    private static final class ArchivedPredicate implements DataPredicate {
+        @Override
+        public boolean apply(GraphData data) {
+            return data.getData().getId().startsWith("archived");
+        }
+    }
+}
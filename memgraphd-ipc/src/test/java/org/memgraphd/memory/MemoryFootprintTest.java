@@ -0,0 +1,28 @@
+package org.memgraphd.memory;
+
+import org.joda.time.DateTime;
+import org.junit.Test;
+import org.memgraphd.data.GraphData;
+import org.memgraphd.data.ReadWriteData;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MemoryFootprintTest {
+
+    @Test
+    public void testOf() {
+        SizeEstimator estimator = mock(SizeEstimator.class);
+        assertEquals(0, MemoryFootprint.of((GraphData) null, estimator));
+
+        ReadWriteData data = new ReadWriteData("id", new DateTime(), new DateTime());
+        GraphData gData = mock(GraphData.class);
+        when(gData.getData()).thenReturn(data);
+        when(estimator.sizeOf(data)).thenReturn(100);
+
+        assertEquals(MemoryFootprint.ENTRY_BYTES + MemoryFootprint.MAPPING_BYTES + 100,
+                MemoryFootprint.of(gData, estimator));
+        assertEquals(MemoryFootprint.of(gData, estimator), MemoryFootprint.of(data, estimator));
+    }
+}
@@ -0,0 +1,84 @@
+package org.memgraphd.memory;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class MemoryManagerImplTest {
+    private static final int CAPACITY = MemoryManagerImpl.PAGE_SIZE * 3 + 10;
+
+    private MemoryManagerImpl manager;
+    private MemoryBlockResolver resolver;
+
+    @Before
+    public void setUp() {
+        resolver = new DefaultMemoryBlockResolver(CAPACITY);
+        manager = new MemoryManagerImpl(resolver);
+    }
+
+    @Test
+    public void testMemoryManagerImpl() {
+        assertNotNull(manager);
+        assertEquals(CAPACITY, manager.capacity());
+        assertSame(resolver, manager.resolver());
+        assertEquals(0, manager.allocatedPages());
+    }
+
+    @Test
+    public void testRead() {
+        MemoryReference ref = resolver.blocks()[0].next();
+        MemoryLocation location = manager.read(ref);
+
+        assertNotNull(location);
+        assertSame(ref, location.reference());
+        assertSame(resolver.blocks()[0], location.block());
+        assertNull(location.data());
+        assertSame(location, manager.read(ref));
+        assertEquals(1, manager.allocatedPages());
+    }
+
+    @Test
+    public void testRead_lastPage() {
+        MemoryReference ref = MemoryReference.valueOf(CAPACITY - 1);
+        MemoryLocation location = manager.read(ref);
+
+        assertSame(ref, location.reference());
+        assertSame(resolver.blocks()[0], location.block());
+        assertEquals(1, manager.allocatedPages());
+    }
+
+    @Test
+    public void testAllocated() {
+        assertNull(manager.allocated(0));
+
+        MemoryLocation location = manager.read(MemoryReference.valueOf(0));
+        assertSame(location, manager.allocated(0));
+        assertNull(manager.allocated(MemoryManagerImpl.PAGE_SIZE));
+    }
+
+    @Test
+    public void testCapacity_grows() {
+        MemoryManagerImpl elastic = new MemoryManagerImpl(new DefaultMemoryBlockResolver(2, 4));
+        MemoryBlock block = elastic.blocks()[0];
+        block.next();
+        block.next();
+        MemoryReference ref = block.next();
+
+        assertEquals(4, elastic.capacity());
+        assertEquals(4, elastic.addressSpace());
+        assertEquals(2, elastic.segments());
+        assertEquals(1, elastic.growths());
+        assertEquals(3, elastic.occupied());
+        assertEquals(1, elastic.available());
+        assertSame(block, elastic.read(ref).block());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRead_outOfBounds() {
+        manager.read(MemoryReference.valueOf(CAPACITY));
+    }
+}
@@ -0,0 +1,129 @@
+package org.memgraphd.memory;
+
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+import org.memgraphd.GraphRequestType;
+import org.memgraphd.data.Data;
+import org.memgraphd.data.GraphData;
+import org.memgraphd.data.GraphDataImpl;
+import org.memgraphd.data.ReadWriteData;
+import org.memgraphd.data.serializer.JavaDataSerializer;
+import org.memgraphd.decision.DecisionImpl;
+import org.memgraphd.decision.Sequence;
+import org.memgraphd.memory.operation.MemoryLocationOperations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class OffHeapMemoryManagerTest {
+    private static final int CAPACITY = 10;
+
+    private OffHeapMemoryManager manager;
+    private MemoryBlockResolver resolver;
+
+    @Before
+    public void setUp() {
+        resolver = new DefaultMemoryBlockResolver(CAPACITY);
+        manager = new OffHeapMemoryManager(resolver, new JavaDataSerializer(), 1024, 2);
+    }
+
+    @Test
+    public void testOffHeapMemoryManager() {
+        assertNotNull(manager);
+        assertEquals(CAPACITY, manager.capacity());
+        assertSame(resolver, manager.resolver());
+        assertEquals(0L, manager.reservedBytes());
+        assertEquals(0L, manager.usedBytes());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOffHeapMemoryManager_invalidHotCacheSize() {
+        new OffHeapMemoryManager(resolver, new JavaDataSerializer(), 1024, 3);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOffHeapMemoryManager_invalidPageSize() {
+        new OffHeapMemoryManager(resolver, new JavaDataSerializer(), 1000, 2);
+    }
+
+    @Test
+    public void testRead_empty() {
+        MemoryLocation location = manager.read(MemoryReference.valueOf(1));
+        assertNotNull(location);
+        assertEquals(MemoryReference.valueOf(1), location.reference());
+        assertSame(resolver.blocks()[0], location.block());
+        assertNull(location.data());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRead_outOfBounds() {
+        manager.read(MemoryReference.valueOf(CAPACITY + 1));
+    }
+
+    @Test
+    public void testUpdate() {
+        MemoryReference ref = MemoryReference.valueOf(1);
+        GraphData gData = write(ref, "data-1", 1);
+
+        assertSame(gData, manager.read(ref).data());
+        assertTrue(manager.usedBytes() > 0);
+        assertEquals(1024L, manager.reservedBytes());
+    }
+
+    @Test
+    public void testUpdate_deserializeOnDemand() {
+        MemoryReference ref1 = MemoryReference.valueOf(1);
+        MemoryReference ref3 = MemoryReference.valueOf(3);
+        GraphData gData = write(ref1, "data-1", 1);
+        // evicts data-1 out of the hot cache, since it is sharing the same cache entry
+        write(ref3, "data-3", 3);
+
+        GraphData copy = manager.read(ref1).data();
+        assertNotSame(gData, copy);
+        assertEquals(gData, copy);
+        assertEquals("data-1", copy.getData().getId());
+        assertEquals(gData.getData().getCreatedDate(), copy.getData().getCreatedDate());
+        assertEquals(Sequence.valueOf(1), copy.getSequence());
+        assertEquals(ref1, copy.getReference());
+
+        // now it is served from the hot cache
+        assertSame(copy, manager.read(ref1).data());
+    }
+
+    @Test
+    public void testUpdate_overwrite() {
+        MemoryReference ref = MemoryReference.valueOf(1);
+        write(ref, "data-1", 1);
+        long used = manager.usedBytes();
+        GraphData gData = write(ref, "data-1", 2);
+
+        assertSame(gData, manager.read(ref).data());
+        assertEquals(used, manager.usedBytes());
+    }
+
+    @Test
+    public void testFree() {
+        MemoryReference ref = resolver.blocks()[0].next();
+        write(ref, "data-1", 1);
+
+        ((MemoryLocationOperations) manager.read(ref)).free();
+
+        assertNull(manager.read(ref).data());
+        assertEquals(0L, manager.usedBytes());
+        assertEquals(1, manager.recycled());
+    }
+
+    private GraphData write(MemoryReference ref, String id, long sequence) {
+        Data data = new ReadWriteData(id, new DateTime(), new DateTime());
+        GraphDataImpl gData = new GraphDataImpl(new DecisionImpl(Sequence.valueOf(sequence), new DateTime(),
+                GraphRequestType.CREATE, id, data));
+        gData.setRefence(ref);
+        ((MemoryLocationOperations) manager.read(ref)).update(gData);
+        return gData;
+    }
+}
@@ -0,0 +1,122 @@
+package org.memgraphd.memory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.memgraphd.data.Data;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PartitionedMemoryBlockResolverTest {
+
+    private PartitionedMemoryBlockResolver resolver;
+
+    @Mock
+    private MemoryBlockClassifier classifier;
+
+    @Mock
+    private Data data;
+
+    @Before
+    public void setUp() {
+        Map<String, Integer> capacities = new LinkedHashMap<String, Integer>();
+        capacities.put("movies", 10);
+        capacities.put("actors", 20);
+        resolver = new PartitionedMemoryBlockResolver(classifier, capacities, 5);
+    }
+
+    @Test
+    public void testBlocks() {
+        MemoryBlock[] blocks = resolver.blocks();
+        assertEquals(3, blocks.length);
+
+        assertEquals("movies", blocks[0].name());
+        assertEquals(0, blocks[0].startsWith().id());
+        assertEquals(9, blocks[0].endsWith().id());
+        assertEquals(10, blocks[0].capacity());
+
+        assertEquals("actors", blocks[1].name());
+        assertEquals(10, blocks[1].startsWith().id());
+        assertEquals(29, blocks[1].endsWith().id());
+
+        assertEquals(DefaultMemoryBlockResolver.DEFAULT_MEMORYBLOCK_NAME, blocks[2].name());
+        assertEquals(30, blocks[2].startsWith().id());
+        assertEquals(34, blocks[2].endsWith().id());
+    }
+
+    @Test
+    public void testBlocks_budgets() {
+        assertEquals(0L, resolver.blocks()[0].budget());
+
+        Map<String, Integer> capacities = new LinkedHashMap<String, Integer>();
+        capacities.put("movies", 10);
+        capacities.put("actors", 20);
+        Map<String, Long> budgets = new LinkedHashMap<String, Long>();
+        budgets.put("actors", 2048L);
+        MemoryBlock[] blocks = new PartitionedMemoryBlockResolver(classifier, capacities, 5, budgets, 512L).blocks();
+
+        assertEquals(0L, blocks[0].budget());
+        assertEquals(2048L, blocks[1].budget());
+        assertEquals(512L, blocks[2].budget());
+    }
+
+    @Test
+    public void testBlock() {
+        assertSame(resolver.blocks()[1], resolver.block("actors"));
+        assertNull(resolver.block("unknown"));
+    }
+
+    @Test
+    public void testResolve() {
+        when(classifier.classify(data)).thenReturn("actors");
+        assertSame(resolver.block("actors"), resolver.resolve(data));
+    }
+
+    @Test
+    public void testResolve_unclassified() {
+        when(classifier.classify(data)).thenReturn(null);
+        assertSame(resolver.blocks()[2], resolver.resolve(data));
+    }
+
+    @Test
+    public void testResolve_unknownBlock() {
+        when(classifier.classify(data)).thenReturn("unknown");
+        assertSame(resolver.blocks()[2], resolver.resolve(data));
+    }
+
+    @Test
+    public void testMemoryManager() {
+        MemoryManager manager = new MemoryManagerImpl(resolver);
+        when(classifier.classify(data)).thenReturn("actors");
+        resolver.resolve(data).next();
+
+        assertEquals(35, manager.capacity());
+        assertEquals(1, manager.occupied());
+        assertEquals(1, resolver.block("actors").occupied());
+        assertSame(resolver.block("actors"), manager.read(MemoryReference.valueOf(10)).block());
+        assertSame(resolver.blocks()[2], manager.read(MemoryReference.valueOf(34)).block());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPartitionedMemoryBlockResolver_reservedName() {
+        Map<String, Integer> capacities = new LinkedHashMap<String, Integer>();
+        capacities.put(DefaultMemoryBlockResolver.DEFAULT_MEMORYBLOCK_NAME, 10);
+        new PartitionedMemoryBlockResolver(classifier, capacities, 5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPartitionedMemoryBlockResolver_invalidCapacity() {
+        Map<String, Integer> capacities = new LinkedHashMap<String, Integer>();
+        capacities.put("movies", 0);
+        new PartitionedMemoryBlockResolver(classifier, capacities, 5);
+    }
+}
@@ -0,0 +1,43 @@
+package org.memgraphd.memory;
+
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+import org.memgraphd.data.Data;
+import org.memgraphd.data.ReadWriteData;
+import org.memgraphd.data.serializer.DataSerializer;
+import org.memgraphd.data.serializer.JavaDataSerializer;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SerializedSizeEstimatorTest {
+
+    private DataSerializer<byte[]> serializer;
+    private SerializedSizeEstimator estimator;
+
+    @Before
+    public void setUp() {
+        serializer = new JavaDataSerializer();
+        estimator = new SerializedSizeEstimator(serializer);
+    }
+
+    @Test
+    public void testSizeOf() throws Exception {
+        Data data = new ReadWriteData("id", new DateTime(), new DateTime());
+
+        assertEquals(serializer.serialize(data).length, estimator.sizeOf(data));
+        assertEquals(0, estimator.sizeOf(null));
+    }
+
+    @Test(expected=RuntimeException.class)
+    @SuppressWarnings("unchecked")
+    public void testSizeOf_failure() throws Exception {
+        DataSerializer<byte[]> failing = mock(DataSerializer.class);
+        Data data = new ReadWriteData("id", null, null);
+        when(failing.serialize(data)).thenThrow(new IllegalStateException("failed"));
+
+        new SerializedSizeEstimator(failing).sizeOf(data);
+    }
+}
@@ -0,0 +1,58 @@
+package org.memgraphd.memory;
+
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+import org.memgraphd.data.Data;
+import org.memgraphd.data.ReadWriteData;
+import org.memgraphd.data.ReadWriteExpiringData;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class TtlEvictionPolicyTest {
+
+    private MemoryBlock block;
+    private TtlEvictionPolicy policy;
+
+    @Before
+    public void setUp() {
+        block = new MemoryBlockImpl("block", MemoryReference.valueOf(0), MemoryReference.valueOf(3));
+        policy = new TtlEvictionPolicy(block);
+    }
+
+    @Test
+    public void testVictim_empty() {
+        assertNull(policy.victim(block));
+    }
+
+    @Test
+    public void testVictim_expired() {
+        write(0, new ReadWriteData("0", new DateTime(), new DateTime()));
+        write(1, new ReadWriteExpiringData("1", new DateTime(), new DateTime().plusHours(1)));
+        write(2, new ReadWriteExpiringData("2", new DateTime(), new DateTime().minusHours(1)));
+
+        assertEquals(2, policy.victim(block).id());
+    }
+
+    @Test
+    public void testVictim_soonestToExpire() {
+        write(0, new ReadWriteData("0", new DateTime(), new DateTime()));
+        write(1, new ReadWriteExpiringData("1", new DateTime(), new DateTime().plusHours(2)));
+        write(2, new ReadWriteExpiringData("2", new DateTime(), new DateTime().plusHours(1)));
+
+        assertEquals(2, policy.victim(block).id());
+    }
+
+    @Test
+    public void testVictim_neverExpiring() {
+        write(1, new ReadWriteData("1", new DateTime(), new DateTime()));
+        write(2, new ReadWriteData("2", new DateTime(), new DateTime()));
+
+        assertEquals(1, policy.victim(block).id());
+    }
+
+    private void write(int id, Data data) {
+        policy.onWrite(MemoryReference.valueOf(id), ClockEvictionPolicyTest.graphData(data));
+    }
+}
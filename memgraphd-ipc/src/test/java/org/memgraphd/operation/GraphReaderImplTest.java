@@ -86,6 +86,27 @@ public class GraphReaderImplTest {
         verify(memoryAccess).readGraph(ref);
     }
 
+    @Test
+    public void testReadSequenceNumber_NullReference() {
+        when(seeker.seekBySequence(1L)).thenReturn(null);
+        
+        assertNull(reader.read(1L));
+        
+        verify(seeker).seekBySequence(1L);
+    }
+    
+    @Test
+    public void testReadSequenceNumber() {
+        MemoryReference ref = MemoryReference.valueOf(1);
+        when(seeker.seekBySequence(1L)).thenReturn(ref);
+        when(memoryAccess.readGraph(ref)).thenReturn(gData);
+        
+        assertSame(gData, reader.read(1L));
+        
+        verify(seeker).seekBySequence(1L);
+        verify(memoryAccess).readGraph(ref);
+    }
+
     @Test
     public void testReadReference_nullRef() {
         when(memoryAccess.readGraph(null)).thenReturn(null);
@@ -103,4 +124,14 @@ public class GraphReaderImplTest {
         verify(memoryAccess).readGraph(ref);
     }
     
+    @Test
+    public void testReadReferenceId() {
+        MemoryReference ref = MemoryReference.valueOf(1);
+        when(memoryAccess.readGraph(ref)).thenReturn(gData);
+        
+        assertSame(gData, reader.read(1));
+        
+        verify(memoryAccess).readGraph(ref);
+    }
+    
 }
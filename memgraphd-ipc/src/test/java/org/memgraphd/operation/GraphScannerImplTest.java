@@ -0,0 +1,106 @@
+package org.memgraphd.operation;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.memgraphd.GraphMappings;
+import org.memgraphd.data.GraphData;
+import org.memgraphd.data.ReadWriteExpiringData;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class GraphScannerImplTest {
+
+    @Mock
+    private GraphMappings mappings;
+
+    @Mock
+    private GraphReader reader;
+
+    @Mock
+    private GraphData gData1;
+
+    @Mock
+    private GraphData gData2;
+
+    @Mock
+    private GraphData expired;
+
+    private GraphScannerImpl scanner;
+
+    @Before
+    public void setUp() {
+        scanner = new GraphScannerImpl(mappings, reader);
+        when(reader.read("s/1")).thenReturn(gData1);
+        when(reader.read("s/3")).thenReturn(gData2);
+        when(reader.read("s/4")).thenReturn(expired);
+        when(expired.getData()).thenReturn(new ReadWriteExpiringData("s/4", new DateTime(), new DateTime().minusMinutes(1)));
+    }
+
+    @Test
+    public void testScanByIdPrefix() {
+        // s/2 was deleted after the scan reached it
+        when(mappings.getIdsInOrder("s/", "s0")).thenReturn(Arrays.asList("s/1", "s/2", "s/3", "s/4").iterator());
+
+        Iterator<GraphData> scan = scanner.scanByIdPrefix("s/");
+
+        assertTrue(scan.hasNext());
+        assertSame(gData1, scan.next());
+        assertSame(gData2, scan.next());
+        assertFalse(scan.hasNext());
+    }
+
+    @Test
+    public void testScanByIdRange() {
+        when(mappings.getIdsInOrder("s/1", null)).thenReturn(Arrays.asList("s/1").iterator());
+
+        Iterator<GraphData> scan = scanner.scanByIdRange("s/1", null);
+
+        assertSame(gData1, scan.next());
+        assertFalse(scan.hasNext());
+        verify(mappings).getIdsInOrder("s/1", null);
+    }
+
+    @Test(expected=NoSuchElementException.class)
+    public void testNext_empty() {
+        when(mappings.getIdsInOrder(null, null)).thenReturn(Arrays.<String>asList().iterator());
+
+        scanner.scanByIdRange(null, null).next();
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testRemove() {
+        when(mappings.getIdsInOrder(null, null)).thenReturn(Arrays.asList("s/1").iterator());
+
+        Iterator<GraphData> scan = scanner.scanByIdRange(null, null);
+        scan.next();
+        scan.remove();
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testScanByIdPrefix_null() {
+        scanner.scanByIdPrefix(null);
+    }
+
+    @Test
+    public void testSuccessor() {
+        assertEquals("s0", GraphScannerImpl.successor("s/"));
+        assertEquals("b", GraphScannerImpl.successor("a" + Character.MAX_VALUE));
+        assertNull(GraphScannerImpl.successor(""));
+        assertNull(GraphScannerImpl.successor(String.valueOf(Character.MAX_VALUE)));
+    }
+}
@@ -60,6 +60,16 @@ public class GraphSeekerImplTest {
         
         verify(mappings).getBySequence(seq);
     }
+    
+    @Test
+    public void testSeekBySequenceNumber() {
+        MemoryReference ref = MemoryReference.valueOf(1);
+        when(mappings.getBySequence(1L)).thenReturn(ref);
+        
+        assertEquals(ref, seeker.seekBySequence(1L));
+        
+        verify(mappings).getBySequence(1L);
+    }
 
     @Test
     public void testSeekByIdStringArray_emptyList() {
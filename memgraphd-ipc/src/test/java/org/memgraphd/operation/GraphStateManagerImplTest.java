@@ -1,5 +1,7 @@
 package org.memgraphd.operation;
 
+import java.util.Arrays;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -11,20 +13,33 @@ import org.memgraphd.data.library.Librarian;
 import org.memgraphd.data.relationship.DataMatchmaker;
 import org.memgraphd.decision.Decision;
 import org.memgraphd.decision.Sequence;
+import org.memgraphd.exception.GraphBatchException;
 import org.memgraphd.exception.GraphException;
 import org.memgraphd.memory.MemoryReference;
 import org.memgraphd.memory.operation.MemoryOperations;
 import org.memgraphd.test.data.TvEpisode;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
 
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -98,6 +113,62 @@ public class GraphStateManagerImplTest {
         verify(matchMaker).match(episode);
     }
 
+    @Test
+    public void testCreateAll() throws GraphException {
+        MemoryReference ref1 = MemoryReference.valueOf(1);
+        MemoryReference ref2 = MemoryReference.valueOf(2);
+        TvEpisode episode = new TvEpisode("id-2", null, null, "id", null, "1", null);
+        Decision decision2 = mock(Decision.class);
+        when(decision.getData()).thenReturn(data);
+        when(decision.getSequence()).thenReturn(Sequence.valueOf(1));
+        when(data.getId()).thenReturn("id");
+        when(decision2.getData()).thenReturn(episode);
+        when(decision2.getSequence()).thenReturn(Sequence.valueOf(2));
+        when(memoryAccess.write(any(GraphData.class))).thenReturn(ref1, ref2);
+        
+        assertArrayEquals(new MemoryReference[] { ref1, ref2 }, 
+                stateManager.createAll(Arrays.asList(decision, decision2)));
+        
+        // relationships are matched only once all the data is in place
+        InOrder inOrder = inOrder(memoryAccess, mappings, matchMaker, eventManager);
+        inOrder.verify(memoryAccess).write(any(GraphData.class));
+        inOrder.verify(mappings).put("id", ref1);
+        inOrder.verify(memoryAccess).write(any(GraphData.class));
+        inOrder.verify(mappings).put("id-2", ref2);
+        inOrder.verify(matchMaker).bachelor(data);
+        inOrder.verify(matchMaker).match(episode);
+        inOrder.verify(eventManager, times(2)).onCreate(any(GraphData.class));
+        verify(mappings).put(Sequence.valueOf(1), ref1);
+        verify(mappings).put(Sequence.valueOf(2), ref2);
+        verify(librarian, times(2)).archive(any(GraphData.class));
+    }
+    
+    @Test
+    public void testCreateAll_someFail() throws GraphException {
+        MemoryReference ref2 = MemoryReference.valueOf(2);
+        Decision decision2 = mock(Decision.class);
+        Data data2 = mock(Data.class);
+        IllegalStateException full = new IllegalStateException("full");
+        when(decision.getData()).thenReturn(data);
+        when(decision.getDataId()).thenReturn("id");
+        when(decision2.getData()).thenReturn(data2);
+        when(data2.getId()).thenReturn("id-2");
+        when(memoryAccess.write(any(GraphData.class))).thenThrow(full).thenReturn(ref2);
+        
+        try {
+            stateManager.createAll(Arrays.asList(decision, decision2));
+            fail("Expected GraphBatchException");
+        } catch (GraphBatchException e) {
+            assertArrayEquals(new MemoryReference[] { null, ref2 }, e.getReferences());
+            assertSame(full, e.getErrors()[0].getCause());
+            assertNull(e.getErrors()[1]);
+        }
+        verify(mappings, never()).put(eq("id"), any(MemoryReference.class));
+        verify(mappings).put("id-2", ref2);
+        verify(matchMaker).bachelor(data2);
+        verify(eventManager).onCreate(any(GraphData.class));
+    }
+    
     @Test
     public void testUpdate_bachelor() throws GraphException {
         MemoryReference ref = MemoryReference.valueOf(1);
@@ -173,6 +244,24 @@ public class GraphStateManagerImplTest {
         verify(librarian).archive(any(GraphData.class));
     }
     
+    @Test
+    public void testUpdate_dropsSupersededSequence() throws GraphException {
+        MemoryReference ref = MemoryReference.valueOf(1);
+        Sequence seq = Sequence.valueOf(2L);
+        
+        when(gData1.getReference()).thenReturn(ref);
+        when(gData1.getSequence()).thenReturn(Sequence.valueOf(1L));
+        when(gData1.getData()).thenReturn(data);
+        when(decision.getData()).thenReturn(data);
+        when(decision.getSequence()).thenReturn(seq);
+        
+        assertEquals(ref, stateManager.update(decision, gData1));
+
+        InOrder inOrder = inOrder(mappings);
+        inOrder.verify(mappings).delete(Sequence.valueOf(1L));
+        inOrder.verify(mappings).put(seq, ref);
+    }
+    
     @Test
     public void testDelete_single() throws GraphException {
         MemoryReference ref = MemoryReference.valueOf(1);
@@ -212,4 +301,86 @@ public class GraphStateManagerImplTest {
         verify(eventManager).onDelete(gData1);
     }
 
+    @Test
+    public void testUpdate_relocated() throws GraphException {
+        MemoryReference ref = MemoryReference.valueOf(1);
+        MemoryReference relocated = MemoryReference.valueOf(2);
+        Sequence seq = Sequence.valueOf(1L);
+        GraphData gData2 = mock(GraphData.class);
+        
+        when(gData1.getReference()).thenReturn(ref);
+        when(gData2.getReference()).thenReturn(relocated);
+        when(gData2.getData()).thenReturn(data);
+        when(decision.getDataId()).thenReturn("id");
+        when(decision.getData()).thenReturn(data);
+        when(decision.getSequence()).thenReturn(seq);
+        when(mappings.getById("id")).thenReturn(relocated);
+        when(memoryAccess.read(relocated)).thenReturn(gData2);
+        
+        assertEquals(relocated, stateManager.update(decision, gData1));
+
+        verify(memoryAccess).update(eq(relocated), any(GraphData.class));
+        verify(mappings).put(seq, relocated);
+    }
+    
+    @Test
+    public void testRelocate() {
+        MemoryReference from = MemoryReference.valueOf(5);
+        MemoryReference to = MemoryReference.valueOf(1);
+        Sequence seq = Sequence.valueOf(1L);
+        
+        when(memoryAccess.relocate(from, to)).thenReturn(gData1);
+        when(gData1.getData()).thenReturn(data);
+        when(gData1.getSequence()).thenReturn(seq);
+        when(data.getId()).thenReturn("id");
+        
+        assertTrue(stateManager.relocate(from, to));
+        
+        InOrder inOrder = inOrder(memoryAccess, mappings, matchMaker);
+        inOrder.verify(memoryAccess).relocate(from, to);
+        inOrder.verify(mappings).put("id", to);
+        inOrder.verify(mappings).put(seq, to);
+        inOrder.verify(matchMaker).relocate(from, to);
+        inOrder.verify(memoryAccess).free(from);
+    }
+    
+    @Test
+    public void testRelocate_noData() {
+        MemoryReference from = MemoryReference.valueOf(5);
+        MemoryReference to = MemoryReference.valueOf(1);
+        
+        assertFalse(stateManager.relocate(from, to));
+        
+        verify(memoryAccess, never()).free(from);
+        verifyZeroInteractions(mappings, matchMaker);
+    }
+    
+    @Test
+    public void testRestore() {
+        MemoryReference ref = MemoryReference.valueOf(3);
+        Sequence seq = Sequence.valueOf(7L);
+        
+        when(memoryAccess.restore(ref)).thenReturn(gData1);
+        when(gData1.getData()).thenReturn(data);
+        when(gData1.getSequence()).thenReturn(seq);
+        when(data.getId()).thenReturn("id");
+        
+        assertSame(gData1, stateManager.restore(ref));
+        
+        verify(mappings).put("id", ref);
+        verify(mappings).put(seq, ref);
+        verify(matchMaker).bachelor(data);
+        verify(librarian).archive(gData1);
+        verify(eventManager).onCreate(gData1);
+        verify(memoryAccess, never()).write(any(GraphData.class));
+    }
+    
+    @Test
+    public void testRestore_noData() {
+        MemoryReference ref = MemoryReference.valueOf(3);
+        
+        assertNull(stateManager.restore(ref));
+        
+        verifyZeroInteractions(mappings, matchMaker, librarian, eventManager);
+    }
 }
@@ -0,0 +1,171 @@
+package org.memgraphd.operation;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.memgraphd.data.Data;
+import org.memgraphd.data.GraphData;
+import org.memgraphd.data.ReadWriteData;
+import org.memgraphd.data.ReadWriteExpiringData;
+import org.memgraphd.memory.MemoryReference;
+import org.memgraphd.memory.operation.MemoryOperations;
+import org.memgraphd.test.data.TvEpisode;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class GraphTraverserImplTest {
+    
+    private GraphTraverserImpl traverser;
+    
+    @Mock
+    private MemoryOperations memoryAccess;
+    
+    @Mock
+    private GraphSeeker seeker;
+    
+    private GraphData[] nodes;
+    
+    @Before
+    public void setUp() throws Exception {
+        traverser = new GraphTraverserImpl(memoryAccess, seeker);
+        
+        // 1 -> 2, 1 -> 3, 2 -> 4, 3 -> 4, 4 -> 1, 5 -> 1
+        nodes = new GraphData[6];
+        for(int id = 1; id <= 5; id++) {
+            Data data = id == 3 ? mock(TvEpisode.class) : new ReadWriteData("id-" + id, new DateTime(), new DateTime());
+            nodes[id] = node(id, data);
+        }
+        when(seeker.seekById("id-1")).thenReturn(MemoryReference.valueOf(1));
+        relate(1, new int[] { 2, 3 }, new int[] { 4, 5 });
+        relate(2, new int[] { 4 }, new int[] { 1 });
+        relate(3, new int[] { 4 }, new int[] { 1 });
+        relate(4, new int[] { 1 }, new int[] { 2, 3 });
+        relate(5, new int[] { 1 }, new int[0]);
+    }
+
+    @Test
+    public void testGraphTraverserImpl() {
+        assertNotNull(traverser);
+    }
+    
+    @Test
+    public void testTraverse_links() {
+        assertEquals(list(2, 3, 4), collect(traverser.traverse("id-1", 3, TraversalDirection.LINKS, null)));
+    }
+    
+    @Test
+    public void testTraverse_depth() {
+        assertEquals(list(2, 3), collect(traverser.traverse("id-1", 1, TraversalDirection.LINKS, null)));
+        assertEquals(list(), collect(traverser.traverse("id-1", 0, TraversalDirection.LINKS, null)));
+        
+        // nodes at the last level are never expanded
+        collect(traverser.traverse("id-1", 1, TraversalDirection.LINKS, null));
+        verify(memoryAccess, never()).linksOf(MemoryReference.valueOf(2));
+    }
+    
+    @Test
+    public void testTraverse_references() {
+        assertEquals(list(4, 5, 2, 3), collect(traverser.traverse("id-1", 2, TraversalDirection.REFERENCES, null)));
+    }
+    
+    @Test
+    public void testTraverse_both() {
+        assertEquals(list(2, 3, 4, 5), collect(traverser.traverse("id-1", 1, TraversalDirection.BOTH, null)));
+    }
+    
+    @Test
+    public void testTraverse_filter() {
+        assertEquals(list(3), collect(traverser.traverse("id-1", 3, TraversalDirection.LINKS, TvEpisode.class)));
+    }
+    
+    @Test
+    public void testTraverse_skipsExpired() {
+        nodes[2] = node(2, new ReadWriteExpiringData("id-2", new DateTime(), new DateTime().minusDays(1)));
+        relate(2, new int[] { 4 }, new int[] { 1 });
+        
+        assertEquals(list(3, 4), collect(traverser.traverse("id-1", 3, TraversalDirection.LINKS, null)));
+    }
+    
+    @Test
+    public void testTraverse_unknownId() {
+        assertFalse(traverser.traverse("id-99", 3, TraversalDirection.BOTH, null).hasNext());
+        assertFalse(traverser.traverse(null, 3, TraversalDirection.BOTH, null).hasNext());
+    }
+    
+    @Test
+    public void testTraverse_nested() {
+        Iterator<GraphData> outer = traverser.traverse("id-1", 3, TraversalDirection.LINKS, null);
+        assertSame(nodes[2], outer.next());
+        // a traversal in the middle of another one must not share what it visited
+        assertEquals(list(2, 3, 4), collect(traverser.traverse("id-1", 3, TraversalDirection.LINKS, null)));
+        assertEquals(list(3, 4), collect(outer));
+        // and visited sets are reused once traversals are done
+        assertEquals(list(2, 3, 4), collect(traverser.traverse("id-1", 3, TraversalDirection.LINKS, null)));
+    }
+    
+    @Test(expected=NoSuchElementException.class)
+    public void testTraverse_exhausted() {
+        Iterator<GraphData> iterator = traverser.traverse("id-1", 0, TraversalDirection.LINKS, null);
+        iterator.next();
+    }
+    
+    @Test(expected=UnsupportedOperationException.class)
+    public void testTraverse_remove() {
+        traverser.traverse("id-1", 1, TraversalDirection.LINKS, null).remove();
+    }
+    
+    @Test(expected=IllegalArgumentException.class)
+    public void testTraverse_invalidDepth() {
+        traverser.traverse("id-1", -1, TraversalDirection.LINKS, null);
+    }
+    
+    @Test(expected=IllegalArgumentException.class)
+    public void testTraverse_noDirection() {
+        traverser.traverse("id-1", 1, null, null);
+    }
+    
+    private GraphData node(int id, Data data) {
+        GraphData gData = mock(GraphData.class);
+        when(gData.getData()).thenReturn(data);
+        when(memoryAccess.readGraph(MemoryReference.valueOf(id))).thenReturn(gData);
+        return gData;
+    }
+    
+    private void relate(int id, int[] links, int[] references) {
+        when(memoryAccess.linksOf(MemoryReference.valueOf(id))).thenReturn(links);
+        when(memoryAccess.referencesOf(MemoryReference.valueOf(id))).thenReturn(references);
+    }
+    
+    private List<GraphData> list(int... ids) {
+        List<GraphData> list = new ArrayList<GraphData>();
+        for(int id : ids) {
+            list.add(nodes[id]);
+        }
+        return list;
+    }
+    
+    private List<GraphData> collect(Iterator<GraphData> iterator) {
+        List<GraphData> list = new ArrayList<GraphData>();
+        while(iterator.hasNext()) {
+            list.add(iterator.next());
+        }
+        return list;
+    }
+}
@@ -1,5 +1,9 @@
 package org.memgraphd.operation;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -8,23 +12,39 @@ import org.junit.runner.RunWith;
 import org.memgraphd.GraphRequestType;
 import org.memgraphd.data.Data;
 import org.memgraphd.data.GraphData;
+import org.memgraphd.data.ReadWriteData;
 import org.memgraphd.decision.Decision;
 import org.memgraphd.decision.DecisionMaker;
+import org.memgraphd.exception.GraphBatchException;
 import org.memgraphd.exception.GraphException;
+import org.memgraphd.memory.MemoryBlock;
 import org.memgraphd.memory.MemoryReference;
 import org.memgraphd.memory.operation.MemoryOperations;
 import org.memgraphd.security.GraphAuthority;
 import org.memgraphd.security.GraphRequestContext;
 import org.memgraphd.security.GraphRequestResolver;
 import org.memgraphd.security.GraphValidator;
+import org.mockito.InOrder;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
 
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -66,10 +86,14 @@ public class GraphWriterImplTest {
     @Mock
     private GraphRequestContext context;
     
+    @Mock
+    private MemoryBlock block;
+    
     @Before
     public void setUp() throws Exception {
         writer = new GraphWriterImpl(memoryAccess, authority, validator, resolver, decisionMaker, stateManager);
         ReflectionTestUtils.setField(writer, "authority", authority);
+        when(memoryAccess.blockOf(any(Data.class))).thenReturn(block);
     }
 
     @Test
@@ -105,6 +129,81 @@ public class GraphWriterImplTest {
         verify(stateManager).create(decision);
     }
     
+    @Test
+    public void testCreateData_evicts() throws GraphException {
+        MemoryReference ref1 = MemoryReference.valueOf(1);
+        MemoryReference victim = MemoryReference.valueOf(2);
+        GraphRequestContext deleteContext = mock(GraphRequestContext.class);
+        Decision deleteDecision = mock(Decision.class);
+        Data victimData = mock(Data.class);
+        
+        when(resolver.resolve(GraphRequestType.CREATE, data)).thenReturn(context);
+        when(memoryAccess.evictionCandidate(data)).thenReturn(victim);
+        when(memoryAccess.read(victim)).thenReturn(graphData);
+        when(graphData.getData()).thenReturn(victimData);
+        when(victimData.getId()).thenReturn("victim");
+        when(resolver.resolve(GraphRequestType.DELETE, "victim")).thenReturn(deleteContext);
+        when(deleteContext.getGraphData()).thenReturn(graphData);
+        when(decisionMaker.decide(deleteContext)).thenReturn(deleteDecision);
+        when(decisionMaker.decide(context)).thenReturn(decision);
+        when(stateManager.create(decision)).thenReturn(ref1);
+        
+        assertEquals(ref1, writer.create(data));
+        
+        verify(stateManager).delete(deleteDecision, graphData);
+        verify(stateManager).create(decision);
+    }
+    
+    @Test
+    public void testCreateData_overBudget() throws GraphException {
+        when(resolver.resolve(GraphRequestType.CREATE, data)).thenReturn(context);
+        when(memoryAccess.overBudget(data, null)).thenReturn(true);
+        when(data.getId()).thenReturn("id");
+        
+        exception.expect(GraphException.class);
+        exception.expectMessage("Not enough memory left in the budget to store data id=id");
+        
+        try {
+            writer.create(data);
+        } finally {
+            verify(decisionMaker, never()).decide(context);
+        }
+    }
+    
+    @Test
+    public void testCreateData_evictsUntilWithinBudget() throws GraphException {
+        MemoryReference ref1 = MemoryReference.valueOf(1);
+        MemoryReference victim = MemoryReference.valueOf(2);
+        GraphRequestContext deleteContext = mock(GraphRequestContext.class);
+        Data victimData = mock(Data.class);
+        
+        when(resolver.resolve(GraphRequestType.CREATE, data)).thenReturn(context);
+        when(memoryAccess.evictionCandidate(data)).thenReturn(victim);
+        when(memoryAccess.overBudget(data, null)).thenReturn(true, true, false);
+        when(memoryAccess.read(victim)).thenReturn(graphData);
+        when(graphData.getData()).thenReturn(victimData);
+        when(victimData.getId()).thenReturn("victim");
+        when(resolver.resolve(GraphRequestType.DELETE, "victim")).thenReturn(deleteContext);
+        when(deleteContext.getGraphData()).thenReturn(graphData);
+        when(decisionMaker.decide(context)).thenReturn(decision);
+        when(stateManager.create(decision)).thenReturn(ref1);
+        
+        assertEquals(ref1, writer.create(data));
+        
+        verify(decisionMaker, times(3)).decide(deleteContext);
+        verify(stateManager).create(decision);
+    }
+    
+    @Test
+    public void testCheckpoint() throws Exception {
+        assertEquals("done", writer.checkpoint(new Callable<String>() {
+            @Override
+            public String call() {
+                return "done";
+            }
+        }));
+    }
+    
     @Test
     public void testUpdateData_validationFailed() throws GraphException {
         when(resolver.resolve(GraphRequestType.UPDATE, (Data)null)).thenReturn(context);
@@ -134,6 +233,22 @@ public class GraphWriterImplTest {
         verify(stateManager).update(decision, graphData);
     }
     
+    @Test
+    public void testUpdateData_overBudget() throws GraphException {
+        MemoryReference ref1 = MemoryReference.valueOf(1);
+        
+        when(resolver.resolve(GraphRequestType.UPDATE, data)).thenReturn(context);
+        when(context.getGraphData()).thenReturn(graphData);
+        when(graphData.getReference()).thenReturn(ref1);
+        when(memoryAccess.overBudget(data, ref1)).thenReturn(true);
+        when(data.getId()).thenReturn("id");
+        
+        exception.expect(GraphException.class);
+        exception.expectMessage("Not enough memory left in the budget to store data id=id");
+        
+        writer.update(data);
+    }
+    
     @Test
     public void testDeleteDataId_validationFailed() throws GraphException {
         when(resolver.resolve(GraphRequestType.DELETE, (String)null)).thenReturn(context);
@@ -188,4 +303,248 @@ public class GraphWriterImplTest {
         verify(decisionMaker).decide(context);
         verify(stateManager).delete(decision, graphData);
     }
+    
+    @Test
+    public void testCreateAll_Success() throws GraphException {
+        Data data2 = data("id-2");
+        GraphRequestContext context2 = mock(GraphRequestContext.class);
+        Decision decision2 = mock(Decision.class);
+        MemoryReference[] refs = new MemoryReference[] { MemoryReference.valueOf(1), MemoryReference.valueOf(2) };
+        when(data.getId()).thenReturn("id-1");
+        when(context.getData()).thenReturn(data);
+        when(context2.getData()).thenReturn(data2);
+        when(resolver.resolve(GraphRequestType.CREATE, data)).thenReturn(context);
+        when(resolver.resolve(GraphRequestType.CREATE, data2)).thenReturn(context2);
+        List<GraphRequestContext> contexts = Arrays.asList(context, context2);
+        List<Decision> decisions = Arrays.asList(decision, decision2);
+        when(decisionMaker.decideAll(contexts)).thenReturn(decisions);
+        when(stateManager.createAll(decisions)).thenReturn(refs);
+        
+        assertArrayEquals(refs, writer.createAll(new Data[] { data, data2 }));
+        
+        verify(validator).validate(context);
+        verify(validator).validate(context2);
+        verify(authority).authorize(context);
+        verify(authority).authorize(context2);
+        verify(decisionMaker).decideAll(contexts);
+        verify(decisionMaker, never()).decide(context);
+        verify(stateManager).createAll(decisions);
+    }
+    
+    @Test
+    public void testCreateAll_evictsForTheWholeBatch() throws GraphException {
+        Data data2 = data("id-2");
+        GraphRequestContext context2 = mock(GraphRequestContext.class);
+        GraphRequestContext deleteContext = mock(GraphRequestContext.class);
+        Decision decision2 = mock(Decision.class);
+        Decision deleteDecision = mock(Decision.class);
+        MemoryReference victim = MemoryReference.valueOf(3);
+        Data victimData = mock(Data.class);
+        MemoryReference[] refs = new MemoryReference[] { MemoryReference.valueOf(1), MemoryReference.valueOf(2) };
+        when(data.getId()).thenReturn("id-1");
+        when(context.getData()).thenReturn(data);
+        when(context2.getData()).thenReturn(data2);
+        when(resolver.resolve(GraphRequestType.CREATE, data)).thenReturn(context);
+        when(resolver.resolve(GraphRequestType.CREATE, data2)).thenReturn(context2);
+        // the block has room for one of them, but not for both
+        when(memoryAccess.evictionCandidate(block, 2, 0L)).thenReturn(victim, (MemoryReference) null);
+        when(memoryAccess.read(victim)).thenReturn(graphData);
+        when(graphData.getData()).thenReturn(victimData);
+        when(victimData.getId()).thenReturn("victim");
+        when(resolver.resolve(GraphRequestType.DELETE, "victim")).thenReturn(deleteContext);
+        when(deleteContext.getGraphData()).thenReturn(graphData);
+        when(decisionMaker.decide(deleteContext)).thenReturn(deleteDecision);
+        List<GraphRequestContext> contexts = Arrays.asList(context, context2);
+        List<Decision> decisions = Arrays.asList(decision, decision2);
+        when(decisionMaker.decideAll(contexts)).thenReturn(decisions);
+        when(stateManager.createAll(decisions)).thenReturn(refs);
+        
+        assertArrayEquals(refs, writer.createAll(new Data[] { data, data2 }));
+        
+        verify(memoryAccess, times(2)).evictionCandidate(block, 2, 0L);
+        verify(memoryAccess, never()).footprintOf(any(Data.class));
+        InOrder inOrder = inOrder(stateManager, decisionMaker);
+        inOrder.verify(stateManager).delete(deleteDecision, graphData);
+        inOrder.verify(decisionMaker).decideAll(contexts);
+    }
+    
+    @Test
+    public void testCreateAll_overBudget() throws GraphException {
+        Data data2 = data("id-2");
+        GraphRequestContext context2 = mock(GraphRequestContext.class);
+        Decision decision2 = mock(Decision.class);
+        when(data.getId()).thenReturn("id-1");
+        when(context.getData()).thenReturn(data);
+        when(context2.getData()).thenReturn(data2);
+        when(resolver.resolve(GraphRequestType.CREATE, data)).thenReturn(context);
+        when(resolver.resolve(GraphRequestType.CREATE, data2)).thenReturn(context2);
+        when(block.budget()).thenReturn(100L);
+        when(memoryAccess.footprintOf(data)).thenReturn(30L);
+        when(memoryAccess.footprintOf(data2)).thenReturn(40L);
+        // nothing left to evict, only the first one fits
+        when(memoryAccess.overBudget(block, 70L)).thenReturn(true);
+        List<GraphRequestContext> contexts = Arrays.asList(context);
+        when(decisionMaker.decideAll(contexts)).thenReturn(Arrays.asList(decision));
+        when(stateManager.createAll(Arrays.asList(decision))).thenReturn(new MemoryReference[] { MemoryReference.valueOf(1) });
+        
+        try {
+            writer.createAll(new Data[] { data, data2 });
+            fail("Expected GraphBatchException");
+        } catch (GraphBatchException e) {
+            assertEquals(MemoryReference.valueOf(1), e.getReferences()[0]);
+            assertNull(e.getErrors()[0]);
+            assertEquals("Not enough memory left in the budget to store data id=id-2", e.getErrors()[1].getMessage());
+        }
+        verify(memoryAccess).evictionCandidate(block, 2, 70L);
+        verify(decisionMaker, never()).decideAll(Arrays.asList(context, context2));
+    }
+    
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testCreateAll_largeBatch() throws GraphException {
+        int size = 20000;
+        Data[] batch = new Data[size];
+        for(int i = 0; i < size; i++) {
+            batch[i] = new ReadWriteData("id-" + i, null, null);
+        }
+        when(resolver.resolve(eq(GraphRequestType.CREATE), any(Data.class))).thenAnswer(new Answer<GraphRequestContext>() {
+            @Override
+            public GraphRequestContext answer(InvocationOnMock invocation) throws Throwable {
+                return new GraphRequestContext(GraphRequestType.CREATE, (Data) invocation.getArguments()[1], null);
+            }
+        });
+        when(stateManager.createAll(any(List.class))).thenReturn(new MemoryReference[size]);
+        
+        writer.createAll(batch);
+        
+        // every data is looked at once, and room is made once for all of them
+        verify(memoryAccess, times(size)).blockOf(any(Data.class));
+        verify(memoryAccess, never()).footprintOf(any(Data.class));
+        verify(memoryAccess).evictionCandidate(block, size, 0L);
+        verify(decisionMaker).decideAll(any(List.class));
+    }
+    
+    @Test
+    public void testCreateAll_someFail() throws GraphException {
+        Data data2 = data("id-2");
+        Data duplicate = data("id-2");
+        GraphRequestContext context2 = mock(GraphRequestContext.class);
+        GraphRequestContext context3 = mock(GraphRequestContext.class);
+        GraphRequestContext context4 = mock(GraphRequestContext.class);
+        Decision decision2 = mock(Decision.class);
+        GraphException invalid = new GraphException("Data validation failed.");
+        GraphException writeFailed = new GraphException("Failed to write data id=id-2");
+        when(data.getId()).thenReturn("id-1");
+        when(context.getData()).thenReturn(data);
+        when(context3.getData()).thenReturn(data2);
+        when(context4.getData()).thenReturn(duplicate);
+        when(resolver.resolve(GraphRequestType.CREATE, data)).thenReturn(context);
+        when(resolver.resolve(GraphRequestType.CREATE, (Data) null)).thenReturn(context2);
+        when(resolver.resolve(GraphRequestType.CREATE, data2)).thenReturn(context3);
+        when(resolver.resolve(GraphRequestType.CREATE, duplicate)).thenReturn(context4);
+        doThrow(invalid).when(validator).validate(context2);
+        List<GraphRequestContext> contexts = Arrays.asList(context, context3);
+        List<Decision> decisions = Arrays.asList(decision, decision2);
+        when(decisionMaker.decideAll(contexts)).thenReturn(decisions);
+        when(stateManager.createAll(decisions)).thenThrow(new GraphBatchException("Failed", 
+                new MemoryReference[] { MemoryReference.valueOf(1), null }, new GraphException[] { null, writeFailed }));
+        
+        try {
+            writer.createAll(new Data[] { data, null, data2, duplicate });
+            fail("Expected GraphBatchException");
+        } catch (GraphBatchException e) {
+            assertEquals("Failed to create 3 of 4 data", e.getMessage());
+            assertArrayEquals(new MemoryReference[] { MemoryReference.valueOf(1), null, null, null }, 
+                    e.getReferences());
+            assertNull(e.getErrors()[0]);
+            assertSame(invalid, e.getErrors()[1]);
+            assertSame(writeFailed, e.getErrors()[2]);
+            assertEquals("Data id=id-2 is more than once in the batch.", e.getErrors()[3].getMessage());
+        }
+        verify(authority, never()).authorize(context2);
+        verify(authority, never()).authorize(context4);
+    }
+    
+    @Test
+    public void testCreateAll_noneAccepted() throws GraphException {
+        when(resolver.resolve(GraphRequestType.CREATE, (Data) null)).thenReturn(context);
+        doThrow(new GraphException("Data is null")).when(validator).validate(context);
+        
+        exception.expect(GraphBatchException.class);
+        exception.expectMessage("Failed to create 1 of 1 data");
+        
+        try {
+            writer.createAll(new Data[] { null });
+        }
+        finally {
+            verify(decisionMaker, never()).decideAll(org.mockito.Matchers.<List<GraphRequestContext>>any());
+        }
+    }
+    
+    @Test
+    public void testUpdateAll_Success() throws GraphException {
+        MemoryReference ref1 = MemoryReference.valueOf(1);
+        when(data.getId()).thenReturn("id-1");
+        when(context.getData()).thenReturn(data);
+        when(context.getGraphData()).thenReturn(graphData);
+        when(graphData.getReference()).thenReturn(ref1);
+        when(resolver.resolve(GraphRequestType.UPDATE, data)).thenReturn(context);
+        when(decisionMaker.decideAll(Arrays.asList(context))).thenReturn(Arrays.asList(decision));
+        when(stateManager.update(decision, graphData)).thenReturn(ref1);
+        
+        assertArrayEquals(new MemoryReference[] { ref1 }, writer.updateAll(new Data[] { data }));
+        
+        verify(validator).validate(context);
+        verify(authority).authorize(context);
+        verify(stateManager).update(decision, graphData);
+    }
+    
+    @Test
+    public void testDeleteAll_Success() throws GraphException {
+        GraphRequestContext context2 = mock(GraphRequestContext.class);
+        GraphData graphData2 = mock(GraphData.class);
+        Decision decision2 = mock(Decision.class);
+        Data data2 = data("id-2");
+        when(data.getId()).thenReturn("id-1");
+        when(context.getData()).thenReturn(data);
+        when(context.getGraphData()).thenReturn(graphData);
+        when(context2.getData()).thenReturn(data2);
+        when(context2.getGraphData()).thenReturn(graphData2);
+        when(resolver.resolve(GraphRequestType.DELETE, "id-1")).thenReturn(context);
+        when(resolver.resolve(GraphRequestType.DELETE, "id-2")).thenReturn(context2);
+        when(decisionMaker.decideAll(Arrays.asList(context, context2))).thenReturn(Arrays.asList(decision, decision2));
+        
+        writer.deleteAll(new String[] { "id-1", "id-2" });
+        
+        verify(stateManager).delete(decision, graphData);
+        verify(stateManager).delete(decision2, graphData2);
+    }
+    
+    @Test
+    public void testDeleteAll_someFail() throws GraphException {
+        GraphRequestContext context2 = mock(GraphRequestContext.class);
+        GraphException missing = new GraphException("Data does not exist in the graph.");
+        when(data.getId()).thenReturn("id-1");
+        when(context.getData()).thenReturn(data);
+        when(context.getGraphData()).thenReturn(graphData);
+        when(resolver.resolve(GraphRequestType.DELETE, "id-1")).thenReturn(context);
+        when(resolver.resolve(GraphRequestType.DELETE, "id-2")).thenReturn(context2);
+        doThrow(missing).when(validator).validate(context2);
+        when(decisionMaker.decideAll(Arrays.asList(context))).thenReturn(Arrays.asList(decision));
+        
+        try {
+            writer.deleteAll(new String[] { "id-1", "id-2" });
+            fail("Expected GraphBatchException");
+        } catch (GraphBatchException e) {
+            assertNull(e.getErrors()[0]);
+            assertSame(missing, e.getErrors()[1]);
+        }
+        verify(stateManager).delete(decision, graphData);
+    }
+    
+    private static Data data(String id) {
+        Data data = mock(Data.class);
+        when(data.getId()).thenReturn(id);
+        return data;
+    }
 }
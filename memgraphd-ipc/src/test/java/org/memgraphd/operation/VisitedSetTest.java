@@ -0,0 +1,52 @@
+package org.memgraphd.operation;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class VisitedSetTest {
+    
+    private VisitedSet visited;
+    
+    @Before
+    public void setUp() {
+        visited = new VisitedSet();
+    }
+
+    @Test
+    public void testVisit() {
+        assertTrue(visited.visit(0));
+        assertTrue(visited.visit(63));
+        assertTrue(visited.visit(64));
+        assertFalse(visited.visit(0));
+        assertFalse(visited.visit(63));
+        assertFalse(visited.visit(64));
+    }
+    
+    @Test
+    public void testVisit_grows() {
+        assertTrue(visited.visit(1000000));
+        assertFalse(visited.visit(1000000));
+        assertTrue(visited.visit(999999));
+    }
+    
+    @Test
+    public void testClear() {
+        for(int id = 0; id < 10000; id += 7) {
+            visited.visit(id);
+        }
+        visited.clear();
+        for(int id = 0; id < 10000; id += 7) {
+            assertTrue(visited.visit(id));
+        }
+    }
+    
+    @Test
+    public void testInUse() {
+        assertFalse(visited.isInUse());
+        visited.setInUse(true);
+        assertTrue(visited.isInUse());
+    }
+}